@@ -0,0 +1,133 @@
+package com.piotrwalkusz.taskmanager.benchmark;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import com.piotrwalkusz.taskmanager.repository.file.AppendOnlyFileStorage;
+import com.piotrwalkusz.taskmanager.repository.log.SessionLogStorage;
+import com.piotrwalkusz.taskmanager.repository.log.WorkSessionLog;
+import com.piotrwalkusz.taskmanager.repository.memory.InMemoryStorage;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the storage backends on the operations of a typical work cycle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final int QUEUE_SIZE = 1000;
+    private static final int SESSIONS_PER_TASK = 20;
+
+    /**
+     * "sqlite-memory" is SQLite on an in-memory database, "log" keeps tasks in SQLite and work sessions
+     * in the memory-mapped session log
+     */
+    @Param({"sqlite", "sqlite-memory", "memory", "file", "log"})
+    public String backend;
+
+    private Path dataDir;
+    private Storage storage;
+    private TaskService taskService;
+    private WorkSessionService workSessionService;
+    private Long currentTaskId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataDir = Files.createTempDirectory("storage-benchmark");
+        storage = switch (backend) {
+            case "sqlite" -> new MyBatisStorage(new DatabaseConfig("jdbc:sqlite:" + dataDir.resolve("benchmark.db")));
+            case "sqlite-memory" -> new MyBatisStorage(DatabaseConfig.inMemory());
+            case "memory" -> new InMemoryStorage();
+            case "file" -> new AppendOnlyFileStorage(dataDir.resolve("benchmark.log"));
+            case "log" -> new SessionLogStorage(
+                    new MyBatisStorage(new DatabaseConfig("jdbc:sqlite:" + dataDir.resolve("benchmark.db"))),
+                    new WorkSessionLog(dataDir.resolve("sessions")));
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+        taskService = new TaskService(storage);
+        workSessionService = new WorkSessionService(storage);
+        for (int i = 0; i < QUEUE_SIZE; i++) {
+            taskService.addTask("Task " + i);
+        }
+        currentTaskId = taskService.getCurrentTask().getId();
+
+        // Session history interleaved across tasks, like days of rotating through the queue
+        Instant start = Instant.now().minus(Duration.ofDays(30));
+        storage.runWrite(repositories -> {
+            List<Long> taskIds = repositories.tasks().getQueueTaskIds();
+            for (int round = 0; round < SESSIONS_PER_TASK; round++) {
+                for (int i = 0; i < taskIds.size(); i++) {
+                    Instant sessionStart = start.plus(Duration.ofMinutes((long) round * taskIds.size() + i));
+                    repositories.workSessions().insertWorkSession(WorkSession.builder()
+                            .taskId(taskIds.get(i))
+                            .startTime(sessionStart)
+                            .endTime(sessionStart.plusSeconds(50))
+                            .build());
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (storage instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IOException("Failed to close storage", e);
+            }
+        }
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Task getCurrentTask() {
+        return taskService.getCurrentTask();
+    }
+
+    @Benchmark
+    public Task addAndRotate() {
+        Task task = taskService.addTask("Benchmark task");
+        taskService.rotateTask(currentTaskId);
+        currentTaskId = taskService.getCurrentTask().getId();
+        return task;
+    }
+
+    @Benchmark
+    public WorkSession saveWorkSession() {
+        Instant now = Instant.now();
+        WorkSession workSession = WorkSession.builder()
+                .taskId(currentTaskId)
+                .startTime(now.minusSeconds(60))
+                .endTime(now)
+                .build();
+        workSessionService.saveWorkSession(workSession);
+        return workSession;
+    }
+
+    @Benchmark
+    public long getTotalTimeSeconds() {
+        return workSessionService.getTotalTimeSeconds(currentTaskId);
+    }
+}
@@ -0,0 +1,180 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Journal of the active work session in a small preallocated memory-mapped file, so a crash loses
+ * at most the time since the last heartbeat instead of the whole session.
+ * <p>
+ * Each write goes to the older of two checksummed slots, so a torn write leaves the previous state
+ * readable. A heartbeat only stores into mapped memory (which survives the process being killed)
+ * and forces it to disk at most once per sync interval; start and clear are forced immediately.
+ */
+public class ActiveSessionJournal implements AutoCloseable {
+
+    private static final int FILE_SIZE = 4096;
+    private static final int SLOT_SIZE = 64;
+
+    // Slot layout
+    private static final int SEQUENCE = 0;
+    private static final int STATE = 8;
+    private static final int START_NANOS = 12;
+    private static final int TASK_ID = 16;
+    private static final int START_SECONDS = 24;
+    private static final int HEARTBEAT_SECONDS = 32;
+    private static final int HEARTBEAT_NANOS = 40;
+    private static final int CHECKSUM = 44;
+
+    private static final int STATE_ACTIVE = 1;
+    private static final int STATE_IDLE = 2;
+
+    private final Path journalFile;
+    private final long syncIntervalNanos;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private long sequence;
+    private int state;
+    private long taskId;
+    private Instant startTime;
+    private Instant heartbeat;
+    private long lastSyncNanos;
+
+    /**
+     * @param syncInterval how often heartbeats are forced to disk at most
+     */
+    public ActiveSessionJournal(Path journalFile, Duration syncInterval) {
+        this.journalFile = journalFile;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        try {
+            this.channel = FileChannel.open(journalFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open active session journal: " + journalFile, e);
+        }
+        readLatestSlot();
+    }
+
+    /**
+     * Record start of active session (caller must hold the active session lock)
+     */
+    public synchronized void start(Long taskId, Instant startTime) {
+        // Another instance may have used the journal since it was read
+        readLatestSlot();
+        this.state = STATE_ACTIVE;
+        this.taskId = taskId;
+        this.startTime = startTime;
+        this.heartbeat = startTime;
+        writeSlot();
+        sync();
+    }
+
+    /**
+     * Record that the active session is still running at given time
+     */
+    public synchronized void heartbeat(Instant now) {
+        if (state != STATE_ACTIVE) {
+            return;
+        }
+        heartbeat = now;
+        writeSlot();
+        if (System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    /**
+     * Record that there is no active session (it was saved to the database)
+     */
+    public synchronized void clear() {
+        if (state == STATE_IDLE) {
+            return;
+        }
+        state = STATE_IDLE;
+        writeSlot();
+        sync();
+    }
+
+    /**
+     * Get session left active by a previous run, ending at its last heartbeat
+     *
+     * @return session or null if the journal holds no active session
+     */
+    public synchronized WorkSession getOrphanedSession() {
+        readLatestSlot();
+        if (state != STATE_ACTIVE) {
+            return null;
+        }
+        return WorkSession.builder()
+                .taskId(taskId)
+                .startTime(startTime)
+                .endTime(heartbeat)
+                .build();
+    }
+
+    private void writeSlot() {
+        sequence++;
+        int offset = slotOffset(sequence);
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putInt(offset + STATE, state);
+        buffer.putLong(offset + TASK_ID, taskId);
+        buffer.putLong(offset + START_SECONDS, startTime != null ? startTime.getEpochSecond() : 0);
+        buffer.putInt(offset + START_NANOS, startTime != null ? startTime.getNano() : 0);
+        buffer.putLong(offset + HEARTBEAT_SECONDS, heartbeat != null ? heartbeat.getEpochSecond() : 0);
+        buffer.putInt(offset + HEARTBEAT_NANOS, heartbeat != null ? heartbeat.getNano() : 0);
+        buffer.putInt(offset + CHECKSUM, checksum(offset));
+    }
+
+    private void sync() {
+        buffer.force(0, 2 * SLOT_SIZE);
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private void readLatestSlot() {
+        sequence = 0;
+        state = STATE_IDLE;
+        for (int slot = 0; slot < 2; slot++) {
+            int offset = slot * SLOT_SIZE;
+            long slotSequence = buffer.getLong(offset + SEQUENCE);
+            if (slotSequence <= sequence || slotOffset(slotSequence) != offset
+                    || buffer.getInt(offset + CHECKSUM) != checksum(offset)) {
+                continue;
+            }
+            sequence = slotSequence;
+            state = buffer.getInt(offset + STATE);
+            taskId = buffer.getLong(offset + TASK_ID);
+            startTime = Instant.ofEpochSecond(buffer.getLong(offset + START_SECONDS), buffer.getInt(offset + START_NANOS));
+            heartbeat = Instant.ofEpochSecond(buffer.getLong(offset + HEARTBEAT_SECONDS), buffer.getInt(offset + HEARTBEAT_NANOS));
+        }
+    }
+
+    private int checksum(int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+
+    private static int slotOffset(long sequence) {
+        return (int) (sequence % 2) * SLOT_SIZE;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            sync();
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close active session journal: " + journalFile, e);
+        }
+    }
+}
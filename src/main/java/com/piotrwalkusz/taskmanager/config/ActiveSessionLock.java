@@ -0,0 +1,89 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OS file lock held while a work session is active.
+ * Ensures only one instance sharing the same database records an active session at a time;
+ * the lock is released automatically by the OS if the process dies.
+ */
+public class ActiveSessionLock implements AutoCloseable {
+
+    private final Path lockFile;
+    private FileChannel channel;
+    private FileLock lock;
+
+    public ActiveSessionLock(Path lockFile) {
+        this.lockFile = lockFile;
+    }
+
+    /**
+     * Try to acquire the lock without blocking
+     *
+     * @return true if this instance holds the lock
+     */
+    public synchronized boolean tryAcquire() {
+        if (lock != null) {
+            return true;
+        }
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to acquire active session lock: " + lockFile, e);
+        }
+        if (lock == null) {
+            closeChannel();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if this instance holds the lock
+     */
+    public synchronized boolean isHeld() {
+        return lock != null;
+    }
+
+    /**
+     * Release the lock if held
+     */
+    public synchronized void release() {
+        if (lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to release active session lock: " + lockFile, e);
+        } finally {
+            lock = null;
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close lock file: " + lockFile, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
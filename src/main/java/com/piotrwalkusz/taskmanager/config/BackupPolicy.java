@@ -0,0 +1,48 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Scheduling, throttling and retention settings for database snapshots
+ */
+@Value
+@Builder
+public class BackupPolicy {
+
+    /**
+     * Time between scheduled snapshots
+     */
+    @Builder.Default
+    Duration interval = Duration.ofHours(1);
+
+    /**
+     * Pages copied per backup step - small batches keep source locks short
+     */
+    @Builder.Default
+    int pagesPerStep = 64;
+
+    /**
+     * Pause between backup steps so writers are never starved
+     */
+    @Builder.Default
+    Duration stepPause = Duration.ofMillis(2);
+
+    /**
+     * Maximum number of snapshots kept (newest first)
+     */
+    @Builder.Default
+    int maxSnapshots = 24;
+
+    /**
+     * Snapshots older than this are removed (the newest snapshot is always kept)
+     */
+    @Builder.Default
+    Duration maxAge = Duration.ofDays(30);
+
+    public static BackupPolicy defaults() {
+        return BackupPolicy.builder().build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Session factory sharing the parsed configuration of another factory but opening its sessions on
+ * connections to a different database, so a new database does not parse the MyBatis configuration again
+ */
+final class ConnectionSqlSessionFactory implements SqlSessionFactory {
+
+    private final SqlSessionFactory delegate;
+    private final String url;
+
+    ConnectionSqlSessionFactory(SqlSessionFactory delegate, String url) {
+        this.delegate = delegate;
+        this.url = url;
+    }
+
+    @Override
+    public SqlSession openSession() {
+        return openSession(false);
+    }
+
+    @Override
+    public SqlSession openSession(boolean autoCommit) {
+        return delegate.openSession(connect(autoCommit));
+    }
+
+    @Override
+    public SqlSession openSession(Connection connection) {
+        return delegate.openSession(connection);
+    }
+
+    /**
+     * Open session ignoring level - SQLite transactions are always serializable
+     */
+    @Override
+    public SqlSession openSession(TransactionIsolationLevel level) {
+        return openSession();
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType) {
+        return openSession(execType, false);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, boolean autoCommit) {
+        return delegate.openSession(execType, connect(autoCommit));
+    }
+
+    /**
+     * Open session ignoring level - SQLite transactions are always serializable
+     */
+    @Override
+    public SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level) {
+        return openSession(execType);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, Connection connection) {
+        return delegate.openSession(execType, connection);
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return delegate.getConfiguration();
+    }
+
+    private Connection connect(boolean autoCommit) {
+        try {
+            Connection connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(autoCommit);
+            return connection;
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to open connection: " + url, e);
+        }
+    }
+}
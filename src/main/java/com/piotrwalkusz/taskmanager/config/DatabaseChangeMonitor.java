@@ -0,0 +1,120 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+
+import java.lang.System.Logger.Level;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects commits made by other processes (other instances, scripts) using the V9 change counter.
+ * <p>
+ * Every write transaction of {@link DatabaseConfig} counts the counter increments it commits. The
+ * monitor reads the counter on a single persistent connection together with that local count,
+ * while no local write can commit; whatever the counter moved beyond the local increments was
+ * committed by someone else. Local writes never look external, and an external commit is reported
+ * even if local writes follow it before the next poll.
+ */
+public class DatabaseChangeMonitor implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(DatabaseChangeMonitor.class.getName());
+
+    private final DatabaseConfig databaseConfig;
+    private final Connection connection;
+    private final EventBus eventBus;
+    private ScheduledExecutorService scheduler;
+    private CounterState lastState;
+
+    /**
+     * Change counter value with the number of its increments committed by this process
+     */
+    private record CounterState(long version, long localChanges) {
+    }
+
+    public DatabaseChangeMonitor(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this.databaseConfig = databaseConfig;
+        this.eventBus = eventBus;
+        try {
+            this.connection = DriverManager.getConnection(databaseConfig.getJdbcUrl());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open change monitor connection", e);
+        }
+        this.lastState = readState();
+    }
+
+    /**
+     * Poll for external changes periodically on a background thread
+     */
+    public synchronized void start(Duration pollInterval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-change-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check once for external changes, publishing {@link DatabaseChangedExternally} if any
+     *
+     * @return true if another process committed since the last check
+     */
+    public boolean poll() {
+        CounterState state;
+        synchronized (this) {
+            state = readState();
+            long externalChanges = (state.version() - lastState.version())
+                    - (state.localChanges() - lastState.localChanges());
+            lastState = state;
+            if (externalChanges == 0) {
+                return false;
+            }
+        }
+        eventBus.publish(new DatabaseChangedExternally(state.version()));
+        return true;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Keep polling - a failed check must not stop change detection
+            LOGGER.log(Level.WARNING, "Database change check failed", e);
+        }
+    }
+
+    private CounterState readState() {
+        return databaseConfig.withWritesPaused(() -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT version FROM change_counter WHERE id = 1")) {
+                return new CounterState(resultSet.getLong(1), databaseConfig.getLocalChanges());
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to read change counter", e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to close change monitor connection", e);
+        }
+    }
+}
@@ -1,29 +1,66 @@
 package com.piotrwalkusz.taskmanager.config;
 
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.ArchiveMapper;
+import com.piotrwalkusz.taskmanager.mapper.ChangeCounterMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 import org.flywaydb.core.Flyway;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Database configuration and initialization
  */
-public class DatabaseConfig {
+public class DatabaseConfig implements AutoCloseable {
+
+    static final String URL_PREFIX = "jdbc:sqlite:";
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 500;
+    static final String POOLED = "POOLED";
+    static final String UNPOOLED = "UNPOOLED";
 
     private final SqlSessionFactory sqlSessionFactory;
+    private final SqlSessionFactory writeSessionFactory;
+    private final ReentrantLock writeLane = new ReentrantLock(true);
+    private final List<Consumer<SqlSession>> commitHooks = new CopyOnWriteArrayList<>();
+    private final String dbUrl;
+    private final String dbUrlWithForeignKeys;
+    private final Connection inMemoryConnection; // Keeps in-memory database alive, null for file database
+    private volatile long lastWriteNanos = System.nanoTime(); // End of the last write, for idle detection
+    private long localChanges; // Change counter increments committed through this config (guarded by writeLane)
 
     /**
      * Create DatabaseConfig with default database URL (system-specific location)
      */
     public DatabaseConfig() {
-        this(getDefaultDatabasePath());
+        this(URL_PREFIX + getDefaultDatabasePath());
     }
 
     /**
@@ -31,7 +68,7 @@ public class DatabaseConfig {
      * Windows: %LOCALAPPDATA%\TaskManager\taskmanager.db
      * Linux: ~/.local/share/TaskManager/taskmanager.db
      */
-    private static String getDefaultDatabasePath() {
+    public static Path getDefaultDatabasePath() {
         String os = System.getProperty("os.name").toLowerCase();
         Path dataDir;
 
@@ -55,16 +92,18 @@ public class DatabaseConfig {
             throw new RuntimeException("Failed to create data directory: " + dataDir, e);
         }
 
-        Path dbPath = dataDir.resolve("taskmanager.db");
-        return "jdbc:sqlite:" + dbPath.toString();
+        return dataDir.resolve("taskmanager.db");
     }
 
     /**
      * Create DatabaseConfig with custom database URL
      */
     public DatabaseConfig(String dbUrl) {
-        // Enable foreign keys for SQLite
-        String dbUrlWithForeignKeys = dbUrl + "?foreign_keys=on";
+        this.dbUrl = dbUrl;
+        this.dbUrlWithForeignKeys = withConnectionOptions(dbUrl);
+        this.inMemoryConnection = null;
+
+        enableIncrementalVacuum(dbUrlWithForeignKeys);
 
         // Run Flyway migrations
         Flyway flyway = Flyway.configure()
@@ -73,11 +112,82 @@ public class DatabaseConfig {
                 .load();
         flyway.migrate();
 
-        // Initialize MyBatis with URL override
+        // Initialize MyBatis with URL override; reads reuse pooled connections
+        this.sqlSessionFactory = buildSqlSessionFactory(dbUrlWithForeignKeys, POOLED);
+        this.writeSessionFactory = buildSqlSessionFactory(withWriteOptions(dbUrlWithForeignKeys), UNPOOLED);
+    }
+
+    private DatabaseConfig(InMemoryDatabaseTemplate.Database database) {
+        this.dbUrl = null;
+        this.dbUrlWithForeignKeys = database.jdbcUrl();
+        this.inMemoryConnection = database.connection();
+        this.sqlSessionFactory = database.sqlSessionFactory();
+        this.writeSessionFactory = database.writeSessionFactory();
+    }
+
+    /**
+     * Create empty migrated in-memory database, isolated from any other (for tests, benchmarks and sandboxes).
+     * It is copied from a template migrated once per JVM, so it is much cheaper than a new file database.
+     * Connections share one cache, so a read overlapping a write fails with SQLITE_LOCKED instead of waiting.
+     * The database is dropped on {@link #close()}; it has no file, so file-based features are not available.
+     */
+    public static DatabaseConfig inMemory() {
+        return new DatabaseConfig(InMemoryDatabaseTemplate.getInstance().createDatabase());
+    }
+
+    /**
+     * Check if database lives in memory only, see {@link #inMemory()}
+     */
+    public boolean isInMemory() {
+        return inMemoryConnection != null;
+    }
+
+    /**
+     * Enable foreign keys for SQLite, WAL so readers never block the writer,
+     * and a busy timeout so short lock waits are handled by SQLite itself
+     */
+    static String withConnectionOptions(String url) {
+        return url + (url.contains("?") ? "&" : "?")
+                + "foreign_keys=on&journal_mode=WAL&busy_timeout=" + BUSY_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Write transactions take the write lock up front (BEGIN IMMEDIATE) so they never fail on a lock upgrade
+     */
+    static String withWriteOptions(String jdbcUrl) {
+        return jdbcUrl + "&transaction_mode=IMMEDIATE";
+    }
+
+    /**
+     * Let maintenance return free pages to the file system in small steps (PRAGMA incremental_vacuum).
+     * The mode only takes effect after a VACUUM, which is instant for a new database. An existing
+     * database is never rewritten on open (that could take long and twice its disk space);
+     * {@link DatabaseMaintenance} converts it once in a long idle period.
+     */
+    private static void enableIncrementalVacuum(String jdbcUrl) {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM sqlite_master")) {
+                if (resultSet.getLong(1) > 0) {
+                    return;
+                }
+            }
+            statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            statement.execute("VACUUM");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to enable incremental vacuum", e);
+        }
+    }
+
+    /**
+     * @param dataSource MyBatis data source type, {@link #POOLED} or {@link #UNPOOLED}
+     */
+    static SqlSessionFactory buildSqlSessionFactory(String url, String dataSource) {
         try (InputStream inputStream = Resources.getResourceAsStream("mybatis-config.xml")) {
             Properties properties = new Properties();
-            properties.setProperty("url", dbUrlWithForeignKeys);
-            this.sqlSessionFactory = new SqlSessionFactoryBuilder().build(inputStream, properties);
+            properties.setProperty("url", url);
+            properties.setProperty("dataSource", dataSource);
+            return new SqlSessionFactoryBuilder().build(inputStream, properties);
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize MyBatis", e);
         }
@@ -89,4 +199,349 @@ public class DatabaseConfig {
     public SqlSessionFactory getSqlSessionFactory() {
         return sqlSessionFactory;
     }
+
+    /**
+     * Run work in a write transaction (BEGIN IMMEDIATE) and commit it.
+     * Writers in this process are serialized in a single lane; SQLITE_BUSY from other
+     * processes is retried with bounded exponential backoff, so work must be repeatable.
+     */
+    public <T> T inWriteTransaction(Function<SqlSession, T> work) {
+        return retryingWrite(() -> {
+            try (SqlSession session = writeSessionFactory.openSession()) {
+                return commitCounted(session, work, session::commit);
+            }
+        });
+    }
+
+    /**
+     * Run work in a write transaction (BEGIN IMMEDIATE) with the archive database attached as "archive"
+     * and commit it, with the same lane, retry and commit hooks as {@link #inWriteTransaction}
+     */
+    public <T> T inArchiveWriteTransaction(Function<SqlSession, T> work) {
+        return retryingWrite(() -> {
+            try (SqlSession session = writeSessionFactory.openSession(true)) {
+                // ATTACH is not allowed inside a transaction, so the transaction starts after it
+                ArchiveMapper mapper = attachArchive(session);
+                Connection connection = session.getConnection();
+                try {
+                    connection.setAutoCommit(false);
+                    try {
+                        return commitCounted(session, work, () -> commit(connection));
+                    } catch (RuntimeException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                } catch (SQLException e) {
+                    throw new PersistenceException("Failed to run archive write transaction", e);
+                } finally {
+                    mapper.detachArchive();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run work in a write transaction that also reaches archived sessions (attached as "archive"),
+     * for writes deleting tasks whose archived sessions must go in the same transaction.
+     * An in-memory database has no archive, so work runs in a plain write transaction.
+     */
+    public <T> T inWriteTransactionWithArchive(Function<SqlSession, T> work) {
+        return isInMemory() ? inWriteTransaction(work) : inArchiveWriteTransaction(work);
+    }
+
+    /**
+     * Run attempt in the writer lane, retrying SQLITE_BUSY from other processes with bounded exponential backoff
+     */
+    private <T> T retryingWrite(Supplier<T> attempt) {
+        return inWriteLane(() -> {
+            for (int attemptNumber = 1; ; attemptNumber++) {
+                try {
+                    return attempt.get();
+                } catch (PersistenceException e) {
+                    if (attemptNumber >= MAX_WRITE_ATTEMPTS || !isBusy(e)) {
+                        throw e;
+                    }
+                    backoff(attemptNumber);
+                }
+            }
+        });
+    }
+
+    /**
+     * Run work and the commit hooks in the open transaction of session, commit it and count its changes
+     */
+    private <T> T commitCounted(SqlSession session, Function<SqlSession, T> work, Runnable commit) {
+        // The transaction holds the write lock from its first statement, so the counter
+        // moves only by what this transaction changes
+        ChangeCounterMapper counter = session.getMapper(ChangeCounterMapper.class);
+        long versionBefore = counter.getChangeVersion();
+        T result = work.apply(session);
+        commitHooks.forEach(hook -> hook.accept(session));
+        long changes = counter.getChangeVersion() - versionBefore;
+        commit.run();
+        localChanges += changes;
+        return result;
+    }
+
+    private static void commit(Connection connection) {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to commit write transaction", e);
+        }
+    }
+
+    /**
+     * Run hook at the end of every write transaction, right before commit. Whatever the hook writes
+     * commits or rolls back together with the work, and a hook failure fails the transaction.
+     *
+     * @return action removing the hook
+     */
+    public Runnable addCommitHook(Consumer<SqlSession> hook) {
+        commitHooks.add(hook);
+        return () -> commitHooks.remove(hook);
+    }
+
+    /**
+     * Run work in a write transaction (BEGIN IMMEDIATE) and commit it, see {@link #inWriteTransaction}
+     */
+    public void runInWriteTransaction(Consumer<SqlSession> work) {
+        inWriteTransaction(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    /**
+     * Run work in the single writer lane without opening a session
+     * (for writes that manage their own connection)
+     */
+    public <T> T inWriteLane(Supplier<T> work) {
+        writeLane.lock();
+        try {
+            return work.get();
+        } finally {
+            lastWriteNanos = System.nanoTime();
+            writeLane.unlock();
+        }
+    }
+
+    /**
+     * Run maintenance work in the writer lane only if no writer holds it; does not count as activity
+     *
+     * @return false if the lane was busy and work did not run
+     */
+    boolean tryInWriteLane(Runnable work) {
+        if (!writeLane.tryLock()) {
+            return false;
+        }
+        try {
+            work.run();
+            return true;
+        } finally {
+            writeLane.unlock();
+        }
+    }
+
+    /**
+     * Run work in the writer lane, so no write of this config commits while it runs; does not count as activity
+     */
+    <T> T withWritesPaused(Supplier<T> work) {
+        writeLane.lock();
+        try {
+            return work.get();
+        } finally {
+            writeLane.unlock();
+        }
+    }
+
+    /**
+     * Get number of change counter increments committed by write transactions of this config
+     * (read in {@link #withWritesPaused} to match the counter in the database)
+     */
+    long getLocalChanges() {
+        writeLane.lock();
+        try {
+            return localChanges;
+        } finally {
+            writeLane.unlock();
+        }
+    }
+
+    /**
+     * Check if a writer is waiting for the writer lane
+     */
+    boolean hasWaitingWriters() {
+        return writeLane.hasQueuedThreads();
+    }
+
+    /**
+     * Get System.nanoTime() at the end of the last write
+     */
+    long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    private static boolean isBusy(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLiteException sqliteException) {
+                int primaryCode = sqliteException.getResultCode().code & 0xff;
+                return primaryCode == SQLiteErrorCode.SQLITE_BUSY.code
+                        || primaryCode == SQLiteErrorCode.SQLITE_LOCKED.code;
+            }
+        }
+        return false;
+    }
+
+    private static void backoff(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry write transaction", e);
+        }
+    }
+
+    /**
+     * Get JDBC URL used for all connections (with connection options)
+     */
+    public String getJdbcUrl() {
+        return dbUrlWithForeignKeys;
+    }
+
+    /**
+     * Get path of the database file
+     *
+     * @throws IllegalStateException if database is in memory
+     */
+    public Path getDatabasePath() {
+        if (isInMemory()) {
+            throw new IllegalStateException("In-memory database has no file");
+        }
+        return Paths.get(dbUrl.substring(URL_PREFIX.length()));
+    }
+
+    /**
+     * Get path of the archive database holding old work sessions
+     */
+    public Path getArchiveDatabasePath() {
+        return getArchiveDatabasePath(getDatabasePath());
+    }
+
+    /**
+     * Get path of the archive database of the database at given path
+     */
+    public static Path getArchiveDatabasePath(Path databasePath) {
+        String fileName = databasePath.getFileName().toString();
+        String baseName = fileName.endsWith(".db") ? fileName.substring(0, fileName.length() - 3) : fileName;
+        return databasePath.toAbsolutePath().resolveSibling(baseName + "-archive.db");
+    }
+
+    /**
+     * Run read-only work in an auto-commit session with the archive database attached as "archive".
+     * Writes to the attached archive go through {@link #inArchiveWriteTransaction}.
+     */
+    public <T> T withArchiveAttached(Function<SqlSession, T> work) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            ArchiveMapper mapper = attachArchive(session);
+            try {
+                return work.apply(session);
+            } finally {
+                mapper.detachArchive();
+            }
+        }
+    }
+
+    private ArchiveMapper attachArchive(SqlSession session) {
+        ArchiveMapper mapper = session.getMapper(ArchiveMapper.class);
+        mapper.attachArchive(getArchiveDatabasePath().toString());
+        try {
+            mapper.createArchiveTable();
+            mapper.createArchiveIndex();
+            return mapper;
+        } catch (RuntimeException e) {
+            mapper.detachArchive();
+            throw e;
+        }
+    }
+
+    /**
+     * Get directory where database snapshots are stored
+     */
+    public Path getBackupDirectory() {
+        return getDatabasePath().toAbsolutePath().resolveSibling("backups");
+    }
+
+    /**
+     * Start polling for changes committed by other connections (other instances, scripts)
+     */
+    public DatabaseChangeMonitor startChangeMonitor(EventBus eventBus, Duration pollInterval) {
+        DatabaseChangeMonitor monitor = new DatabaseChangeMonitor(this, eventBus);
+        monitor.start(pollInterval);
+        return monitor;
+    }
+
+    /**
+     * Start maintenance passes (statistics, incremental vacuum, WAL checkpoint, integrity checks)
+     * run when nothing was written for the idle time
+     *
+     * @param budget time limit of one pass
+     */
+    public DatabaseMaintenance startMaintenance(Duration interval, Duration idleTime, Duration budget) {
+        DatabaseMaintenance maintenance = new DatabaseMaintenance(this, idleTime, budget);
+        maintenance.start(interval);
+        return maintenance;
+    }
+
+    /**
+     * Get path of the startup snapshot stored next to given database file
+     */
+    public static Path getStartupSnapshotPath(Path databasePath) {
+        return databasePath.resolveSibling(databasePath.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Get path of the startup snapshot of this database
+     */
+    public Path getStartupSnapshotPath() {
+        return getStartupSnapshotPath(getDatabasePath());
+    }
+
+    /**
+     * Open journal of the active work session of this database
+     *
+     * @param syncInterval how often heartbeats are forced to disk at most
+     */
+    public ActiveSessionJournal openActiveSessionJournal(Duration syncInterval) {
+        Path journalFile = getDatabasePath().resolveSibling(getDatabasePath().getFileName() + ".session.journal");
+        return new ActiveSessionJournal(journalFile, syncInterval);
+    }
+
+    /**
+     * Create lock that lets only one instance record an active work session
+     */
+    public ActiveSessionLock createActiveSessionLock() {
+        return new ActiveSessionLock(getDatabasePath().resolveSibling(getDatabasePath().getFileName() + ".session.lock"));
+    }
+
+    /**
+     * Drop in-memory database, or close pooled read connections of a file database
+     */
+    @Override
+    public void close() {
+        if (inMemoryConnection == null) {
+            if (sqlSessionFactory.getConfiguration().getEnvironment().getDataSource() instanceof PooledDataSource pool) {
+                pool.forceCloseAll();
+            }
+            return;
+        }
+        try {
+            inMemoryConnection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to close in-memory database", e);
+        }
+    }
 }
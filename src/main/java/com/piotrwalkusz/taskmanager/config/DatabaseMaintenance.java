@@ -0,0 +1,374 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.apache.ibatis.session.SqlSession;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Housekeeping run while the application is idle: incremental vacuum, statistics for the query
+ * planner (PRAGMA optimize), WAL checkpoint and a check of work sessions for orphans and overlaps.
+ * <p>
+ * A pass runs only when nothing was written for the idle time and stops at its time budget or as
+ * soon as a writer waits, continuing next time. Writing steps only take the writer lane when it is
+ * free and use a connection that fails instead of waiting for locks, so user actions never wait
+ * for maintenance. Found integrity issues are reported, not repaired.
+ * <p>
+ * A database created before incremental auto-vacuum mode is converted once, in a long idle period,
+ * as that rewrites the whole file.
+ */
+public class DatabaseMaintenance implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(DatabaseMaintenance.class.getName());
+    private static final int VACUUM_STEP_PAGES = 64;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final Duration CONVERSION_IDLE_TIME = Duration.ofMinutes(30);
+    // Rewriting the file pays off only when a good part of it is free
+    private static final double MIN_CONVERSION_FREE_RATIO = 0.1;
+    // VACUUM builds a copy of the database, then writes it through the WAL
+    private static final int CONVERSION_SPACE_FACTOR = 2;
+    private static final int CHECK_BATCH_SIZE = 256;
+    private static final int ANALYSIS_LIMIT = 400;
+    private static final String OPTIMIZE_WITH_ANALYSIS_LIMIT = "PRAGMA optimize = 0x10002";
+
+    private final DatabaseConfig databaseConfig;
+    private final Duration idleTime;
+    private final Duration conversionIdleTime;
+    private final Duration budget;
+    private final Connection connection;
+    private ScheduledExecutorService scheduler;
+    private CheckCursor checkCursor = CheckCursor.START; // Position of the incremental session check (guarded by this)
+    private volatile MaintenanceReport lastReport;
+
+    /**
+     * Outcome of one maintenance pass
+     *
+     * @param incrementalVacuum   false if the database was created before incremental auto-vacuum mode
+     *                            and not converted yet, so free pages are reused but not returned to the file system
+     * @param vacuumConverted     true if the pass converted the database to incremental auto-vacuum mode
+     * @param reclaimedPages      free pages returned to the file system
+     * @param walFrames           WAL frames present before the checkpoint
+     * @param walCheckpointed     WAL frames copied into the database
+     * @param walTruncated        true if the WAL file was fully checkpointed and truncated
+     * @param orphanedSessions    checked sessions whose task does not exist
+     * @param overlappingSessions checked sessions starting before the previous session of the task ended
+     * @param finished            false if the pass stopped at its budget or for a waiting writer
+     */
+    public record MaintenanceReport(boolean incrementalVacuum, boolean vacuumConverted, long reclaimedPages, long reclaimedBytes, boolean optimized,
+                                    int walFrames, int walCheckpointed, boolean walTruncated,
+                                    int checkedSessions, int orphanedSessions, int overlappingSessions,
+                                    Duration elapsed, boolean finished) {
+    }
+
+    /**
+     * Keyset position in (task_id, start_time, id) order, with the end of the last checked session
+     * so overlaps are detected across batches
+     */
+    private record CheckCursor(Long taskId, String startTime, Long id, Instant lastEnd) {
+        static final CheckCursor START = new CheckCursor(-1L, "", -1L, null);
+    }
+
+    DatabaseMaintenance(DatabaseConfig databaseConfig, Duration idleTime, Duration budget) {
+        this(databaseConfig, idleTime, CONVERSION_IDLE_TIME, budget);
+    }
+
+    /**
+     * @param conversionIdleTime time without writes after which an existing database may be converted
+     *                           to incremental auto-vacuum mode
+     */
+    DatabaseMaintenance(DatabaseConfig databaseConfig, Duration idleTime, Duration conversionIdleTime, Duration budget) {
+        this.databaseConfig = databaseConfig;
+        this.idleTime = idleTime;
+        this.conversionIdleTime = conversionIdleTime;
+        this.budget = budget;
+        try {
+            this.connection = DriverManager.getConnection(databaseConfig.getJdbcUrl());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA busy_timeout = 0");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open maintenance connection", e);
+        }
+    }
+
+    /**
+     * Try a pass periodically on a background thread
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run a pass if nothing was written for the idle time; after the longer conversion idle time
+     * the pass may also convert the database to incremental auto-vacuum mode
+     *
+     * @return report of the pass, or null if the database was not idle
+     */
+    public MaintenanceReport runIfIdle() {
+        long sinceLastWrite = System.nanoTime() - databaseConfig.getLastWriteNanos();
+        if (sinceLastWrite < idleTime.toNanos() || databaseConfig.hasWaitingWriters()) {
+            return null;
+        }
+        return runPass(sinceLastWrite >= conversionIdleTime.toNanos());
+    }
+
+    /**
+     * Run a pass now, within the time budget
+     */
+    public MaintenanceReport runPass() {
+        return runPass(false);
+    }
+
+    private synchronized MaintenanceReport runPass(boolean mayConvert) {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + budget.toNanos();
+        Pass pass = new Pass();
+
+        pass.vacuumConverted = mayConvert && convertToIncrementalVacuum();
+        pass.finished = vacuum(pass, deadline)
+                && optimize(pass, deadline)
+                && checkpoint(pass, deadline)
+                && checkSessions(pass, deadline);
+
+        MaintenanceReport report = new MaintenanceReport(pass.incrementalVacuum, pass.vacuumConverted, pass.reclaimedPages, pass.reclaimedPages * pass.pageSize,
+                pass.optimized, pass.walFrames, pass.walCheckpointed, pass.walTruncated, pass.checkedSessions,
+                pass.orphanedSessions, pass.overlappingSessions, Duration.ofNanos(System.nanoTime() - startNanos),
+                pass.finished);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Get report of the last pass, null if none ran yet
+     */
+    public MaintenanceReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Switch a database created before incremental auto-vacuum mode to it. The mode takes effect
+     * only after VACUUM, which rewrites the whole file, so it runs with the writer lane held and only
+     * when enough of the file is free and the disk has room for the copy.
+     *
+     * @return true if the database was converted
+     */
+    private boolean convertToIncrementalVacuum() {
+        if (databaseConfig.isInMemory() || queryLong("PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+            return false;
+        }
+        long pageCount = queryLong("PRAGMA page_count");
+        if (queryLong("PRAGMA freelist_count") < pageCount * MIN_CONVERSION_FREE_RATIO) {
+            return false;
+        }
+        try {
+            long usableSpace = Files.getFileStore(databaseConfig.getDatabasePath()).getUsableSpace();
+            if (usableSpace < CONVERSION_SPACE_FACTOR * pageCount * queryLong("PRAGMA page_size")) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to check free disk space", e);
+        }
+        return databaseConfig.withWritesPaused(() -> {
+            try {
+                execute("PRAGMA auto_vacuum = INCREMENTAL");
+                execute("VACUUM");
+                return true;
+            } catch (RuntimeException e) {
+                // Another connection is reading; the next long idle period retries
+                LOGGER.log(Level.INFO, "Conversion to incremental vacuum postponed", e);
+                return false;
+            }
+        });
+    }
+
+    private boolean vacuum(Pass pass, long deadline) {
+        pass.pageSize = queryLong("PRAGMA page_size");
+        pass.incrementalVacuum = queryLong("PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL;
+        if (!pass.incrementalVacuum) {
+            return true;
+        }
+        while (queryLong("PRAGMA freelist_count") > 0) {
+            if (!canContinue(deadline)) {
+                return false;
+            }
+            long[] freed = new long[1];
+            boolean ran = databaseConfig.tryInWriteLane(() -> {
+                long before = queryLong("PRAGMA freelist_count");
+                execute("PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ")");
+                freed[0] = before - queryLong("PRAGMA freelist_count");
+            });
+            if (!ran) {
+                return false;
+            }
+            pass.reclaimedPages += freed[0];
+            if (freed[0] == 0) {
+                break; // Pages freed by a concurrent writer are reclaimed next time
+            }
+        }
+        return true;
+    }
+
+    private boolean optimize(Pass pass, long deadline) {
+        if (!canContinue(deadline)) {
+            return false;
+        }
+        // Sampling limit keeps ANALYZE of big tables short; 0x10002 analyzes tables that were never analyzed
+        pass.optimized = databaseConfig.tryInWriteLane(() -> {
+            execute("PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+            execute(OPTIMIZE_WITH_ANALYSIS_LIMIT);
+        });
+        return pass.optimized;
+    }
+
+    private boolean checkpoint(Pass pass, long deadline) {
+        if (!canContinue(deadline)) {
+            return false;
+        }
+        // PASSIVE never waits for readers; truncate only if all frames are in the database
+        int[] result = checkpoint("PASSIVE");
+        pass.walFrames = result[1];
+        pass.walCheckpointed = result[2];
+        if (result[0] == 0 && result[1] > 0 && result[1] == result[2] && canContinue(deadline)) {
+            pass.walTruncated = checkpoint("TRUNCATE")[0] == 0;
+        }
+        return true;
+    }
+
+    private boolean checkSessions(Pass pass, long deadline) {
+        Map<Long, Boolean> taskExists = new HashMap<>();
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            WorkSessionMapper workSessionMapper = session.getMapper(WorkSessionMapper.class);
+            TaskMapper taskMapper = session.getMapper(TaskMapper.class);
+            while (canContinue(deadline)) {
+                CheckCursor cursor = checkCursor;
+                List<WorkSession> sessions = workSessionMapper.getSessionsAfter(
+                        cursor.taskId(), cursor.startTime(), cursor.id(), CHECK_BATCH_SIZE);
+                Instant lastEnd = cursor.lastEnd();
+                Long lastTaskId = cursor.taskId();
+                for (WorkSession workSession : sessions) {
+                    if (!workSession.getTaskId().equals(lastTaskId)) {
+                        lastEnd = null;
+                        lastTaskId = workSession.getTaskId();
+                    }
+                    if (!taskExists.computeIfAbsent(workSession.getTaskId(), id -> taskMapper.getTaskById(id) != null)) {
+                        pass.orphanedSessions++;
+                    }
+                    if (lastEnd != null && workSession.getStartTime().isBefore(lastEnd)) {
+                        pass.overlappingSessions++;
+                    }
+                    if (lastEnd == null || workSession.getEndTime().isAfter(lastEnd)) {
+                        lastEnd = workSession.getEndTime();
+                    }
+                }
+                pass.checkedSessions += sessions.size();
+
+                if (sessions.size() < CHECK_BATCH_SIZE) {
+                    checkCursor = CheckCursor.START;
+                    return true;
+                }
+                WorkSession last = sessions.get(sessions.size() - 1);
+                checkCursor = new CheckCursor(last.getTaskId(), last.getStartTime().toString(), last.getId(), lastEnd);
+            }
+        }
+        return false;
+    }
+
+    private boolean canContinue(long deadline) {
+        return System.nanoTime() < deadline && !databaseConfig.hasWaitingWriters();
+    }
+
+    /**
+     * @return busy flag, WAL frames and checkpointed frames
+     */
+    private int[] checkpoint(String mode) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+            return new int[]{resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3)};
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to checkpoint WAL", e);
+        }
+    }
+
+    private long queryLong(String sql) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to run " + sql, e);
+        }
+    }
+
+    private void execute(String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to run " + sql, e);
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            runIfIdle();
+        } catch (RuntimeException e) {
+            // Keep the schedule - the next idle period retries
+            LOGGER.log(Level.WARNING, "Database maintenance failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to close maintenance connection", e);
+        }
+    }
+
+    /**
+     * Counters of the running pass
+     */
+    private static class Pass {
+        long pageSize;
+        boolean incrementalVacuum;
+        boolean vacuumConverted;
+        long reclaimedPages;
+        boolean optimized;
+        int walFrames;
+        int walCheckpointed;
+        boolean walTruncated;
+        int checkedSessions;
+        int orphanedSessions;
+        int overlappingSessions;
+        boolean finished;
+    }
+}
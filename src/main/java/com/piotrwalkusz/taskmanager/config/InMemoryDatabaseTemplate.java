@@ -0,0 +1,104 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.flywaydb.core.Flyway;
+import org.sqlite.SQLiteConnection;
+
+import java.lang.System.Logger.Level;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migrated in-memory database that new in-memory databases are copied from with the SQLite backup API.
+ * <p>
+ * Migrations and MyBatis configuration parsing happen once per JVM, when the template is first used;
+ * after that a new database costs one connection and a page copy of the empty schema.
+ * Databases are shared-cache, so every connection to the same name sees the same data for as long
+ * as at least one connection stays open.
+ */
+final class InMemoryDatabaseTemplate {
+
+    private static final System.Logger LOGGER = System.getLogger(InMemoryDatabaseTemplate.class.getName());
+    private static final String TEMPLATE_NAME = "file:taskmanager-template?mode=memory&cache=shared";
+    private static final String NAME_PREFIX = "file:taskmanager-memory-";
+    private static final String NAME_OPTIONS = "?mode=memory&cache=shared";
+    private static final AtomicLong databaseCount = new AtomicLong();
+
+    private final Connection templateConnection; // Keeps template alive for the whole JVM
+    private final SqlSessionFactory sqlSessionFactory;
+    private final SqlSessionFactory writeSessionFactory;
+
+    /**
+     * Template created on first use (holder idiom)
+     */
+    private static final class Holder {
+
+        private static final InMemoryDatabaseTemplate INSTANCE = new InMemoryDatabaseTemplate();
+    }
+
+    /**
+     * New in-memory database with its session factories
+     *
+     * @param connection connection keeping the database alive until closed
+     */
+    record Database(String jdbcUrl, Connection connection,
+                    SqlSessionFactory sqlSessionFactory, SqlSessionFactory writeSessionFactory) {
+    }
+
+    private InMemoryDatabaseTemplate() {
+        String templateUrl = DatabaseConfig.URL_PREFIX + TEMPLATE_NAME;
+        try {
+            templateConnection = DriverManager.getConnection(templateUrl);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create in-memory database template", e);
+        }
+        String jdbcUrl = DatabaseConfig.withConnectionOptions(templateUrl);
+        Flyway.configure()
+                .dataSource(jdbcUrl, null, null)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        sqlSessionFactory = DatabaseConfig.buildSqlSessionFactory(jdbcUrl, DatabaseConfig.UNPOOLED);
+        writeSessionFactory = DatabaseConfig.buildSqlSessionFactory(DatabaseConfig.withWriteOptions(jdbcUrl), DatabaseConfig.UNPOOLED);
+    }
+
+    static InMemoryDatabaseTemplate getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Create new empty migrated database with a unique name
+     */
+    Database createDatabase() {
+        String name = NAME_PREFIX + databaseCount.incrementAndGet() + NAME_OPTIONS;
+        String url = DatabaseConfig.URL_PREFIX + name;
+        String jdbcUrl = DatabaseConfig.withConnectionOptions(url);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection(url);
+            int result = ((SQLiteConnection) connection).getDatabase().restore("main", TEMPLATE_NAME, null);
+            if (result != 0) {
+                throw new SQLException("Restore from template failed with result code " + result);
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new RuntimeException("Failed to create in-memory database", e);
+        }
+        return new Database(jdbcUrl, connection,
+                new ConnectionSqlSessionFactory(sqlSessionFactory, jdbcUrl),
+                new ConnectionSqlSessionFactory(writeSessionFactory, DatabaseConfig.withWriteOptions(jdbcUrl)));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to close in-memory database connection", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.model.StartupSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary file holding a {@link StartupSnapshot}.
+ * <p>
+ * Layout is {@code [int magic][int version][int length][payload][int CRC32 of payload]}. The file is
+ * read with a single memory mapping; a missing, truncated or corrupt file reads as no snapshot.
+ * Writes go to a temporary file that atomically replaces the old one.
+ */
+public final class StartupSnapshotFile {
+
+    private static final System.Logger LOGGER = System.getLogger(StartupSnapshotFile.class.getName());
+    private static final int MAGIC = 0x544D5353; // "TMSS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private StartupSnapshotFile() {
+    }
+
+    /**
+     * Read snapshot
+     *
+     * @return snapshot or null if there is no valid snapshot
+     */
+    public static StartupSnapshot read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > MAX_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length < 0 || length != size - HEADER_SIZE - 4) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, length));
+            if (buffer.getInt(HEADER_SIZE + length) != (int) crc.getValue()) {
+                return null;
+            }
+            return StartupSnapshot.builder()
+                    .changeVersion(buffer.getLong())
+                    .day(LocalDate.ofEpochDay(buffer.getLong()))
+                    .currentTaskId(buffer.get() != 0 ? buffer.getLong() : null)
+                    .currentTaskName(readString(buffer))
+                    .queueSize(buffer.getInt())
+                    .hasDeletedTask(buffer.get() != 0)
+                    .dailySeconds(buffer.getLong())
+                    .totalSeconds(buffer.getLong())
+                    .build();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable startup snapshot " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write snapshot, replacing the previous one
+     */
+    public static void write(Path file, StartupSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(snapshot.getChangeVersion());
+            out.writeLong(snapshot.getDay().toEpochDay());
+            out.writeBoolean(snapshot.getCurrentTaskId() != null);
+            if (snapshot.getCurrentTaskId() != null) {
+                out.writeLong(snapshot.getCurrentTaskId());
+            }
+            byte[] name = snapshot.getCurrentTaskName() != null
+                    ? snapshot.getCurrentTaskName().getBytes(StandardCharsets.UTF_8)
+                    : null;
+            out.writeInt(name != null ? name.length : -1);
+            if (name != null) {
+                out.write(name);
+            }
+            out.writeInt(snapshot.getQueueSize());
+            out.writeBoolean(snapshot.isHasDeletedTask());
+            out.writeLong(snapshot.getDailySeconds());
+            out.writeLong(snapshot.getTotalSeconds());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode startup snapshot", e);
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        byte[] content = ByteBuffer.allocate(HEADER_SIZE + payload.length + 4)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt((int) crc.getValue())
+                .array();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write startup snapshot: " + file, e);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Window with the heatmap of time worked per day - over all tasks or on the task current when
+ * the window was opened. A year is read with one query from the day buckets.
+ */
+public class HeatmapController {
+
+    @FXML
+    private WorkHeatmap heatmap;
+
+    @FXML
+    private Label yearLabel;
+
+    @FXML
+    private Label totalLabel;
+
+    @FXML
+    private ToggleButton taskToggle;
+
+    private final WorkSessionService workSessionService;
+    private final EventBus eventBus;
+    private final Task task; // Null if no task was current
+    private final List<Runnable> subscriptions = new ArrayList<>();
+    private int year = LocalDate.now(ZoneOffset.UTC).getYear();
+
+    public HeatmapController(WorkSessionService workSessionService, EventBus eventBus, Task task) {
+        this.workSessionService = workSessionService;
+        this.eventBus = eventBus;
+        this.task = task;
+    }
+
+    @FXML
+    public void initialize() {
+        if (task != null) {
+            taskToggle.setText(task.getName());
+        } else {
+            taskToggle.setDisable(true);
+        }
+
+        // Saved sessions only change the shown year if they fall into it
+        subscriptions.add(eventBus.subscribe(DomainEvent.WorkSessionSaved.class,
+                event -> Platform.runLater(() -> onWorkSessionSaved(event.workSession()))));
+        subscriptions.add(eventBus.subscribe(DatabaseChangedExternally.class, event -> Platform.runLater(this::load)));
+
+        load();
+    }
+
+    @FXML
+    private void handlePreviousYear() {
+        year--;
+        load();
+    }
+
+    @FXML
+    private void handleNextYear() {
+        year++;
+        load();
+    }
+
+    @FXML
+    private void handleToggleTask() {
+        load();
+    }
+
+    private void onWorkSessionSaved(WorkSession workSession) {
+        if (workSession.getEndTime() == null || taskToggle.isSelected() && !Objects.equals(workSession.getTaskId(), task.getId())) {
+            return;
+        }
+        int startYear = LocalDate.ofInstant(workSession.getStartTime(), ZoneOffset.UTC).getYear();
+        int endYear = LocalDate.ofInstant(workSession.getEndTime(), ZoneOffset.UTC).getYear();
+        if (startYear <= year && year <= endYear) {
+            load();
+        }
+    }
+
+    private void load() {
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        List<WorkDay> days = taskToggle.isSelected()
+                ? workSessionService.getWorkDays(task.getId(), from, to)
+                : workSessionService.getAllWorkDays(from, to);
+        heatmap.setDays(year, days);
+        yearLabel.setText(String.valueOf(year));
+        double seconds = days.stream().mapToDouble(WorkDay::getSeconds).sum();
+        totalLabel.setText("Total: " + WorkSessionService.formatTime(Math.round(seconds)));
+    }
+
+    /**
+     * Stop listening to changes (when window is closed)
+     */
+    public void close() {
+        subscriptions.forEach(Runnable::run);
+        subscriptions.clear();
+    }
+}
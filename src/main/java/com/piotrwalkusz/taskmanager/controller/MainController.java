@@ -1,31 +1,77 @@
 package com.piotrwalkusz.taskmanager.controller;
 
+import com.piotrwalkusz.taskmanager.config.ActiveSessionJournal;
+import com.piotrwalkusz.taskmanager.config.ActiveSessionLock;
+import com.piotrwalkusz.taskmanager.config.BackupPolicy;
+import com.piotrwalkusz.taskmanager.config.DatabaseChangeMonitor;
+import com.piotrwalkusz.taskmanager.config.DatabaseMaintenance;
 import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.config.StartupSnapshotFile;
+import com.piotrwalkusz.taskmanager.diagnostics.FxStallWatchdog;
+import com.piotrwalkusz.taskmanager.diagnostics.TimedStorage;
+import com.piotrwalkusz.taskmanager.diagnostics.UiActionMonitor;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.StartupSnapshot;
 import com.piotrwalkusz.taskmanager.model.Task;
 import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+import com.piotrwalkusz.taskmanager.service.ArchiveService;
+import com.piotrwalkusz.taskmanager.service.AutoRotationService;
+import com.piotrwalkusz.taskmanager.service.BackupService;
+import com.piotrwalkusz.taskmanager.service.CompactionService;
+import com.piotrwalkusz.taskmanager.service.RecurrenceService;
+import com.piotrwalkusz.taskmanager.service.SessionRecoveryService;
+import com.piotrwalkusz.taskmanager.service.StartupSnapshotService;
+import com.piotrwalkusz.taskmanager.service.SyncService;
+import com.piotrwalkusz.taskmanager.service.TagFilter;
 import com.piotrwalkusz.taskmanager.service.TaskService;
+import com.piotrwalkusz.taskmanager.service.TimingWheel;
 import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import com.piotrwalkusz.taskmanager.trace.TraceRecorder;
+import com.piotrwalkusz.taskmanager.trace.UserAction;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBase;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.control.IndexRange;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.lang.System.Logger.Level;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class MainController {
 
+    private static final System.Logger LOGGER = System.getLogger(MainController.class.getName());
+    private static final java.time.Duration TIME_SLICE = java.time.Duration.ofMinutes(25);
+    private static final Duration HEARTBEAT_INTERVAL = Duration.seconds(1);
+    private static final java.time.Duration JOURNAL_SYNC_INTERVAL = java.time.Duration.ofSeconds(15);
+    private static final java.time.Duration STALL_THRESHOLD = java.time.Duration.ofMillis(200);
+
     @FXML
     private TextField currentTaskLabel;
 
@@ -53,18 +99,53 @@ public class MainController {
     @FXML
     private Button undoButton;
 
+    @FXML
+    private Button queueBrowserButton;
+
+    @FXML
+    private Button heatmapButton;
+
+    @FXML
+    private ToggleButton autoRotateButton;
+
     @FXML
     private TextField taskNameEditField;
 
+    @FXML
+    private TextField contextFilterField;
+
     @FXML
     private VBox rootPane;
 
     @FXML
     private VBox currentTaskSection;
 
-    private final DatabaseConfig databaseConfig = new DatabaseConfig();
-    private final TaskService taskService = new TaskService(databaseConfig);
-    private final WorkSessionService workSessionService = new WorkSessionService(databaseConfig);
+    private final EventBus eventBus = new EventBus();
+    // Database and services are set once the database is opened in the background (null until then)
+    private DatabaseConfig databaseConfig;
+    private TaskService taskService;
+    private WorkSessionService workSessionService;
+    private ActiveSessionLock activeSessionLock;
+    private ActiveSessionJournal activeSessionJournal;
+    private BackupService backupService;
+    private ArchiveService archiveService;
+    private CompactionService compactionService;
+    private StartupSnapshotService startupSnapshotService;
+    private SyncService syncService; // Null unless sync is enabled
+    private StartupSnapshot startupSnapshot; // State painted before the database was open
+    // Times event handlers and the storage calls they make (JFR events), labels stall samples
+    private final UiActionMonitor uiActionMonitor = new UiActionMonitor();
+    private FxStallWatchdog stallWatchdog;
+    private final TimingWheel timingWheel = new TimingWheel(java.time.Duration.ofSeconds(1), 64, 4);
+    private final AutoRotationService autoRotationService =
+            new AutoRotationService(timingWheel, taskId -> Platform.runLater(
+                    () -> uiActionMonitor.run("timeSliceExpired", () -> onTimeSliceExpired(taskId))));
+    private DatabaseChangeMonitor changeMonitor;
+    private DatabaseMaintenance maintenance;
+    private RecurrenceService recurrenceService;
+    private final TraceRecorder traceRecorder = TraceRecorder.fromSystemProperty(); // Null unless enabled
+    private Stage queueBrowserStage;
+    private Stage heatmapStage;
 
     private Task currentTask;
     private Long lastCurrentTaskId; // Track when current task changes
@@ -72,40 +153,56 @@ public class MainController {
     private List<WorkSession> currentTaskSessions = new ArrayList<>(); // All sessions since task was displayed
     private long completedDailySeconds; // Time from DB (completed sessions today)
     private long completedTotalSeconds; // Time from DB (all completed sessions)
+    private TagFilter contextFilter; // Restricts current task to matching tags (null = whole queue)
+    private int queueSize; // Kept up to date from domain events
+    private boolean hasDeletedTask; // Kept up to date from domain events
+    private Boolean glowActive; // Last applied glow state (null until first applied)
     private Timeline timeUpdateTimeline;
+    private Timeline heartbeatTimeline;
 
     @FXML
     public void initialize() {
 
         // Setup time update timeline (runs every 100ms for smooth updates)
-        timeUpdateTimeline = new Timeline(new KeyFrame(Duration.millis(100), event -> updateTimeDisplay()));
+        timeUpdateTimeline = new Timeline(new KeyFrame(Duration.millis(100),
+                uiActionMonitor.wrap("updateTimeDisplay", event -> updateTimeDisplay())));
         timeUpdateTimeline.setCycleCount(Animation.INDEFINITE);
         timeUpdateTimeline.play();
 
+        // Record that the active session is still running, so a crash loses at most one interval
+        heartbeatTimeline = new Timeline(new KeyFrame(HEARTBEAT_INTERVAL, uiActionMonitor.wrap("heartbeat", event -> {
+            if (activeWorkSession != null) {
+                activeSessionJournal.heartbeat(Instant.now());
+            }
+        })));
+        heartbeatTimeline.setCycleCount(Animation.INDEFINITE);
+        heartbeatTimeline.play();
+
         // Setup double-click handler for task name editing
-        currentTaskLabel.setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && currentTask != null) {
+        currentTaskLabel.setOnMouseClicked(uiActionMonitor.wrap("currentTaskLabelClicked", event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && currentTask != null
+                    && taskService != null) {
                 startEditingTaskName();
             }
-        });
+        }));
 
         // Setup TextField handlers
-        taskNameEditField.setOnKeyPressed(event -> {
+        taskNameEditField.setOnKeyPressed(uiActionMonitor.wrap("taskNameEditFieldKeyPressed", event -> {
             if (event.getCode() == KeyCode.ENTER) {
                 saveTaskName();
             } else if (event.getCode() == KeyCode.ESCAPE) {
                 cancelEditingTaskName();
             }
-        });
+        }));
 
         taskNameEditField.focusedProperty().addListener((obs, wasFocused, isNowFocused) -> {
             if (wasFocused && !isNowFocused) {
-                saveTaskName();
+                uiActionMonitor.run("taskNameEditFieldFocusLost", this::saveTaskName);
             }
         });
 
         // Handle clicks anywhere to close edit mode (except on the TextField itself)
-        rootPane.addEventFilter(javafx.scene.input.MouseEvent.MOUSE_PRESSED, event -> {
+        rootPane.addEventFilter(javafx.scene.input.MouseEvent.MOUSE_PRESSED, uiActionMonitor.wrap("rootPaneMousePressed", event -> {
             if (taskNameEditField.isVisible() && !isDescendant(taskNameEditField, (Node) event.getTarget())) {
                 saveTaskName();
                 event.consume();
@@ -114,10 +211,157 @@ public class MainController {
             if (newTaskTextField.isFocused() && !isDescendant(newTaskTextField, (Node) event.getTarget())) {
                 rootPane.requestFocus();
             }
+        }));
+
+        // Time action handlers set in FXML, named by fx:id
+        for (ButtonBase button : List.of(startPauseButton, nextTaskButton, deleteTaskButton, autoRotateButton,
+                queueBrowserButton, heatmapButton, undoButton, addTaskButton)) {
+            button.setOnAction(uiActionMonitor.wrap(button.getId(), button.getOnAction()));
+        }
+        for (TextField field : List.of(newTaskTextField, contextFilterField)) {
+            field.setOnAction(uiActionMonitor.wrap(field.getId(), field.getOnAction()));
+        }
+        rootPane.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                uiActionMonitor.install(scene);
+            }
         });
 
-        // Load initial state
-        refreshUI();
+        // Sample FX thread stack when it stops responding
+        stallWatchdog = new FxStallWatchdog(STALL_THRESHOLD, Platform::runLater, Thread.currentThread(),
+                uiActionMonitor::getCurrentAction, stall -> LOGGER.log(Level.WARNING, stall.format()));
+        stallWatchdog.start();
+
+        // Update only the affected nodes when services report changes
+        eventBus.subscribe(DomainEvent.TaskAdded.class, this::onTaskAdded);
+        eventBus.subscribe(DomainEvent.RecurringTasksMaterialized.class, event -> Platform.runLater(
+                () -> uiActionMonitor.run("recurringTasksMaterialized", () -> onRecurringTasksMaterialized(event))));
+        eventBus.subscribe(DomainEvent.TaskRotated.class, event -> loadCurrentTask());
+        eventBus.subscribe(DomainEvent.TaskMovedToFront.class, event -> loadCurrentTask());
+        eventBus.subscribe(DomainEvent.TaskRenamed.class, this::onTaskRenamed);
+        eventBus.subscribe(DomainEvent.TaskDeleted.class, this::onTaskDeleted);
+        eventBus.subscribe(DomainEvent.TaskTagged.class, event -> onTagsChanged());
+        eventBus.subscribe(DomainEvent.TaskUntagged.class, event -> onTagsChanged());
+        eventBus.subscribe(DomainEvent.TaskDependencyAdded.class, event -> loadCurrentTask());
+        eventBus.subscribe(DomainEvent.TaskDependencyRemoved.class, event -> loadCurrentTask());
+        eventBus.subscribe(DomainEvent.TasksRestored.class, this::onTasksRestored);
+        eventBus.subscribe(DomainEvent.DeletedTasksPurged.class, event -> setHasDeletedTask(false));
+        eventBus.subscribe(DomainEvent.WorkSessionSaved.class, this::onWorkSessionSaved);
+
+        // Reload when another instance or script commits to the same database
+        eventBus.subscribe(DatabaseChangedExternally.class, event -> Platform.runLater(
+                () -> uiActionMonitor.run("databaseChangedExternally", this::onDatabaseChangedExternally)));
+
+        // Clock for time slices of automatic rotation
+        timingWheel.start("time-slice-wheel");
+
+        // Paint the state saved on last close right away - migrations and MyBatis bootstrap
+        // run in the background and the snapshot is reconciled once the database is open
+        startupSnapshot = StartupSnapshotFile.read(
+                DatabaseConfig.getStartupSnapshotPath(DatabaseConfig.getDefaultDatabasePath()));
+        if (startupSnapshot != null) {
+            showSnapshot(startupSnapshot);
+        }
+        updateButtonsState();
+        CompletableFuture.supplyAsync(DatabaseConfig::new)
+                .whenComplete((config, error) -> Platform.runLater(
+                        () -> uiActionMonitor.run("databaseOpened", () -> onDatabaseOpened(config, error))));
+    }
+
+    private void onDatabaseOpened(DatabaseConfig config, Throwable error) {
+        if (error != null) {
+            new Alert(Alert.AlertType.ERROR, "Failed to open database: " + error.getMessage()).showAndWait();
+            Platform.exit();
+            return;
+        }
+        databaseConfig = config;
+        Storage storage = new TimedStorage(new MyBatisStorage(databaseConfig), uiActionMonitor);
+        taskService = new TaskService(storage, eventBus);
+        workSessionService = new WorkSessionService(storage, eventBus);
+        activeSessionLock = databaseConfig.createActiveSessionLock();
+        backupService = new BackupService(databaseConfig, eventBus, BackupPolicy.defaults());
+        archiveService = new ArchiveService(databaseConfig, java.time.Duration.ofDays(90));
+        compactionService = new CompactionService(databaseConfig, eventBus, java.time.Duration.ofMinutes(2), 500);
+        startupSnapshotService = new StartupSnapshotService(databaseConfig, taskService, workSessionService);
+        activeSessionJournal = databaseConfig.openActiveSessionJournal(JOURNAL_SYNC_INTERVAL);
+        // Subscribed before any change is made, so the recovered session is synced too
+        syncService = SyncService.fromSystemProperty(databaseConfig, eventBus);
+        recoverOrphanedSession();
+
+        // Keep the first frame if nothing was committed since it was saved, otherwise load from database.
+        // Checked before background workers start writing.
+        if (startupSnapshot == null || !startupSnapshotService.isCurrent(startupSnapshot)) {
+            lastCurrentTaskId = null;
+            refreshUI();
+        } else {
+            updateButtonsState();
+        }
+        startupSnapshot = null;
+
+        changeMonitor = databaseConfig.startChangeMonitor(eventBus, java.time.Duration.ofSeconds(1));
+
+        // Take online snapshots in the background
+        backupService.startScheduled();
+
+        // Move old work session history to the archive database in the background
+        CompletableFuture.runAsync(archiveService::archiveOldSessions)
+                .exceptionally(e -> {
+                    LOGGER.log(Level.WARNING, "Archiving work sessions failed", e);
+                    return null;
+                });
+
+        // Merge start/pause fragments in small background batches
+        compactionService.start(java.time.Duration.ofMinutes(1));
+
+        // Add instances of recurring tasks when due, catching up on those missed while closed
+        recurrenceService = new RecurrenceService(databaseConfig, eventBus);
+        recurrenceService.start();
+
+        // Vacuum, refresh statistics and checkpoint the WAL in short passes while nothing is written
+        maintenance = databaseConfig.startMaintenance(java.time.Duration.ofMinutes(1),
+                java.time.Duration.ofMinutes(2), java.time.Duration.ofMillis(200));
+
+        // Pick up changes other machines exported to the shared folder
+        if (syncService != null) {
+            CompletableFuture.runAsync(syncService::importChanges)
+                    .exceptionally(e -> {
+                        LOGGER.log(Level.WARNING, "Importing changes failed", e);
+                        return null;
+                    });
+        }
+    }
+
+    private void recoverOrphanedSession() {
+        // Journal of an instance recording right now is not orphaned - recover only while holding the lock
+        if (!activeSessionLock.tryAcquire()) {
+            return;
+        }
+        WorkSession recovered;
+        try {
+            recovered = new SessionRecoveryService(databaseConfig, eventBus).recoverOrphanedSession(activeSessionJournal);
+        } finally {
+            activeSessionLock.release();
+        }
+        if (recovered != null) {
+            long seconds = java.time.Duration.between(recovered.getStartTime(), recovered.getEndTime()).getSeconds();
+            new Alert(Alert.AlertType.INFORMATION, "Recovered work session of "
+                    + WorkSessionService.formatTimeWithSeconds(seconds) + " that was not saved when the application stopped.").show();
+        }
+    }
+
+    private void showSnapshot(StartupSnapshot snapshot) {
+        currentTask = snapshot.getCurrentTaskId() != null
+                ? Task.builder().id(snapshot.getCurrentTaskId()).name(snapshot.getCurrentTaskName()).build()
+                : null;
+        lastCurrentTaskId = snapshot.getCurrentTaskId();
+        currentTaskSessions.clear();
+        // Daily time of another day is not today's time
+        completedDailySeconds = LocalDate.now(ZoneOffset.UTC).equals(snapshot.getDay()) ? snapshot.getDailySeconds() : 0;
+        completedTotalSeconds = snapshot.getTotalSeconds();
+        setQueueSize(snapshot.getQueueSize());
+        setHasDeletedTask(snapshot.isHasDeletedTask());
+        updateTaskNameLabel();
+        updateTimeDisplay();
     }
 
     @FXML
@@ -127,9 +371,28 @@ public class MainController {
             return;
         }
 
-        taskService.addTask(taskName);
+        Task task = taskService.addTask(taskName);
+        recordAction(UserAction.ADD_TASK, taskName);
+        // Words starting with @ are tags, e.g. "Call John @phone"
+        for (String word : taskName.split("\\s+")) {
+            if (word.matches("@[^()&|!]+")) {
+                taskService.addTag(task.getId(), word);
+            }
+        }
         newTaskTextField.clear();
         rootPane.requestFocus(); // Remove focus from text field
+    }
+
+    @FXML
+    private void handleContextFilter() {
+        String expression = contextFilterField.getText().trim();
+        try {
+            contextFilter = expression.isEmpty() ? null : TagFilter.parse(expression);
+        } catch (IllegalArgumentException e) {
+            new Alert(Alert.AlertType.WARNING, e.getMessage()).show();
+            return;
+        }
+        rootPane.requestFocus();
         refreshUI();
     }
 
@@ -143,20 +406,30 @@ public class MainController {
         taskService.cleanupDeletedTasks();
 
         if (activeWorkSession == null) {
+            // Only one instance sharing the database may record an active session
+            if (!activeSessionLock.tryAcquire()) {
+                new Alert(Alert.AlertType.INFORMATION,
+                        "Another Task Manager instance is already recording a work session.").show();
+                return;
+            }
+
             // Start new session in memory (not saved to DB yet)
             activeWorkSession = WorkSession.builder()
                     .taskId(currentTask.getId())
                     .startTime(Instant.now())
                     .build();
+            activeSessionJournal.start(activeWorkSession.getTaskId(), activeWorkSession.getStartTime());
+            recordAction(UserAction.START, null);
+            if (autoRotateButton.isSelected()) {
+                autoRotationService.startQuantum(currentTask.getId(), TIME_SLICE);
+            }
         } else {
             // Pause active session - set end time and save to DB
-            activeWorkSession.setEndTime(Instant.now());
-            workSessionService.saveWorkSession(activeWorkSession);
-            currentTaskSessions.add(activeWorkSession);
-            activeWorkSession = null;
+            saveActiveWorkSession();
+            recordAction(UserAction.PAUSE, null);
         }
 
-        refreshUI();
+        updateButtonsState();
     }
 
     @FXML
@@ -167,10 +440,7 @@ public class MainController {
 
         // Save active session before rotating
         if (activeWorkSession != null) {
-            activeWorkSession.setEndTime(Instant.now());
-            workSessionService.saveWorkSession(activeWorkSession);
-            currentTaskSessions.add(activeWorkSession);
-            activeWorkSession = null;
+            saveActiveWorkSession();
         }
 
         // Cleanup deleted tasks before rotating
@@ -178,8 +448,7 @@ public class MainController {
 
         // Rotate task
         taskService.rotateTask(currentTask.getId());
-
-        refreshUI();
+        recordAction(UserAction.NEXT_TASK, null);
     }
 
     @FXML
@@ -190,10 +459,7 @@ public class MainController {
 
         // Save active session before deleting
         if (activeWorkSession != null) {
-            activeWorkSession.setEndTime(Instant.now());
-            workSessionService.saveWorkSession(activeWorkSession);
-            currentTaskSessions.add(activeWorkSession);
-            activeWorkSession = null;
+            saveActiveWorkSession();
         }
 
         // Cleanup old deleted tasks before deleting current one
@@ -201,21 +467,209 @@ public class MainController {
 
         // Soft delete task
         taskService.softDeleteTask(currentTask.getId());
-
-        refreshUI();
+        recordAction(UserAction.DELETE_TASK, null);
     }
 
     @FXML
     private void handleUndo() {
         // Restore deleted tasks
         taskService.undoDelete();
+        recordAction(UserAction.UNDO, null);
+    }
+
+    @FXML
+    private void handleAutoRotate() {
+        autoRotateButton.setOpacity(autoRotateButton.isSelected() ? 1.0 : 0.6);
+        if (activeWorkSession == null) {
+            return;
+        }
+        // Time slice of running session starts when auto-rotation is turned on
+        if (autoRotateButton.isSelected()) {
+            autoRotationService.startQuantum(activeWorkSession.getTaskId(), TIME_SLICE);
+        } else {
+            autoRotationService.cancelQuantum(activeWorkSession.getTaskId());
+        }
+    }
+
+    @FXML
+    private void handleOpenQueueBrowser() {
+        if (queueBrowserStage != null) {
+            queueBrowserStage.toFront();
+            return;
+        }
+
+        QueueBrowserController controller = new QueueBrowserController(taskService, eventBus);
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/queue-browser.fxml"));
+        loader.setController(controller);
+        Parent root;
+        try {
+            root = loader.load();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load queue browser", e);
+        }
+
+        queueBrowserStage = new Stage();
+        queueBrowserStage.setTitle("Task Queue");
+        queueBrowserStage.setScene(new Scene(root));
+        queueBrowserStage.setOnHidden(event -> {
+            controller.close();
+            queueBrowserStage = null;
+        });
+        queueBrowserStage.show();
+    }
+
+    @FXML
+    private void handleOpenHeatmap() {
+        if (heatmapStage != null) {
+            heatmapStage.toFront();
+            return;
+        }
+
+        HeatmapController controller = new HeatmapController(workSessionService, eventBus, currentTask);
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/heatmap.fxml"));
+        loader.setController(controller);
+        Parent root;
+        try {
+            root = loader.load();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load heatmap", e);
+        }
 
+        heatmapStage = new Stage();
+        heatmapStage.setTitle("Time Worked");
+        heatmapStage.setScene(new Scene(root));
+        heatmapStage.setOnHidden(event -> {
+            controller.close();
+            heatmapStage = null;
+        });
+        heatmapStage.show();
+    }
+
+    private void recordAction(UserAction action, String text) {
+        if (traceRecorder != null) {
+            traceRecorder.record(action, text);
+        }
+    }
+
+    private void saveActiveWorkSession() {
+        activeWorkSession.setEndTime(Instant.now());
+        WorkSession completedSession = activeWorkSession;
+        activeWorkSession = null;
+        autoRotationService.cancelQuantum(completedSession.getTaskId());
+        workSessionService.saveWorkSession(completedSession);
+        activeSessionJournal.clear();
+        activeSessionLock.release();
+    }
+
+    private void onTimeSliceExpired(Long taskId) {
+        // Session may have been paused by the user while the expiry was queued
+        if (activeWorkSession == null || !activeWorkSession.getTaskId().equals(taskId)) {
+            return;
+        }
+        String taskName = currentTask != null ? currentTask.getName() : "";
+
+        // Pause and rotate like the Next button, saving the session with the rotation
+        taskService.cleanupDeletedTasks();
+        // Session is detached first so handlers of the rotation do not save it again
+        WorkSession completedSession = activeWorkSession;
+        activeWorkSession = null;
+        try {
+            taskService.rotateTaskWithPause(taskId, completedSession);
+        } catch (RuntimeException e) {
+            // Nothing was saved - keep recording the session, its journal slot is still in place
+            completedSession.setEndTime(null);
+            activeWorkSession = completedSession;
+            throw e;
+        }
+        activeSessionJournal.clear();
+        activeSessionLock.release();
+        // Same service effect as pressing Next while the session runs
+        recordAction(UserAction.NEXT_TASK, null);
+        updateButtonsState();
+
+        new Alert(Alert.AlertType.INFORMATION,
+                "Time slice is over - \"" + taskName + "\" was moved to the end of the queue.").show();
+    }
+
+    private void onDatabaseChangedExternally() {
+        // Cached times may be stale - force reload of the current task state
+        lastCurrentTaskId = null;
         refreshUI();
     }
 
+    private void onTaskAdded(DomainEvent.TaskAdded event) {
+        adjustQueueSize(1);
+        // New task becomes current only when the queue was empty
+        if (currentTask == null) {
+            if (contextFilter == null) {
+                showCurrentTask(event.task());
+            } else {
+                loadCurrentTask();
+            }
+        }
+    }
+
+    private void onRecurringTasksMaterialized(DomainEvent.RecurringTasksMaterialized event) {
+        adjustQueueSize(event.count());
+        if (currentTask == null) {
+            loadCurrentTask();
+        }
+    }
+
+    private void onTaskRenamed(DomainEvent.TaskRenamed event) {
+        if (currentTask != null && currentTask.getId().equals(event.taskId())) {
+            currentTask.setName(event.name());
+            updateTaskNameLabel();
+        }
+    }
+
+    private void onTaskDeleted(DomainEvent.TaskDeleted event) {
+        adjustQueueSize(-1);
+        setHasDeletedTask(true);
+        loadCurrentTask();
+    }
+
+    private void onTasksRestored(DomainEvent.TasksRestored event) {
+        adjustQueueSize(event.count());
+        setHasDeletedTask(false);
+        loadCurrentTask();
+    }
+
+    private void onTagsChanged() {
+        // Tags only affect the filtered queue
+        if (contextFilter != null) {
+            adjustQueueSize(0);
+            loadCurrentTask();
+        }
+    }
+
+    private void onWorkSessionSaved(DomainEvent.WorkSessionSaved event) {
+        if (Objects.equals(event.workSession().getTaskId(), lastCurrentTaskId)) {
+            currentTaskSessions.add(event.workSession());
+        }
+    }
+
+    /**
+     * Reload all state from database (on startup and after external changes)
+     */
     private void refreshUI() {
-        // Load current task
-        currentTask = taskService.getCurrentTask();
+        setQueueSize(contextFilter == null ? taskService.getQueueSize() : taskService.getQueueSize(contextFilter));
+        setHasDeletedTask(taskService.hasDeletedTask());
+        loadCurrentTask();
+    }
+
+    private void loadCurrentTask() {
+        showCurrentTask(contextFilter == null ? taskService.getCurrentTask() : taskService.getCurrentTask(contextFilter));
+    }
+
+    private void showCurrentTask(Task task) {
+        // Queue browser may move the recorded task away from the front - close its session first
+        Long taskId = task != null ? task.getId() : null;
+        if (activeWorkSession != null && !Objects.equals(activeWorkSession.getTaskId(), taskId)) {
+            saveActiveWorkSession();
+        }
+
+        currentTask = task;
 
         // Detect task change - reset session list and load completed time from DB
         Long currentTaskId = currentTask != null ? currentTask.getId() : null;
@@ -233,31 +687,41 @@ public class MainController {
             }
         }
 
+        updateTaskNameLabel();
+        updateButtonsState();
+        updateTimeDisplay();
+    }
+
+    private void updateTaskNameLabel() {
         // Update task name (only if changed to preserve text selection)
         String newTaskText = (currentTask != null) ? currentTask.getName() : "No tasks in queue";
         if (!currentTaskLabel.getText().equals(newTaskText)) {
             currentTaskLabel.setText(newTaskText);
         }
+    }
 
-        // Update buttons state
-        updateButtonsState();
-
-        // Update undo button visibility
-        updateUndoButton();
-
-        // Update time display
-        updateTimeDisplay();
+    private void adjustQueueSize(int delta) {
+        // Filtered count depends on tags of the changed tasks - ask the in-memory index
+        setQueueSize(contextFilter == null ? queueSize + delta : taskService.getQueueSize(contextFilter));
+    }
 
+    private void setQueueSize(int newQueueSize) {
+        queueSize = newQueueSize;
         // Update queue size (only if changed to preserve text selection)
-        int queueSize = taskService.getQueueSize();
         String newQueueText = "Tasks: " + queueSize;
         if (!queueSizeLabel.getText().equals(newQueueText)) {
             queueSizeLabel.setText(newQueueText);
         }
     }
 
+    private void setHasDeletedTask(boolean hasDeleted) {
+        hasDeletedTask = hasDeleted;
+        updateUndoButton();
+    }
+
     private void updateButtonsState() {
-        boolean hasTask = currentTask != null;
+        boolean ready = taskService != null; // Database is still opening on startup
+        boolean hasTask = ready && currentTask != null;
         boolean isActive = activeWorkSession != null;
 
         // Start/Pause button (icon changes)
@@ -270,7 +734,19 @@ public class MainController {
         // Delete Task button
         deleteTaskButton.setDisable(!hasTask);
 
-        // Update current task section border with glow effect when active
+        // Controls that need the database
+        newTaskTextField.setDisable(!ready);
+        addTaskButton.setDisable(!ready);
+        contextFilterField.setDisable(!ready);
+        queueBrowserButton.setDisable(!ready);
+        heatmapButton.setDisable(!ready);
+        undoButton.setDisable(!ready);
+
+        // Update current task section border with glow effect when active (style swap only on change)
+        if (Objects.equals(glowActive, isActive)) {
+            return;
+        }
+        glowActive = isActive;
         if (isActive) {
             // Bright green border with glow effect
             currentTaskSection.setStyle(
@@ -298,9 +774,8 @@ public class MainController {
     }
 
     private void updateUndoButton() {
-        boolean hasDeleted = taskService.hasDeletedTask();
-        undoButton.setVisible(hasDeleted);
-        undoButton.setManaged(hasDeleted);
+        undoButton.setVisible(hasDeletedTask);
+        undoButton.setManaged(hasDeletedTask);
     }
 
     private void updateTimeDisplay() {
@@ -331,9 +806,9 @@ public class MainController {
             long dailySeconds = completedDailySeconds + currentTaskSeconds;
             long totalSeconds = completedTotalSeconds + currentTaskSeconds;
 
-            String currentTime = workSessionService.formatTimeWithSeconds(currentTaskSeconds);
-            String todayTime = workSessionService.formatTime(dailySeconds);
-            String totalTime = workSessionService.formatTime(totalSeconds);
+            String currentTime = WorkSessionService.formatTimeWithSeconds(currentTaskSeconds);
+            String todayTime = WorkSessionService.formatTime(dailySeconds);
+            String totalTime = WorkSessionService.formatTime(totalSeconds);
 
             newText = String.format("Time: %s (Today: %s, Total: %s)", currentTime, todayTime, totalTime);
         }
@@ -373,13 +848,11 @@ public class MainController {
         if (!newName.isEmpty() && !newName.equals(currentTask.getName())) {
             // Update task name in database
             taskService.updateTaskName(currentTask.getId(), newName);
+            recordAction(UserAction.RENAME_TASK, newName);
         }
 
         // Switch back to display mode
         cancelEditingTaskName();
-
-        // Refresh UI to show updated name
-        refreshUI();
     }
 
     private void cancelEditingTaskName() {
@@ -405,12 +878,51 @@ public class MainController {
     }
 
     public void onApplicationClose() {
+        // Stop the timeline and clock to allow clean shutdown
+        timeUpdateTimeline.stop();
+        heartbeatTimeline.stop();
+        timingWheel.close();
+        stallWatchdog.close();
+        if (traceRecorder != null) {
+            traceRecorder.close();
+        }
+        if (databaseConfig == null) {
+            // Closed before the database was open - nothing recorded yet
+            return;
+        }
+
         // Save active session before closing application
         if (activeWorkSession != null) {
-            activeWorkSession.setEndTime(Instant.now());
-            workSessionService.saveWorkSession(activeWorkSession);
+            saveActiveWorkSession();
+        }
+        if (queueBrowserStage != null) {
+            queueBrowserStage.close();
+        }
+        if (heatmapStage != null) {
+            heatmapStage.close();
+        }
+        // Stop background workers
+        changeMonitor.close();
+        backupService.close();
+        compactionService.close();
+        maintenance.close();
+        recurrenceService.close();
+        activeSessionJournal.close();
+
+        // Share changes of this session with other machines
+        if (syncService != null) {
+            try {
+                syncService.exportChanges();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Exporting changes failed", e);
+            }
+        }
+
+        // State for the first frame of next start
+        try {
+            startupSnapshotService.save();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Saving startup snapshot failed", e);
         }
-        // Stop the timeline to allow clean shutdown
-        timeUpdateTimeline.stop();
     }
 }
@@ -0,0 +1,188 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Observable view of the whole task queue for a virtualized ListView.
+ * <p>
+ * Only rows the view asks for are loaded, one page at a time, and pages are kept in a bounded
+ * LRU cache so heap use does not grow with queue size. A page following a cached page is fetched
+ * by queue_order keyset; other pages (scrollbar jumps) fall back to OFFSET. Changes to single tasks
+ * are applied to the cached rows and fired as fine-grained list changes.
+ */
+class PagedTaskList extends ObservableListBase<Task> {
+
+    static final int PAGE_SIZE = 100;
+    static final int MAX_CACHED_PAGES = 16;
+
+    private final TaskService taskService;
+    private final Map<Integer, List<Task>> pages = new LinkedHashMap<>(MAX_CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private int size;
+
+    PagedTaskList(TaskService taskService) {
+        this.taskService = taskService;
+        this.size = taskService.getQueueSize();
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size);
+        int pageIndex = index / PAGE_SIZE;
+        int offset = index % PAGE_SIZE;
+        List<Task> page = pages.get(pageIndex);
+        if (page == null || offset >= page.size()) {
+            page = loadPage(pageIndex);
+            pages.put(pageIndex, page);
+        }
+        // Queue may have shrunk in the database before we were notified
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of pages currently held in memory
+     */
+    int getCachedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Task appended to end of queue
+     */
+    void taskAdded() {
+        size++;
+        pages.remove((size - 1) / PAGE_SIZE);
+        beginChange();
+        nextAdd(size - 1, size);
+        endChange();
+    }
+
+    /**
+     * Task name changed - replaces only the affected row
+     */
+    void taskRenamed(Long taskId, String name) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            return;
+        }
+        List<Task> page = pages.get(index / PAGE_SIZE);
+        Task old = page.get(index % PAGE_SIZE);
+        page.set(index % PAGE_SIZE, new Task(old.getId(), name, old.getQueueOrder(), old.getCreatedAt(), old.getIsDeleted()));
+        beginChange();
+        nextSet(index, old);
+        endChange();
+    }
+
+    /**
+     * Task removed from queue (deleted)
+     */
+    void taskRemoved(Long taskId) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            reset();
+            return;
+        }
+        Task removed = removeCached(index);
+        size--;
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+    }
+
+    /**
+     * Task moved to end of queue
+     */
+    void taskMovedToEnd(Long taskId) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            reset();
+            return;
+        }
+        Task moved = removeCached(index);
+        pages.remove((size - 1) / PAGE_SIZE);
+        beginChange();
+        nextRemove(index, moved);
+        nextAdd(size - 1, size);
+        endChange();
+    }
+
+    /**
+     * Task moved to front of queue
+     */
+    void taskMovedToFront(Long taskId) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            reset();
+            return;
+        }
+        Task moved = removeCached(index);
+        // Every row before the old position shifts down by one
+        for (int pageIndex = 0; pageIndex <= index / PAGE_SIZE; pageIndex++) {
+            pages.remove(pageIndex);
+        }
+        beginChange();
+        nextRemove(index, moved);
+        nextAdd(0, 1);
+        endChange();
+    }
+
+    /**
+     * Drop all cached rows and reload queue size
+     */
+    void reset() {
+        int oldSize = size;
+        pages.clear();
+        size = taskService.getQueueSize();
+        beginChange();
+        nextRemove(0, Collections.nCopies(oldSize, (Task) null));
+        nextAdd(0, size);
+        endChange();
+    }
+
+    private List<Task> loadPage(int pageIndex) {
+        List<Task> previous = pages.get(pageIndex - 1);
+        if (previous != null && previous.size() == PAGE_SIZE) {
+            int lastQueueOrder = previous.get(PAGE_SIZE - 1).getQueueOrder();
+            return new ArrayList<>(taskService.getTasksAfter(lastQueueOrder, PAGE_SIZE));
+        }
+        return new ArrayList<>(taskService.getTasksPage(pageIndex * PAGE_SIZE, PAGE_SIZE));
+    }
+
+    private int indexOf(Long taskId) {
+        for (Map.Entry<Integer, List<Task>> entry : pages.entrySet()) {
+            List<Task> page = entry.getValue();
+            for (int offset = 0; offset < page.size(); offset++) {
+                if (page.get(offset).getId().equals(taskId)) {
+                    return entry.getKey() * PAGE_SIZE + offset;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Task removeCached(int index) {
+        int pageIndex = index / PAGE_SIZE;
+        Task removed = pages.get(pageIndex).remove(index % PAGE_SIZE);
+        // Rows on later pages shift up by one - their cached pages are no longer valid
+        pages.keySet().removeIf(cachedPage -> cachedPage > pageIndex);
+        return removed;
+    }
+}
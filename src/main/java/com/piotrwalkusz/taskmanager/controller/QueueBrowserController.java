@@ -0,0 +1,168 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextInputDialog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Window listing the whole task queue. Rows are loaded on demand by {@link PagedTaskList},
+ * so the list stays responsive with very large queues.
+ */
+public class QueueBrowserController {
+
+    private static final double ROW_HEIGHT = 28;
+
+    @FXML
+    private ListView<Task> queueListView;
+
+    @FXML
+    private TextField queueSizeLabel;
+
+    @FXML
+    private Button moveToFrontButton;
+
+    @FXML
+    private Button moveToEndButton;
+
+    @FXML
+    private Button renameButton;
+
+    @FXML
+    private Button deleteButton;
+
+    private final TaskService taskService;
+    private final EventBus eventBus;
+    private final List<Runnable> subscriptions = new ArrayList<>();
+    private PagedTaskList tasks;
+
+    public QueueBrowserController(TaskService taskService, EventBus eventBus) {
+        this.taskService = taskService;
+        this.eventBus = eventBus;
+    }
+
+    @FXML
+    public void initialize() {
+        tasks = new PagedTaskList(taskService);
+        queueListView.setItems(tasks);
+        // Fixed row height lets the list compute scroll extent without measuring every row
+        queueListView.setFixedCellSize(ROW_HEIGHT);
+        queueListView.setCellFactory(view -> new QueueCell());
+
+        // Actions need a selected task
+        for (Button button : List.of(moveToFrontButton, moveToEndButton, renameButton, deleteButton)) {
+            button.disableProperty().bind(queueListView.getSelectionModel().selectedItemProperty().isNull());
+        }
+
+        // Apply changes from any window to the affected rows only
+        subscriptions.add(eventBus.subscribe(DomainEvent.TaskAdded.class, event -> tasks.taskAdded()));
+        subscriptions.add(eventBus.subscribe(DomainEvent.TaskRenamed.class, event -> tasks.taskRenamed(event.taskId(), event.name())));
+        subscriptions.add(eventBus.subscribe(DomainEvent.TaskDeleted.class, event -> tasks.taskRemoved(event.taskId())));
+        subscriptions.add(eventBus.subscribe(DomainEvent.TaskRotated.class, event -> tasks.taskMovedToEnd(event.taskId())));
+        subscriptions.add(eventBus.subscribe(DomainEvent.TaskMovedToFront.class, event -> tasks.taskMovedToFront(event.taskId())));
+        subscriptions.add(eventBus.subscribe(DomainEvent.TasksRestored.class, event -> tasks.reset()));
+        subscriptions.add(eventBus.subscribe(DomainEvent.RecurringTasksMaterialized.class,
+                event -> Platform.runLater(tasks::reset)));
+        subscriptions.add(eventBus.subscribe(DatabaseChangedExternally.class, event -> Platform.runLater(tasks::reset)));
+        tasks.addListener((ListChangeListener<Task>) change -> updateQueueSizeLabel());
+
+        updateQueueSizeLabel();
+    }
+
+    @FXML
+    private void handleMoveToFront() {
+        Task task = getSelectedTask();
+        if (task != null) {
+            taskService.moveTaskToFront(task.getId());
+            queueListView.getSelectionModel().select(0);
+            queueListView.scrollTo(0);
+        }
+    }
+
+    @FXML
+    private void handleMoveToEnd() {
+        Task task = getSelectedTask();
+        if (task != null) {
+            taskService.cleanupDeletedTasks();
+            taskService.rotateTask(task.getId());
+        }
+    }
+
+    @FXML
+    private void handleRename() {
+        Task task = getSelectedTask();
+        if (task == null) {
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog(task.getName());
+        dialog.setTitle("Rename task");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Name:");
+        dialog.showAndWait()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty() && !name.equals(task.getName()))
+                .ifPresent(name -> taskService.updateTaskName(task.getId(), name));
+    }
+
+    @FXML
+    private void handleDelete() {
+        Task task = getSelectedTask();
+        if (task != null) {
+            // Same undo semantics as the main window - only the last deleted task can be restored
+            taskService.cleanupDeletedTasks();
+            taskService.softDeleteTask(task.getId());
+        }
+    }
+
+    /**
+     * Stop listening to changes (when window is closed)
+     */
+    public void close() {
+        subscriptions.forEach(Runnable::run);
+        subscriptions.clear();
+    }
+
+    private Task getSelectedTask() {
+        return queueListView.getSelectionModel().getSelectedItem();
+    }
+
+    private void updateQueueSizeLabel() {
+        queueSizeLabel.setText("Tasks: " + tasks.size());
+    }
+
+    /**
+     * Row showing queue position and task name
+     */
+    private static class QueueCell extends ListCell<Task> {
+
+        @Override
+        protected void updateItem(Task task, boolean empty) {
+            super.updateItem(task, empty);
+            updateText();
+        }
+
+        @Override
+        public void updateIndex(int index) {
+            super.updateIndex(index);
+            // Position changes when rows above are moved, even if the task in this cell does not
+            updateText();
+        }
+
+        private void updateText() {
+            Task task = getItem();
+            setText(isEmpty() || task == null ? null : (getIndex() + 1) + ". " + task.getName());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Year-at-a-glance heatmap of worked time: one column per week, one row per weekday.
+ * <p>
+ * Drawn on a single canvas instead of a node per day. Each intensity level is a cell tile rendered
+ * once and reused, so painting a year is one pass of image copies.
+ */
+public class WorkHeatmap extends Canvas {
+
+    static final int LEVELS = 5;
+    private static final int COLUMNS = 54; // Partial first and last week
+    private static final int CELL = 11;
+    private static final int STEP = CELL + 2;
+    private static final double LEFT = 30; // Weekday labels
+    private static final double TOP = 16; // Month labels
+    private static final Color[] LEVEL_COLORS = {
+            Color.web("#ebedf0"), Color.web("#9be9a8"), Color.web("#40c463"), Color.web("#30a14e"), Color.web("#216e39")
+    };
+    private static Image[] tiles; // Created on first draw (FX thread)
+
+    private final Tooltip tooltip = new Tooltip();
+    private int year = LocalDate.now().getYear();
+    private Map<LocalDate, Double> secondsByDay = Map.of();
+
+    public WorkHeatmap() {
+        super(LEFT + COLUMNS * STEP, TOP + 7 * STEP);
+        Tooltip.install(this, tooltip);
+        setOnMouseMoved(event -> {
+            LocalDate day = dayAt(year, event.getX() - LEFT, event.getY() - TOP);
+            tooltip.setText(day == null ? null
+                    : day + ": " + WorkSessionService.formatTime(Math.round(secondsByDay.getOrDefault(day, 0.0))));
+        });
+        draw();
+    }
+
+    /**
+     * Show worked days of year
+     */
+    public void setDays(int year, List<WorkDay> days) {
+        this.year = year;
+        Map<LocalDate, Double> seconds = new HashMap<>();
+        for (WorkDay day : days) {
+            seconds.put(day.getDay(), day.getSeconds());
+        }
+        this.secondsByDay = seconds;
+        draw();
+    }
+
+    private void draw() {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.clearRect(0, 0, getWidth(), getHeight());
+        graphics.setFill(Color.web("#7f8c8d"));
+        graphics.setFont(Font.font(9));
+
+        for (DayOfWeek dayOfWeek : List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)) {
+            graphics.fillText(dayOfWeek.getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+                    0, TOP + row(dayOfWeek) * STEP + CELL - 1);
+        }
+        for (Month month : Month.values()) {
+            LocalDate first = LocalDate.of(year, month, 1);
+            graphics.fillText(month.getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+                    LEFT + column(first) * STEP, TOP - 4);
+        }
+
+        double maxSeconds = secondsByDay.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        Image[] levelTiles = getTiles();
+        for (LocalDate day = LocalDate.of(year, 1, 1); day.getYear() == year; day = day.plusDays(1)) {
+            int level = level(secondsByDay.getOrDefault(day, 0.0), maxSeconds);
+            graphics.drawImage(levelTiles[level], LEFT + column(day) * STEP, TOP + row(day.getDayOfWeek()) * STEP);
+        }
+    }
+
+    /**
+     * Column (week) of day in the heatmap of its year; weeks start on Monday
+     */
+    static int column(LocalDate day) {
+        LocalDate firstMonday = day.withDayOfYear(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return (int) (ChronoUnit.DAYS.between(firstMonday, day) / 7);
+    }
+
+    static int row(DayOfWeek dayOfWeek) {
+        return dayOfWeek.getValue() - 1;
+    }
+
+    /**
+     * Intensity level of worked time relative to the busiest day: 0 for no work, then quarters up to 4
+     */
+    static int level(double seconds, double maxSeconds) {
+        if (seconds <= 0 || maxSeconds <= 0) {
+            return 0;
+        }
+        return 1 + (int) Math.min(LEVELS - 2, Math.floor((LEVELS - 1) * seconds / maxSeconds));
+    }
+
+    /**
+     * Get day of year drawn at position relative to the grid
+     *
+     * @return day or null if position is outside of cells of the year
+     */
+    static LocalDate dayAt(int year, double x, double y) {
+        if (x < 0 || y < 0 || x % STEP >= CELL || y % STEP >= CELL) {
+            return null;
+        }
+        int column = (int) (x / STEP);
+        int row = (int) (y / STEP);
+        if (column >= COLUMNS || row >= 7) {
+            return null;
+        }
+        LocalDate firstMonday = LocalDate.of(year, 1, 1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate day = firstMonday.plusDays(column * 7L + row);
+        return day.getYear() == year ? day : null;
+    }
+
+    private static Image[] getTiles() {
+        if (tiles == null) {
+            Image[] created = new Image[LEVELS];
+            for (int level = 0; level < LEVELS; level++) {
+                created[level] = createTile(LEVEL_COLORS[level]);
+            }
+            tiles = created;
+        }
+        return tiles;
+    }
+
+    /**
+     * Square cell with cut corners, written pixel by pixel
+     */
+    private static Image createTile(Color color) {
+        WritableImage tile = new WritableImage(CELL, CELL);
+        PixelWriter pixels = tile.getPixelWriter();
+        for (int x = 0; x < CELL; x++) {
+            for (int y = 0; y < CELL; y++) {
+                boolean corner = (x == 0 || x == CELL - 1) && (y == 0 || y == CELL - 1);
+                pixels.setColor(x, y, corner ? Color.TRANSPARENT : color);
+            }
+        }
+        return tile;
+    }
+}
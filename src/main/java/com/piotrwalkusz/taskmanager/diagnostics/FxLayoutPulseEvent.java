@@ -0,0 +1,21 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for CSS and layout pass of a scene pulse (only slow ones by default)
+ */
+@Name("com.piotrwalkusz.taskmanager.FxLayoutPulse")
+@Label("FX Layout Pulse")
+@Category({"Task Manager", "UI"})
+@Description("CSS and layout pass of a JavaFX scene pulse")
+@StackTrace(false)
+@Threshold("2 ms")
+class FxLayoutPulseEvent extends Event {
+}
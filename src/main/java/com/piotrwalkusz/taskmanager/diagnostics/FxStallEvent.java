@@ -0,0 +1,31 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event with a stack sample of the FX thread blocked beyond the stall threshold
+ */
+@Name("com.piotrwalkusz.taskmanager.FxStall")
+@Label("FX Stall")
+@Category({"Task Manager", "UI"})
+@Description("JavaFX application thread did not respond within the stall threshold")
+@StackTrace(false)
+class FxStallEvent extends Event {
+
+    @Label("Blocked For")
+    @Timespan(Timespan.NANOSECONDS)
+    long blockedNanos;
+
+    @Label("Action")
+    @Description("UI action running when the sample was taken, null if none")
+    String action;
+
+    @Label("FX Thread Stack")
+    String fxThreadStack;
+}
@@ -0,0 +1,136 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Detects the FX thread being blocked by pinging it from a daemon thread.
+ * <p>
+ * A ping is posted to the FX thread and when it is not run within the threshold, the FX thread
+ * stack is sampled and reported with the running UI action. Further samples of the same stall are
+ * taken at doubling intervals, so a long stall gives a few samples instead of a flood.
+ */
+public class FxStallWatchdog implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(FxStallWatchdog.class.getName());
+    private static final long NO_PING = Long.MIN_VALUE;
+
+    private final long thresholdNanos;
+    private final Executor fxExecutor;
+    private final Thread fxThread;
+    private final Supplier<String> currentAction;
+    private final Consumer<Stall> onStall;
+    private final LongSupplier nanoTime;
+    private final AtomicLong pingSentNanos = new AtomicLong(NO_PING);
+    private long nextSampleNanos; // Watchdog thread only
+    private ScheduledExecutorService clock;
+
+    /**
+     * Sample of blocked FX thread
+     */
+    public record Stall(Duration blockedFor, String action, StackTraceElement[] stackTrace) {
+
+        /**
+         * Format as thread dump entry
+         */
+        public String format() {
+            StringBuilder dump = new StringBuilder("FX thread blocked for " + blockedFor.toMillis() + " ms"
+                    + (action != null ? " in action " + action : "") + "\n");
+            for (StackTraceElement element : stackTrace) {
+                dump.append("\tat ").append(element).append('\n');
+            }
+            return dump.toString();
+        }
+    }
+
+    /**
+     * @param fxExecutor    runs pings on the FX thread (Platform::runLater)
+     * @param fxThread      FX application thread to sample
+     * @param currentAction UI action running on the FX thread
+     * @param onStall       called on the watchdog thread with every sample
+     */
+    public FxStallWatchdog(Duration threshold, Executor fxExecutor, Thread fxThread, Supplier<String> currentAction,
+                           Consumer<Stall> onStall) {
+        this(threshold, fxExecutor, fxThread, currentAction, onStall, System::nanoTime);
+    }
+
+    FxStallWatchdog(Duration threshold, Executor fxExecutor, Thread fxThread, Supplier<String> currentAction,
+                    Consumer<Stall> onStall, LongSupplier nanoTime) {
+        if (threshold.isZero() || threshold.isNegative()) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.fxExecutor = fxExecutor;
+        this.fxThread = fxThread;
+        this.currentAction = currentAction;
+        this.onStall = onStall;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Start checking from a daemon thread, four times per threshold
+     */
+    public synchronized void start() {
+        if (clock != null) {
+            return;
+        }
+        clock = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-stall-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, thresholdNanos / 4);
+        clock.scheduleAtFixedRate(() -> {
+            try {
+                check();
+            } catch (RuntimeException e) {
+                // Keep watching after a failing check
+                LOGGER.log(Level.WARNING, "FX stall check failed", e);
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Post a ping if none is pending, otherwise sample FX thread if the pending ping is overdue
+     */
+    void check() {
+        long now = nanoTime.getAsLong();
+        long sent = pingSentNanos.get();
+        if (sent == NO_PING) {
+            pingSentNanos.set(now);
+            nextSampleNanos = now + thresholdNanos;
+            fxExecutor.execute(() -> pingSentNanos.set(NO_PING));
+            return;
+        }
+        if (now - nextSampleNanos < 0) {
+            return;
+        }
+        long blockedNanos = now - sent;
+        nextSampleNanos = now + blockedNanos;
+        Stall stall = new Stall(Duration.ofNanos(blockedNanos), currentAction.get(), fxThread.getStackTrace());
+
+        FxStallEvent event = new FxStallEvent();
+        if (event.shouldCommit()) {
+            event.blockedNanos = blockedNanos;
+            event.action = stall.action();
+            event.fxThreadStack = stall.format();
+            event.commit();
+        }
+        onStall.accept(stall);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+    }
+}
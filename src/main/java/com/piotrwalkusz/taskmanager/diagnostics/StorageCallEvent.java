@@ -0,0 +1,30 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one storage read or write, nested in the UI action that caused it
+ */
+@Name("com.piotrwalkusz.taskmanager.StorageCall")
+@Label("Storage Call")
+@Category({"Task Manager", "Storage"})
+@Description("Storage read or write done by a service")
+@StackTrace(false)
+class StorageCallEvent extends Event {
+
+    @Label("Action")
+    @Description("UI action the call was made from, null for background threads")
+    String action;
+
+    @Label("Caller")
+    @Description("Service method making the call")
+    String caller;
+
+    @Label("Write")
+    boolean write;
+}
@@ -0,0 +1,69 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import com.piotrwalkusz.taskmanager.repository.Repositories;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage decorator timing every read and write, counted to the running UI action and emitted
+ * as JFR events with the calling service method. The caller is only looked up while the event is
+ * enabled, so the decorator costs two clock reads when nothing is recording.
+ */
+public class TimedStorage implements Storage {
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final Storage storage;
+    private final UiActionMonitor uiActionMonitor;
+
+    public TimedStorage(Storage storage, UiActionMonitor uiActionMonitor) {
+        this.storage = storage;
+        this.uiActionMonitor = uiActionMonitor;
+    }
+
+    @Override
+    public <T> T read(Function<Repositories, T> work) {
+        return timed(false, () -> storage.read(work));
+    }
+
+    @Override
+    public <T> T write(Function<Repositories, T> work) {
+        return timed(true, () -> storage.write(work));
+    }
+
+    @Override
+    public <T> T writeWithArchive(Function<Repositories, T> work) {
+        return timed(true, () -> storage.writeWithArchive(work));
+    }
+
+    private <T> T timed(boolean write, Supplier<T> call) {
+        StorageCallEvent event = new StorageCallEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            uiActionMonitor.addStorageCall(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.action = uiActionMonitor.getActionOfCurrentThread();
+                event.caller = findCaller();
+                event.write = write;
+                event.commit();
+            }
+        }
+    }
+
+    private static String findCaller() {
+        // First frame outside the storage layer, e.g. TaskService.rotateTask
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(TimedStorage.class.getName())
+                        && !frame.getClassName().equals(Storage.class.getName()))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse(null));
+    }
+}
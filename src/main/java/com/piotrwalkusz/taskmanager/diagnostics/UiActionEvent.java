@@ -0,0 +1,32 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one UI action (event handler or timeline tick) run on the FX thread
+ */
+@Name("com.piotrwalkusz.taskmanager.UiAction")
+@Label("UI Action")
+@Category({"Task Manager", "UI"})
+@Description("Event handler run on the JavaFX application thread")
+@StackTrace(false)
+class UiActionEvent extends Event {
+
+    @Label("Action")
+    String action;
+
+    @Label("Storage Calls")
+    @Description("Number of storage reads and writes done by the action")
+    int storageCalls;
+
+    @Label("Storage Time")
+    @Description("Time spent in storage reads and writes done by the action")
+    @Timespan(Timespan.NANOSECONDS)
+    long storageNanos;
+}
@@ -0,0 +1,112 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+
+/**
+ * Times UI actions on the FX thread and the storage calls nested in them, emitting JFR events.
+ * <p>
+ * Actions may nest (e.g. focus lost while a button is pressed); each one gets its own event and
+ * storage calls are counted to the innermost one. The running action is visible to
+ * {@link FxStallWatchdog}, so stack samples are labeled with it.
+ */
+public class UiActionMonitor {
+
+    private final ThreadLocal<ActionFrame> currentFrame = new ThreadLocal<>();
+    private volatile String currentAction; // Of the FX thread, read by the watchdog
+
+    /**
+     * State of running action
+     */
+    private static final class ActionFrame {
+
+        private final String action;
+        private final ActionFrame parent;
+        private int storageCalls;
+        private long storageNanos;
+
+        private ActionFrame(String action, ActionFrame parent) {
+            this.action = action;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Run work as named UI action
+     */
+    public void run(String action, Runnable work) {
+        ActionFrame frame = new ActionFrame(action, currentFrame.get());
+        currentFrame.set(frame);
+        currentAction = action;
+        UiActionEvent event = new UiActionEvent();
+        event.begin();
+        try {
+            work.run();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.action = action;
+                event.storageCalls = frame.storageCalls;
+                event.storageNanos = frame.storageNanos;
+                event.commit();
+            }
+            currentFrame.set(frame.parent);
+            currentAction = frame.parent != null ? frame.parent.action : null;
+        }
+    }
+
+    /**
+     * Wrap event handler so each handled event is timed as named UI action
+     */
+    public <T extends Event> EventHandler<T> wrap(String action, EventHandler<T> handler) {
+        return event -> run(action, () -> handler.handle(event));
+    }
+
+    /**
+     * Emit JFR events for slow CSS and layout passes of scene pulses
+     */
+    public void install(Scene scene) {
+        FxLayoutPulseEvent[] pulse = new FxLayoutPulseEvent[1];
+        scene.addPreLayoutPulseListener(() -> {
+            pulse[0] = new FxLayoutPulseEvent();
+            pulse[0].begin();
+        });
+        scene.addPostLayoutPulseListener(() -> {
+            if (pulse[0] != null) {
+                pulse[0].commit();
+                pulse[0] = null;
+            }
+        });
+    }
+
+    /**
+     * Get action running on the FX thread
+     *
+     * @return action name or null if the FX thread is not in an action
+     */
+    public String getCurrentAction() {
+        return currentAction;
+    }
+
+    /**
+     * Get action running on calling thread
+     *
+     * @return action name or null if calling thread is not in an action
+     */
+    String getActionOfCurrentThread() {
+        ActionFrame frame = currentFrame.get();
+        return frame != null ? frame.action : null;
+    }
+
+    /**
+     * Add storage call to action running on calling thread, if any
+     */
+    void addStorageCall(long nanos) {
+        ActionFrame frame = currentFrame.get();
+        if (frame != null) {
+            frame.storageCalls++;
+            frame.storageNanos += nanos;
+        }
+    }
+}
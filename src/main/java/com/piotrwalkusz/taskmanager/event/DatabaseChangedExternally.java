@@ -0,0 +1,9 @@
+package com.piotrwalkusz.taskmanager.event;
+
+/**
+ * Another process (other application instance, script) committed changes to the database,
+ * or changes of another machine were imported. Published from the change monitor thread or the
+ * importing thread; any in-memory state derived from the database is stale.
+ */
+public record DatabaseChangedExternally(long changeVersion) {
+}
@@ -0,0 +1,108 @@
+package com.piotrwalkusz.taskmanager.event;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.util.List;
+
+/**
+ * Domain events published by services after the change is committed
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * New task added to end of queue
+     */
+    record TaskAdded(Task task) implements DomainEvent {
+    }
+
+    /**
+     * Instances of due recurring tasks added to end of queue
+     */
+    record RecurringTasksMaterialized(List<Task> tasks) implements DomainEvent {
+
+        public int count() {
+            return tasks.size();
+        }
+    }
+
+    /**
+     * Task moved to end of queue
+     */
+    record TaskRotated(Long taskId) implements DomainEvent {
+    }
+
+    /**
+     * Task moved to front of queue
+     */
+    record TaskMovedToFront(Long taskId) implements DomainEvent {
+    }
+
+    /**
+     * Task name changed
+     */
+    record TaskRenamed(Long taskId, String name) implements DomainEvent {
+    }
+
+    /**
+     * Task soft deleted
+     */
+    record TaskDeleted(Long taskId) implements DomainEvent {
+    }
+
+    /**
+     * Tag assigned to task
+     */
+    record TaskTagged(Long taskId, String tag) implements DomainEvent {
+    }
+
+    /**
+     * Tag removed from task
+     */
+    record TaskUntagged(Long taskId, String tag) implements DomainEvent {
+    }
+
+    /**
+     * Task made to wait for prerequisite
+     */
+    record TaskDependencyAdded(Long taskId, Long prerequisiteId) implements DomainEvent {
+    }
+
+    /**
+     * Task no longer waits for prerequisite
+     */
+    record TaskDependencyRemoved(Long taskId, Long prerequisiteId) implements DomainEvent {
+    }
+
+    /**
+     * Soft-deleted tasks restored by undo
+     */
+    record TasksRestored(List<Long> taskIds) implements DomainEvent {
+
+        public int count() {
+            return taskIds.size();
+        }
+    }
+
+    /**
+     * Soft-deleted tasks permanently removed
+     */
+    record DeletedTasksPurged(List<Long> taskIds) implements DomainEvent {
+
+        public int count() {
+            return taskIds.size();
+        }
+    }
+
+    /**
+     * Completed work session saved to database
+     */
+    record WorkSessionSaved(WorkSession workSession) implements DomainEvent {
+    }
+
+    /**
+     * Adjacent work sessions merged (totals unchanged)
+     */
+    record WorkSessionsCompacted(int reclaimedRows) implements DomainEvent {
+    }
+}
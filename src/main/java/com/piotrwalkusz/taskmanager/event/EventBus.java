@@ -0,0 +1,45 @@
+package com.piotrwalkusz.taskmanager.event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Lightweight in-process event bus.
+ * Events are delivered synchronously on the publishing thread to listeners
+ * subscribed to the event type or any of its supertypes.
+ */
+public class EventBus {
+
+    private final Map<Class<?>, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe listener to events of given type (including subtypes)
+     *
+     * @return handle that removes the subscription when run
+     */
+    public <E> Runnable subscribe(Class<E> eventType, Consumer<? super E> listener) {
+        Consumer<Object> wrapper = event -> listener.accept(eventType.cast(event));
+        List<Consumer<Object>> typeListeners = listeners.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>());
+        typeListeners.add(wrapper);
+        return () -> typeListeners.remove(wrapper);
+    }
+
+    /**
+     * Publish event to all matching listeners
+     */
+    public void publish(Object event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Class<?>, List<Consumer<Object>>> entry : listeners.entrySet()) {
+            if (entry.getKey().isInstance(event)) {
+                for (Consumer<Object> listener : entry.getValue()) {
+                    listener.accept(event);
+                }
+            }
+        }
+    }
+}
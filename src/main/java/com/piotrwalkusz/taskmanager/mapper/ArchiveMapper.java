@@ -0,0 +1,79 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.Instant;
+
+/**
+ * Statements for the archive database (attached as "archive").
+ * ATTACH/DETACH cannot run inside a transaction, so callers use an auto-commit session.
+ */
+@Mapper
+public interface ArchiveMapper {
+
+    /**
+     * Attach archive database file as "archive"
+     */
+    void attachArchive(@Param("path") String path);
+
+    /**
+     * Detach archive database
+     */
+    void detachArchive();
+
+    /**
+     * Create archive work_session table if missing
+     */
+    void createArchiveTable();
+
+    /**
+     * Create archive index for per-task range queries if missing
+     */
+    void createArchiveIndex();
+
+    /**
+     * Get highest work_session id of the next batch of sessions ending before horizon
+     */
+    Long getArchiveBatchUpperId(@Param("horizon") Instant horizon, @Param("limit") int limit);
+
+    /**
+     * Copy batch of old sessions to archive
+     */
+    int copyToArchive(@Param("horizon") Instant horizon, @Param("upToId") Long upToId);
+
+    /**
+     * Add batch of old sessions to per-task rollups
+     */
+    void addToRollup(@Param("horizon") Instant horizon, @Param("upToId") Long upToId);
+
+    /**
+     * Remove archived batch from hot table
+     */
+    int deleteArchived(@Param("horizon") Instant horizon, @Param("upToId") Long upToId);
+
+    /**
+     * Check if range starting at given time may include archived sessions of task
+     */
+    boolean isArchivedAfter(@Param("taskId") Long taskId, @Param("from") Instant from);
+
+    /**
+     * Get time spent on task in archived sessions started within [from, to) (in seconds)
+     */
+    Double getArchivedTimeSecondsInRange(@Param("taskId") Long taskId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Check if archive database is attached to the session connection
+     */
+    boolean isArchiveAttached();
+
+    /**
+     * Delete archived sessions of soft-deleted tasks (before they are purged)
+     */
+    int deleteArchivedSessionsOfDeletedTasks();
+
+    /**
+     * Delete archived sessions of task (before it is purged)
+     */
+    int deleteArchivedSessionsOfTask(@Param("taskId") Long taskId);
+}
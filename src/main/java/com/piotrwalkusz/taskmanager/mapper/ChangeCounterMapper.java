@@ -0,0 +1,12 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ChangeCounterMapper {
+
+    /**
+     * Get number of changes committed to the database since it was created
+     */
+    long getChangeVersion();
+}
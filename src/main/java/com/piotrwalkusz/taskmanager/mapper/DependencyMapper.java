@@ -0,0 +1,30 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface DependencyMapper {
+
+    /**
+     * Make task depend on prerequisite
+     *
+     * @return 1 if dependency was added, 0 if it already existed
+     */
+    int addDependency(@Param("taskId") Long taskId, @Param("prerequisiteId") Long prerequisiteId);
+
+    /**
+     * Remove dependency of task on prerequisite
+     *
+     * @return 1 if dependency was removed, 0 if it did not exist
+     */
+    int removeDependency(@Param("taskId") Long taskId, @Param("prerequisiteId") Long prerequisiteId);
+
+    /**
+     * Get all dependencies, including those of deleted tasks (for building the in-memory graph)
+     */
+    List<TaskDependency> getDependencies();
+}
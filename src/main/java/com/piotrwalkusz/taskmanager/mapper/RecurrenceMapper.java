@@ -0,0 +1,46 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.RecurrenceRule;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+@Mapper
+public interface RecurrenceMapper {
+
+    /**
+     * Insert rule, setting its generated ID
+     */
+    void insertRule(RecurrenceRule rule);
+
+    /**
+     * Get rule by ID
+     *
+     * @return rule or null if it does not exist
+     */
+    RecurrenceRule getRuleById(@Param("id") Long id);
+
+    /**
+     * Get rules due at or before given time, earliest first
+     */
+    List<RecurrenceRule> getDueRules(@Param("dueBy") Instant dueBy, @Param("limit") int limit);
+
+    /**
+     * Get due time of the earliest rule
+     *
+     * @return epoch milliseconds or null if there are no rules
+     */
+    Long getEarliestDueAt();
+
+    /**
+     * Set next due time of rule
+     */
+    void updateNextDueAt(@Param("id") Long id, @Param("nextDueAt") Instant nextDueAt);
+
+    /**
+     * Delete rule by ID
+     */
+    void deleteRule(@Param("id") Long id);
+}
@@ -0,0 +1,135 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.SyncChange;
+import com.piotrwalkusz.taskmanager.model.SyncPendingChange;
+import com.piotrwalkusz.taskmanager.model.SyncRegister;
+import com.piotrwalkusz.taskmanager.model.SyncTaskOrigin;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface SyncMapper {
+
+    /**
+     * Get ID of this node
+     *
+     * @return node ID or null if sync was never used with this database
+     */
+    String getNodeId();
+
+    /**
+     * Create sync state with given node ID unless it already exists
+     */
+    void initState(@Param("nodeId") String nodeId);
+
+    /**
+     * Get last hybrid logical clock value issued by this node
+     */
+    long getClock();
+
+    /**
+     * Advance stored clock to given value (never moves it back)
+     */
+    void advanceClock(@Param("clock") long clock);
+
+    /**
+     * Get sequence of the last exported change
+     */
+    long getExportedSeq();
+
+    void setExportedSeq(@Param("seq") long seq);
+
+    /**
+     * Record change made on this node and set its generated sequence
+     */
+    void insertChange(SyncChange change);
+
+    /**
+     * Get mutations captured by triggers and not logged yet, in order
+     */
+    List<SyncPendingChange> getPendingChanges();
+
+    /**
+     * Get ID of the last captured mutation
+     *
+     * @return ID or 0 if none is pending
+     */
+    long getLastPendingId();
+
+    /**
+     * Drop captured mutations after given ID
+     */
+    void deletePendingChanges(@Param("afterId") long afterId);
+
+    /**
+     * Get changes made on this node after given sequence, in order
+     */
+    List<SyncChange> getChangesAfter(@Param("afterSeq") long afterSeq);
+
+    /**
+     * Get global identity of task
+     *
+     * @return origin or null if task has no recorded origin
+     */
+    SyncTaskOrigin getTaskOrigin(@Param("taskId") Long taskId);
+
+    /**
+     * Record global identity of task
+     */
+    void insertTaskOrigin(@Param("taskId") Long taskId, @Param("originNode") String originNode, @Param("originId") long originId);
+
+    /**
+     * Get local ID of task by its global identity
+     *
+     * @return task ID or null if task was never seen here
+     */
+    Long getTaskIdByOrigin(@Param("originNode") String originNode, @Param("originId") long originId);
+
+    /**
+     * Get version of field of task
+     *
+     * @return register or null if field was never changed through sync
+     */
+    SyncRegister getRegister(@Param("originNode") String originNode, @Param("originId") long originId, @Param("field") String field);
+
+    /**
+     * Create or replace version of field of task
+     */
+    void saveRegister(SyncRegister register);
+
+    /**
+     * Get versions of a field changed at or after given clock value, oldest first
+     */
+    List<SyncRegister> getRegistersSince(@Param("field") String field, @Param("hlc") long hlc);
+
+    /**
+     * Get highest sequence imported from node
+     *
+     * @return sequence or 0 if nothing was imported from node
+     */
+    long getImportedSeq(@Param("nodeId") String nodeId);
+
+    void setImportedSeq(@Param("nodeId") String nodeId, @Param("seq") long seq);
+
+    /**
+     * Move task to end of queue without counting a rotation
+     */
+    void moveTaskToEnd(@Param("taskId") Long taskId);
+
+    /**
+     * Count rotation of task without moving it
+     */
+    void countRotation(@Param("taskId") Long taskId);
+
+    /**
+     * Restore soft-deleted task
+     */
+    void restoreTask(@Param("taskId") Long taskId);
+
+    /**
+     * Permanently delete task with its tags and work sessions
+     */
+    void deleteTask(@Param("taskId") Long taskId);
+}
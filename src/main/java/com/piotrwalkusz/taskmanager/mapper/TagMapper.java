@@ -0,0 +1,35 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface TagMapper {
+
+    /**
+     * Assign tag to task
+     *
+     * @return 1 if tag was added, 0 if task already had it
+     */
+    int addTag(@Param("taskId") Long taskId, @Param("tag") String tag);
+
+    /**
+     * Remove tag from task
+     *
+     * @return 1 if tag was removed, 0 if task did not have it
+     */
+    int removeTag(@Param("taskId") Long taskId, @Param("tag") String tag);
+
+    /**
+     * Get tags of task ordered by name
+     */
+    List<String> getTags(@Param("taskId") Long taskId);
+
+    /**
+     * Get tags of all tasks in queue (for building the in-memory index)
+     */
+    List<TaskTag> getQueueTaskTags();
+}
@@ -0,0 +1,65 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.TaskAttachment;
+import com.piotrwalkusz.taskmanager.model.TaskNote;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Mapper
+public interface TaskContentMapper {
+
+    /**
+     * Get note of task
+     *
+     * @return note or null if task has none
+     */
+    TaskNote getNote(@Param("taskId") Long taskId);
+
+    /**
+     * Create or replace note of task
+     */
+    void saveNote(@Param("taskId") Long taskId, @Param("body") String body, @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Delete note of task
+     */
+    void deleteNote(@Param("taskId") Long taskId);
+
+    /**
+     * Insert attachment metadata and set its generated ID
+     */
+    void insertAttachment(TaskAttachment attachment);
+
+    /**
+     * Insert chunk of attachment content
+     */
+    void insertChunk(@Param("attachmentId") Long attachmentId, @Param("seq") int seq, @Param("data") byte[] data);
+
+    /**
+     * Get chunk of attachment content
+     *
+     * @return chunk or empty if attachment has no such chunk (an array return type would be mapped as many rows)
+     */
+    Optional<byte[]> getChunk(@Param("attachmentId") Long attachmentId, @Param("seq") int seq);
+
+    /**
+     * Get attachment metadata by ID
+     */
+    TaskAttachment getAttachment(@Param("attachmentId") Long attachmentId);
+
+    /**
+     * Get attachment metadata of task in order of adding
+     */
+    List<TaskAttachment> getAttachments(@Param("taskId") Long taskId);
+
+    /**
+     * Delete attachment with its content
+     *
+     * @return 1 if attachment was deleted, 0 if it did not exist
+     */
+    int deleteAttachment(@Param("attachmentId") Long attachmentId);
+}
@@ -1,9 +1,11 @@
 package com.piotrwalkusz.taskmanager.mapper;
 
 import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 @Mapper
@@ -24,6 +26,16 @@ public interface TaskMapper {
      */
     void rotateTask(@Param("taskId") Long taskId);
 
+    /**
+     * Get task by ID (including soft-deleted)
+     */
+    Task getTaskById(@Param("taskId") Long taskId);
+
+    /**
+     * Get IDs of all tasks ordered by queue_order
+     */
+    List<Long> getQueueTaskIds();
+
     /**
      * Get total number of tasks in queue
      */
@@ -34,6 +46,21 @@ public interface TaskMapper {
      */
     List<Task> getAllTasks();
 
+    /**
+     * Get page of tasks following given queue_order (keyset pagination)
+     */
+    List<Task> getTasksAfter(@Param("afterQueueOrder") int afterQueueOrder, @Param("limit") int limit);
+
+    /**
+     * Get page of tasks by position in queue (for jumps without a known keyset boundary)
+     */
+    List<Task> getTasksPage(@Param("offset") int offset, @Param("limit") int limit);
+
+    /**
+     * Move task to front of queue
+     */
+    void moveTaskToFront(@Param("taskId") Long taskId);
+
     /**
      * Get max queue_order value
      */
@@ -44,6 +71,11 @@ public interface TaskMapper {
      */
     boolean hasDeletedTask();
 
+    /**
+     * Get IDs of soft-deleted tasks
+     */
+    List<Long> getDeletedTaskIds();
+
     /**
      * Soft delete task by ID
      */
@@ -51,16 +83,55 @@ public interface TaskMapper {
 
     /**
      * Undo delete - restore all deleted tasks
+     *
+     * @return number of restored tasks
      */
-    void undoDelete();
+    int undoDelete();
 
     /**
      * Permanently delete all soft-deleted tasks
+     *
+     * @return number of removed tasks
      */
-    void cleanupDeletedTasks();
+    int cleanupDeletedTasks();
 
     /**
      * Update task name
      */
     void updateTaskName(@Param("taskId") Long taskId, @Param("name") String name);
+
+    /**
+     * Record completed work session in task activity; last worked time only moves forward
+     */
+    void recordWork(@Param("taskId") Long taskId, @Param("endTime") Instant endTime, @Param("seconds") double seconds);
+
+    /**
+     * Get activity of task by ID (including soft-deleted)
+     */
+    TaskActivity getTaskActivity(@Param("taskId") Long taskId);
+
+    /**
+     * Get tasks in queue not worked on since given time, never worked on first
+     */
+    List<TaskActivity> getStarvedTasks(@Param("since") Instant since, @Param("limit") int limit);
+
+    /**
+     * Count tasks in queue not worked on since given time
+     */
+    int countStarvedTasks(@Param("since") Instant since);
+
+    /**
+     * Get time worked on all tasks in queue (in seconds)
+     */
+    long getQueueWorkedSeconds();
+
+    /**
+     * Get number of work session log records committed with task writes, null if never set
+     */
+    Long getSessionLogPosition();
+
+    /**
+     * Set number of work session log records committed with task writes
+     */
+    void setSessionLogPosition(@Param("position") long position);
 }
@@ -0,0 +1,27 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface WorkDayMapper {
+
+    /**
+     * Add worked time to day of task
+     */
+    void recordWorkDay(@Param("taskId") Long taskId, @Param("day") LocalDate day, @Param("seconds") double seconds);
+
+    /**
+     * Get days within [from, to) task was worked on, in day order
+     */
+    List<WorkDay> getWorkDays(@Param("taskId") Long taskId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Get days within [from, to) any task was worked on, with time summed over tasks, in day order
+     */
+    List<WorkDay> getAllWorkDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -4,6 +4,9 @@ import com.piotrwalkusz.taskmanager.model.WorkSession;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.Instant;
+import java.util.List;
+
 @Mapper
 public interface WorkSessionMapper {
 
@@ -27,13 +30,39 @@ public interface WorkSessionMapper {
      */
     boolean hasActiveWorkSession(@Param("taskId") Long taskId);
 
+    /**
+     * Check if a completed session of task covers given time
+     */
+    boolean isCoveredBySession(@Param("taskId") Long taskId, @Param("time") Instant time);
+
     /**
      * Get daily time spent on task (in seconds)
      */
     Long getDailyTimeSeconds(@Param("taskId") Long taskId);
 
     /**
-     * Get total time spent on task (in seconds)
+     * Get total time spent on task, including archived sessions (in seconds)
      */
     Long getTotalTimeSeconds(@Param("taskId") Long taskId);
+
+    /**
+     * Get time spent on task in hot sessions started within [from, to) (in seconds)
+     */
+    Double getTimeSecondsInRange(@Param("taskId") Long taskId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Get next batch of sessions in (task_id, start_time, id) order after given key
+     */
+    List<WorkSession> getSessionsAfter(@Param("taskId") Long taskId, @Param("startTime") String startTime,
+                                       @Param("id") Long id, @Param("limit") int limit);
+
+    /**
+     * Set end time of session
+     */
+    void updateEndTime(@Param("id") Long id, @Param("endTime") Instant endTime);
+
+    /**
+     * Delete session by ID
+     */
+    void deleteWorkSession(@Param("id") Long id);
 }
@@ -0,0 +1,24 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Recurring task: every interval, starting at the first due time, a task with the rule's name
+ * is added to the end of the queue
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceRule {
+    private Long id;
+    private String name;
+    private long intervalSeconds;
+    private Instant nextDueAt;
+    private Instant createdAt;
+}
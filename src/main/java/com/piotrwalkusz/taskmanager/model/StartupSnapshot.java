@@ -0,0 +1,27 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * State shown on the main window when the application was closed, for painting the first frame
+ * before the database is open
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartupSnapshot {
+    private long changeVersion;
+    private LocalDate day; // UTC day the daily time belongs to
+    private Long currentTaskId;
+    private String currentTaskName;
+    private int queueSize;
+    private boolean hasDeletedTask;
+    private long dailySeconds;
+    private long totalSeconds;
+}
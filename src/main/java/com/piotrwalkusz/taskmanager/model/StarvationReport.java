@@ -0,0 +1,30 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tasks in queue not worked on since a point in time, most starved first
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StarvationReport {
+    private Instant untouchedSince;
+    private int starvedTaskCount;
+    private long queueWorkedSeconds; // Time worked on all tasks in queue
+    private List<TaskActivity> starvedTasks; // At most the requested limit
+
+    /**
+     * Get share of time worked on all tasks in queue that went to given task (0 to 1)
+     */
+    public double getTimeShare(TaskActivity activity) {
+        return queueWorkedSeconds > 0 ? (double) activity.getWorkedSeconds() / queueWorkedSeconds : 0;
+    }
+}
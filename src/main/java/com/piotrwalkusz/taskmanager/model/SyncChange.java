@@ -0,0 +1,75 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Change of a task recorded for sync between machines. The task is identified by the node that
+ * created it and its ID there (origin), since local IDs differ between machines.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncChange {
+    private Long seq;
+    private long hlc;
+    private String nodeId;
+    private String originNode;
+    private long originId;
+    private Type type;
+    private String value;
+    private Instant startTime;
+    private Instant endTime;
+
+    /**
+     * Kind of change, with the code used in change files
+     */
+    public enum Type {
+        ADD(1, true),
+        RENAME(2, true),
+        ROTATE(3, false),
+        MOVE_TO_FRONT(4, false),
+        DELETE(5, false),
+        RESTORE(6, false),
+        PURGE(7, false),
+        TAG(8, true),
+        UNTAG(9, true),
+        WORK(10, false);
+
+        private final int code;
+        private final boolean hasValue;
+
+        Type(int code, boolean hasValue) {
+            this.code = code;
+            this.hasValue = hasValue;
+        }
+
+        /**
+         * Get code stored in change file (stable across reordering of constants)
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Check if change carries a value (task name or tag)
+         */
+        public boolean hasValue() {
+            return hasValue;
+        }
+
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown change type code: " + code);
+        }
+    }
+}
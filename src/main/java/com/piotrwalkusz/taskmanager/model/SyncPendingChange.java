@@ -0,0 +1,24 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Mutation of a local task captured in the current transaction, not yet stamped as a {@link SyncChange}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncPendingChange {
+    private Long id;
+    private Long taskId;
+    private SyncChange.Type type;
+    private String value;
+    private Instant startTime;
+    private Instant endTime;
+}
@@ -0,0 +1,22 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Version of the last winning change of one field of a task (last writer wins)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRegister {
+    private String originNode;
+    private long originId;
+    private String field;
+    private long hlc;
+    private String nodeId;
+    private String value;
+}
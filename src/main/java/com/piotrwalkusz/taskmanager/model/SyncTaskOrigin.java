@@ -0,0 +1,19 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Global identity of a task - node that created it and its ID there
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTaskOrigin {
+    private Long taskId;
+    private String originNode;
+    private long originId;
+}
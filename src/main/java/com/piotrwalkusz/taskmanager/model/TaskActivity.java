@@ -0,0 +1,24 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * How much attention a task got - maintained on every saved work session and rotation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskActivity {
+    private Long taskId;
+    private String name;
+    private Instant createdAt;
+    private Instant lastWorkedAt; // Null if task was never worked on
+    private int rotationCount;
+    private long workedSeconds; // Including archived sessions
+}
@@ -0,0 +1,24 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Attachment metadata; content is read separately as a stream
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskAttachment {
+    private Long id;
+    private Long taskId;
+    private String name;
+    private String mediaType;
+    private long size; // In bytes
+    private Instant createdAt;
+}
@@ -0,0 +1,43 @@
+package com.piotrwalkusz.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time worked on one UTC day - maintained on every saved work session
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkDay {
+    private LocalDate day;
+    private double seconds;
+
+    /**
+     * Split time between start and end at UTC midnight
+     *
+     * @return worked time of each day, in day order
+     */
+    public static List<WorkDay> split(Instant startTime, Instant endTime) {
+        List<WorkDay> days = new ArrayList<>();
+        Instant start = startTime;
+        while (start.isBefore(endTime)) {
+            LocalDate day = LocalDate.ofInstant(start, ZoneOffset.UTC);
+            Instant nextDay = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant end = endTime.isBefore(nextDay) ? endTime : nextDay;
+            days.add(new WorkDay(day, Duration.between(start, end).toNanos() / 1e9));
+            start = end;
+        }
+        return days;
+    }
+}
@@ -0,0 +1,27 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.time.Duration;
+
+/**
+ * Repositories bound to one read or write unit of work
+ */
+public record Repositories(TaskRepository tasks, WorkSessionRepository workSessions) {
+
+    /**
+     * Save work session and, once it is completed, record it in the activity of its task and in
+     * the worked time of each day it spans
+     */
+    public void saveWorkSession(WorkSession workSession) {
+        workSessions.insertWorkSession(workSession);
+        if (workSession.getEndTime() != null) {
+            double seconds = Duration.between(workSession.getStartTime(), workSession.getEndTime()).toNanos() / 1e9;
+            workSessions.recordWork(workSession.getTaskId(), workSession.getEndTime(), seconds);
+            for (WorkDay day : WorkDay.split(workSession.getStartTime(), workSession.getEndTime())) {
+                workSessions.recordWorkDay(workSession.getTaskId(), day.getDay(), day.getSeconds());
+            }
+        }
+    }
+}
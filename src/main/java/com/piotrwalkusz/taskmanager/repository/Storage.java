@@ -0,0 +1,40 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Storage backend behind the services. Repositories are only valid inside the unit of work
+ * they were passed to.
+ */
+public interface Storage {
+
+    /**
+     * Run work reading committed data
+     */
+    <T> T read(Function<Repositories, T> work);
+
+    /**
+     * Run work in a write transaction and commit it; changes are discarded if work throws.
+     * Work may be retried by the backend, so it must be repeatable.
+     */
+    <T> T write(Function<Repositories, T> work);
+
+    /**
+     * Run work in a write transaction that also reaches archived work sessions, for writes that
+     * purge tasks, see {@link #write}. Backends without an archive run a plain write.
+     */
+    default <T> T writeWithArchive(Function<Repositories, T> work) {
+        return write(work);
+    }
+
+    /**
+     * Run work in a write transaction and commit it, see {@link #write}
+     */
+    default void runWrite(Consumer<Repositories> work) {
+        write(repositories -> {
+            work.accept(repositories);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Storage of the task queue. Tasks are ordered by queue_order; soft-deleted tasks keep their
+ * position but are not part of the queue.
+ */
+public interface TaskRepository {
+
+    /**
+     * Get current task (head of queue)
+     */
+    Task getCurrentTask();
+
+    /**
+     * Get task by ID (including soft-deleted)
+     */
+    Task getTaskById(Long taskId);
+
+    /**
+     * Add new task to end of queue and set its generated ID
+     */
+    void insertTask(Task task);
+
+    /**
+     * Move task to end of queue and count the rotation
+     */
+    void rotateTask(Long taskId);
+
+    /**
+     * Move task to front of queue
+     */
+    void moveTaskToFront(Long taskId);
+
+    /**
+     * Get total number of tasks in queue
+     */
+    int getQueueSize();
+
+    /**
+     * Get all tasks ordered by queue_order
+     */
+    List<Task> getAllTasks();
+
+    /**
+     * Get page of tasks following given queue_order (keyset pagination)
+     */
+    List<Task> getTasksAfter(int afterQueueOrder, int limit);
+
+    /**
+     * Get page of tasks by position in queue
+     */
+    List<Task> getTasksPage(int offset, int limit);
+
+    /**
+     * Get IDs of all tasks ordered by queue_order
+     */
+    List<Long> getQueueTaskIds();
+
+    /**
+     * Check if there is any deleted task
+     */
+    boolean hasDeletedTask();
+
+    /**
+     * Get IDs of soft-deleted tasks
+     */
+    List<Long> getDeletedTaskIds();
+
+    /**
+     * Soft delete task by ID
+     */
+    void softDeleteTask(Long taskId);
+
+    /**
+     * Restore all deleted tasks
+     *
+     * @return number of restored tasks
+     */
+    int undoDelete();
+
+    /**
+     * Permanently delete all soft-deleted tasks with their tags, dependencies and work sessions
+     *
+     * @return number of removed tasks
+     */
+    int cleanupDeletedTasks();
+
+    /**
+     * Update task name
+     */
+    void updateTaskName(Long taskId, String name);
+
+    /**
+     * Assign tag to task
+     *
+     * @return true if tag was added, false if task already had it
+     */
+    boolean addTag(Long taskId, String tag);
+
+    /**
+     * Remove tag from task
+     *
+     * @return true if tag was removed, false if task did not have it
+     */
+    boolean removeTag(Long taskId, String tag);
+
+    /**
+     * Get tags of task ordered by name
+     */
+    List<String> getTags(Long taskId);
+
+    /**
+     * Get tags of all tasks in queue
+     */
+    List<TaskTag> getQueueTaskTags();
+
+    /**
+     * Make task depend on prerequisite
+     *
+     * @return true if dependency was added, false if it already existed
+     */
+    boolean addDependency(Long taskId, Long prerequisiteId);
+
+    /**
+     * Remove dependency of task on prerequisite
+     *
+     * @return true if dependency was removed, false if it did not exist
+     */
+    boolean removeDependency(Long taskId, Long prerequisiteId);
+
+    /**
+     * Get all dependencies, including those of soft-deleted tasks
+     */
+    List<TaskDependency> getDependencies();
+
+    /**
+     * Get activity of task (including soft-deleted)
+     */
+    TaskActivity getTaskActivity(Long taskId);
+
+    /**
+     * Get tasks in queue last worked on before given time - or never worked on and created before it -
+     * never worked on first, then least recently worked on
+     */
+    List<TaskActivity> getStarvedTasks(Instant since, int limit);
+
+    /**
+     * Get number of tasks in queue last worked on before given time, or never worked on and created before it
+     */
+    int countStarvedTasks(Instant since);
+
+    /**
+     * Get time worked on all tasks in queue, including archived sessions (in seconds)
+     */
+    long getQueueWorkedSeconds();
+}
@@ -0,0 +1,70 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage of work sessions. Times are summed over completed sessions and rounded to whole seconds.
+ */
+public interface WorkSessionRepository {
+
+    /**
+     * Save work session and set its generated ID
+     */
+    void insertWorkSession(WorkSession workSession);
+
+    /**
+     * End active (open) work session of task
+     */
+    void pauseWorkSession(Long taskId);
+
+    /**
+     * Check if task has active (open) work session
+     */
+    boolean hasActiveWorkSession(Long taskId);
+
+    /**
+     * Get active (open) work session of task
+     */
+    WorkSession getActiveWorkSession(Long taskId);
+
+    /**
+     * Get time spent on task in sessions started today (UTC, in seconds)
+     */
+    long getDailyTimeSeconds(Long taskId);
+
+    /**
+     * Get total time spent on task (in seconds)
+     */
+    long getTotalTimeSeconds(Long taskId);
+
+    /**
+     * Get time spent on task in sessions started within [from, to), both UTC midnights (in seconds)
+     */
+    long getTimeSecondsInRange(Long taskId, Instant from, Instant to);
+
+    /**
+     * Record completed work session in task activity (last worked time and worked seconds)
+     */
+    void recordWork(Long taskId, Instant endTime, double seconds);
+
+    /**
+     * Add time worked on task on given UTC day
+     */
+    void recordWorkDay(Long taskId, LocalDate day, double seconds);
+
+    /**
+     * Get days within [from, to) task was worked on, in day order
+     */
+    List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to);
+
+    /**
+     * Get days within [from, to) any task (including soft-deleted) was worked on, with time summed
+     * over tasks, in day order
+     */
+    List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to);
+}
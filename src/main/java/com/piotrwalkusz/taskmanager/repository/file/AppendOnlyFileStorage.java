@@ -0,0 +1,172 @@
+package com.piotrwalkusz.taskmanager.repository.file;
+
+import com.piotrwalkusz.taskmanager.repository.memory.InMemoryStorage;
+import com.piotrwalkusz.taskmanager.repository.memory.Mutation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Storage keeping data in memory and persisting every committed write as one record appended to a
+ * log file. The log is replayed on open.
+ * <p>
+ * Record layout is {@code [int length][payload][int CRC32 of payload]}, so a record torn by a crash
+ * or failing its checksum ends the log; the file is truncated there and later records are never
+ * written after garbage. The log is not compacted, so it grows with every write.
+ */
+public class AppendOnlyFileStorage extends InMemoryStorage implements AutoCloseable {
+
+    private static final int MAGIC = 0x544D4C47; // "TMLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final Path logFile;
+    private final FileChannel channel;
+    private int recordCount;
+    private boolean recovered;
+
+    public AppendOnlyFileStorage(Path logFile) {
+        this.logFile = logFile;
+        try {
+            this.channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader();
+            } else {
+                readHeader();
+                replayLog();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open storage log: " + logFile, e);
+        }
+    }
+
+    /**
+     * Get number of committed writes in log
+     */
+    public int getRecordCount() {
+        return read(repositories -> recordCount);
+    }
+
+    /**
+     * Check if a torn or corrupt tail was cut off when the log was opened
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    @Override
+    protected void onCommit(List<Mutation> mutations) {
+        byte[] payload = MutationCodec.encode(mutations);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(payload.length + 8)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt((int) crc.getValue())
+                .flip();
+        long end;
+        try {
+            end = channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to storage log: " + logFile, e);
+        }
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, end + record.position());
+            }
+            channel.force(false);
+            recordCount++;
+        } catch (IOException e) {
+            // Drop partial record so the write can be rolled back in memory
+            try {
+                channel.truncate(end);
+            } catch (IOException truncateException) {
+                e.addSuppressed(truncateException);
+            }
+            throw new RuntimeException("Failed to append to storage log: " + logFile, e);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        int magic = header.getInt(0);
+        int version = header.getInt(4);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not a storage log or unsupported version: " + logFile);
+        }
+    }
+
+    private void replayLog() throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        while (position < size) {
+            if (size - position < 8) {
+                break;
+            }
+            lengthBuffer.clear();
+            readFully(lengthBuffer, position);
+            int length = lengthBuffer.getInt(0);
+            if (length < 0 || length > MAX_RECORD_SIZE || size - position - 8 < length) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + 4);
+            readFully(record, position + 4);
+            byte[] payload = new byte[length];
+            record.get(0, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (record.getInt(length) != (int) crc.getValue()) {
+                break;
+            }
+            List<Mutation> mutations;
+            try {
+                mutations = MutationCodec.decode(payload);
+            } catch (IOException e) {
+                break;
+            }
+            mutations.forEach(this::replay);
+            recordCount++;
+            position += length + 8;
+        }
+        if (position < size) {
+            channel.truncate(position);
+            channel.force(true);
+            recovered = true;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of storage log: " + logFile);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close storage log: " + logFile, e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.piotrwalkusz.taskmanager.repository.file;
+
+import com.piotrwalkusz.taskmanager.repository.memory.Mutation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of a committed write (list of mutations) as a log record payload
+ */
+final class MutationCodec {
+
+    private static final byte INSERT_TASK = 1;
+    private static final byte SET_QUEUE_ORDER = 2;
+    private static final byte SOFT_DELETE_TASK = 3;
+    private static final byte UNDO_DELETE = 4;
+    private static final byte CLEANUP_DELETED_TASKS = 5;
+    private static final byte RENAME_TASK = 6;
+    private static final byte ADD_TAG = 7;
+    private static final byte REMOVE_TAG = 8;
+    private static final byte INSERT_WORK_SESSION = 9;
+    private static final byte PAUSE_WORK_SESSIONS = 10;
+    private static final byte RECORD_WORK = 11;
+    private static final byte ADD_DEPENDENCY = 12;
+    private static final byte REMOVE_DEPENDENCY = 13;
+    private static final byte RECORD_WORK_DAY = 14;
+    private static final byte SET_SESSION_LOG_POSITION = 15;
+
+    private MutationCodec() {
+    }
+
+    static byte[] encode(List<Mutation> mutations) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(mutations.size());
+            for (Mutation mutation : mutations) {
+                write(out, mutation);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode mutations", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Mutation> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<Mutation> mutations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mutations.add(read(in));
+        }
+        return mutations;
+    }
+
+    private static void write(DataOutput out, Mutation mutation) throws IOException {
+        switch (mutation) {
+            case Mutation.InsertTask insert -> {
+                out.writeByte(INSERT_TASK);
+                out.writeLong(insert.taskId());
+                out.writeUTF(insert.name());
+                out.writeInt(insert.queueOrder());
+                writeInstant(out, insert.createdAt());
+            }
+            case Mutation.SetQueueOrder setQueueOrder -> {
+                out.writeByte(SET_QUEUE_ORDER);
+                out.writeLong(setQueueOrder.taskId());
+                out.writeInt(setQueueOrder.queueOrder());
+            }
+            case Mutation.SoftDeleteTask softDelete -> {
+                out.writeByte(SOFT_DELETE_TASK);
+                out.writeLong(softDelete.taskId());
+            }
+            case Mutation.UndoDelete undoDelete -> out.writeByte(UNDO_DELETE);
+            case Mutation.CleanupDeletedTasks cleanup -> out.writeByte(CLEANUP_DELETED_TASKS);
+            case Mutation.RenameTask rename -> {
+                out.writeByte(RENAME_TASK);
+                out.writeLong(rename.taskId());
+                out.writeUTF(rename.name());
+            }
+            case Mutation.AddTag addTag -> {
+                out.writeByte(ADD_TAG);
+                out.writeLong(addTag.taskId());
+                out.writeUTF(addTag.tag());
+            }
+            case Mutation.RemoveTag removeTag -> {
+                out.writeByte(REMOVE_TAG);
+                out.writeLong(removeTag.taskId());
+                out.writeUTF(removeTag.tag());
+            }
+            case Mutation.AddDependency addDependency -> {
+                out.writeByte(ADD_DEPENDENCY);
+                out.writeLong(addDependency.taskId());
+                out.writeLong(addDependency.prerequisiteId());
+            }
+            case Mutation.RemoveDependency removeDependency -> {
+                out.writeByte(REMOVE_DEPENDENCY);
+                out.writeLong(removeDependency.taskId());
+                out.writeLong(removeDependency.prerequisiteId());
+            }
+            case Mutation.InsertWorkSession insert -> {
+                out.writeByte(INSERT_WORK_SESSION);
+                out.writeLong(insert.sessionId());
+                out.writeLong(insert.taskId());
+                writeInstant(out, insert.startTime());
+                writeInstant(out, insert.endTime());
+            }
+            case Mutation.PauseWorkSessions pause -> {
+                out.writeByte(PAUSE_WORK_SESSIONS);
+                out.writeLong(pause.taskId());
+                writeInstant(out, pause.endTime());
+            }
+            case Mutation.RecordWork recordWork -> {
+                out.writeByte(RECORD_WORK);
+                out.writeLong(recordWork.taskId());
+                writeInstant(out, recordWork.endTime());
+                out.writeDouble(recordWork.seconds());
+            }
+            case Mutation.RecordWorkDay recordWorkDay -> {
+                out.writeByte(RECORD_WORK_DAY);
+                out.writeLong(recordWorkDay.taskId());
+                out.writeLong(recordWorkDay.day().toEpochDay());
+                out.writeDouble(recordWorkDay.seconds());
+            }
+            case Mutation.SetSessionLogPosition setPosition -> {
+                out.writeByte(SET_SESSION_LOG_POSITION);
+                out.writeLong(setPosition.position());
+            }
+        }
+    }
+
+    private static Mutation read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case INSERT_TASK -> new Mutation.InsertTask(in.readLong(), in.readUTF(), in.readInt(), readInstant(in));
+            case SET_QUEUE_ORDER -> new Mutation.SetQueueOrder(in.readLong(), in.readInt());
+            case SOFT_DELETE_TASK -> new Mutation.SoftDeleteTask(in.readLong());
+            case UNDO_DELETE -> new Mutation.UndoDelete();
+            case CLEANUP_DELETED_TASKS -> new Mutation.CleanupDeletedTasks();
+            case RENAME_TASK -> new Mutation.RenameTask(in.readLong(), in.readUTF());
+            case ADD_TAG -> new Mutation.AddTag(in.readLong(), in.readUTF());
+            case REMOVE_TAG -> new Mutation.RemoveTag(in.readLong(), in.readUTF());
+            case ADD_DEPENDENCY -> new Mutation.AddDependency(in.readLong(), in.readLong());
+            case REMOVE_DEPENDENCY -> new Mutation.RemoveDependency(in.readLong(), in.readLong());
+            case INSERT_WORK_SESSION -> new Mutation.InsertWorkSession(in.readLong(), in.readLong(), readInstant(in), readInstant(in));
+            case PAUSE_WORK_SESSIONS -> new Mutation.PauseWorkSessions(in.readLong(), readInstant(in));
+            case RECORD_WORK -> new Mutation.RecordWork(in.readLong(), readInstant(in), in.readDouble());
+            case RECORD_WORK_DAY -> new Mutation.RecordWorkDay(in.readLong(), LocalDate.ofEpochDay(in.readLong()), in.readDouble());
+            case SET_SESSION_LOG_POSITION -> new Mutation.SetSessionLogPosition(in.readLong());
+            default -> throw new IOException("Unknown mutation type: " + type);
+        };
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.piotrwalkusz.taskmanager.repository.log;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.WorkSessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Work session repository over {@link WorkSessionLog}. The log holds completed sessions only,
+ * so there is never an active session here - the running session is tracked in memory by the UI.
+ * Task activity and worked days stay in the work session repository of the task storage.
+ */
+class LogWorkSessionRepository implements WorkSessionRepository {
+
+    private final WorkSessionLog log;
+    private final WorkSessionRepository delegate;
+    private final SessionLogStorage.PendingChanges pending; // Null in read
+
+    LogWorkSessionRepository(WorkSessionLog log, WorkSessionRepository delegate, SessionLogStorage.PendingChanges pending) {
+        this.log = log;
+        this.delegate = delegate;
+        this.pending = pending;
+    }
+
+    @Override
+    public void insertWorkSession(WorkSession workSession) {
+        if (pending == null) {
+            throw new IllegalStateException("Work session saved outside of write");
+        }
+        if (workSession.getEndTime() == null) {
+            throw new IllegalArgumentException("Work session log stores only completed sessions");
+        }
+        pending.sessions.add(workSession);
+    }
+
+    @Override
+    public void pauseWorkSession(Long taskId) {
+        // No active sessions in the log
+    }
+
+    @Override
+    public boolean hasActiveWorkSession(Long taskId) {
+        return false;
+    }
+
+    @Override
+    public WorkSession getActiveWorkSession(Long taskId) {
+        return null;
+    }
+
+    @Override
+    public long getDailyTimeSeconds(Long taskId) {
+        Instant startOfDay = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        return getTimeSecondsInRange(taskId, startOfDay, startOfDay.plus(Duration.ofDays(1)));
+    }
+
+    @Override
+    public long getTotalTimeSeconds(Long taskId) {
+        return Math.round(log.getTotalSeconds(taskId));
+    }
+
+    @Override
+    public long getTimeSecondsInRange(Long taskId, Instant from, Instant to) {
+        return Math.round(log.getSecondsInRange(taskId, from, to));
+    }
+
+    @Override
+    public void recordWork(Long taskId, Instant endTime, double seconds) {
+        delegate.recordWork(taskId, endTime, seconds);
+    }
+
+    @Override
+    public void recordWorkDay(Long taskId, LocalDate day, double seconds) {
+        delegate.recordWorkDay(taskId, day, seconds);
+    }
+
+    @Override
+    public List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to) {
+        return delegate.getWorkDays(taskId, from, to);
+    }
+
+    @Override
+    public List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to) {
+        return delegate.getAllWorkDays(from, to);
+    }
+}
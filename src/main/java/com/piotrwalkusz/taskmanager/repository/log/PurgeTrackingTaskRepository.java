@@ -0,0 +1,163 @@
+package com.piotrwalkusz.taskmanager.repository.log;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import com.piotrwalkusz.taskmanager.repository.TaskRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Task repository recording which tasks a write purges, so their sessions can be dropped from the log
+ */
+class PurgeTrackingTaskRepository implements TaskRepository {
+
+    private final TaskRepository delegate;
+    private final SessionLogStorage.PendingChanges pending;
+
+    PurgeTrackingTaskRepository(TaskRepository delegate, SessionLogStorage.PendingChanges pending) {
+        this.delegate = delegate;
+        this.pending = pending;
+    }
+
+    @Override
+    public Task getCurrentTask() {
+        return delegate.getCurrentTask();
+    }
+
+    @Override
+    public Task getTaskById(Long taskId) {
+        return delegate.getTaskById(taskId);
+    }
+
+    @Override
+    public void insertTask(Task task) {
+        delegate.insertTask(task);
+    }
+
+    @Override
+    public void rotateTask(Long taskId) {
+        delegate.rotateTask(taskId);
+    }
+
+    @Override
+    public void moveTaskToFront(Long taskId) {
+        delegate.moveTaskToFront(taskId);
+    }
+
+    @Override
+    public int getQueueSize() {
+        return delegate.getQueueSize();
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return delegate.getAllTasks();
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int afterQueueOrder, int limit) {
+        return delegate.getTasksAfter(afterQueueOrder, limit);
+    }
+
+    @Override
+    public List<Task> getTasksPage(int offset, int limit) {
+        return delegate.getTasksPage(offset, limit);
+    }
+
+    @Override
+    public List<Long> getQueueTaskIds() {
+        return delegate.getQueueTaskIds();
+    }
+
+    @Override
+    public boolean hasDeletedTask() {
+        return delegate.hasDeletedTask();
+    }
+
+    @Override
+    public List<Long> getDeletedTaskIds() {
+        return delegate.getDeletedTaskIds();
+    }
+
+    @Override
+    public void softDeleteTask(Long taskId) {
+        delegate.softDeleteTask(taskId);
+    }
+
+    @Override
+    public int undoDelete() {
+        return delegate.undoDelete();
+    }
+
+    @Override
+    public int cleanupDeletedTasks() {
+        // Read IDs first - the log must drop sessions of exactly the purged tasks
+        List<Long> deletedTaskIds = delegate.getDeletedTaskIds();
+        int purged = delegate.cleanupDeletedTasks();
+        pending.purgedTaskIds.addAll(deletedTaskIds);
+        return purged;
+    }
+
+    @Override
+    public void updateTaskName(Long taskId, String name) {
+        delegate.updateTaskName(taskId, name);
+    }
+
+    @Override
+    public boolean addTag(Long taskId, String tag) {
+        return delegate.addTag(taskId, tag);
+    }
+
+    @Override
+    public boolean removeTag(Long taskId, String tag) {
+        return delegate.removeTag(taskId, tag);
+    }
+
+    @Override
+    public List<String> getTags(Long taskId) {
+        return delegate.getTags(taskId);
+    }
+
+    @Override
+    public List<TaskTag> getQueueTaskTags() {
+        return delegate.getQueueTaskTags();
+    }
+
+    @Override
+    public boolean addDependency(Long taskId, Long prerequisiteId) {
+        return delegate.addDependency(taskId, prerequisiteId);
+    }
+
+    @Override
+    public boolean removeDependency(Long taskId, Long prerequisiteId) {
+        return delegate.removeDependency(taskId, prerequisiteId);
+    }
+
+    @Override
+    public List<TaskDependency> getDependencies() {
+        return delegate.getDependencies();
+    }
+
+    @Override
+    public TaskActivity getTaskActivity(Long taskId) {
+        return delegate.getTaskActivity(taskId);
+    }
+
+    @Override
+    public List<TaskActivity> getStarvedTasks(Instant since, int limit) {
+        return delegate.getStarvedTasks(since, limit);
+    }
+
+    @Override
+    public int countStarvedTasks(Instant since) {
+        return delegate.countStarvedTasks(since);
+    }
+
+    @Override
+    public long getQueueWorkedSeconds() {
+        return delegate.getQueueWorkedSeconds();
+    }
+}
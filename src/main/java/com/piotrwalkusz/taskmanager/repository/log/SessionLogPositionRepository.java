@@ -0,0 +1,19 @@
+package com.piotrwalkusz.taskmanager.repository.log;
+
+/**
+ * Position of the {@link WorkSessionLog} kept by the task storage of a {@link SessionLogStorage}.
+ * The task repository of a storage used under the log implements it, so the position commits
+ * together with the task write.
+ */
+public interface SessionLogPositionRepository {
+
+    /**
+     * Get number of work session log records committed with task writes, null if never set
+     */
+    Long getSessionLogPosition();
+
+    /**
+     * Set number of work session log records committed with task writes
+     */
+    void setSessionLogPosition(long position);
+}
@@ -0,0 +1,105 @@
+package com.piotrwalkusz.taskmanager.repository.log;
+
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.Repositories;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Storage keeping tasks in another storage and work sessions in a {@link WorkSessionLog}.
+ * <p>
+ * Sessions saved and tasks purged by a write are collected and appended to the log at the end of
+ * the write, and the log is synced once for the whole write before the task write commits. The task
+ * storage keeps the log position of its last commit (see {@link SessionLogPositionRepository}), so
+ * records of a write that did not commit - it failed or the process died before commit - are
+ * dropped, right away or when the storage is opened. Reads inside a write see only sessions
+ * committed before it.
+ */
+public class SessionLogStorage implements Storage, AutoCloseable {
+
+    private final Storage taskStorage;
+    private final WorkSessionLog log;
+
+    /**
+     * Changes of one write waiting for the task write to commit
+     */
+    static final class PendingChanges {
+
+        final List<WorkSession> sessions = new ArrayList<>();
+        final List<Long> purgedTaskIds = new ArrayList<>();
+    }
+
+    public SessionLogStorage(Storage taskStorage, WorkSessionLog log) {
+        this.taskStorage = taskStorage;
+        this.log = log;
+        Long position = taskStorage.read(repositories -> positions(repositories).getSessionLogPosition());
+        if (position != null) {
+            dropUncommitted(position);
+        }
+    }
+
+    @Override
+    public <T> T read(Function<Repositories, T> work) {
+        return taskStorage.read(repositories -> work.apply(
+                new Repositories(repositories.tasks(), new LogWorkSessionRepository(log, repositories.workSessions(), null))));
+    }
+
+    @Override
+    public <T> T write(Function<Repositories, T> work) {
+        return write(work, false);
+    }
+
+    @Override
+    public <T> T writeWithArchive(Function<Repositories, T> work) {
+        return write(work, true);
+    }
+
+    private synchronized <T> T write(Function<Repositories, T> work, boolean withArchive) {
+        // Synchronized so the log grows only by the write in progress
+        long committedPosition = log.getRecordCount();
+        try {
+            Function<Repositories, T> logged = repositories -> {
+                // The task storage may retry work, so records of a failed attempt are dropped first
+                log.truncate(committedPosition);
+                PendingChanges pending = new PendingChanges();
+                T result = work.apply(new Repositories(
+                        new PurgeTrackingTaskRepository(repositories.tasks(), pending),
+                        new LogWorkSessionRepository(log, repositories.workSessions(), pending)));
+                if (!pending.sessions.isEmpty() || !pending.purgedTaskIds.isEmpty()) {
+                    pending.purgedTaskIds.forEach(log::purgeTask);
+                    for (WorkSession session : pending.sessions) {
+                        session.setId(log.append(session.getTaskId(), session.getStartTime(), session.getEndTime()));
+                    }
+                    log.sync();
+                    positions(repositories).setSessionLogPosition(log.getRecordCount());
+                }
+                return result;
+            };
+            return withArchive ? taskStorage.writeWithArchive(logged) : taskStorage.write(logged);
+        } catch (RuntimeException | Error e) {
+            dropUncommitted(committedPosition);
+            throw e;
+        }
+    }
+
+    private static SessionLogPositionRepository positions(Repositories repositories) {
+        if (!(repositories.tasks() instanceof SessionLogPositionRepository positions)) {
+            throw new IllegalArgumentException("Task storage does not keep the session log position");
+        }
+        return positions;
+    }
+
+    private void dropUncommitted(long position) {
+        if (log.getRecordCount() > position) {
+            log.truncate(position);
+        }
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+}
@@ -0,0 +1,444 @@
+package com.piotrwalkusz.taskmanager.repository.log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of completed work sessions in memory-mapped segment files.
+ * <p>
+ * Every record has the same width, so record N lives at a computable offset and appending is a few
+ * absolute puts into mapped memory. A segment holds a fixed number of records; a full segment is
+ * followed by a new file. Each task keeps a sparse index of the blocks of records it appears in, so
+ * totals scan only those blocks, reading fields straight from the mapping without copying.
+ * <p>
+ * Records carry a CRC32. On open the log is scanned and ends at the first record that fails its
+ * checksum or sequence number; anything after it (a torn write) is zeroed.
+ */
+public class WorkSessionLog implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_CAPACITY = 64 * 1024;
+
+    static final int RECORD_SIZE = 48;
+    static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x544D5753; // "TMWS"
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 128; // Records per sparse index entry
+
+    // Record layout
+    private static final int SEQUENCE = 0;
+    private static final int TASK_ID = 8;
+    private static final int START_SECONDS = 16;
+    private static final int END_SECONDS = 24;
+    private static final int START_NANOS = 32;
+    private static final int END_NANOS = 36;
+    private static final int KIND = 40;
+    private static final int CHECKSUM = 44;
+
+    private static final int KIND_SESSION = 1;
+    private static final int KIND_TASK_PURGED = 2;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final boolean syncEachAppend;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, TaskBlocks> blocksByTask = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CRC32 crc = new CRC32(); // Guarded by write lock
+    private long recordCount;
+    private long syncedCount;
+    private boolean recovered;
+
+    private record Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * Ordered, deduplicated list of block numbers containing records of one task
+     */
+    private static final class TaskBlocks {
+
+        private int[] blocks = new int[4];
+        private int size;
+
+        void add(int block) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+    }
+
+    /**
+     * Open log with default segment capacity, forcing every append to disk
+     */
+    public WorkSessionLog(Path directory) {
+        this(directory, DEFAULT_SEGMENT_CAPACITY, true);
+    }
+
+    /**
+     * @param segmentCapacity records per segment file
+     * @param syncEachAppend  force each appended record to disk; otherwise only {@link #sync} and close do
+     */
+    public WorkSessionLog(Path directory, int segmentCapacity, boolean syncEachAppend) {
+        if (segmentCapacity < 1) {
+            throw new IllegalArgumentException("Segment capacity must be positive: " + segmentCapacity);
+        }
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.syncEachAppend = syncEachAppend;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Failed to open work session log: " + directory, e);
+        }
+    }
+
+    /**
+     * Append completed work session
+     *
+     * @return sequence number of the record (1-based), used as work session ID
+     */
+    public long append(long taskId, Instant startTime, Instant endTime) {
+        if (startTime == null || endTime == null) {
+            throw new IllegalArgumentException("Work session log stores only completed sessions");
+        }
+        lock.writeLock().lock();
+        try {
+            long sequence = write(KIND_SESSION, taskId, startTime, endTime);
+            blocksByTask.computeIfAbsent(taskId, key -> new TaskBlocks()).add(block(sequence - 1));
+            return sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget all sessions of task (task was permanently deleted)
+     */
+    public void purgeTask(long taskId) {
+        lock.writeLock().lock();
+        try {
+            if (blocksByTask.containsKey(taskId)) {
+                write(KIND_TASK_PURGED, taskId, Instant.EPOCH, Instant.EPOCH);
+                blocksByTask.remove(taskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop records after the first count (appended by a write that did not commit) and force the drop to disk
+     */
+    public void truncate(long count) {
+        lock.writeLock().lock();
+        try {
+            if (count < 0 || count >= recordCount) {
+                return;
+            }
+            int keptSegments = (int) ((count + segmentCapacity - 1) / segmentCapacity);
+            for (long index = count; index < Math.min(recordCount, (long) keptSegments * segmentCapacity); index++) {
+                segments.get((int) (index / segmentCapacity)).buffer().put(offset(index), new byte[RECORD_SIZE]);
+            }
+            if (keptSegments > 0) {
+                segments.get(keptSegments - 1).buffer().force();
+            }
+            while (segments.size() > keptSegments) {
+                Segment segment = segments.removeLast();
+                segment.channel().close();
+                Files.delete(segment.file());
+            }
+            recordCount = count;
+            syncedCount = Math.min(syncedCount, count);
+            blocksByTask.clear();
+            for (long index = 0; index < recordCount; index++) {
+                index(segments.get((int) (index / segmentCapacity)).buffer(), offset(index), index);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to truncate work session log: " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get time spent on task in all sessions (in seconds, not rounded)
+     */
+    public double getTotalSeconds(long taskId) {
+        return sumSeconds(taskId, Long.MIN_VALUE, 0, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Get time spent on task in sessions started within [from, to) (in seconds, not rounded)
+     */
+    public double getSecondsInRange(long taskId, Instant from, Instant to) {
+        return sumSeconds(taskId, from.getEpochSecond(), from.getNano(), to.getEpochSecond(), to.getNano());
+    }
+
+    /**
+     * Get number of records (sessions and purge markers)
+     */
+    public long getRecordCount() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get number of segment files
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check if a torn or corrupt tail was cut off when the log was opened
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Force records appended since last sync to disk
+     */
+    public void sync() {
+        lock.writeLock().lock();
+        try {
+            if (syncedCount < recordCount) {
+                int lastSegment = (int) ((recordCount - 1) / segmentCapacity);
+                for (int number = (int) (syncedCount / segmentCapacity); number <= lastSegment; number++) {
+                    segments.get(number).buffer().force();
+                }
+                syncedCount = recordCount;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double sumSeconds(long taskId, long fromSeconds, int fromNanos, long toSeconds, int toNanos) {
+        lock.readLock().lock();
+        try {
+            TaskBlocks taskBlocks = blocksByTask.get(taskId);
+            if (taskBlocks == null) {
+                return 0;
+            }
+            long seconds = 0;
+            long nanos = 0;
+            for (int i = 0; i < taskBlocks.size; i++) {
+                long first = (long) taskBlocks.blocks[i] * BLOCK_SIZE;
+                long end = Math.min(first + BLOCK_SIZE, recordCount);
+                for (long index = first; index < end; index++) {
+                    MappedByteBuffer buffer = segments.get((int) (index / segmentCapacity)).buffer();
+                    int offset = offset(index);
+                    if (buffer.getLong(offset + TASK_ID) != taskId || buffer.getInt(offset + KIND) != KIND_SESSION) {
+                        continue;
+                    }
+                    long startSeconds = buffer.getLong(offset + START_SECONDS);
+                    int startNanos = buffer.getInt(offset + START_NANOS);
+                    if (compare(startSeconds, startNanos, fromSeconds, fromNanos) < 0
+                            || compare(startSeconds, startNanos, toSeconds, toNanos) >= 0) {
+                        continue;
+                    }
+                    seconds += buffer.getLong(offset + END_SECONDS) - startSeconds;
+                    nanos += buffer.getInt(offset + END_NANOS) - startNanos;
+                }
+            }
+            return seconds + nanos / 1e9;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int compare(long seconds, int nanos, long otherSeconds, int otherNanos) {
+        int result = Long.compare(seconds, otherSeconds);
+        return result != 0 ? result : Integer.compare(nanos, otherNanos);
+    }
+
+    private long write(int kind, long taskId, Instant startTime, Instant endTime) {
+        long index = recordCount;
+        if (index / segmentCapacity == segments.size()) {
+            try {
+                segments.add(createSegment(segments.size(), index + 1));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create work session log segment in " + directory, e);
+            }
+        }
+        MappedByteBuffer buffer = segments.getLast().buffer();
+        int offset = offset(index);
+        long sequence = index + 1;
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + TASK_ID, taskId);
+        buffer.putLong(offset + START_SECONDS, startTime.getEpochSecond());
+        buffer.putLong(offset + END_SECONDS, endTime.getEpochSecond());
+        buffer.putInt(offset + START_NANOS, startTime.getNano());
+        buffer.putInt(offset + END_NANOS, endTime.getNano());
+        buffer.putInt(offset + KIND, kind);
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+        recordCount = sequence;
+        if (syncEachAppend) {
+            buffer.force(offset, RECORD_SIZE);
+            syncedCount = recordCount;
+        }
+        return sequence;
+    }
+
+    private int checksum(MappedByteBuffer buffer, int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+
+    private int offset(long index) {
+        return HEADER_SIZE + (int) (index % segmentCapacity) * RECORD_SIZE;
+    }
+
+    private static int block(long index) {
+        return (int) (index / BLOCK_SIZE);
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(String.format("sessions-%08d.seg", number));
+    }
+
+    private Segment createSegment(int number, long firstSequence) throws IOException {
+        Segment segment = mapSegment(segmentFile(number));
+        writeHeader(segment.buffer(), firstSequence);
+        return segment;
+    }
+
+    private static void writeHeader(MappedByteBuffer buffer, long firstSequence) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, firstSequence);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private Segment mapSegment(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = HEADER_SIZE + (long) segmentCapacity * RECORD_SIZE;
+            return new Segment(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map existing segments, rebuild the index and cut the log at the first invalid record
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(file -> file.getFileName().toString().matches("sessions-\\d{8}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+        boolean ended = false;
+        for (int number = 0; number < files.size(); number++) {
+            Path file = files.get(number);
+            if (ended || !file.equals(segmentFile(number))) {
+                // After the end of the log or a gap in numbering - leftovers of an interrupted write
+                Files.delete(file);
+                recovered = true;
+                ended = true;
+                continue;
+            }
+            Segment segment = mapSegment(file);
+            MappedByteBuffer buffer = segment.buffer();
+            long firstSequence = (long) number * segmentCapacity + 1;
+            segments.add(segment);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != firstSequence) {
+                if (recordCount != firstSequence - 1 || !isZero(buffer, 0, HEADER_SIZE)) {
+                    throw new IOException("Not a work session log segment: " + file);
+                }
+                // Segment created but header not yet written
+                writeHeader(buffer, firstSequence);
+            }
+            for (int slot = 0; slot < segmentCapacity; slot++) {
+                int offset = HEADER_SIZE + slot * RECORD_SIZE;
+                if (!isValid(buffer, offset, recordCount + 1)) {
+                    int end = HEADER_SIZE + segmentCapacity * RECORD_SIZE;
+                    if (!isZero(buffer, offset, end)) {
+                        buffer.put(offset, new byte[end - offset]);
+                        buffer.force();
+                        recovered = true;
+                    }
+                    ended = true;
+                    break;
+                }
+                index(buffer, offset, recordCount);
+                recordCount++;
+            }
+        }
+        syncedCount = recordCount;
+    }
+
+    private boolean isValid(MappedByteBuffer buffer, int offset, long expectedSequence) {
+        return buffer.getLong(offset + SEQUENCE) == expectedSequence
+                && buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset);
+    }
+
+    private void index(MappedByteBuffer buffer, int offset, long index) {
+        long taskId = buffer.getLong(offset + TASK_ID);
+        if (buffer.getInt(offset + KIND) == KIND_TASK_PURGED) {
+            blocksByTask.remove(taskId);
+        } else {
+            blocksByTask.computeIfAbsent(taskId, key -> new TaskBlocks()).add(block(index));
+        }
+    }
+
+    private static boolean isZero(MappedByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer().force();
+                segment.channel().close();
+            }
+            segments.clear();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close work session log: " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.piotrwalkusz.taskmanager.repository.memory;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Data of in-memory storage. Changes are made only through {@link #apply}, which returns the
+ * action undoing the change so a failed transaction can be rolled back.
+ */
+final class InMemoryState {
+
+    private final Map<Long, Task> tasks = new HashMap<>();
+    private final NavigableMap<Integer, Long> taskIdByQueueOrder = new TreeMap<>(); // Including soft-deleted
+    private final Map<Long, TreeSet<String>> tagsByTask = new HashMap<>();
+    private final Map<Long, TreeSet<Long>> prerequisitesByTask = new HashMap<>();
+    private final Map<Long, TreeSet<Long>> dependentsByTask = new HashMap<>(); // Reverse of prerequisitesByTask
+    private final Map<Long, List<WorkSession>> sessionsByTask = new HashMap<>();
+    private final Map<Long, Activity> activityByTask = new HashMap<>();
+    private final TreeSet<Long> taskIdsByLastWorked = new TreeSet<>(Comparator // Including soft-deleted
+            .comparing((Long taskId) -> activityByTask.get(taskId).lastWorkedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Comparator.naturalOrder()));
+    private long lastTaskId;
+    private long lastSessionId;
+    private int deletedCount;
+    private double queueWorkedSeconds;
+    private Long sessionLogPosition;
+
+    /**
+     * Activity of one task; lastWorkedAt is the key of taskIdsByLastWorked, so it is only changed
+     * while the task is out of the set
+     */
+    private static final class Activity {
+
+        private Instant lastWorkedAt;
+        private int rotationCount;
+        private double workedSeconds;
+        private final TreeMap<LocalDate, Double> secondsByDay = new TreeMap<>();
+    }
+
+    Task getTask(Long taskId) {
+        return tasks.get(taskId);
+    }
+
+    /**
+     * Tasks in queue (not deleted) following given queue_order, in queue order
+     */
+    Iterable<Task> queueTasksAfter(Integer afterQueueOrder) {
+        NavigableMap<Integer, Long> ids = afterQueueOrder == null
+                ? taskIdByQueueOrder
+                : taskIdByQueueOrder.tailMap(afterQueueOrder, false);
+        return () -> ids.values().stream()
+                .map(tasks::get)
+                .filter(task -> !task.getIsDeleted())
+                .iterator();
+    }
+
+    /**
+     * Tasks in queue last worked on before given time - or never worked on and created before it -
+     * never worked on first, then least recently worked on
+     */
+    Iterable<Task> starvedTasks(Instant since) {
+        return () -> taskIdsByLastWorked.stream()
+                .takeWhile(taskId -> {
+                    Instant lastWorkedAt = activityByTask.get(taskId).lastWorkedAt;
+                    return lastWorkedAt == null || lastWorkedAt.isBefore(since);
+                })
+                .map(tasks::get)
+                .filter(task -> !task.getIsDeleted())
+                .filter(task -> activityByTask.get(task.getId()).lastWorkedAt != null || task.getCreatedAt().isBefore(since))
+                .iterator();
+    }
+
+    TaskActivity getActivity(Long taskId) {
+        Task task = tasks.get(taskId);
+        if (task == null) {
+            return null;
+        }
+        Activity activity = activityByTask.get(taskId);
+        return new TaskActivity(taskId, task.getName(), task.getCreatedAt(), activity.lastWorkedAt,
+                activity.rotationCount, Math.round(activity.workedSeconds));
+    }
+
+    List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to) {
+        Activity activity = activityByTask.get(taskId);
+        if (activity == null) {
+            return List.of();
+        }
+        List<WorkDay> days = new ArrayList<>();
+        activity.secondsByDay.subMap(from, to).forEach((day, seconds) -> days.add(new WorkDay(day, seconds)));
+        return days;
+    }
+
+    List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, Double> secondsByDay = new TreeMap<>();
+        for (Activity activity : activityByTask.values()) {
+            activity.secondsByDay.subMap(from, to).forEach((day, seconds) -> secondsByDay.merge(day, seconds, Double::sum));
+        }
+        List<WorkDay> days = new ArrayList<>();
+        secondsByDay.forEach((day, seconds) -> days.add(new WorkDay(day, seconds)));
+        return days;
+    }
+
+    long getQueueWorkedSeconds() {
+        return Math.round(queueWorkedSeconds);
+    }
+
+    Long getSessionLogPosition() {
+        return sessionLogPosition;
+    }
+
+    int getQueueSize() {
+        return tasks.size() - deletedCount;
+    }
+
+    boolean hasDeletedTask() {
+        return deletedCount > 0;
+    }
+
+    int getDeletedCount() {
+        return deletedCount;
+    }
+
+    long nextTaskId() {
+        return lastTaskId + 1;
+    }
+
+    long nextSessionId() {
+        return lastSessionId + 1;
+    }
+
+    int getMinQueueOrder() {
+        return taskIdByQueueOrder.isEmpty() ? 0 : taskIdByQueueOrder.firstKey();
+    }
+
+    int getMaxQueueOrder() {
+        return taskIdByQueueOrder.isEmpty() ? 0 : taskIdByQueueOrder.lastKey();
+    }
+
+    TreeSet<String> getTags(Long taskId) {
+        return tagsByTask.getOrDefault(taskId, new TreeSet<>());
+    }
+
+    TreeSet<Long> getPrerequisites(Long taskId) {
+        return prerequisitesByTask.getOrDefault(taskId, new TreeSet<>());
+    }
+
+    List<TaskDependency> getDependencies() {
+        List<TaskDependency> dependencies = new ArrayList<>();
+        prerequisitesByTask.forEach((taskId, prerequisites) ->
+                prerequisites.forEach(prerequisiteId -> dependencies.add(new TaskDependency(taskId, prerequisiteId))));
+        return dependencies;
+    }
+
+    List<WorkSession> getSessions(Long taskId) {
+        return sessionsByTask.getOrDefault(taskId, List.of());
+    }
+
+    /**
+     * Apply change
+     *
+     * @return action reverting the change
+     * @throws IllegalStateException if change refers to a missing task (like a foreign key violation)
+     */
+    Runnable apply(Mutation mutation) {
+        return switch (mutation) {
+            case Mutation.InsertTask insert -> insertTask(insert);
+            case Mutation.SetQueueOrder setQueueOrder -> setQueueOrder(setQueueOrder.taskId(), setQueueOrder.queueOrder());
+            case Mutation.SoftDeleteTask softDelete -> softDeleteTask(softDelete.taskId());
+            case Mutation.UndoDelete undoDelete -> undoDelete();
+            case Mutation.CleanupDeletedTasks cleanup -> cleanupDeletedTasks();
+            case Mutation.RenameTask rename -> renameTask(rename.taskId(), rename.name());
+            case Mutation.AddTag addTag -> addTag(addTag.taskId(), addTag.tag());
+            case Mutation.RemoveTag removeTag -> removeTag(removeTag.taskId(), removeTag.tag());
+            case Mutation.AddDependency addDependency -> addDependency(addDependency.taskId(), addDependency.prerequisiteId());
+            case Mutation.RemoveDependency removeDependency ->
+                    removeDependency(removeDependency.taskId(), removeDependency.prerequisiteId());
+            case Mutation.InsertWorkSession insert -> insertWorkSession(insert);
+            case Mutation.PauseWorkSessions pause -> pauseWorkSessions(pause);
+            case Mutation.RecordWork recordWork -> recordWork(recordWork);
+            case Mutation.RecordWorkDay recordWorkDay -> recordWorkDay(recordWorkDay);
+            case Mutation.SetSessionLogPosition setPosition -> setSessionLogPosition(setPosition.position());
+        };
+    }
+
+    private Runnable insertTask(Mutation.InsertTask insert) {
+        if (tasks.containsKey(insert.taskId()) || taskIdByQueueOrder.containsKey(insert.queueOrder())) {
+            throw new IllegalStateException("Duplicate task ID or queue order: " + insert);
+        }
+        Task task = new Task(insert.taskId(), insert.name(), insert.queueOrder(), insert.createdAt(), false);
+        long previousLastTaskId = lastTaskId;
+        tasks.put(task.getId(), task);
+        taskIdByQueueOrder.put(task.getQueueOrder(), task.getId());
+        activityByTask.put(task.getId(), new Activity());
+        taskIdsByLastWorked.add(task.getId());
+        lastTaskId = Math.max(lastTaskId, task.getId());
+        return () -> {
+            taskIdsByLastWorked.remove(task.getId());
+            activityByTask.remove(task.getId());
+            tasks.remove(task.getId());
+            taskIdByQueueOrder.remove(task.getQueueOrder());
+            lastTaskId = previousLastTaskId;
+        };
+    }
+
+    private Runnable setQueueOrder(long taskId, int queueOrder) {
+        Task task = tasks.get(taskId);
+        if (task == null) {
+            return () -> {
+            };
+        }
+        if (taskIdByQueueOrder.containsKey(queueOrder)) {
+            throw new IllegalStateException("Duplicate queue order: " + queueOrder);
+        }
+        int previousQueueOrder = task.getQueueOrder();
+        moveInQueue(task, previousQueueOrder, queueOrder);
+        // Moving to the end of queue is a rotation
+        Activity activity = activityByTask.get(taskId);
+        int rotations = queueOrder > previousQueueOrder ? 1 : 0;
+        activity.rotationCount += rotations;
+        return () -> {
+            activity.rotationCount -= rotations;
+            moveInQueue(task, queueOrder, previousQueueOrder);
+        };
+    }
+
+    private void moveInQueue(Task task, int from, int to) {
+        taskIdByQueueOrder.remove(from);
+        taskIdByQueueOrder.put(to, task.getId());
+        task.setQueueOrder(to);
+    }
+
+    private Runnable softDeleteTask(long taskId) {
+        Task task = tasks.get(taskId);
+        if (task == null || task.getIsDeleted()) {
+            return () -> {
+            };
+        }
+        task.setIsDeleted(true);
+        deletedCount++;
+        double workedSeconds = activityByTask.get(taskId).workedSeconds;
+        queueWorkedSeconds -= workedSeconds;
+        return () -> {
+            task.setIsDeleted(false);
+            deletedCount--;
+            queueWorkedSeconds += workedSeconds;
+        };
+    }
+
+    private Runnable undoDelete() {
+        List<Task> deleted = getDeletedTasks();
+        deleted.forEach(task -> task.setIsDeleted(false));
+        deletedCount = 0;
+        double workedSeconds = deleted.stream().mapToDouble(task -> activityByTask.get(task.getId()).workedSeconds).sum();
+        queueWorkedSeconds += workedSeconds;
+        return () -> {
+            deleted.forEach(task -> task.setIsDeleted(true));
+            deletedCount = deleted.size();
+            queueWorkedSeconds -= workedSeconds;
+        };
+    }
+
+    private Runnable cleanupDeletedTasks() {
+        List<Task> deleted = getDeletedTasks();
+        Map<Long, TreeSet<String>> removedTags = new HashMap<>();
+        Map<Long, List<WorkSession>> removedSessions = new HashMap<>();
+        Map<Long, Activity> removedActivities = new HashMap<>();
+        List<Runnable> restoreDependencies = new ArrayList<>();
+        for (Task task : deleted) {
+            restoreDependencies.addAll(removeDependenciesOf(task.getId()));
+            taskIdsByLastWorked.remove(task.getId());
+            removedActivities.put(task.getId(), activityByTask.remove(task.getId()));
+            tasks.remove(task.getId());
+            taskIdByQueueOrder.remove(task.getQueueOrder());
+            TreeSet<String> tags = tagsByTask.remove(task.getId());
+            if (tags != null) {
+                removedTags.put(task.getId(), tags);
+            }
+            List<WorkSession> sessions = sessionsByTask.remove(task.getId());
+            if (sessions != null) {
+                removedSessions.put(task.getId(), sessions);
+            }
+        }
+        deletedCount = 0;
+        return () -> {
+            activityByTask.putAll(removedActivities);
+            for (Task task : deleted) {
+                tasks.put(task.getId(), task);
+                taskIdByQueueOrder.put(task.getQueueOrder(), task.getId());
+                taskIdsByLastWorked.add(task.getId());
+            }
+            tagsByTask.putAll(removedTags);
+            sessionsByTask.putAll(removedSessions);
+            restoreDependencies.forEach(Runnable::run);
+            deletedCount = deleted.size();
+        };
+    }
+
+    List<Task> getDeletedTasks() {
+        List<Task> deleted = new ArrayList<>();
+        if (deletedCount > 0) {
+            for (Task task : tasks.values()) {
+                if (task.getIsDeleted()) {
+                    deleted.add(task);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Runnable renameTask(long taskId, String name) {
+        Task task = tasks.get(taskId);
+        if (task == null) {
+            return () -> {
+            };
+        }
+        String previousName = task.getName();
+        task.setName(name);
+        return () -> task.setName(previousName);
+    }
+
+    private Runnable addTag(long taskId, String tag) {
+        requireTask(taskId);
+        TreeSet<String> tags = tagsByTask.computeIfAbsent(taskId, key -> new TreeSet<>());
+        if (!tags.add(tag)) {
+            return () -> {
+            };
+        }
+        return () -> removeTag(taskId, tag);
+    }
+
+    private Runnable removeTag(long taskId, String tag) {
+        TreeSet<String> tags = tagsByTask.get(taskId);
+        if (tags == null || !tags.remove(tag)) {
+            return () -> {
+            };
+        }
+        if (tags.isEmpty()) {
+            tagsByTask.remove(taskId);
+        }
+        return () -> tagsByTask.computeIfAbsent(taskId, key -> new TreeSet<>()).add(tag);
+    }
+
+    private Runnable addDependency(long taskId, long prerequisiteId) {
+        requireTask(taskId);
+        requireTask(prerequisiteId);
+        if (taskId == prerequisiteId) {
+            throw new IllegalStateException("Task cannot depend on itself: " + taskId);
+        }
+        if (!prerequisitesByTask.computeIfAbsent(taskId, key -> new TreeSet<>()).add(prerequisiteId)) {
+            return () -> {
+            };
+        }
+        dependentsByTask.computeIfAbsent(prerequisiteId, key -> new TreeSet<>()).add(taskId);
+        return () -> removeDependency(taskId, prerequisiteId);
+    }
+
+    private Runnable removeDependency(long taskId, long prerequisiteId) {
+        if (!removeFromSet(prerequisitesByTask, taskId, prerequisiteId)) {
+            return () -> {
+            };
+        }
+        removeFromSet(dependentsByTask, prerequisiteId, taskId);
+        return () -> addDependency(taskId, prerequisiteId);
+    }
+
+    /**
+     * Remove dependencies of task in both directions (like the cascade of a foreign key)
+     *
+     * @return actions adding them back
+     */
+    private List<Runnable> removeDependenciesOf(long taskId) {
+        List<Runnable> restore = new ArrayList<>();
+        for (Long prerequisiteId : new ArrayList<>(getPrerequisites(taskId))) {
+            removeDependency(taskId, prerequisiteId);
+            restore.add(() -> addDependency(taskId, prerequisiteId));
+        }
+        for (Long dependentId : new ArrayList<>(dependentsByTask.getOrDefault(taskId, new TreeSet<>()))) {
+            removeDependency(dependentId, taskId);
+            restore.add(() -> addDependency(dependentId, taskId));
+        }
+        return restore;
+    }
+
+    private static boolean removeFromSet(Map<Long, TreeSet<Long>> setsByTask, long key, long value) {
+        TreeSet<Long> values = setsByTask.get(key);
+        if (values == null || !values.remove(value)) {
+            return false;
+        }
+        if (values.isEmpty()) {
+            setsByTask.remove(key);
+        }
+        return true;
+    }
+
+    private Runnable insertWorkSession(Mutation.InsertWorkSession insert) {
+        requireTask(insert.taskId());
+        WorkSession session = new WorkSession(insert.sessionId(), insert.taskId(), insert.startTime(), insert.endTime());
+        long previousLastSessionId = lastSessionId;
+        List<WorkSession> sessions = sessionsByTask.computeIfAbsent(insert.taskId(), key -> new ArrayList<>());
+        sessions.add(session);
+        lastSessionId = Math.max(lastSessionId, insert.sessionId());
+        return () -> {
+            sessions.remove(sessions.size() - 1);
+            if (sessions.isEmpty()) {
+                sessionsByTask.remove(insert.taskId());
+            }
+            lastSessionId = previousLastSessionId;
+        };
+    }
+
+    private Runnable pauseWorkSessions(Mutation.PauseWorkSessions pause) {
+        List<WorkSession> paused = new ArrayList<>();
+        for (WorkSession session : getSessions(pause.taskId())) {
+            if (session.getEndTime() == null) {
+                session.setEndTime(pause.endTime());
+                paused.add(session);
+            }
+        }
+        return () -> paused.forEach(session -> session.setEndTime(null));
+    }
+
+    private Runnable recordWork(Mutation.RecordWork recordWork) {
+        Task task = tasks.get(recordWork.taskId());
+        if (task == null) {
+            return () -> {
+            };
+        }
+        Activity activity = activityByTask.get(recordWork.taskId());
+        Instant previousLastWorkedAt = activity.lastWorkedAt;
+        double queueSeconds = task.getIsDeleted() ? 0 : recordWork.seconds();
+        if (previousLastWorkedAt == null || recordWork.endTime().isAfter(previousLastWorkedAt)) {
+            setLastWorkedAt(recordWork.taskId(), activity, recordWork.endTime());
+        }
+        activity.workedSeconds += recordWork.seconds();
+        queueWorkedSeconds += queueSeconds;
+        return () -> {
+            setLastWorkedAt(recordWork.taskId(), activity, previousLastWorkedAt);
+            activity.workedSeconds -= recordWork.seconds();
+            queueWorkedSeconds -= queueSeconds;
+        };
+    }
+
+    private Runnable recordWorkDay(Mutation.RecordWorkDay recordWorkDay) {
+        requireTask(recordWorkDay.taskId());
+        TreeMap<LocalDate, Double> secondsByDay = activityByTask.get(recordWorkDay.taskId()).secondsByDay;
+        Double previousSeconds = secondsByDay.get(recordWorkDay.day());
+        secondsByDay.merge(recordWorkDay.day(), recordWorkDay.seconds(), Double::sum);
+        return () -> {
+            if (previousSeconds == null) {
+                secondsByDay.remove(recordWorkDay.day());
+            } else {
+                secondsByDay.put(recordWorkDay.day(), previousSeconds);
+            }
+        };
+    }
+
+    private Runnable setSessionLogPosition(long position) {
+        Long previousPosition = sessionLogPosition;
+        sessionLogPosition = position;
+        return () -> sessionLogPosition = previousPosition;
+    }
+
+    private void setLastWorkedAt(long taskId, Activity activity, Instant lastWorkedAt) {
+        taskIdsByLastWorked.remove(taskId);
+        activity.lastWorkedAt = lastWorkedAt;
+        taskIdsByLastWorked.add(taskId);
+    }
+
+    private void requireTask(long taskId) {
+        if (!tasks.containsKey(taskId)) {
+            throw new IllegalStateException("Task does not exist: " + taskId);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.piotrwalkusz.taskmanager.repository.memory;
+
+import com.piotrwalkusz.taskmanager.repository.Repositories;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Storage keeping all data in memory, for tests and ephemeral use.
+ * <p>
+ * Reads run concurrently, writes are serialized. Every change of a write is recorded as a
+ * {@link Mutation} with its undo action, so a write that throws is rolled back and a committed
+ * write can be handed to {@link #onCommit} as a list of mutations, e.g. to persist it.
+ */
+public class InMemoryStorage implements Storage {
+
+    private static final Consumer<Mutation> READ_ONLY = mutation -> {
+        throw new IllegalStateException("Storage modified outside of write: " + mutation);
+    };
+
+    private final InMemoryState state = new InMemoryState();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+    @Override
+    public <T> T read(Function<Repositories, T> work) {
+        lock.readLock().lock();
+        try {
+            return work.apply(repositories(READ_ONLY));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public <T> T write(Function<Repositories, T> work) {
+        lock.writeLock().lock();
+        try {
+            List<Mutation> mutations = new ArrayList<>();
+            Deque<Runnable> undoActions = new ArrayDeque<>();
+            try {
+                T result = work.apply(repositories(mutation -> {
+                    undoActions.push(state.apply(mutation));
+                    mutations.add(mutation);
+                }));
+                if (!mutations.isEmpty()) {
+                    onCommit(mutations);
+                }
+                return result;
+            } catch (RuntimeException | Error e) {
+                undoActions.forEach(Runnable::run);
+                throw e;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called inside the write lock after work of a write completed. Throwing rolls the write back.
+     */
+    protected void onCommit(List<Mutation> mutations) {
+    }
+
+    /**
+     * Apply previously committed mutation without calling {@link #onCommit} (e.g. when loading from a log)
+     */
+    protected void replay(Mutation mutation) {
+        lock.writeLock().lock();
+        try {
+            state.apply(mutation);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Repositories repositories(Consumer<Mutation> apply) {
+        return new Repositories(
+                new InMemoryTaskRepository(state, apply),
+                new InMemoryWorkSessionRepository(state, apply));
+    }
+}
@@ -0,0 +1,253 @@
+package com.piotrwalkusz.taskmanager.repository.memory;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import com.piotrwalkusz.taskmanager.repository.TaskRepository;
+import com.piotrwalkusz.taskmanager.repository.log.SessionLogPositionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Task repository over {@link InMemoryState}. Returned tasks are copies.
+ */
+class InMemoryTaskRepository implements TaskRepository, SessionLogPositionRepository {
+
+    private final InMemoryState state;
+    private final Consumer<Mutation> apply;
+
+    InMemoryTaskRepository(InMemoryState state, Consumer<Mutation> apply) {
+        this.state = state;
+        this.apply = apply;
+    }
+
+    @Override
+    public Task getCurrentTask() {
+        for (Task task : state.queueTasksAfter(null)) {
+            return copy(task);
+        }
+        return null;
+    }
+
+    @Override
+    public Task getTaskById(Long taskId) {
+        Task task = state.getTask(taskId);
+        return task != null ? copy(task) : null;
+    }
+
+    @Override
+    public void insertTask(Task task) {
+        long taskId = state.nextTaskId();
+        Instant createdAt = task.getCreatedAt() != null ? task.getCreatedAt() : Instant.now();
+        apply.accept(new Mutation.InsertTask(taskId, task.getName(), state.getMaxQueueOrder() + 1, createdAt));
+        task.setId(taskId);
+    }
+
+    @Override
+    public void rotateTask(Long taskId) {
+        if (state.getTask(taskId) != null) {
+            apply.accept(new Mutation.SetQueueOrder(taskId, state.getMaxQueueOrder() + 1));
+        }
+    }
+
+    @Override
+    public void moveTaskToFront(Long taskId) {
+        if (state.getTask(taskId) != null) {
+            apply.accept(new Mutation.SetQueueOrder(taskId, state.getMinQueueOrder() - 1));
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return state.getQueueSize();
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return collect(state.queueTasksAfter(null), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int afterQueueOrder, int limit) {
+        return collect(state.queueTasksAfter(afterQueueOrder), 0, limit);
+    }
+
+    @Override
+    public List<Task> getTasksPage(int offset, int limit) {
+        return collect(state.queueTasksAfter(null), offset, limit);
+    }
+
+    @Override
+    public List<Long> getQueueTaskIds() {
+        List<Long> taskIds = new ArrayList<>(state.getQueueSize());
+        for (Task task : state.queueTasksAfter(null)) {
+            taskIds.add(task.getId());
+        }
+        return taskIds;
+    }
+
+    @Override
+    public boolean hasDeletedTask() {
+        return state.hasDeletedTask();
+    }
+
+    @Override
+    public List<Long> getDeletedTaskIds() {
+        return state.getDeletedTasks().stream().map(Task::getId).toList();
+    }
+
+    @Override
+    public void softDeleteTask(Long taskId) {
+        Task task = state.getTask(taskId);
+        if (task != null && !task.getIsDeleted()) {
+            apply.accept(new Mutation.SoftDeleteTask(taskId));
+        }
+    }
+
+    @Override
+    public int undoDelete() {
+        int count = state.getDeletedCount();
+        if (count > 0) {
+            apply.accept(new Mutation.UndoDelete());
+        }
+        return count;
+    }
+
+    @Override
+    public int cleanupDeletedTasks() {
+        int count = state.getDeletedCount();
+        if (count > 0) {
+            apply.accept(new Mutation.CleanupDeletedTasks());
+        }
+        return count;
+    }
+
+    @Override
+    public void updateTaskName(Long taskId, String name) {
+        if (state.getTask(taskId) != null) {
+            apply.accept(new Mutation.RenameTask(taskId, name));
+        }
+    }
+
+    @Override
+    public boolean addTag(Long taskId, String tag) {
+        if (state.getTags(taskId).contains(tag)) {
+            return false;
+        }
+        apply.accept(new Mutation.AddTag(taskId, tag));
+        return true;
+    }
+
+    @Override
+    public boolean removeTag(Long taskId, String tag) {
+        if (!state.getTags(taskId).contains(tag)) {
+            return false;
+        }
+        apply.accept(new Mutation.RemoveTag(taskId, tag));
+        return true;
+    }
+
+    @Override
+    public List<String> getTags(Long taskId) {
+        return new ArrayList<>(state.getTags(taskId));
+    }
+
+    @Override
+    public List<TaskTag> getQueueTaskTags() {
+        List<TaskTag> taskTags = new ArrayList<>();
+        for (Task task : state.queueTasksAfter(null)) {
+            for (String tag : state.getTags(task.getId())) {
+                taskTags.add(new TaskTag(task.getId(), tag));
+            }
+        }
+        return taskTags;
+    }
+
+    @Override
+    public boolean addDependency(Long taskId, Long prerequisiteId) {
+        if (state.getPrerequisites(taskId).contains(prerequisiteId)) {
+            return false;
+        }
+        apply.accept(new Mutation.AddDependency(taskId, prerequisiteId));
+        return true;
+    }
+
+    @Override
+    public boolean removeDependency(Long taskId, Long prerequisiteId) {
+        if (!state.getPrerequisites(taskId).contains(prerequisiteId)) {
+            return false;
+        }
+        apply.accept(new Mutation.RemoveDependency(taskId, prerequisiteId));
+        return true;
+    }
+
+    @Override
+    public List<TaskDependency> getDependencies() {
+        return state.getDependencies();
+    }
+
+    @Override
+    public TaskActivity getTaskActivity(Long taskId) {
+        return state.getActivity(taskId);
+    }
+
+    @Override
+    public List<TaskActivity> getStarvedTasks(Instant since, int limit) {
+        List<TaskActivity> starved = new ArrayList<>();
+        for (Task task : state.starvedTasks(since)) {
+            if (starved.size() >= limit) {
+                break;
+            }
+            starved.add(state.getActivity(task.getId()));
+        }
+        return starved;
+    }
+
+    @Override
+    public int countStarvedTasks(Instant since) {
+        int count = 0;
+        for (Task task : state.starvedTasks(since)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getQueueWorkedSeconds() {
+        return state.getQueueWorkedSeconds();
+    }
+
+    @Override
+    public Long getSessionLogPosition() {
+        return state.getSessionLogPosition();
+    }
+
+    @Override
+    public void setSessionLogPosition(long position) {
+        apply.accept(new Mutation.SetSessionLogPosition(position));
+    }
+
+    private static List<Task> collect(Iterable<Task> tasks, int offset, int limit) {
+        List<Task> result = new ArrayList<>();
+        int skipped = 0;
+        for (Task task : tasks) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(copy(task));
+            }
+        }
+        return result;
+    }
+
+    private static Task copy(Task task) {
+        return new Task(task.getId(), task.getName(), task.getQueueOrder(), task.getCreatedAt(), task.getIsDeleted());
+    }
+}
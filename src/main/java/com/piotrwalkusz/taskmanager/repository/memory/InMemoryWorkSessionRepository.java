@@ -0,0 +1,107 @@
+package com.piotrwalkusz.taskmanager.repository.memory;
+
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.WorkSessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Work session repository over {@link InMemoryState}. Returned sessions are copies.
+ */
+class InMemoryWorkSessionRepository implements WorkSessionRepository {
+
+    private final InMemoryState state;
+    private final Consumer<Mutation> apply;
+
+    InMemoryWorkSessionRepository(InMemoryState state, Consumer<Mutation> apply) {
+        this.state = state;
+        this.apply = apply;
+    }
+
+    @Override
+    public void insertWorkSession(WorkSession workSession) {
+        long sessionId = state.nextSessionId();
+        apply.accept(new Mutation.InsertWorkSession(
+                sessionId, workSession.getTaskId(), workSession.getStartTime(), workSession.getEndTime()));
+        workSession.setId(sessionId);
+    }
+
+    @Override
+    public void pauseWorkSession(Long taskId) {
+        if (hasActiveWorkSession(taskId)) {
+            apply.accept(new Mutation.PauseWorkSessions(taskId, Instant.now()));
+        }
+    }
+
+    @Override
+    public boolean hasActiveWorkSession(Long taskId) {
+        return getActiveWorkSession(taskId) != null;
+    }
+
+    @Override
+    public WorkSession getActiveWorkSession(Long taskId) {
+        for (WorkSession session : state.getSessions(taskId)) {
+            if (session.getEndTime() == null) {
+                return new WorkSession(session.getId(), session.getTaskId(), session.getStartTime(), null);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getDailyTimeSeconds(Long taskId) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return Math.round(sumSeconds(taskId, start -> LocalDate.ofInstant(start, ZoneOffset.UTC).equals(today)));
+    }
+
+    @Override
+    public long getTotalTimeSeconds(Long taskId) {
+        return Math.round(sumSeconds(taskId, start -> true));
+    }
+
+    @Override
+    public long getTimeSecondsInRange(Long taskId, Instant from, Instant to) {
+        return Math.round(sumSeconds(taskId, start -> !start.isBefore(from) && start.isBefore(to)));
+    }
+
+    @Override
+    public void recordWork(Long taskId, Instant endTime, double seconds) {
+        if (state.getTask(taskId) != null) {
+            apply.accept(new Mutation.RecordWork(taskId, endTime, seconds));
+        }
+    }
+
+    @Override
+    public void recordWorkDay(Long taskId, LocalDate day, double seconds) {
+        if (state.getTask(taskId) != null) {
+            apply.accept(new Mutation.RecordWorkDay(taskId, day, seconds));
+        }
+    }
+
+    @Override
+    public List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to) {
+        return state.getWorkDays(taskId, from, to);
+    }
+
+    @Override
+    public List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to) {
+        return state.getAllWorkDays(from, to);
+    }
+
+    private double sumSeconds(Long taskId, Predicate<Instant> startTimeFilter) {
+        double seconds = 0;
+        for (WorkSession session : state.getSessions(taskId)) {
+            if (session.getEndTime() != null && startTimeFilter.test(session.getStartTime())) {
+                seconds += Duration.between(session.getStartTime(), session.getEndTime()).toNanos() / 1e9;
+            }
+        }
+        return seconds;
+    }
+}
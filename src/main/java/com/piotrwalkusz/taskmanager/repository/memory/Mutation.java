@@ -0,0 +1,56 @@
+package com.piotrwalkusz.taskmanager.repository.memory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Single change of in-memory storage state. Generated IDs and queue positions are resolved before
+ * a mutation is created, so applying the same mutations in order always rebuilds the same state.
+ */
+public sealed interface Mutation {
+
+    record InsertTask(long taskId, String name, int queueOrder, Instant createdAt) implements Mutation {
+    }
+
+    record SetQueueOrder(long taskId, int queueOrder) implements Mutation {
+    }
+
+    record SoftDeleteTask(long taskId) implements Mutation {
+    }
+
+    record UndoDelete() implements Mutation {
+    }
+
+    record CleanupDeletedTasks() implements Mutation {
+    }
+
+    record RenameTask(long taskId, String name) implements Mutation {
+    }
+
+    record AddTag(long taskId, String tag) implements Mutation {
+    }
+
+    record RemoveTag(long taskId, String tag) implements Mutation {
+    }
+
+    record AddDependency(long taskId, long prerequisiteId) implements Mutation {
+    }
+
+    record RemoveDependency(long taskId, long prerequisiteId) implements Mutation {
+    }
+
+    record InsertWorkSession(long sessionId, long taskId, Instant startTime, Instant endTime) implements Mutation {
+    }
+
+    record PauseWorkSessions(long taskId, Instant endTime) implements Mutation {
+    }
+
+    record RecordWork(long taskId, Instant endTime, double seconds) implements Mutation {
+    }
+
+    record RecordWorkDay(long taskId, LocalDate day, double seconds) implements Mutation {
+    }
+
+    record SetSessionLogPosition(long position) implements Mutation {
+    }
+}
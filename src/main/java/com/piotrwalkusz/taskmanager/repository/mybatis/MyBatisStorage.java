@@ -0,0 +1,47 @@
+package com.piotrwalkusz.taskmanager.repository.mybatis;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.repository.Repositories;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.function.Function;
+
+/**
+ * SQLite storage through MyBatis mappers. Writes go through {@link DatabaseConfig#inWriteTransaction}.
+ */
+public class MyBatisStorage implements Storage {
+
+    private final DatabaseConfig databaseConfig;
+
+    public MyBatisStorage(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+    }
+
+    @Override
+    public <T> T read(Function<Repositories, T> work) {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            return work.apply(repositories(session));
+        }
+    }
+
+    @Override
+    public <T> T write(Function<Repositories, T> work) {
+        return databaseConfig.inWriteTransaction(session -> work.apply(repositories(session)));
+    }
+
+    @Override
+    public <T> T writeWithArchive(Function<Repositories, T> work) {
+        return databaseConfig.inWriteTransactionWithArchive(session -> work.apply(repositories(session)));
+    }
+
+    /**
+     * Get repositories over session of a transaction already in progress, for services that combine
+     * them with their own mappers in one transaction
+     */
+    public Repositories repositories(SqlSession session) {
+        return new Repositories(
+                new MyBatisTaskRepository(session),
+                new MyBatisWorkSessionRepository(session, databaseConfig));
+    }
+}
@@ -0,0 +1,184 @@
+package com.piotrwalkusz.taskmanager.repository.mybatis;
+
+import com.piotrwalkusz.taskmanager.mapper.ArchiveMapper;
+import com.piotrwalkusz.taskmanager.mapper.DependencyMapper;
+import com.piotrwalkusz.taskmanager.mapper.TagMapper;
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import com.piotrwalkusz.taskmanager.repository.TaskRepository;
+import com.piotrwalkusz.taskmanager.repository.log.SessionLogPositionRepository;
+import org.apache.ibatis.session.SqlSession;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Task repository backed by {@link TaskMapper}, {@link TagMapper}, {@link DependencyMapper} and
+ * {@link ArchiveMapper}
+ */
+class MyBatisTaskRepository implements TaskRepository, SessionLogPositionRepository {
+
+    private final TaskMapper taskMapper;
+    private final TagMapper tagMapper;
+    private final DependencyMapper dependencyMapper;
+    private final ArchiveMapper archiveMapper;
+
+    MyBatisTaskRepository(SqlSession session) {
+        this.taskMapper = session.getMapper(TaskMapper.class);
+        this.tagMapper = session.getMapper(TagMapper.class);
+        this.dependencyMapper = session.getMapper(DependencyMapper.class);
+        this.archiveMapper = session.getMapper(ArchiveMapper.class);
+    }
+
+    @Override
+    public Task getCurrentTask() {
+        return taskMapper.getCurrentTask();
+    }
+
+    @Override
+    public Task getTaskById(Long taskId) {
+        return taskMapper.getTaskById(taskId);
+    }
+
+    @Override
+    public void insertTask(Task task) {
+        taskMapper.insertTask(task);
+    }
+
+    @Override
+    public void rotateTask(Long taskId) {
+        taskMapper.rotateTask(taskId);
+    }
+
+    @Override
+    public void moveTaskToFront(Long taskId) {
+        taskMapper.moveTaskToFront(taskId);
+    }
+
+    @Override
+    public int getQueueSize() {
+        return taskMapper.getQueueSize();
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return taskMapper.getAllTasks();
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int afterQueueOrder, int limit) {
+        return taskMapper.getTasksAfter(afterQueueOrder, limit);
+    }
+
+    @Override
+    public List<Task> getTasksPage(int offset, int limit) {
+        return taskMapper.getTasksPage(offset, limit);
+    }
+
+    @Override
+    public List<Long> getQueueTaskIds() {
+        return taskMapper.getQueueTaskIds();
+    }
+
+    @Override
+    public boolean hasDeletedTask() {
+        return taskMapper.hasDeletedTask();
+    }
+
+    @Override
+    public List<Long> getDeletedTaskIds() {
+        return taskMapper.getDeletedTaskIds();
+    }
+
+    @Override
+    public void softDeleteTask(Long taskId) {
+        taskMapper.softDeleteTask(taskId);
+    }
+
+    @Override
+    public int undoDelete() {
+        return taskMapper.undoDelete();
+    }
+
+    @Override
+    public int cleanupDeletedTasks() {
+        // Archived sessions have no foreign key to task, so they are deleted here when reachable
+        if (archiveMapper.isArchiveAttached()) {
+            archiveMapper.deleteArchivedSessionsOfDeletedTasks();
+        }
+        return taskMapper.cleanupDeletedTasks();
+    }
+
+    @Override
+    public void updateTaskName(Long taskId, String name) {
+        taskMapper.updateTaskName(taskId, name);
+    }
+
+    @Override
+    public boolean addTag(Long taskId, String tag) {
+        return tagMapper.addTag(taskId, tag) > 0;
+    }
+
+    @Override
+    public boolean removeTag(Long taskId, String tag) {
+        return tagMapper.removeTag(taskId, tag) > 0;
+    }
+
+    @Override
+    public List<String> getTags(Long taskId) {
+        return tagMapper.getTags(taskId);
+    }
+
+    @Override
+    public List<TaskTag> getQueueTaskTags() {
+        return tagMapper.getQueueTaskTags();
+    }
+
+    @Override
+    public boolean addDependency(Long taskId, Long prerequisiteId) {
+        return dependencyMapper.addDependency(taskId, prerequisiteId) > 0;
+    }
+
+    @Override
+    public boolean removeDependency(Long taskId, Long prerequisiteId) {
+        return dependencyMapper.removeDependency(taskId, prerequisiteId) > 0;
+    }
+
+    @Override
+    public List<TaskDependency> getDependencies() {
+        return dependencyMapper.getDependencies();
+    }
+
+    @Override
+    public TaskActivity getTaskActivity(Long taskId) {
+        return taskMapper.getTaskActivity(taskId);
+    }
+
+    @Override
+    public List<TaskActivity> getStarvedTasks(Instant since, int limit) {
+        return taskMapper.getStarvedTasks(since, limit);
+    }
+
+    @Override
+    public int countStarvedTasks(Instant since) {
+        return taskMapper.countStarvedTasks(since);
+    }
+
+    @Override
+    public long getQueueWorkedSeconds() {
+        return taskMapper.getQueueWorkedSeconds();
+    }
+
+    @Override
+    public Long getSessionLogPosition() {
+        return taskMapper.getSessionLogPosition();
+    }
+
+    @Override
+    public void setSessionLogPosition(long position) {
+        taskMapper.setSessionLogPosition(position);
+    }
+}
@@ -0,0 +1,104 @@
+package com.piotrwalkusz.taskmanager.repository.mybatis;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.mapper.ArchiveMapper;
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.mapper.WorkDayMapper;
+import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.WorkSessionRepository;
+import org.apache.ibatis.session.SqlSession;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Work session repository backed by {@link WorkSessionMapper}, with task activity updated through
+ * {@link TaskMapper} and worked days kept by {@link WorkDayMapper}. Totals include sessions moved
+ * to the archive database.
+ */
+class MyBatisWorkSessionRepository implements WorkSessionRepository {
+
+    private final WorkSessionMapper workSessionMapper;
+    private final TaskMapper taskMapper;
+    private final WorkDayMapper workDayMapper;
+    private final ArchiveMapper archiveMapper;
+    private final DatabaseConfig databaseConfig;
+
+    MyBatisWorkSessionRepository(SqlSession session, DatabaseConfig databaseConfig) {
+        this.workSessionMapper = session.getMapper(WorkSessionMapper.class);
+        this.taskMapper = session.getMapper(TaskMapper.class);
+        this.workDayMapper = session.getMapper(WorkDayMapper.class);
+        this.archiveMapper = session.getMapper(ArchiveMapper.class);
+        this.databaseConfig = databaseConfig;
+    }
+
+    @Override
+    public void insertWorkSession(WorkSession workSession) {
+        workSessionMapper.insertWorkSession(workSession);
+    }
+
+    @Override
+    public void pauseWorkSession(Long taskId) {
+        workSessionMapper.pauseWorkSession(taskId);
+    }
+
+    @Override
+    public boolean hasActiveWorkSession(Long taskId) {
+        return workSessionMapper.hasActiveWorkSession(taskId);
+    }
+
+    @Override
+    public WorkSession getActiveWorkSession(Long taskId) {
+        return workSessionMapper.getActiveWorkSession(taskId);
+    }
+
+    @Override
+    public long getDailyTimeSeconds(Long taskId) {
+        Long time = workSessionMapper.getDailyTimeSeconds(taskId);
+        return time != null ? time : 0;
+    }
+
+    @Override
+    public long getTotalTimeSeconds(Long taskId) {
+        Long time = workSessionMapper.getTotalTimeSeconds(taskId);
+        return time != null ? time : 0;
+    }
+
+    /**
+     * The archive database is only read when the range reaches into archived history
+     */
+    @Override
+    public long getTimeSecondsInRange(Long taskId, Instant from, Instant to) {
+        Double hotSeconds = workSessionMapper.getTimeSecondsInRange(taskId, from, to);
+        double seconds = hotSeconds != null ? hotSeconds : 0;
+        if (archiveMapper.isArchivedAfter(taskId, from)) {
+            Double coldSeconds = databaseConfig.withArchiveAttached(session ->
+                    session.getMapper(ArchiveMapper.class).getArchivedTimeSecondsInRange(taskId, from, to));
+            seconds += coldSeconds != null ? coldSeconds : 0;
+        }
+        return Math.round(seconds);
+    }
+
+    @Override
+    public void recordWork(Long taskId, Instant endTime, double seconds) {
+        taskMapper.recordWork(taskId, endTime, seconds);
+    }
+
+    @Override
+    public void recordWorkDay(Long taskId, LocalDate day, double seconds) {
+        workDayMapper.recordWorkDay(taskId, day, seconds);
+    }
+
+    @Override
+    public List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to) {
+        return workDayMapper.getWorkDays(taskId, from, to);
+    }
+
+    @Override
+    public List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to) {
+        return workDayMapper.getAllWorkDays(from, to);
+    }
+}
@@ -0,0 +1,67 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.mapper.ArchiveMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Service moving old work sessions from the hot work_session table to the archive database.
+ * <p>
+ * Archived time is kept in work_session_rollup, so totals never read the archive; range
+ * queries reaching before the archive horizon attach it on demand
+ * (see {@link WorkSessionService#getTimeSecondsInRange}).
+ */
+public class ArchiveService {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final DatabaseConfig databaseConfig;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public ArchiveService(DatabaseConfig databaseConfig, Duration horizon) {
+        this(databaseConfig, horizon, DEFAULT_BATCH_SIZE);
+    }
+
+    public ArchiveService(DatabaseConfig databaseConfig, Duration horizon, int batchSize) {
+        // Daily time only reads the hot table, so sessions of the current day must never be archived
+        if (horizon.compareTo(Duration.ofDays(1)) < 0) {
+            throw new IllegalArgumentException("Archive horizon must be at least one day: " + horizon);
+        }
+        this.databaseConfig = databaseConfig;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Move sessions that ended before the horizon to the archive, one write transaction per batch.
+     * Copying is idempotent, so a batch interrupted between the two databases is simply redone.
+     *
+     * @return number of archived sessions
+     */
+    public int archiveOldSessions() {
+        Instant cutoff = Instant.now().minus(horizon);
+        int archived = 0;
+        Integer deleted;
+        while ((deleted = databaseConfig.inArchiveWriteTransaction(
+                session -> archiveBatch(session.getMapper(ArchiveMapper.class), cutoff))) != null) {
+            archived += deleted;
+        }
+        return archived;
+    }
+
+    /**
+     * @return number of archived sessions or null if no session is left to archive
+     */
+    private Integer archiveBatch(ArchiveMapper mapper, Instant cutoff) {
+        Long upToId = mapper.getArchiveBatchUpperId(cutoff, batchSize);
+        if (upToId == null) {
+            return null;
+        }
+        mapper.copyToArchive(cutoff, upToId);
+        mapper.addToRollup(cutoff, upToId);
+        return mapper.deleteArchived(cutoff, upToId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.mapper.TaskContentMapper;
+import org.apache.ibatis.session.SqlSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream of attachment content reading one chunk at a time, each in its own short read,
+ * so at most one chunk is held in memory and no transaction stays open while the caller reads
+ */
+class AttachmentInputStream extends InputStream {
+
+    private final DatabaseConfig databaseConfig;
+    private final Long attachmentId;
+    private final long size;
+    private byte[] chunk = new byte[0];
+    private int chunkPosition;
+    private int nextSeq;
+    private long position;
+
+    AttachmentInputStream(DatabaseConfig databaseConfig, Long attachmentId, long size) {
+        this.databaseConfig = databaseConfig;
+        this.attachmentId = attachmentId;
+        this.size = size;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) {
+            return -1;
+        }
+        position++;
+        return chunk[chunkPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, buffer, offset, count);
+        chunkPosition += count;
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - chunkPosition;
+    }
+
+    /**
+     * Load next chunk if current one is used up
+     *
+     * @return false at end of content
+     */
+    private boolean ensureChunk() throws IOException {
+        if (chunkPosition < chunk.length) {
+            return true;
+        }
+        if (position >= size) {
+            return false;
+        }
+        byte[] next;
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            next = session.getMapper(TaskContentMapper.class).getChunk(attachmentId, nextSeq).orElse(null);
+        }
+        if (next == null || next.length == 0) {
+            throw new IOException("Attachment " + attachmentId + " was deleted while reading");
+        }
+        chunk = next;
+        chunkPosition = 0;
+        nextSeq++;
+        return true;
+    }
+}
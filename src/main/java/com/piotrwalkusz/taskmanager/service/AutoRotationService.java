@@ -0,0 +1,77 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Service rotating tasks automatically when their time quantum runs out.
+ * <p>
+ * Each running task has at most one quantum, armed on a shared {@link TimingWheel}, so any number
+ * of concurrent quanta cost O(1) per tick. When a quantum expires the expiry handler runs on the
+ * wheel thread - by default {@link TaskService#rotateTaskWithPause(Long)}.
+ */
+public class AutoRotationService {
+
+    private final TimingWheel timingWheel;
+    private final Consumer<Long> onQuantumExpired;
+    private final Map<Long, TimingWheel.Timeout> quanta = new HashMap<>(); // Guarded by this
+
+    public AutoRotationService(TimingWheel timingWheel, TaskService taskService) {
+        this(timingWheel, taskService::rotateTaskWithPause);
+    }
+
+    /**
+     * @param onQuantumExpired called with task ID on the wheel thread when its quantum runs out
+     */
+    public AutoRotationService(TimingWheel timingWheel, Consumer<Long> onQuantumExpired) {
+        this.timingWheel = timingWheel;
+        this.onQuantumExpired = onQuantumExpired;
+    }
+
+    /**
+     * Start quantum for task, replacing its running quantum if any
+     */
+    public synchronized void startQuantum(Long taskId, Duration quantum) {
+        TimingWheel.Timeout[] timeout = new TimingWheel.Timeout[1];
+        timeout[0] = timingWheel.schedule(quantum, () -> {
+            // Skip if the quantum was replaced or cancelled after it became due
+            boolean current;
+            synchronized (this) {
+                current = quanta.remove(taskId, timeout[0]);
+            }
+            if (current) {
+                onQuantumExpired.accept(taskId);
+            }
+        });
+        TimingWheel.Timeout previous = quanta.put(taskId, timeout[0]);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Stop quantum of task (task paused, rotated or deleted by user)
+     */
+    public synchronized void cancelQuantum(Long taskId) {
+        TimingWheel.Timeout timeout = quanta.remove(taskId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Check if task has a running quantum
+     */
+    public synchronized boolean hasQuantum(Long taskId) {
+        return quanta.containsKey(taskId);
+    }
+
+    /**
+     * Get number of running quanta
+     */
+    public synchronized int getQuantumCount() {
+        return quanta.size();
+    }
+}
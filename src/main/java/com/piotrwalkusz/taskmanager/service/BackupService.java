@@ -0,0 +1,316 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.BackupPolicy;
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Service for online database snapshots.
+ * <p>
+ * Snapshots are copied with the SQLite online backup API in small page batches on a background
+ * thread, so writers only wait for a single step at a time. Each snapshot is verified before it
+ * becomes visible in the backup directory, and retention is applied after every snapshot.
+ * <p>
+ * The archive database is copied next to each snapshot (named like the archive of a live database),
+ * so a restore keeps archived sessions matching the rollups of the main database.
+ */
+public class BackupService implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(BackupService.class.getName());
+    private static final String SNAPSHOT_PREFIX = "taskmanager-";
+    private static final String SNAPSHOT_SUFFIX = ".db";
+    private static final String ARCHIVE_SUFFIX = "-archive" + SNAPSHOT_SUFFIX;
+    private static final DateTimeFormatter SNAPSHOT_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final int BUSY_RETRIES = 100;
+
+    private final DatabaseConfig databaseConfig;
+    private final EventBus eventBus;
+    private final BackupPolicy policy;
+    private final Path backupDirectory;
+    private final ScheduledExecutorService executor;
+
+    public BackupService(DatabaseConfig databaseConfig, EventBus eventBus, BackupPolicy policy) {
+        this.databaseConfig = databaseConfig;
+        this.eventBus = eventBus;
+        this.policy = policy;
+        this.backupDirectory = databaseConfig.getBackupDirectory();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Take snapshots periodically according to policy
+     */
+    public void startScheduled() {
+        long intervalMillis = policy.getInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                createSnapshot();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive - next attempt may succeed
+                LOGGER.log(Level.WARNING, "Scheduled backup failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take snapshot on the backup thread
+     */
+    public CompletableFuture<Path> createSnapshotAsync() {
+        return CompletableFuture.supplyAsync(this::createSnapshot, executor);
+    }
+
+    /**
+     * Take snapshot of the database and its archive on the calling thread, then apply retention
+     *
+     * @return path of the verified snapshot
+     */
+    public synchronized Path createSnapshot() {
+        try {
+            Files.createDirectories(backupDirectory);
+            Path snapshot = nextSnapshotPath();
+            Path partial = snapshot.resolveSibling(snapshot.getFileName() + ".part");
+            Path archive = getArchiveSnapshotPath(snapshot);
+            Path archivePartial = archive.resolveSibling(archive.getFileName() + ".part");
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(archivePartial);
+
+            try (Connection connection = DriverManager.getConnection(databaseConfig.getJdbcUrl())) {
+                attachArchive(connection);
+                // One read transaction pins both databases at the same commit, so a session being
+                // archived is copied exactly once; archiving waits until the archive is copied
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeQuery("SELECT (SELECT count(*) FROM main.sqlite_master)"
+                            + " + (SELECT count(*) FROM archive.sqlite_master)").close();
+                }
+                DB db = connection.unwrap(SQLiteConnection.class).getDatabase();
+                db.backup("archive", archivePartial.toString(), throttle(), 1, BUSY_RETRIES, policy.getPagesPerStep());
+                db.backup("main", partial.toString(), throttle(), 1, BUSY_RETRIES, policy.getPagesPerStep());
+                connection.rollback();
+            }
+
+            if (!verifySnapshot(partial) || !isIntact(archivePartial)) {
+                Files.deleteIfExists(partial);
+                Files.deleteIfExists(archivePartial);
+                throw new IllegalStateException("Snapshot failed verification: " + snapshot);
+            }
+            // Archive becomes visible first, so a listed snapshot always has its archive
+            Files.move(archivePartial, archive, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE);
+
+            applyRetention();
+            return snapshot;
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Failed to create database snapshot", e);
+        }
+    }
+
+    /**
+     * List snapshots, newest first
+     */
+    public List<Path> listSnapshots() {
+        if (!Files.isDirectory(backupDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                                && !name.endsWith(ARCHIVE_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list snapshots in " + backupDirectory, e);
+        }
+    }
+
+    /**
+     * Get path of the archive copied with given snapshot
+     */
+    public static Path getArchiveSnapshotPath(Path snapshot) {
+        return DatabaseConfig.getArchiveDatabasePath(snapshot);
+    }
+
+    /**
+     * Remove snapshots (with their archives) exceeding policy count or age (newest snapshot is always kept)
+     *
+     * @return number of removed snapshots
+     */
+    public synchronized int applyRetention() {
+        List<Path> snapshots = listSnapshots();
+        Instant oldestAllowed = Instant.now().minus(policy.getMaxAge());
+        int removed = 0;
+        for (int i = 1; i < snapshots.size(); i++) {
+            Path snapshot = snapshots.get(i);
+            try {
+                boolean tooMany = i >= policy.getMaxSnapshots();
+                boolean tooOld = Files.getLastModifiedTime(snapshot).toInstant().isBefore(oldestAllowed);
+                if (tooMany || tooOld) {
+                    Files.delete(snapshot);
+                    Files.deleteIfExists(getArchiveSnapshotPath(snapshot));
+                    removed++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to remove snapshot: " + snapshot, e);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Check snapshot is a consistent database with the application schema
+     */
+    public boolean verifySnapshot(Path snapshot) {
+        if (!isIntact(snapshot)) {
+            return false;
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + snapshot + "?open_mode=1");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name IN ('task', 'work_session')")) {
+                return resultSet.next() && resultSet.getInt(1) == 2;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replace live database and archive content with verified snapshot.
+     * A snapshot taken before archives were copied restores the main database only.
+     * Runs in the writer lane, so no write of this process interleaves with the restore,
+     * then publishes {@link DatabaseChangedExternally} so in-memory state is reloaded.
+     */
+    public synchronized void restoreSnapshot(Path snapshot) {
+        if (!verifySnapshot(snapshot)) {
+            throw new IllegalArgumentException("Snapshot failed verification: " + snapshot);
+        }
+        Path archive = getArchiveSnapshotPath(snapshot);
+        if (Files.exists(archive) && !isIntact(archive)) {
+            throw new IllegalArgumentException("Snapshot archive failed verification: " + archive);
+        }
+        long changeVersion = databaseConfig.inWriteLane(() -> restore(snapshot, archive));
+        eventBus.publish(new DatabaseChangedExternally(changeVersion));
+    }
+
+    /**
+     * Copy snapshot over the live database without pausing between steps, as writers wait for the lane anyway
+     *
+     * @return change counter version of the restored database
+     */
+    private long restore(Path snapshot, Path archive) {
+        try (Connection connection = DriverManager.getConnection(databaseConfig.getJdbcUrl())) {
+            DB db = connection.unwrap(SQLiteConnection.class).getDatabase();
+            db.restore("main", snapshot.toString(), null);
+            checkIntegrity(connection, "main", snapshot);
+            if (Files.exists(archive)) {
+                attachArchive(connection);
+                db.restore("archive", archive.toString(), null);
+                checkIntegrity(connection, "archive", snapshot);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT version FROM change_counter WHERE id = 1")) {
+                return resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to restore snapshot: " + snapshot, e);
+        }
+    }
+
+    private void attachArchive(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("ATTACH DATABASE ? AS archive")) {
+            statement.setString(1, databaseConfig.getArchiveDatabasePath().toString());
+            statement.execute();
+        }
+    }
+
+    /**
+     * Check file is a consistent SQLite database (an archive may have no tables yet)
+     */
+    private static boolean isIntact(Path database) {
+        if (!Files.isRegularFile(database)) {
+            return false;
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database + "?open_mode=1");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA integrity_check")) {
+            return resultSet.next() && "ok".equals(resultSet.getString(1));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void checkIntegrity(Connection connection, String schema, Path snapshot) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA " + schema + ".integrity_check")) {
+            if (!resultSet.next() || !"ok".equals(resultSet.getString(1))) {
+                throw new IllegalStateException("Database " + schema + " failed verification after restore from " + snapshot);
+            }
+        }
+    }
+
+    private Path nextSnapshotPath() {
+        // Names sort chronologically; bump by a millisecond when two snapshots collide
+        Instant timestamp = Instant.now();
+        Path snapshot;
+        do {
+            snapshot = backupDirectory.resolve(SNAPSHOT_PREFIX + SNAPSHOT_TIME_FORMAT.format(timestamp) + SNAPSHOT_SUFFIX);
+            timestamp = timestamp.plusMillis(1);
+        } while (Files.exists(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Progress observer called after every step - pauses so writers can take the lock between batches
+     */
+    private DB.ProgressObserver throttle() {
+        long pauseMillis = policy.getStepPause().toMillis();
+        return (remaining, pageCount) -> {
+            if (remaining > 0 && pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
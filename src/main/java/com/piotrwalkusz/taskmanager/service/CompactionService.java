@@ -0,0 +1,209 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service merging back-to-back work session fragments of the same task into single rows.
+ * <p>
+ * Fragments of one task that start on the same UTC day and are separated by less than the
+ * configured gap are merged into the first fragment, whose end time becomes
+ * {@code start + sum of fragment durations}. Time per UTC day and in total therefore stays exactly
+ * the same - and whole UTC days are the only ranges {@link WorkSessionService#getTimeSecondsInRange}
+ * accepts.
+ * Work is done in bounded batches walking the (task_id, start_time) index, one write
+ * transaction per batch.
+ */
+public class CompactionService implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(CompactionService.class.getName());
+
+    private final DatabaseConfig databaseConfig;
+    private final EventBus eventBus;
+    private final Duration maxGap;
+    private final int batchSize;
+    private final AtomicLong totalReclaimedRows = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    private Cursor cursor = Cursor.START; // Keyset position of the incremental pass (guarded by this)
+
+    /**
+     * Result of one compaction batch
+     *
+     * @param scannedSessions sessions read in this batch
+     * @param reclaimedRows   rows removed by merging
+     * @param passFinished    true if the batch reached the end of the table (next batch starts over)
+     */
+    public record CompactionResult(int scannedSessions, int reclaimedRows, boolean passFinished) {
+    }
+
+    private record Cursor(Long taskId, String startTime, Long id) {
+        static final Cursor START = new Cursor(-1L, "", -1L);
+    }
+
+    private record BatchOutcome(CompactionResult result, Cursor nextCursor) {
+    }
+
+    public CompactionService(DatabaseConfig databaseConfig, EventBus eventBus, Duration maxGap, int batchSize) {
+        if (batchSize < 2) {
+            throw new IllegalArgumentException("Batch size must be at least 2: " + batchSize);
+        }
+        this.databaseConfig = databaseConfig;
+        this.eventBus = eventBus;
+        this.maxGap = maxGap;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Compact one batch per interval on a background thread
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "work-session-compaction");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compactBatch();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive - next batch may succeed
+                LOGGER.log(Level.WARNING, "Work session compaction failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run batches until a full pass over the table is finished
+     *
+     * @return rows reclaimed in this pass
+     */
+    public int compactAll() {
+        int reclaimed = 0;
+        CompactionResult result;
+        do {
+            result = compactBatch();
+            reclaimed += result.reclaimedRows();
+        } while (!result.passFinished());
+        return reclaimed;
+    }
+
+    /**
+     * Compact next batch of the incremental pass
+     */
+    public synchronized CompactionResult compactBatch() {
+        BatchOutcome outcome = databaseConfig.inWriteTransaction(session -> {
+            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
+            List<WorkSession> sessions = mapper.getSessionsAfter(cursor.taskId(), cursor.startTime(), cursor.id(), batchSize);
+            boolean passFinished = sessions.size() < batchSize;
+
+            List<List<WorkSession>> groups = groupFragments(sessions);
+            // The last group may continue in the next batch - leave it for then, unless it fills the whole batch
+            if (!passFinished && groups.size() > 1) {
+                groups.remove(groups.size() - 1);
+            }
+
+            int reclaimed = 0;
+            for (List<WorkSession> group : groups) {
+                reclaimed += merge(mapper, group);
+            }
+
+            Cursor nextCursor = Cursor.START;
+            if (!passFinished) {
+                List<WorkSession> lastGroup = groups.get(groups.size() - 1);
+                WorkSession last = lastGroup.get(lastGroup.size() - 1);
+                nextCursor = new Cursor(last.getTaskId(), last.getStartTime().toString(), last.getId());
+            }
+            return new BatchOutcome(new CompactionResult(sessions.size(), reclaimed, passFinished), nextCursor);
+        });
+
+        // Advance only after commit - a retried transaction must re-read the same batch
+        cursor = outcome.nextCursor();
+        CompactionResult result = outcome.result();
+
+        if (result.reclaimedRows() > 0) {
+            totalReclaimedRows.addAndGet(result.reclaimedRows());
+            eventBus.publish(new DomainEvent.WorkSessionsCompacted(result.reclaimedRows()));
+        }
+        return result;
+    }
+
+    /**
+     * Get rows reclaimed since this service was created
+     */
+    public long getTotalReclaimedRows() {
+        return totalReclaimedRows.get();
+    }
+
+    private List<List<WorkSession>> groupFragments(List<WorkSession> sessions) {
+        List<List<WorkSession>> groups = new ArrayList<>();
+        List<WorkSession> group = null;
+        Instant groupEnd = null;
+        for (WorkSession session : sessions) {
+            if (group != null && continuesGroup(group.get(0), groupEnd, session)) {
+                group.add(session);
+                groupEnd = groupEnd.isAfter(session.getEndTime()) ? groupEnd : session.getEndTime();
+            } else {
+                group = new ArrayList<>();
+                group.add(session);
+                groups.add(group);
+                groupEnd = session.getEndTime();
+            }
+        }
+        return groups;
+    }
+
+    private boolean continuesGroup(WorkSession first, Instant groupEnd, WorkSession next) {
+        return Objects.equals(first.getTaskId(), next.getTaskId())
+                && utcDate(first.getStartTime()).equals(utcDate(next.getStartTime()))
+                && Duration.between(groupEnd, next.getStartTime()).compareTo(maxGap) < 0;
+    }
+
+    private int merge(WorkSessionMapper mapper, List<WorkSession> group) {
+        if (group.size() < 2) {
+            return 0;
+        }
+        Duration worked = Duration.ZERO;
+        for (WorkSession fragment : group) {
+            worked = worked.plus(Duration.between(fragment.getStartTime(), fragment.getEndTime()));
+        }
+        WorkSession first = group.get(0);
+        mapper.updateEndTime(first.getId(), first.getStartTime().plus(worked));
+        for (WorkSession fragment : group.subList(1, group.size())) {
+            mapper.deleteWorkSession(fragment.getId());
+        }
+        return group.size() - 1;
+    }
+
+    private static LocalDate utcDate(Instant instant) {
+        return instant.atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
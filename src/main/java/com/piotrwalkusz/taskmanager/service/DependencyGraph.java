@@ -0,0 +1,180 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory dependency graph (DAG) of tasks with the number of unmet prerequisites of each task.
+ * <p>
+ * A prerequisite is unmet while it is in the queue; deleting (completing) it meets it. Counts are
+ * maintained incrementally: completing, restoring or purging a task touches only its direct
+ * dependents, and adding or removing a dependency touches one count. A task is ready when its
+ * count is zero. Edges of soft-deleted tasks are kept, so a restore cannot bring back a cycle.
+ */
+class DependencyGraph {
+
+    private final Set<Long> queuedTasks = new HashSet<>();
+    private final Map<Long, Set<Long>> prerequisitesByTask = new HashMap<>();
+    private final Map<Long, Set<Long>> dependentsByTask = new HashMap<>();
+    private final Map<Long, Integer> unmetByTask = new HashMap<>(); // Only tasks with unmet prerequisites
+    private final Set<Long> blockedTasks = new HashSet<>(); // Queued tasks with unmet prerequisites
+
+    /**
+     * Build graph from task IDs in queue and all dependencies
+     */
+    DependencyGraph(List<Long> queueTaskIds, List<TaskDependency> dependencies) {
+        queuedTasks.addAll(queueTaskIds);
+        for (TaskDependency dependency : dependencies) {
+            dependencyAdded(dependency.getTaskId(), dependency.getPrerequisiteId());
+        }
+    }
+
+    /**
+     * Check if task has no unmet prerequisites
+     */
+    synchronized boolean isReady(Long taskId) {
+        return !unmetByTask.containsKey(taskId);
+    }
+
+    /**
+     * Check if any task in queue waits for a prerequisite
+     */
+    synchronized boolean hasBlockedTasks() {
+        return !blockedTasks.isEmpty();
+    }
+
+    /**
+     * Get number of tasks in queue waiting for a prerequisite
+     */
+    synchronized int getBlockedCount() {
+        return blockedTasks.size();
+    }
+
+    /**
+     * Get prerequisites of task (done or not)
+     */
+    synchronized Set<Long> getPrerequisites(Long taskId) {
+        return Set.copyOf(prerequisitesByTask.getOrDefault(taskId, Set.of()));
+    }
+
+    /**
+     * Check if making task depend on prerequisite would close a cycle - that is, if the
+     * prerequisite already depends on the task, directly or through other tasks
+     */
+    synchronized boolean wouldCreateCycle(Long taskId, Long prerequisiteId) {
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(prerequisiteId);
+        while (!pending.isEmpty()) {
+            Long current = pending.pop();
+            if (current.equals(taskId)) {
+                return true;
+            }
+            if (visited.add(current)) {
+                pending.addAll(prerequisitesByTask.getOrDefault(current, Set.of()));
+            }
+        }
+        return false;
+    }
+
+    synchronized void dependencyAdded(Long taskId, Long prerequisiteId) {
+        if (!prerequisitesByTask.computeIfAbsent(taskId, key -> new HashSet<>()).add(prerequisiteId)) {
+            return;
+        }
+        dependentsByTask.computeIfAbsent(prerequisiteId, key -> new HashSet<>()).add(taskId);
+        if (queuedTasks.contains(prerequisiteId)) {
+            changeUnmet(taskId, 1);
+        }
+    }
+
+    synchronized void dependencyRemoved(Long taskId, Long prerequisiteId) {
+        if (!removeEdge(prerequisitesByTask, taskId, prerequisiteId)) {
+            return;
+        }
+        removeEdge(dependentsByTask, prerequisiteId, taskId);
+        if (queuedTasks.contains(prerequisiteId)) {
+            changeUnmet(taskId, -1);
+        }
+    }
+
+    synchronized void taskAdded(Long taskId) {
+        if (queuedTasks.add(taskId)) {
+            updateBlocked(taskId);
+        }
+    }
+
+    /**
+     * Task left the queue (deleted / done) - its dependents have one unmet prerequisite less
+     */
+    synchronized void taskRemoved(Long taskId) {
+        if (!queuedTasks.remove(taskId)) {
+            return;
+        }
+        blockedTasks.remove(taskId);
+        for (Long dependentId : dependentsByTask.getOrDefault(taskId, Set.of())) {
+            changeUnmet(dependentId, -1);
+        }
+    }
+
+    /**
+     * Task returned to the queue (undo delete) - its dependents wait for it again
+     */
+    synchronized void taskRestored(Long taskId) {
+        if (!queuedTasks.add(taskId)) {
+            return;
+        }
+        updateBlocked(taskId);
+        for (Long dependentId : dependentsByTask.getOrDefault(taskId, Set.of())) {
+            changeUnmet(dependentId, 1);
+        }
+    }
+
+    /**
+     * Deleted task removed permanently together with its dependencies
+     */
+    synchronized void taskPurged(Long taskId) {
+        taskRemoved(taskId);
+        for (Long prerequisiteId : Set.copyOf(prerequisitesByTask.getOrDefault(taskId, Set.of()))) {
+            dependencyRemoved(taskId, prerequisiteId);
+        }
+        for (Long dependentId : Set.copyOf(dependentsByTask.getOrDefault(taskId, Set.of()))) {
+            dependencyRemoved(dependentId, taskId);
+        }
+    }
+
+    private void changeUnmet(Long taskId, int delta) {
+        int unmet = unmetByTask.getOrDefault(taskId, 0) + delta;
+        if (unmet > 0) {
+            unmetByTask.put(taskId, unmet);
+        } else {
+            unmetByTask.remove(taskId);
+        }
+        updateBlocked(taskId);
+    }
+
+    private void updateBlocked(Long taskId) {
+        if (queuedTasks.contains(taskId) && unmetByTask.containsKey(taskId)) {
+            blockedTasks.add(taskId);
+        } else {
+            blockedTasks.remove(taskId);
+        }
+    }
+
+    private static boolean removeEdge(Map<Long, Set<Long>> edges, Long from, Long to) {
+        Set<Long> targets = edges.get(from);
+        if (targets == null || !targets.remove(to)) {
+            return false;
+        }
+        if (targets.isEmpty()) {
+            edges.remove(from);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Hybrid logical clock packed into a long: wall clock milliseconds in the high bits and a logical
+ * counter in the low {@value #LOGICAL_BITS} bits.
+ * <p>
+ * Values are strictly increasing, stay close to wall clock time and, after {@link #observe}, are
+ * greater than every value seen from other nodes - so ordering by value respects causality even
+ * when wall clocks of machines disagree. Packed values compare as plain longs.
+ */
+final class HybridLogicalClock {
+
+    static final int LOGICAL_BITS = 16;
+
+    private final LongSupplier wallClockMillis;
+    private long last; // Guarded by this
+
+    /**
+     * @param last last value issued before (persisted), so a restarted node never goes back
+     */
+    HybridLogicalClock(LongSupplier wallClockMillis, long last) {
+        this.wallClockMillis = wallClockMillis;
+        this.last = last;
+    }
+
+    /**
+     * Issue value for a new local change
+     */
+    synchronized long now() {
+        // Counter overflow simply carries into the milliseconds
+        last = Math.max(last + 1, wallClockMillis.getAsLong() << LOGICAL_BITS);
+        return last;
+    }
+
+    /**
+     * Merge value received from another node, so later local values are greater
+     */
+    synchronized void observe(long remote) {
+        last = Math.max(last, remote);
+    }
+
+    /**
+     * Get wall clock milliseconds of value
+     */
+    static long toMillis(long value) {
+        return value >>> LOGICAL_BITS;
+    }
+}
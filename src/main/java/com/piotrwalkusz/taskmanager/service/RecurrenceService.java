@@ -0,0 +1,209 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.RecurrenceMapper;
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.model.RecurrenceRule;
+import com.piotrwalkusz.taskmanager.model.Task;
+import org.apache.ibatis.session.SqlSession;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for recurring tasks. Rules are stored once; an instance is added to the queue only when
+ * its rule is due.
+ * <p>
+ * A single timer is armed for the earliest next_due_at (read from its index) and materializes all
+ * due rules in one write transaction, so the number of rules does not matter until they are due.
+ * Occurrences missed while the application was closed are coalesced into one instance per rule,
+ * and the rule moves to its first occurrence after now, keeping the original schedule.
+ */
+public class RecurrenceService implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(RecurrenceService.class.getName());
+    private static final int DUE_BATCH_SIZE = 200;
+    // Re-check at least this often, so a suspended machine or changed wall clock is noticed
+    private static final Duration MAX_TIMER_DELAY = Duration.ofHours(1);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final DatabaseConfig databaseConfig;
+    private final EventBus eventBus;
+    private final Runnable unsubscribe;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> timer; // Guarded by this
+
+    public RecurrenceService(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this.databaseConfig = databaseConfig;
+        this.eventBus = eventBus;
+        this.unsubscribe = eventBus.subscribe(DatabaseChangedExternally.class, event -> rescheduleQuietly());
+    }
+
+    /**
+     * Arm the timer on a background thread; rules already due (e.g. while the application
+     * was closed) are materialized right away
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recurrence-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reschedule();
+    }
+
+    /**
+     * Add recurring task
+     *
+     * @param firstDueAt time the first instance is added to the queue
+     */
+    public RecurrenceRule addRule(String name, Duration interval, Instant firstDueAt) {
+        if (interval.toSeconds() < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be at least one second: " + interval);
+        }
+        RecurrenceRule rule = RecurrenceRule.builder()
+                .name(name)
+                .intervalSeconds(interval.toSeconds())
+                .nextDueAt(firstDueAt)
+                .createdAt(Instant.now())
+                .build();
+        databaseConfig.runInWriteTransaction(session -> session.getMapper(RecurrenceMapper.class).insertRule(rule));
+        reschedule();
+        return rule;
+    }
+
+    /**
+     * Delete recurring task (instances already in the queue stay)
+     */
+    public void deleteRule(Long ruleId) {
+        databaseConfig.runInWriteTransaction(session -> session.getMapper(RecurrenceMapper.class).deleteRule(ruleId));
+        reschedule();
+    }
+
+    /**
+     * Get rule by ID
+     *
+     * @return rule or null if it does not exist
+     */
+    public RecurrenceRule getRule(Long ruleId) {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            return session.getMapper(RecurrenceMapper.class).getRuleById(ruleId);
+        }
+    }
+
+    /**
+     * Get all rules, earliest due first
+     */
+    public List<RecurrenceRule> getRules() {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            return session.getMapper(RecurrenceMapper.class).getDueRules(Instant.ofEpochMilli(Long.MAX_VALUE), Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Add an instance of every rule due at given time to the end of the queue, in one transaction
+     *
+     * @return added tasks, in due order
+     */
+    public List<Task> materializeDue(Instant now) {
+        List<Task> added = databaseConfig.inWriteTransaction(session -> {
+            RecurrenceMapper recurrenceMapper = session.getMapper(RecurrenceMapper.class);
+            TaskMapper taskMapper = session.getMapper(TaskMapper.class);
+            List<Task> tasks = new ArrayList<>();
+            List<RecurrenceRule> due;
+            do {
+                // Materialized rules move past now, so each query returns the next batch
+                due = recurrenceMapper.getDueRules(now, DUE_BATCH_SIZE);
+                for (RecurrenceRule rule : due) {
+                    Task task = Task.builder()
+                            .name(rule.getName())
+                            .createdAt(now)
+                            .build();
+                    taskMapper.insertTask(task);
+                    tasks.add(task);
+                    recurrenceMapper.updateNextDueAt(rule.getId(), nextDueAfter(rule, now));
+                }
+            } while (due.size() == DUE_BATCH_SIZE);
+            return tasks;
+        });
+        if (!added.isEmpty()) {
+            eventBus.publish(new DomainEvent.RecurringTasksMaterialized(added));
+        }
+        return added;
+    }
+
+    /**
+     * Get first occurrence of rule after given time, skipping occurrences missed before it
+     */
+    static Instant nextDueAfter(RecurrenceRule rule, Instant now) {
+        long intervalMillis = rule.getIntervalSeconds() * 1000;
+        long dueMillis = rule.getNextDueAt().toEpochMilli();
+        long missed = Math.max(0, Math.floorDiv(now.toEpochMilli() - dueMillis, intervalMillis) + 1);
+        return Instant.ofEpochMilli(dueMillis + missed * intervalMillis);
+    }
+
+    private synchronized void reschedule() {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        Long earliestDueAt;
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            earliestDueAt = session.getMapper(RecurrenceMapper.class).getEarliestDueAt();
+        }
+        long delayMillis = MAX_TIMER_DELAY.toMillis();
+        if (earliestDueAt != null) {
+            delayMillis = Math.max(0, Math.min(earliestDueAt - System.currentTimeMillis(), delayMillis));
+        }
+        schedule(delayMillis);
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        timer = scheduler.schedule(this::onTimer, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer() {
+        try {
+            materializeDue(Instant.now());
+            reschedule();
+        } catch (RuntimeException e) {
+            // Rules stay due - retry later instead of spinning on a failing database
+            LOGGER.log(Level.WARNING, "Adding recurring tasks failed", e);
+            schedule(RETRY_DELAY.toMillis());
+        }
+    }
+
+    private void rescheduleQuietly() {
+        try {
+            reschedule();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Rescheduling recurring tasks failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        unsubscribe.run();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.ActiveSessionJournal;
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+
+/**
+ * Service saving the work session a crashed run left in the {@link ActiveSessionJournal}
+ */
+public class SessionRecoveryService {
+
+    private final DatabaseConfig databaseConfig;
+    private final MyBatisStorage storage;
+    private final EventBus eventBus;
+
+    public SessionRecoveryService(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this.databaseConfig = databaseConfig;
+        this.storage = new MyBatisStorage(databaseConfig);
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Save orphaned session from journal up to its last heartbeat and clear the journal.
+     * Must only be called while holding the active session lock, otherwise the session of a
+     * running instance could be taken.
+     *
+     * @return recovered session or null if there was nothing to recover
+     */
+    public WorkSession recoverOrphanedSession(ActiveSessionJournal journal) {
+        WorkSession orphan = journal.getOrphanedSession();
+        if (orphan == null) {
+            return null;
+        }
+        boolean saved = databaseConfig.inWriteTransaction(session -> {
+            WorkSessionMapper workSessionMapper = session.getMapper(WorkSessionMapper.class);
+            // Skip sessions shorter than a heartbeat, of purged tasks, or saved right before the crash
+            if (!orphan.getEndTime().isAfter(orphan.getStartTime())
+                    || session.getMapper(TaskMapper.class).getTaskById(orphan.getTaskId()) == null
+                    || workSessionMapper.isCoveredBySession(orphan.getTaskId(), orphan.getStartTime())) {
+                return false;
+            }
+            storage.repositories(session).saveWorkSession(orphan);
+            return true;
+        });
+        journal.clear();
+        if (!saved) {
+            return null;
+        }
+        eventBus.publish(new DomainEvent.WorkSessionSaved(orphan));
+        return orphan;
+    }
+}
@@ -0,0 +1,73 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.config.StartupSnapshotFile;
+import com.piotrwalkusz.taskmanager.mapper.ChangeCounterMapper;
+import com.piotrwalkusz.taskmanager.model.StartupSnapshot;
+import com.piotrwalkusz.taskmanager.model.Task;
+import org.apache.ibatis.session.SqlSession;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Service saving the main window state on close and telling on startup whether the saved state
+ * still matches the database (via the trigger-maintained change counter)
+ */
+public class StartupSnapshotService {
+
+    private final DatabaseConfig databaseConfig;
+    private final TaskService taskService;
+    private final WorkSessionService workSessionService;
+
+    public StartupSnapshotService(DatabaseConfig databaseConfig, TaskService taskService,
+                                  WorkSessionService workSessionService) {
+        this.databaseConfig = databaseConfig;
+        this.taskService = taskService;
+        this.workSessionService = workSessionService;
+    }
+
+    /**
+     * Get number of changes committed to the database since it was created
+     */
+    public long getChangeVersion() {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            ChangeCounterMapper mapper = session.getMapper(ChangeCounterMapper.class);
+            return mapper.getChangeVersion();
+        }
+    }
+
+    /**
+     * Capture state of the whole queue (without context filter)
+     */
+    public StartupSnapshot capture() {
+        // Version first - a change committed while capturing makes the snapshot stale, never wrongly current
+        long changeVersion = getChangeVersion();
+        Task currentTask = taskService.getCurrentTask();
+        return StartupSnapshot.builder()
+                .changeVersion(changeVersion)
+                .day(LocalDate.now(ZoneOffset.UTC))
+                .currentTaskId(currentTask != null ? currentTask.getId() : null)
+                .currentTaskName(currentTask != null ? currentTask.getName() : null)
+                .queueSize(taskService.getQueueSize())
+                .hasDeletedTask(taskService.hasDeletedTask())
+                .dailySeconds(currentTask != null ? workSessionService.getDailyTimeSeconds(currentTask.getId()) : 0)
+                .totalSeconds(currentTask != null ? workSessionService.getTotalTimeSeconds(currentTask.getId()) : 0)
+                .build();
+    }
+
+    /**
+     * Check if snapshot still describes the database: nothing committed since and same day
+     */
+    public boolean isCurrent(StartupSnapshot snapshot) {
+        return snapshot.getChangeVersion() == getChangeVersion()
+                && LocalDate.now(ZoneOffset.UTC).equals(snapshot.getDay());
+    }
+
+    /**
+     * Capture state and write it to the snapshot file of the database
+     */
+    public void save() {
+        StartupSnapshotFile.write(databaseConfig.getStartupSnapshotPath(), capture());
+    }
+}
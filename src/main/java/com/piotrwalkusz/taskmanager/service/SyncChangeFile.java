@@ -0,0 +1,240 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.SyncChange;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compact binary file of changes exported by one node, named {@code <node>-<last seq>.tmsync}.
+ * <p>
+ * After the magic header and node ID each change is a varint sequence delta, a zigzag varint clock
+ * delta, the type code, the task origin (usually a single byte, as most tasks come from the exporting
+ * node or the shared starting copy), the origin ID and the value or session times if the type has them.
+ * Files are written under a temporary name and moved into place, so readers never see a partial file.
+ */
+final class SyncChangeFile {
+
+    static final String EXTENSION = ".tmsync";
+    static final byte[] MAGIC = {'T', 'M', 'S', 'Y', 'N', 'C', '0', '1'};
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("([0-9a-f]+)-(\\d+)\\" + EXTENSION);
+    private static final int ORIGIN_FILE_NODE = 0;
+    private static final int ORIGIN_BASELINE = 1;
+    private static final int ORIGIN_OTHER = 2;
+
+    /**
+     * Change file found in a directory
+     *
+     * @param lastSeq sequence of the last change in file
+     */
+    record Info(Path path, String nodeId, long lastSeq) {
+    }
+
+    private SyncChangeFile() {
+    }
+
+    /**
+     * Write changes of node, ordered by sequence, to a new file in directory
+     *
+     * @return written file
+     */
+    static Path write(Path directory, String nodeId, List<SyncChange> changes) {
+        long lastSeq = changes.get(changes.size() - 1).getSeq();
+        Path file = directory.resolve(nodeId + "-" + lastSeq + EXTENSION);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                output.write(MAGIC);
+                writeString(output, nodeId);
+                long seq = 0;
+                long hlc = 0;
+                for (SyncChange change : changes) {
+                    writeVarint(output, change.getSeq() - seq);
+                    writeVarint(output, zigzag(change.getHlc() - hlc));
+                    seq = change.getSeq();
+                    hlc = change.getHlc();
+                    writeChange(output, nodeId, change);
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write change file: " + file, e);
+        }
+    }
+
+    /**
+     * List change files in directory (files of all nodes)
+     */
+    static List<Info> list(Path directory) {
+        List<Info> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path path : stream) {
+                Matcher matcher = NAME_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.add(new Info(path, matcher.group(1), Long.parseLong(matcher.group(2))));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list change files: " + directory, e);
+        }
+        return files;
+    }
+
+    /**
+     * Read all changes of file, with node ID set
+     */
+    static List<SyncChange> read(Path file) {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+            byte[] magic = input.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IllegalArgumentException("Not a change file: " + file);
+            }
+            String nodeId = readString(input);
+            List<SyncChange> changes = new ArrayList<>();
+            long seq = 0;
+            long hlc = 0;
+            int first;
+            while ((first = input.read()) >= 0) {
+                seq += readVarint(input, first);
+                hlc += unzigzag(readVarint(input, input.read()));
+                changes.add(readChange(input, nodeId, seq, hlc));
+            }
+            return changes;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read change file: " + file, e);
+        }
+    }
+
+    private static void writeChange(OutputStream output, String nodeId, SyncChange change) throws IOException {
+        SyncChange.Type type = change.getType();
+        output.write(type.getCode());
+        if (change.getOriginNode().equals(nodeId)) {
+            output.write(ORIGIN_FILE_NODE);
+        } else if (change.getOriginNode().isEmpty()) {
+            output.write(ORIGIN_BASELINE);
+        } else {
+            output.write(ORIGIN_OTHER);
+            writeString(output, change.getOriginNode());
+        }
+        writeVarint(output, change.getOriginId());
+        if (type.hasValue()) {
+            writeString(output, change.getValue());
+        }
+        if (type == SyncChange.Type.WORK) {
+            Instant start = change.getStartTime();
+            Instant end = change.getEndTime();
+            writeVarint(output, start.getEpochSecond());
+            writeVarint(output, start.getNano());
+            writeVarint(output, end.getEpochSecond() - start.getEpochSecond());
+            writeVarint(output, end.getNano());
+        }
+    }
+
+    private static SyncChange readChange(InputStream input, String nodeId, long seq, long hlc) throws IOException {
+        SyncChange.Type type = SyncChange.Type.fromCode(readByte(input));
+        String originNode = switch (readByte(input)) {
+            case ORIGIN_FILE_NODE -> nodeId;
+            case ORIGIN_BASELINE -> "";
+            case ORIGIN_OTHER -> readString(input);
+            default -> throw new IOException("Malformed task origin");
+        };
+        SyncChange change = SyncChange.builder()
+                .seq(seq)
+                .hlc(hlc)
+                .nodeId(nodeId)
+                .originNode(originNode)
+                .originId(readVarint(input, input.read()))
+                .type(type)
+                .build();
+        if (type.hasValue()) {
+            change.setValue(readString(input));
+        }
+        if (type == SyncChange.Type.WORK) {
+            long startSecond = readVarint(input, input.read());
+            change.setStartTime(Instant.ofEpochSecond(startSecond, readVarint(input, input.read())));
+            long endSecond = startSecond + readVarint(input, input.read());
+            change.setEndTime(Instant.ofEpochSecond(endSecond, readVarint(input, input.read())));
+        }
+        return change;
+    }
+
+    private static void writeString(OutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(InputStream input) throws IOException {
+        int length = (int) readVarint(input, input.read());
+        byte[] bytes = input.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Truncated change file");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readByte(InputStream input) throws IOException {
+        int b = input.read();
+        if (b < 0) {
+            throw new EOFException("Truncated change file");
+        }
+        return b;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    /**
+     * Read varint whose first byte was already read
+     */
+    private static long readVarint(InputStream input, int first) throws IOException {
+        long value = 0;
+        int b = first;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (b < 0) {
+                throw new EOFException("Truncated change file");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            b = input.read();
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,408 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.ArchiveMapper;
+import com.piotrwalkusz.taskmanager.mapper.ChangeCounterMapper;
+import com.piotrwalkusz.taskmanager.mapper.SyncMapper;
+import com.piotrwalkusz.taskmanager.mapper.TagMapper;
+import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
+import com.piotrwalkusz.taskmanager.model.SyncChange;
+import com.piotrwalkusz.taskmanager.model.SyncPendingChange;
+import com.piotrwalkusz.taskmanager.model.SyncRegister;
+import com.piotrwalkusz.taskmanager.model.SyncTaskOrigin;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+import org.apache.ibatis.session.SqlSession;
+
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Service syncing tasks between machines through change files in a shared folder.
+ * <p>
+ * Every change of a task, its tags or work sessions is appended to a local change log stamped with
+ * a {@link HybridLogicalClock}. Triggers capture the changes, and the log is written in the same
+ * transaction, so it misses none - whichever service or process made them - and a failure to log
+ * a change fails the change itself. Export writes the changes made since the last
+ * export to one file; import reads only files of other nodes with changes not imported yet - both cost
+ * is proportional to the changes, not the database size.
+ * <p>
+ * Conflicts are resolved per field of a task (name, position in queue, deleted state, each tag):
+ * the change with the greater clock value wins, ties broken by node ID, so every machine ends in the
+ * same state whatever order it imports in. The queue position is the last move to the end or front,
+ * so tasks moved since the oldest imported move are moved again in clock order. A purge is final and
+ * wins over any other change of the task. Completed work sessions never conflict and are added.
+ * <p>
+ * All machines must start from one copy of the database; tasks that existed in it are matched by ID.
+ */
+public class SyncService {
+
+    public static final String SYNC_DIRECTORY_PROPERTY = "taskmanager.sync.dir";
+
+    static final String NAME = "name";
+    static final String POSITION = "position";
+    static final String DELETED = "deleted";
+    static final String TAG_PREFIX = "tag:";
+    private static final String END = "end";
+    private static final String FRONT = "front";
+    private static final long PURGED = Long.MAX_VALUE; // Version of the deleted field of a purged task
+    private static final String BASELINE_NODE = ""; // Origin of tasks from the starting copy
+
+    private final DatabaseConfig databaseConfig;
+    private final MyBatisStorage storage;
+    private final EventBus eventBus;
+    private final Path directory;
+    private final String nodeId;
+    private final HybridLogicalClock clock;
+
+    public SyncService(DatabaseConfig databaseConfig, EventBus eventBus, Path directory) {
+        this(databaseConfig, eventBus, directory, System::currentTimeMillis);
+    }
+
+    /**
+     * @param wallClockMillis wall clock of this node
+     */
+    SyncService(DatabaseConfig databaseConfig, EventBus eventBus, Path directory, LongSupplier wallClockMillis) {
+        this.databaseConfig = databaseConfig;
+        this.storage = new MyBatisStorage(databaseConfig);
+        this.eventBus = eventBus;
+        this.directory = directory;
+        String newNodeId = String.format("%016x", new SecureRandom().nextLong());
+        this.nodeId = databaseConfig.inWriteTransaction(session -> {
+            SyncMapper mapper = session.getMapper(SyncMapper.class);
+            mapper.initState(newNodeId);
+            return mapper.getNodeId();
+        });
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            this.clock = new HybridLogicalClock(wallClockMillis, session.getMapper(SyncMapper.class).getClock());
+        }
+        databaseConfig.addCommitHook(this::recordPendingChanges);
+    }
+
+    /**
+     * Create service if enabled with -Dtaskmanager.sync.dir=&lt;shared folder&gt;
+     *
+     * @return service or null if sync is off
+     */
+    public static SyncService fromSystemProperty(DatabaseConfig databaseConfig, EventBus eventBus) {
+        String syncDirectory = System.getProperty(SYNC_DIRECTORY_PROPERTY);
+        return syncDirectory == null || syncDirectory.isBlank()
+                ? null
+                : new SyncService(databaseConfig, eventBus, Path.of(syncDirectory));
+    }
+
+    /**
+     * Get ID of this node (unique per database)
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Get changes made on this node after given sequence (watermark), in order
+     */
+    public List<SyncChange> getChangesAfter(long afterSeq) {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            List<SyncChange> changes = session.getMapper(SyncMapper.class).getChangesAfter(afterSeq);
+            changes.forEach(change -> change.setNodeId(nodeId));
+            return changes;
+        }
+    }
+
+    /**
+     * Write changes made on this node since the last export to a new file in the shared folder
+     *
+     * @return number of exported changes
+     */
+    public synchronized int exportChanges() {
+        long exportedSeq;
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            exportedSeq = session.getMapper(SyncMapper.class).getExportedSeq();
+        }
+        List<SyncChange> changes = getChangesAfter(exportedSeq);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        SyncChangeFile.write(directory, nodeId, changes);
+        // A crash before this commit only exports the same changes again, which import skips
+        long lastSeq = changes.get(changes.size() - 1).getSeq();
+        databaseConfig.runInWriteTransaction(session -> session.getMapper(SyncMapper.class).setExportedSeq(lastSeq));
+        return changes.size();
+    }
+
+    /**
+     * Apply changes of other nodes from the shared folder that were not imported yet, in one transaction
+     *
+     * @return number of imported changes
+     */
+    public synchronized int importChanges() {
+        Map<String, Long> importedSeqs = new HashMap<>();
+        Map<String, TreeMap<Long, SyncChange>> changesByNode = new HashMap<>();
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            SyncMapper mapper = session.getMapper(SyncMapper.class);
+            for (SyncChangeFile.Info file : SyncChangeFile.list(directory)) {
+                if (file.nodeId().equals(nodeId)) {
+                    continue;
+                }
+                long importedSeq = importedSeqs.computeIfAbsent(file.nodeId(), mapper::getImportedSeq);
+                if (file.lastSeq() <= importedSeq) {
+                    continue;
+                }
+                // Files of one node may overlap after an interrupted export
+                TreeMap<Long, SyncChange> nodeChanges = changesByNode.computeIfAbsent(file.nodeId(), node -> new TreeMap<>());
+                for (SyncChange change : SyncChangeFile.read(file.path())) {
+                    if (change.getSeq() > importedSeq) {
+                        nodeChanges.put(change.getSeq(), change);
+                    }
+                }
+            }
+        }
+        List<SyncChange> changes = new ArrayList<>();
+        changesByNode.values().forEach(nodeChanges -> changes.addAll(nodeChanges.values()));
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        changes.sort(Comparator.comparingLong(SyncChange::getHlc).thenComparing(SyncChange::getNodeId));
+        clock.observe(changes.get(changes.size() - 1).getHlc());
+
+        // Archive is reachable so imported purges delete archived sessions too
+        long changeVersion = databaseConfig.inWriteTransactionWithArchive(session -> {
+            SyncMapper mapper = session.getMapper(SyncMapper.class);
+            long lastPendingId = mapper.getLastPendingId();
+            applyChanges(session, changes);
+            // Changes of other nodes are not logged again as changes of this one
+            mapper.deletePendingChanges(lastPendingId);
+            changesByNode.forEach((node, nodeChanges) -> mapper.setImportedSeq(node, nodeChanges.lastKey()));
+            mapper.advanceClock(changes.get(changes.size() - 1).getHlc());
+            return session.getMapper(ChangeCounterMapper.class).getChangeVersion();
+        });
+        eventBus.publish(new DatabaseChangedExternally(changeVersion));
+        return changes.size();
+    }
+
+    /**
+     * Log mutations the V17 triggers captured in the transaction about to commit, so the change log
+     * commits or rolls back with them. Clock values are issued inside the single writer lane, so they
+     * increase with the sequence.
+     */
+    private void recordPendingChanges(SqlSession session) {
+        SyncMapper mapper = session.getMapper(SyncMapper.class);
+        List<SyncPendingChange> pendingChanges = mapper.getPendingChanges();
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        for (SyncPendingChange pending : pendingChanges) {
+            record(mapper, pending);
+        }
+        mapper.deletePendingChanges(0);
+    }
+
+    private void record(SyncMapper mapper, SyncPendingChange pending) {
+        Long taskId = pending.getTaskId();
+        SyncChange.Type type = pending.getType();
+        String value = pending.getValue();
+        SyncTaskOrigin origin;
+        if (type == SyncChange.Type.ADD) {
+            origin = new SyncTaskOrigin(taskId, nodeId, taskId);
+            mapper.insertTaskOrigin(taskId, nodeId, taskId);
+        } else {
+            origin = mapper.getTaskOrigin(taskId);
+            if (origin == null) {
+                origin = new SyncTaskOrigin(taskId, BASELINE_NODE, taskId);
+            }
+        }
+        SyncChange change = SyncChange.builder()
+                .hlc(clock.now())
+                .nodeId(nodeId)
+                .originNode(origin.getOriginNode())
+                .originId(origin.getOriginId())
+                .type(type)
+                .value(value)
+                .startTime(pending.getStartTime())
+                .endTime(pending.getEndTime())
+                .build();
+        mapper.insertChange(change);
+        mapper.advanceClock(change.getHlc());
+        // Register the change, so older changes of other nodes imported later lose to it
+        switch (type) {
+            case ADD -> {
+                win(mapper, change, NAME, value);
+                win(mapper, change, POSITION, END);
+                win(mapper, change, DELETED, null);
+            }
+            case RENAME -> win(mapper, change, NAME, value);
+            case ROTATE -> win(mapper, change, POSITION, END);
+            case MOVE_TO_FRONT -> win(mapper, change, POSITION, FRONT);
+            case DELETE, RESTORE -> win(mapper, change, DELETED, null);
+            case PURGE -> markPurged(mapper, change);
+            case TAG, UNTAG -> win(mapper, change, TAG_PREFIX + value, null);
+            case WORK -> {
+            }
+        }
+    }
+
+    private void applyChanges(SqlSession session, List<SyncChange> changes) {
+        SyncMapper mapper = session.getMapper(SyncMapper.class);
+        TaskMapper taskMapper = session.getMapper(TaskMapper.class);
+        TagMapper tagMapper = session.getMapper(TagMapper.class);
+        ArchiveMapper archiveMapper = session.getMapper(ArchiveMapper.class);
+        boolean archiveAttached = archiveMapper.isArchiveAttached();
+        long movedSince = Long.MAX_VALUE;
+        for (SyncChange change : changes) {
+            if (isPurged(mapper, change)) {
+                continue;
+            }
+            Long taskId = getLocalTaskId(mapper, taskMapper, change.getOriginNode(), change.getOriginId());
+            switch (change.getType()) {
+                case ADD -> {
+                    if (taskId != null) {
+                        break;
+                    }
+                    Task task = Task.builder()
+                            .name(change.getValue())
+                            .createdAt(Instant.ofEpochMilli(HybridLogicalClock.toMillis(change.getHlc())))
+                            .build();
+                    taskMapper.insertTask(task);
+                    mapper.insertTaskOrigin(task.getId(), change.getOriginNode(), change.getOriginId());
+                    win(mapper, change, NAME, change.getValue());
+                    win(mapper, change, DELETED, null);
+                    if (win(mapper, change, POSITION, END)) {
+                        movedSince = Math.min(movedSince, change.getHlc());
+                    }
+                }
+                case RENAME -> {
+                    if (win(mapper, change, NAME, change.getValue()) && taskId != null) {
+                        taskMapper.updateTaskName(taskId, change.getValue());
+                    }
+                }
+                case ROTATE, MOVE_TO_FRONT -> {
+                    boolean rotate = change.getType() == SyncChange.Type.ROTATE;
+                    if (rotate && taskId != null) {
+                        mapper.countRotation(taskId);
+                    }
+                    if (win(mapper, change, POSITION, rotate ? END : FRONT)) {
+                        movedSince = Math.min(movedSince, change.getHlc());
+                    }
+                }
+                case DELETE -> {
+                    if (win(mapper, change, DELETED, null) && taskId != null) {
+                        taskMapper.softDeleteTask(taskId);
+                    }
+                }
+                case RESTORE -> {
+                    if (win(mapper, change, DELETED, null) && taskId != null) {
+                        mapper.restoreTask(taskId);
+                    }
+                }
+                case PURGE -> {
+                    markPurged(mapper, change);
+                    if (taskId != null) {
+                        if (archiveAttached) {
+                            archiveMapper.deleteArchivedSessionsOfTask(taskId);
+                        }
+                        mapper.deleteTask(taskId);
+                    }
+                }
+                case TAG -> {
+                    if (win(mapper, change, TAG_PREFIX + change.getValue(), null) && taskId != null) {
+                        tagMapper.addTag(taskId, change.getValue());
+                    }
+                }
+                case UNTAG -> {
+                    if (win(mapper, change, TAG_PREFIX + change.getValue(), null) && taskId != null) {
+                        tagMapper.removeTag(taskId, change.getValue());
+                    }
+                }
+                case WORK -> {
+                    if (taskId != null) {
+                        storage.repositories(session).saveWorkSession(WorkSession.builder()
+                                .taskId(taskId)
+                                .startTime(change.getStartTime())
+                                .endTime(change.getEndTime())
+                                .build());
+                    }
+                }
+            }
+        }
+        if (movedSince != Long.MAX_VALUE) {
+            replayMoves(mapper, taskMapper, movedSince);
+        }
+    }
+
+    /**
+     * Move again, in clock order, every task whose last move is not older than given clock value.
+     * Tasks moved before keep their relative order, so the queue ends up ordered by last move.
+     */
+    private static void replayMoves(SyncMapper mapper, TaskMapper taskMapper, long since) {
+        for (SyncRegister register : mapper.getRegistersSince(POSITION, since)) {
+            Long taskId = getLocalTaskId(mapper, taskMapper, register.getOriginNode(), register.getOriginId());
+            if (taskId == null) {
+                continue;
+            }
+            if (FRONT.equals(register.getValue())) {
+                taskMapper.moveTaskToFront(taskId);
+            } else {
+                mapper.moveTaskToEnd(taskId);
+            }
+        }
+    }
+
+    private static Long getLocalTaskId(SyncMapper mapper, TaskMapper taskMapper, String originNode, long originId) {
+        if (!originNode.equals(BASELINE_NODE)) {
+            return mapper.getTaskIdByOrigin(originNode, originId);
+        }
+        // Tasks from the starting copy keep their ID and have no recorded origin
+        if (taskMapper.getTaskById(originId) == null || mapper.getTaskOrigin(originId) != null) {
+            return null;
+        }
+        return originId;
+    }
+
+    /**
+     * Record change as the version of field if it is newer than the current version (last writer wins)
+     *
+     * @return true if change won
+     */
+    private static boolean win(SyncMapper mapper, SyncChange change, String field, String value) {
+        SyncRegister current = mapper.getRegister(change.getOriginNode(), change.getOriginId(), field);
+        if (current != null && (current.getHlc() > change.getHlc()
+                || current.getHlc() == change.getHlc() && current.getNodeId().compareTo(change.getNodeId()) >= 0)) {
+            return false;
+        }
+        mapper.saveRegister(SyncRegister.builder()
+                .originNode(change.getOriginNode())
+                .originId(change.getOriginId())
+                .field(field)
+                .hlc(change.getHlc())
+                .nodeId(change.getNodeId())
+                .value(value)
+                .build());
+        return true;
+    }
+
+    private static void markPurged(SyncMapper mapper, SyncChange change) {
+        mapper.saveRegister(SyncRegister.builder()
+                .originNode(change.getOriginNode())
+                .originId(change.getOriginId())
+                .field(DELETED)
+                .hlc(PURGED)
+                .nodeId(change.getNodeId())
+                .build());
+    }
+
+    private static boolean isPurged(SyncMapper mapper, SyncChange change) {
+        SyncRegister deleted = mapper.getRegister(change.getOriginNode(), change.getOriginId(), DELETED);
+        return deleted != null && deleted.getHlc() == PURGED;
+    }
+}
@@ -0,0 +1,81 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Boolean filter over task tags, e.g. {@code @office AND NOT (@meeting OR @calls)}.
+ * <p>
+ * Operators are {@code AND}, {@code OR} and {@code NOT} (case-insensitive) or {@code &}, {@code |}
+ * and {@code !}. NOT binds tighter than AND, AND tighter than OR, and tags written next to each
+ * other are joined with AND.
+ */
+public sealed interface TagFilter {
+
+    record Tag(String name) implements TagFilter {
+    }
+
+    record Not(TagFilter operand) implements TagFilter {
+    }
+
+    record And(TagFilter left, TagFilter right) implements TagFilter {
+    }
+
+    record Or(TagFilter left, TagFilter right) implements TagFilter {
+    }
+
+    /**
+     * Evaluate filter to the set of matching slots
+     *
+     * @param tagSlots slots having given tag (not modified)
+     * @param allSlots slots of all tasks in queue (not modified)
+     * @return new bit set with matching slots
+     */
+    default BitSet evaluate(Function<String, BitSet> tagSlots, BitSet allSlots) {
+        BitSet result;
+        switch (this) {
+            case Tag tag -> {
+                result = (BitSet) tagSlots.apply(tag.name()).clone();
+                result.and(allSlots);
+            }
+            case Not not -> {
+                result = (BitSet) allSlots.clone();
+                result.andNot(not.operand().evaluate(tagSlots, allSlots));
+            }
+            case And and -> {
+                result = and.left().evaluate(tagSlots, allSlots);
+                result.and(and.right().evaluate(tagSlots, allSlots));
+            }
+            case Or or -> {
+                result = or.left().evaluate(tagSlots, allSlots);
+                result.or(or.right().evaluate(tagSlots, allSlots));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse filter expression
+     *
+     * @throws IllegalArgumentException if expression is not valid
+     */
+    static TagFilter parse(String expression) {
+        return new TagFilterParser(expression).parse();
+    }
+
+    /**
+     * Normalize tag for storage and matching (trimmed, lower case)
+     *
+     * @throws IllegalArgumentException if tag is empty, contains operator characters or is a keyword
+     */
+    static String normalizeTag(String tag) {
+        String normalized = tag.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()
+                || normalized.chars().anyMatch(c -> Character.isWhitespace(c) || TagFilterParser.isOperatorChar((char) c))
+                || TagFilterParser.isKeyword(normalized)) {
+            throw new IllegalArgumentException("Invalid tag: '" + tag + "'");
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,116 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser: or := and (OR and)*, and := not ([AND] not)*, not := NOT not | ( or ) | tag
+ */
+final class TagFilterParser {
+
+    private final List<String> tokens;
+    private int position;
+
+    TagFilterParser(String expression) {
+        this.tokens = tokenize(expression);
+    }
+
+    TagFilter parse() {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Empty filter expression");
+        }
+        TagFilter filter = parseOr();
+        if (position < tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + tokens.get(position) + "' in filter expression");
+        }
+        return filter;
+    }
+
+    private TagFilter parseOr() {
+        TagFilter filter = parseAnd();
+        while (accept("OR", "|")) {
+            filter = new TagFilter.Or(filter, parseAnd());
+        }
+        return filter;
+    }
+
+    private TagFilter parseAnd() {
+        TagFilter filter = parseNot();
+        while (position < tokens.size()) {
+            if (!accept("AND", "&") && !startsOperand()) {
+                break;
+            }
+            filter = new TagFilter.And(filter, parseNot());
+        }
+        return filter;
+    }
+
+    private TagFilter parseNot() {
+        if (accept("NOT", "!")) {
+            return new TagFilter.Not(parseNot());
+        }
+        if (accept("(", "(")) {
+            TagFilter filter = parseOr();
+            if (!accept(")", ")")) {
+                throw new IllegalArgumentException("Missing ')' in filter expression");
+            }
+            return filter;
+        }
+        if (position >= tokens.size()) {
+            throw new IllegalArgumentException("Unexpected end of filter expression");
+        }
+        String token = tokens.get(position);
+        if (token.length() == 1 && isOperatorChar(token.charAt(0)) || isKeyword(token)) {
+            throw new IllegalArgumentException("Expected tag but found '" + token + "'");
+        }
+        position++;
+        return new TagFilter.Tag(TagFilter.normalizeTag(token));
+    }
+
+    private boolean startsOperand() {
+        String token = tokens.get(position);
+        return token.equals("(") || token.equals("!") || token.equalsIgnoreCase("NOT")
+                || !(token.length() == 1 && isOperatorChar(token.charAt(0)) || isKeyword(token));
+    }
+
+    private boolean accept(String keyword, String symbol) {
+        if (position < tokens.size()) {
+            String token = tokens.get(position);
+            if (token.equalsIgnoreCase(keyword) || token.equals(symbol)) {
+                position++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isOperatorChar(c)) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+                        && !isOperatorChar(expression.charAt(i))) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    static boolean isOperatorChar(char c) {
+        return c == '(' || c == ')' || c == '&' || c == '|' || c == '!';
+    }
+
+    static boolean isKeyword(String token) {
+        return token.equalsIgnoreCase("AND") || token.equalsIgnoreCase("OR") || token.equalsIgnoreCase("NOT");
+    }
+}
@@ -0,0 +1,197 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory bitmap index from tag to tasks in queue, answering filtered head and count without a query.
+ * <p>
+ * Every task in the queue owns a slot and slots are ordered like the queue, so the first set bit of
+ * a filter result is the filtered head. A rotated task takes a fresh slot at the end; slots are
+ * renumbered when freed slots start to dominate, which keeps the bitmaps dense.
+ * Updates are idempotent, so applying a change already contained in a fresh build is harmless.
+ */
+class TagIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+    private static final int MIN_SLOTS_BEFORE_COMPACTION = 1024;
+
+    private final Map<Long, Integer> slotByTask = new HashMap<>();
+    private final Map<Long, Set<String>> tagsByTask = new HashMap<>();
+    private final Map<String, BitSet> slotsByTag = new HashMap<>();
+    private final BitSet queuedSlots = new BitSet();
+    private long[] taskBySlot = new long[64];
+    private int nextSlot;
+
+    /**
+     * Build index from task IDs in queue order and their tags
+     */
+    TagIndex(List<Long> queueTaskIds, List<TaskTag> taskTags) {
+        for (Long taskId : queueTaskIds) {
+            appendSlot(taskId);
+        }
+        for (TaskTag taskTag : taskTags) {
+            tagAdded(taskTag.getTaskId(), taskTag.getTag());
+        }
+    }
+
+    /**
+     * Get ID of first task in queue matching filter
+     *
+     * @return task ID or null if no task matches
+     */
+    synchronized Long getHead(TagFilter filter) {
+        int slot = evaluate(filter).nextSetBit(0);
+        return slot < 0 ? null : taskBySlot[slot];
+    }
+
+    /**
+     * Get ID of first task in queue matching filter and accepted by predicate
+     *
+     * @return task ID or null if no task matches
+     */
+    synchronized Long getHead(TagFilter filter, LongPredicate eligible) {
+        BitSet matching = evaluate(filter);
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            if (eligible.test(taskBySlot[slot])) {
+                return taskBySlot[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get number of tasks in queue matching filter
+     */
+    synchronized int count(TagFilter filter) {
+        return evaluate(filter).cardinality();
+    }
+
+    /**
+     * Get number of slots including freed ones (for tests)
+     */
+    synchronized int getSlotCount() {
+        return nextSlot;
+    }
+
+    synchronized void taskAdded(Long taskId) {
+        if (!slotByTask.containsKey(taskId)) {
+            appendSlot(taskId);
+        }
+    }
+
+    synchronized void taskMovedToEnd(Long taskId) {
+        Integer slot = slotByTask.get(taskId);
+        if (slot == null) {
+            return;
+        }
+        clearSlot(taskId, slot);
+        int newSlot = appendSlot(taskId);
+        for (String tag : tagsByTask.getOrDefault(taskId, Set.of())) {
+            slotsByTag.computeIfAbsent(tag, key -> new BitSet()).set(newSlot);
+        }
+        compactIfSparse();
+    }
+
+    synchronized void taskMovedToFront(Long taskId) {
+        if (slotByTask.containsKey(taskId)) {
+            renumberSlots(taskId);
+        }
+    }
+
+    synchronized void taskRemoved(Long taskId) {
+        Integer slot = slotByTask.remove(taskId);
+        if (slot == null) {
+            return;
+        }
+        clearSlot(taskId, slot);
+        tagsByTask.remove(taskId);
+        compactIfSparse();
+    }
+
+    synchronized void tagAdded(Long taskId, String tag) {
+        Integer slot = slotByTask.get(taskId);
+        if (slot == null) {
+            return;
+        }
+        tagsByTask.computeIfAbsent(taskId, key -> new HashSet<>()).add(tag);
+        slotsByTag.computeIfAbsent(tag, key -> new BitSet()).set(slot);
+    }
+
+    synchronized void tagRemoved(Long taskId, String tag) {
+        Integer slot = slotByTask.get(taskId);
+        Set<String> tags = tagsByTask.get(taskId);
+        if (slot == null || tags == null || !tags.remove(tag)) {
+            return;
+        }
+        BitSet slots = slotsByTag.get(tag);
+        slots.clear(slot);
+        if (slots.isEmpty()) {
+            slotsByTag.remove(tag);
+        }
+    }
+
+    private BitSet evaluate(TagFilter filter) {
+        return filter.evaluate(tag -> slotsByTag.getOrDefault(tag, EMPTY), queuedSlots);
+    }
+
+    private int appendSlot(Long taskId) {
+        if (nextSlot == taskBySlot.length) {
+            taskBySlot = Arrays.copyOf(taskBySlot, taskBySlot.length * 2);
+        }
+        int slot = nextSlot++;
+        taskBySlot[slot] = taskId;
+        slotByTask.put(taskId, slot);
+        queuedSlots.set(slot);
+        return slot;
+    }
+
+    private void clearSlot(Long taskId, int slot) {
+        queuedSlots.clear(slot);
+        for (String tag : tagsByTask.getOrDefault(taskId, Set.of())) {
+            slotsByTag.get(tag).clear(slot);
+        }
+    }
+
+    private void compactIfSparse() {
+        if (nextSlot > MIN_SLOTS_BEFORE_COMPACTION && nextSlot > 2 * slotByTask.size()) {
+            renumberSlots(null);
+        }
+    }
+
+    /**
+     * Assign consecutive slots in current queue order, optionally putting one task first
+     */
+    private void renumberSlots(Long frontTaskId) {
+        long[] queueOrder = new long[slotByTask.size()];
+        int count = 0;
+        if (frontTaskId != null) {
+            queueOrder[count++] = frontTaskId;
+        }
+        for (int slot = queuedSlots.nextSetBit(0); slot >= 0; slot = queuedSlots.nextSetBit(slot + 1)) {
+            if (frontTaskId == null || taskBySlot[slot] != frontTaskId) {
+                queueOrder[count++] = taskBySlot[slot];
+            }
+        }
+
+        slotByTask.clear();
+        slotsByTag.clear();
+        queuedSlots.clear();
+        taskBySlot = new long[Math.max(64, queueOrder.length * 2)];
+        nextSlot = 0;
+        for (long taskId : queueOrder) {
+            int slot = appendSlot(taskId);
+            for (String tag : tagsByTask.getOrDefault(taskId, Set.of())) {
+                slotsByTag.computeIfAbsent(tag, key -> new BitSet()).set(slot);
+            }
+        }
+    }
+}
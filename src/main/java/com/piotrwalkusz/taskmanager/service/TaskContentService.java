@@ -0,0 +1,184 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.mapper.TaskContentMapper;
+import com.piotrwalkusz.taskmanager.model.TaskAttachment;
+import com.piotrwalkusz.taskmanager.model.TaskNote;
+import org.apache.ibatis.session.SqlSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for notes and attachments of tasks.
+ * <p>
+ * Content is kept out of the task table and only loaded through this service, so queue queries
+ * never read it. Attachments are written and streamed in fixed-size chunks; recently viewed notes
+ * are held in an LRU cache bounded by total note length. Note methods are synchronized so a slow
+ * read cannot put a note into the cache after a newer version was saved.
+ */
+public class TaskContentService {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+    public static final long MAX_ATTACHMENT_SIZE = 16 * 1024 * 1024;
+    private static final long DEFAULT_NOTE_CACHE_CHARS = 1024 * 1024;
+
+    private final DatabaseConfig databaseConfig;
+    private final SizeBoundedLruCache<Long, TaskNote> noteCache;
+
+    public TaskContentService(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this(databaseConfig, eventBus, DEFAULT_NOTE_CACHE_CHARS);
+    }
+
+    /**
+     * @param noteCacheChars maximum total length of cached notes
+     */
+    public TaskContentService(DatabaseConfig databaseConfig, EventBus eventBus, long noteCacheChars) {
+        this.databaseConfig = databaseConfig;
+        this.noteCache = new SizeBoundedLruCache<>(noteCacheChars, note -> note.getBody().length());
+        // Notes may have been changed by another instance or removed with purged tasks
+        eventBus.subscribe(DatabaseChangedExternally.class, event -> noteCache.clear());
+        eventBus.subscribe(DomainEvent.DeletedTasksPurged.class, event -> noteCache.clear());
+    }
+
+    /**
+     * Get note of task
+     *
+     * @return note or null if task has none
+     */
+    public synchronized TaskNote getNote(Long taskId) {
+        TaskNote cached = noteCache.get(taskId);
+        if (cached != null) {
+            return copy(cached);
+        }
+        TaskNote note;
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            note = session.getMapper(TaskContentMapper.class).getNote(taskId);
+        }
+        if (note != null) {
+            noteCache.put(taskId, copy(note));
+        }
+        return note;
+    }
+
+    /**
+     * Save note of task; a blank body deletes the note
+     *
+     * @return saved note or null if it was deleted
+     */
+    public synchronized TaskNote saveNote(Long taskId, String body) {
+        if (body == null || body.isBlank()) {
+            deleteNote(taskId);
+            return null;
+        }
+        TaskNote note = new TaskNote(taskId, body, Instant.now());
+        databaseConfig.runInWriteTransaction(session ->
+                session.getMapper(TaskContentMapper.class).saveNote(taskId, body, note.getUpdatedAt()));
+        noteCache.put(taskId, copy(note));
+        return note;
+    }
+
+    /**
+     * Delete note of task
+     */
+    public synchronized void deleteNote(Long taskId) {
+        databaseConfig.runInWriteTransaction(session -> session.getMapper(TaskContentMapper.class).deleteNote(taskId));
+        noteCache.remove(taskId);
+    }
+
+    /**
+     * Get attachments of task (metadata only) in order of adding
+     */
+    public List<TaskAttachment> getAttachments(Long taskId) {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            return session.getMapper(TaskContentMapper.class).getAttachments(taskId);
+        }
+    }
+
+    /**
+     * Add attachment to task, reading content to its end one chunk at a time
+     *
+     * @return added attachment
+     * @throws IllegalArgumentException if content is larger than {@link #MAX_ATTACHMENT_SIZE}
+     */
+    public TaskAttachment addAttachment(Long taskId, String name, String mediaType, InputStream content) {
+        // Content is read before the write transaction, so a slow stream never holds up other writers,
+        // and a busy retry writes the same chunks again
+        List<byte[]> chunks = new ArrayList<>();
+        long size = 0;
+        byte[] chunk;
+        while ((chunk = readChunk(content)).length > 0) {
+            size += chunk.length;
+            if (size > MAX_ATTACHMENT_SIZE) {
+                throw new IllegalArgumentException("Attachment is larger than " + MAX_ATTACHMENT_SIZE + " bytes: " + name);
+            }
+            chunks.add(chunk);
+        }
+        TaskAttachment attachment = TaskAttachment.builder()
+                .taskId(taskId)
+                .name(name)
+                .mediaType(mediaType)
+                .size(size)
+                .createdAt(Instant.now())
+                .build();
+        databaseConfig.runInWriteTransaction(session -> {
+            TaskContentMapper mapper = session.getMapper(TaskContentMapper.class);
+            mapper.insertAttachment(attachment);
+            for (int seq = 0; seq < chunks.size(); seq++) {
+                mapper.insertChunk(attachment.getId(), seq, chunks.get(seq));
+            }
+        });
+        return attachment;
+    }
+
+    /**
+     * Open attachment content for reading. Content is loaded lazily one chunk at a time.
+     *
+     * @throws IllegalArgumentException if attachment does not exist
+     */
+    public InputStream openAttachment(Long attachmentId) {
+        TaskAttachment attachment;
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            attachment = session.getMapper(TaskContentMapper.class).getAttachment(attachmentId);
+        }
+        if (attachment == null) {
+            throw new IllegalArgumentException("Attachment does not exist: " + attachmentId);
+        }
+        return new AttachmentInputStream(databaseConfig, attachmentId, attachment.getSize());
+    }
+
+    /**
+     * Delete attachment with its content
+     *
+     * @return true if attachment was deleted, false if it did not exist
+     */
+    public boolean deleteAttachment(Long attachmentId) {
+        return databaseConfig.inWriteTransaction(session ->
+                session.getMapper(TaskContentMapper.class).deleteAttachment(attachmentId) > 0);
+    }
+
+    /**
+     * Get number of cached notes
+     */
+    public int getCachedNoteCount() {
+        return noteCache.size();
+    }
+
+    private static byte[] readChunk(InputStream content) {
+        try {
+            return content.readNBytes(CHUNK_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read attachment content", e);
+        }
+    }
+
+    private static TaskNote copy(TaskNote note) {
+        return new TaskNote(note.getTaskId(), note.getBody(), note.getUpdatedAt());
+    }
+}
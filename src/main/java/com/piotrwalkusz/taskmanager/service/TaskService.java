@@ -1,59 +1,119 @@
 package com.piotrwalkusz.taskmanager.service;
 
 import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
-import com.piotrwalkusz.taskmanager.mapper.TaskMapper;
-import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
 import com.piotrwalkusz.taskmanager.model.Task;
-import org.apache.ibatis.session.SqlSession;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import com.piotrwalkusz.taskmanager.repository.TaskRepository;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
- * Service for managing tasks
+ * Service for managing tasks.
+ * Safe for concurrent callers: writes go through {@link Storage#write}, and each write is applied to
+ * the tag index and dependency graph under the same lock, so they follow writes in commit order.
  */
 public class TaskService {
 
-    private final DatabaseConfig databaseConfig;
+    private static final int HEAD_SCAN_PAGE_SIZE = 50;
+
+    private final Storage storage;
+    private final EventBus eventBus;
+    private TagIndex tagIndex; // Built on first filtered query, dropped when it may be stale (guarded by this)
+    private DependencyGraph dependencyGraph; // Built on first use, dropped when it may be stale (guarded by this)
 
     public TaskService(DatabaseConfig databaseConfig) {
-        this.databaseConfig = databaseConfig;
+        this(databaseConfig, new EventBus());
+    }
+
+    public TaskService(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this(new MyBatisStorage(databaseConfig), eventBus);
+    }
+
+    public TaskService(Storage storage) {
+        this(storage, new EventBus());
+    }
+
+    public TaskService(Storage storage, EventBus eventBus) {
+        this.storage = storage;
+        this.eventBus = eventBus;
+        eventBus.subscribe(DatabaseChangedExternally.class, event -> {
+            invalidateTagIndex();
+            invalidateDependencyGraph();
+        });
+        eventBus.subscribe(DomainEvent.RecurringTasksMaterialized.class, event -> {
+            // Committed outside this service, so their queue position relative to writes here is unknown
+            invalidateTagIndex();
+            event.tasks().forEach(task -> updateDependencyGraph(graph -> graph.taskAdded(task.getId())));
+        });
     }
 
     /**
-     * Get current task (head of queue)
+     * Get current task (first task in queue not waiting for a prerequisite)
      */
     public Task getCurrentTask() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            return mapper.getCurrentTask();
+        synchronized (this) {
+            if (dependencyGraph == null) {
+                // Build the graph in the same read, so it matches the queue the head is taken from
+                return storage.read(repositories -> {
+                    dependencyGraph = buildDependencyGraph(repositories.tasks());
+                    return findReadyHead(repositories.tasks(), dependencyGraph);
+                });
+            }
         }
+        DependencyGraph graph = getDependencyGraph();
+        return storage.read(repositories -> findReadyHead(repositories.tasks(), graph));
+    }
+
+    /**
+     * Get current task among tasks matching tag filter (first ready task of filtered queue)
+     */
+    public Task getCurrentTask(TagFilter filter) {
+        DependencyGraph graph = getDependencyGraph();
+        Long taskId = getTagIndex().getHead(filter, graph::isReady);
+        if (taskId == null) {
+            return null;
+        }
+        return storage.read(repositories -> repositories.tasks().getTaskById(taskId));
     }
 
     /**
      * Add new task to end of queue
+     *
+     * @return added task with generated ID
      */
-    public void addTask(String name) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            Task task = Task.builder()
-                    .name(name)
-                    .createdAt(Instant.now())
-                    .build();
-            mapper.insertTask(task);
-            session.commit();
+    public Task addTask(String name) {
+        Task task = Task.builder()
+                .name(name)
+                .createdAt(Instant.now())
+                .build();
+        synchronized (this) {
+            storage.runWrite(repositories -> repositories.tasks().insertTask(task));
+            updateTagIndex(index -> index.taskAdded(task.getId()));
+            updateDependencyGraph(graph -> graph.taskAdded(task.getId()));
         }
+        eventBus.publish(new DomainEvent.TaskAdded(task));
+        return task;
     }
 
     /**
      * Move task to end of queue
      */
     public void rotateTask(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper taskMapper = session.getMapper(TaskMapper.class);
-            taskMapper.rotateTask(taskId);
-            session.commit();
+        synchronized (this) {
+            storage.runWrite(repositories -> repositories.tasks().rotateTask(taskId));
+            updateTagIndex(index -> index.taskMovedToEnd(taskId));
         }
+        eventBus.publish(new DomainEvent.TaskRotated(taskId));
     }
 
     /**
@@ -61,72 +121,162 @@ public class TaskService {
      * If task has active work session, pause it first in the same transaction
      */
     public void rotateTaskWithPause(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper workSessionMapper = session.getMapper(WorkSessionMapper.class);
-            TaskMapper taskMapper = session.getMapper(TaskMapper.class);
-
-            // Check and pause active session in same transaction
-            boolean hasActiveSession = workSessionMapper.hasActiveWorkSession(taskId);
-            if (hasActiveSession) {
-                workSessionMapper.pauseWorkSession(taskId);
-            }
+        synchronized (this) {
+            storage.runWrite(repositories -> {
+                // Check and pause active session in same transaction
+                boolean hasActiveSession = repositories.workSessions().hasActiveWorkSession(taskId);
+                if (hasActiveSession) {
+                    repositories.workSessions().pauseWorkSession(taskId);
+                }
 
-            // Rotate task
-            taskMapper.rotateTask(taskId);
+                // Rotate task
+                repositories.tasks().rotateTask(taskId);
+            });
+            updateTagIndex(index -> index.taskMovedToEnd(taskId));
+        }
+        eventBus.publish(new DomainEvent.TaskRotated(taskId));
+    }
 
-            session.commit();
+    /**
+     * Move task to end of queue (transactional)
+     * Work session tracked in memory is completed and saved in the same transaction
+     */
+    public void rotateTaskWithPause(Long taskId, WorkSession activeWorkSession) {
+        activeWorkSession.setEndTime(Instant.now());
+        synchronized (this) {
+            storage.runWrite(repositories -> {
+                repositories.saveWorkSession(activeWorkSession);
+                repositories.tasks().rotateTask(taskId);
+            });
+            updateTagIndex(index -> index.taskMovedToEnd(taskId));
         }
+        eventBus.publish(new DomainEvent.WorkSessionSaved(activeWorkSession));
+        eventBus.publish(new DomainEvent.TaskRotated(taskId));
     }
 
     /**
      * Get total number of tasks in queue
      */
     public int getQueueSize() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            return mapper.getQueueSize();
-        }
+        return storage.read(repositories -> repositories.tasks().getQueueSize());
+    }
+
+    /**
+     * Get number of tasks in queue matching tag filter
+     */
+    public int getQueueSize(TagFilter filter) {
+        return getTagIndex().count(filter);
     }
 
     /**
      * Get all tasks ordered by queue_order
      */
     public List<Task> getAllTasks() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            return mapper.getAllTasks();
+        return storage.read(repositories -> repositories.tasks().getAllTasks());
+    }
+
+    /**
+     * Get up to limit tasks following given queue_order, ordered by queue_order
+     */
+    public List<Task> getTasksAfter(int afterQueueOrder, int limit) {
+        return storage.read(repositories -> repositories.tasks().getTasksAfter(afterQueueOrder, limit));
+    }
+
+    /**
+     * Get up to limit tasks starting at given queue position, ordered by queue_order
+     */
+    public List<Task> getTasksPage(int offset, int limit) {
+        return storage.read(repositories -> repositories.tasks().getTasksPage(offset, limit));
+    }
+
+    /**
+     * Move task to front of queue
+     */
+    public void moveTaskToFront(Long taskId) {
+        synchronized (this) {
+            storage.runWrite(repositories -> repositories.tasks().moveTaskToFront(taskId));
+            updateTagIndex(index -> index.taskMovedToFront(taskId));
+        }
+        eventBus.publish(new DomainEvent.TaskMovedToFront(taskId));
+    }
+
+    /**
+     * Move most starved ready task to front of queue - the task not waiting for a prerequisite and not
+     * worked on for the longest time, if it has not been worked on for given time (never worked on
+     * tasks count from creation)
+     *
+     * @return boosted task, or null if no ready task is starved or the most starved one is already current
+     */
+    public Task boostStarvedTask(Duration untouchedFor) {
+        Instant since = Instant.now().minus(untouchedFor);
+        Task boosted;
+        synchronized (this) {
+            DependencyGraph graph = getDependencyGraph();
+            boosted = storage.write(repositories -> {
+                // Only blocked tasks are skipped, so one candidate more than there are blocked tasks reaches a ready one
+                Long taskId = repositories.tasks().getStarvedTasks(since, graph.getBlockedCount() + 1).stream()
+                        .map(TaskActivity::getTaskId)
+                        .filter(graph::isReady)
+                        .findFirst()
+                        .orElse(null);
+                if (taskId == null) {
+                    return null;
+                }
+                Task head = findReadyHead(repositories.tasks(), graph);
+                if (head != null && taskId.equals(head.getId())) {
+                    return null;
+                }
+                repositories.tasks().moveTaskToFront(taskId);
+                return repositories.tasks().getTaskById(taskId);
+            });
+            if (boosted != null) {
+                updateTagIndex(index -> index.taskMovedToFront(boosted.getId()));
+            }
+        }
+        if (boosted != null) {
+            eventBus.publish(new DomainEvent.TaskMovedToFront(boosted.getId()));
         }
+        return boosted;
     }
 
     /**
      * Check if there is any deleted task
      */
     public boolean hasDeletedTask() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            return mapper.hasDeletedTask();
-        }
+        return storage.read(repositories -> repositories.tasks().hasDeletedTask());
     }
 
     /**
      * Soft delete task by ID
      */
     public void softDeleteTask(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper taskMapper = session.getMapper(TaskMapper.class);
-            taskMapper.softDeleteTask(taskId);
-            session.commit();
+        synchronized (this) {
+            storage.runWrite(repositories -> repositories.tasks().softDeleteTask(taskId));
+            updateTagIndex(index -> index.taskRemoved(taskId));
+            updateDependencyGraph(graph -> graph.taskRemoved(taskId));
         }
+        eventBus.publish(new DomainEvent.TaskDeleted(taskId));
     }
 
     /**
      * Undo delete - restore all deleted tasks
      */
     public void undoDelete() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            mapper.undoDelete();
-            session.commit();
+        List<Long> restored;
+        synchronized (this) {
+            restored = storage.write(repositories -> {
+                List<Long> taskIds = repositories.tasks().getDeletedTaskIds();
+                repositories.tasks().undoDelete();
+                return taskIds;
+            });
+            if (!restored.isEmpty()) {
+                // Restored tasks return to their old positions - rebuild on next filtered query
+                invalidateTagIndex();
+                updateDependencyGraph(graph -> restored.forEach(graph::taskRestored));
+            }
+        }
+        if (!restored.isEmpty()) {
+            eventBus.publish(new DomainEvent.TasksRestored(restored));
         }
     }
 
@@ -134,10 +284,17 @@ public class TaskService {
      * Permanently delete all soft-deleted tasks
      */
     public void cleanupDeletedTasks() {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            mapper.cleanupDeletedTasks();
-            session.commit();
+        List<Long> purged;
+        synchronized (this) {
+            purged = storage.writeWithArchive(repositories -> {
+                List<Long> taskIds = repositories.tasks().getDeletedTaskIds();
+                repositories.tasks().cleanupDeletedTasks();
+                return taskIds;
+            });
+            updateDependencyGraph(graph -> purged.forEach(graph::taskPurged));
+        }
+        if (!purged.isEmpty()) {
+            eventBus.publish(new DomainEvent.DeletedTasksPurged(purged));
         }
     }
 
@@ -145,10 +302,174 @@ public class TaskService {
      * Update task name
      */
     public void updateTaskName(Long taskId, String name) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            TaskMapper mapper = session.getMapper(TaskMapper.class);
-            mapper.updateTaskName(taskId, name);
-            session.commit();
+        storage.runWrite(repositories -> repositories.tasks().updateTaskName(taskId, name));
+        eventBus.publish(new DomainEvent.TaskRenamed(taskId, name));
+    }
+
+    /**
+     * Assign tag to task (normalized to lower case)
+     */
+    public void addTag(Long taskId, String tag) {
+        String normalizedTag = TagFilter.normalizeTag(tag);
+        boolean added;
+        synchronized (this) {
+            added = storage.write(repositories -> repositories.tasks().addTag(taskId, normalizedTag));
+            if (added) {
+                updateTagIndex(index -> index.tagAdded(taskId, normalizedTag));
+            }
         }
+        if (added) {
+            eventBus.publish(new DomainEvent.TaskTagged(taskId, normalizedTag));
+        }
+    }
+
+    /**
+     * Remove tag from task
+     */
+    public void removeTag(Long taskId, String tag) {
+        String normalizedTag = TagFilter.normalizeTag(tag);
+        boolean removed;
+        synchronized (this) {
+            removed = storage.write(repositories -> repositories.tasks().removeTag(taskId, normalizedTag));
+            if (removed) {
+                updateTagIndex(index -> index.tagRemoved(taskId, normalizedTag));
+            }
+        }
+        if (removed) {
+            eventBus.publish(new DomainEvent.TaskUntagged(taskId, normalizedTag));
+        }
+    }
+
+    /**
+     * Make task wait for prerequisite: it is skipped as current task until the prerequisite is deleted (done)
+     *
+     * @throws IllegalArgumentException if a task does not exist or the prerequisite already depends on the task
+     */
+    public void addDependency(Long taskId, Long prerequisiteId) {
+        boolean added;
+        // Check for a cycle and insert under one lock, so two concurrent additions cannot close a cycle together
+        synchronized (this) {
+            DependencyGraph graph = getDependencyGraph();
+            if (taskId.equals(prerequisiteId) || graph.wouldCreateCycle(taskId, prerequisiteId)) {
+                throw new IllegalArgumentException(
+                        "Dependency of task " + taskId + " on task " + prerequisiteId + " would create a cycle");
+            }
+            added = storage.write(repositories -> {
+                for (Long id : List.of(taskId, prerequisiteId)) {
+                    if (repositories.tasks().getTaskById(id) == null) {
+                        throw new IllegalArgumentException("Task does not exist: " + id);
+                    }
+                }
+                return repositories.tasks().addDependency(taskId, prerequisiteId);
+            });
+            if (added) {
+                graph.dependencyAdded(taskId, prerequisiteId);
+            }
+        }
+        if (added) {
+            eventBus.publish(new DomainEvent.TaskDependencyAdded(taskId, prerequisiteId));
+        }
+    }
+
+    /**
+     * Remove dependency of task on prerequisite
+     */
+    public void removeDependency(Long taskId, Long prerequisiteId) {
+        boolean removed;
+        synchronized (this) {
+            removed = storage.write(repositories -> repositories.tasks().removeDependency(taskId, prerequisiteId));
+            if (removed) {
+                updateDependencyGraph(graph -> graph.dependencyRemoved(taskId, prerequisiteId));
+            }
+        }
+        if (removed) {
+            eventBus.publish(new DomainEvent.TaskDependencyRemoved(taskId, prerequisiteId));
+        }
+    }
+
+    /**
+     * Get IDs of prerequisites of task, including those already done
+     */
+    public Set<Long> getPrerequisites(Long taskId) {
+        return getDependencyGraph().getPrerequisites(taskId);
+    }
+
+    /**
+     * Check if task has no prerequisite still in queue
+     */
+    public boolean isReady(Long taskId) {
+        return getDependencyGraph().isReady(taskId);
+    }
+
+    /**
+     * Get tags of task ordered by name
+     */
+    public List<String> getTags(Long taskId) {
+        return storage.read(repositories -> repositories.tasks().getTags(taskId));
+    }
+
+    private synchronized TagIndex getTagIndex() {
+        if (tagIndex == null) {
+            tagIndex = storage.read(repositories -> new TagIndex(
+                    repositories.tasks().getQueueTaskIds(),
+                    repositories.tasks().getQueueTaskTags()));
+        }
+        return tagIndex;
+    }
+
+    private synchronized void updateTagIndex(Consumer<TagIndex> update) {
+        // Nothing to do until the index is first used - it will be built from committed data
+        if (tagIndex != null) {
+            update.accept(tagIndex);
+        }
+    }
+
+    private synchronized void invalidateTagIndex() {
+        tagIndex = null;
+    }
+
+    private synchronized DependencyGraph getDependencyGraph() {
+        if (dependencyGraph == null) {
+            dependencyGraph = storage.read(repositories -> buildDependencyGraph(repositories.tasks()));
+        }
+        return dependencyGraph;
+    }
+
+    private static DependencyGraph buildDependencyGraph(TaskRepository tasks) {
+        return new DependencyGraph(tasks.getQueueTaskIds(), tasks.getDependencies());
+    }
+
+    /**
+     * Get first task in queue not waiting for a prerequisite
+     */
+    private static Task findReadyHead(TaskRepository tasks, DependencyGraph graph) {
+        if (!graph.hasBlockedTasks()) {
+            return tasks.getCurrentTask();
+        }
+        // Skip blocked tasks at the front, reading the queue page by page
+        int afterQueueOrder = Integer.MIN_VALUE;
+        while (true) {
+            List<Task> page = tasks.getTasksAfter(afterQueueOrder, HEAD_SCAN_PAGE_SIZE);
+            for (Task task : page) {
+                if (graph.isReady(task.getId())) {
+                    return task;
+                }
+            }
+            if (page.size() < HEAD_SCAN_PAGE_SIZE) {
+                return null;
+            }
+            afterQueueOrder = page.get(page.size() - 1).getQueueOrder();
+        }
+    }
+
+    private synchronized void updateDependencyGraph(Consumer<DependencyGraph> update) {
+        // Nothing to do until the graph is first used - it will be built from committed data
+        if (dependencyGraph != null) {
+            update.accept(dependencyGraph);
+        }
+    }
+
+    private synchronized void invalidateDependencyGraph() {
+        dependencyGraph = null;
     }
 }
@@ -0,0 +1,258 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical timing wheel running many timeouts on a single clock thread.
+ * <p>
+ * Level 0 has one bucket per tick; each higher level covers a whole rotation of the level below
+ * per bucket. A timeout is put into the lowest level that can hold its deadline and moves down a
+ * level when its bucket comes up, so scheduling and cancelling are O(1) and a tick only touches the
+ * timeouts that are due or cascading - independent of how many timeouts are pending.
+ */
+public class TimingWheel implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(TimingWheel.class.getName());
+
+    private final long tickNanos;
+    private final int bitsPerLevel;
+    private final int levels;
+    private final long mask;
+    private final Bucket[][] buckets;
+    private long currentTick; // Guarded by this
+    private int pendingCount; // Guarded by this
+    private ScheduledExecutorService clock;
+
+    /**
+     * Handle of scheduled timeout
+     */
+    public final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineTick;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+        private boolean expired;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancel timeout
+         *
+         * @return true if timeout was pending and will not run
+         */
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                pendingCount--;
+                return true;
+            }
+        }
+
+        /**
+         * Check if timeout was due and its task was started
+         */
+        public boolean isExpired() {
+            synchronized (TimingWheel.this) {
+                return expired;
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts sharing a bucket
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        Timeout removeAll() {
+            Timeout all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    /**
+     * @param tick         clock resolution
+     * @param wheelSize    buckets per level (power of two)
+     * @param levels       number of levels; span is tick * wheelSize^levels, longer delays are re-cascaded
+     */
+    public TimingWheel(Duration tick, int wheelSize, int levels) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.bitsPerLevel = Integer.numberOfTrailingZeros(wheelSize);
+        if (levels < 1 || bitsPerLevel * levels > 62) {
+            throw new IllegalArgumentException("Invalid number of levels: " + levels);
+        }
+        this.tickNanos = tick.toNanos();
+        this.levels = levels;
+        this.mask = wheelSize - 1;
+        this.buckets = new Bucket[levels][wheelSize];
+        for (Bucket[] level : buckets) {
+            for (int i = 0; i < wheelSize; i++) {
+                level[i] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * Run task once after delay (rounded up to whole ticks, at least one tick)
+     */
+    public synchronized Timeout schedule(Duration delay, Runnable task) {
+        long ticks = Math.max(1, Math.ceilDiv(delay.toNanos(), tickNanos));
+        Timeout timeout = new Timeout(task, currentTick + ticks);
+        place(timeout);
+        pendingCount++;
+        return timeout;
+    }
+
+    /**
+     * Get number of timeouts waiting to run
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Advance clock by given number of ticks, running due tasks on the calling thread
+     */
+    public void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            List<Timeout> due = tick();
+            for (Timeout timeout : due) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    // One failing task must not stop the clock
+                    LOGGER.log(Level.WARNING, "Timing wheel task failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drive the wheel from a daemon thread in real time
+     */
+    public synchronized void start(String threadName) {
+        if (clock != null) {
+            return;
+        }
+        clock = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startNanos = System.nanoTime();
+        long[] ticksDone = {0};
+        clock.scheduleAtFixedRate(() -> {
+            // Catch up on ticks missed while the thread was delayed
+            long ticksDue = (System.nanoTime() - startNanos) / tickNanos;
+            advance(ticksDue - ticksDone[0]);
+            ticksDone[0] = ticksDue;
+        }, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized List<Timeout> tick() {
+        currentTick++;
+
+        // Cascade from the highest level whose bucket boundary was reached, so timeouts moving
+        // down land in lower buckets before those are cascaded in turn
+        int highestLevel = 0;
+        while (highestLevel + 1 < levels && (currentTick & levelMask(highestLevel + 1)) == 0) {
+            highestLevel++;
+        }
+        for (int level = highestLevel; level >= 1; level--) {
+            Timeout timeout = buckets[level][bucketIndex(currentTick, level)].removeAll();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                place(timeout);
+                timeout = next;
+            }
+        }
+
+        List<Timeout> due = new ArrayList<>();
+        Timeout timeout = buckets[0][bucketIndex(currentTick, 0)].removeAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.expired = true;
+            due.add(timeout);
+            timeout = next;
+        }
+        pendingCount -= due.size();
+        return due;
+    }
+
+    private void place(Timeout timeout) {
+        long remaining = timeout.deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            if (remaining < 1L << (bitsPerLevel * (level + 1))) {
+                buckets[level][bucketIndex(timeout.deadlineTick, level)].add(timeout);
+                return;
+            }
+        }
+        // Beyond the span of the top level - park in the last bucket it can reach and cascade again later
+        int topLevel = levels - 1;
+        long reachable = currentTick + (1L << (bitsPerLevel * levels)) - 1;
+        buckets[topLevel][bucketIndex(reachable, topLevel)].add(timeout);
+    }
+
+    private int bucketIndex(long tick, int level) {
+        return (int) ((tick >>> (bitsPerLevel * level)) & mask);
+    }
+
+    private long levelMask(int level) {
+        return (1L << (bitsPerLevel * level)) - 1;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+    }
+}
@@ -1,117 +1,167 @@
 package com.piotrwalkusz.taskmanager.service;
 
 import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
-import com.piotrwalkusz.taskmanager.mapper.WorkSessionMapper;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.StarvationReport;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
 import com.piotrwalkusz.taskmanager.model.WorkSession;
-import org.apache.ibatis.session.SqlSession;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import com.piotrwalkusz.taskmanager.repository.WorkSessionRepository;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
 
 /**
- * Service for managing work sessions
+ * Service for managing work sessions.
+ * Safe for concurrent callers: writes go through {@link Storage#write}.
  */
 public class WorkSessionService {
 
-    private final DatabaseConfig databaseConfig;
+    private final Storage storage;
+    private final EventBus eventBus;
 
     public WorkSessionService(DatabaseConfig databaseConfig) {
-        this.databaseConfig = databaseConfig;
+        this(databaseConfig, new EventBus());
+    }
+
+    public WorkSessionService(DatabaseConfig databaseConfig, EventBus eventBus) {
+        this(new MyBatisStorage(databaseConfig), eventBus);
+    }
+
+    public WorkSessionService(Storage storage) {
+        this(storage, new EventBus());
+    }
+
+    public WorkSessionService(Storage storage, EventBus eventBus) {
+        this.storage = storage;
+        this.eventBus = eventBus;
     }
 
     /**
      * Save work session to database (with end_time set)
      */
     public void saveWorkSession(WorkSession workSession) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            mapper.insertWorkSession(workSession);
-            session.commit();
-        }
+        storage.runWrite(repositories -> repositories.saveWorkSession(workSession));
+        eventBus.publish(new DomainEvent.WorkSessionSaved(workSession));
     }
 
     /**
      * Pause active work session for task
      */
     public void pauseWorkSession(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            mapper.pauseWorkSession(taskId);
-            session.commit();
-        }
+        storage.runWrite(repositories -> repositories.workSessions().pauseWorkSession(taskId));
     }
 
     /**
      * Check if task has active work session
      */
     public boolean hasActiveWorkSession(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            return mapper.hasActiveWorkSession(taskId);
-        }
+        return storage.read(repositories -> repositories.workSessions().hasActiveWorkSession(taskId));
     }
 
     /**
      * Get active work session for task
      */
     public WorkSession getActiveWorkSession(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            return mapper.getActiveWorkSession(taskId);
-        }
+        return storage.read(repositories -> repositories.workSessions().getActiveWorkSession(taskId));
     }
 
     /**
      * Get daily time spent on task (in seconds)
      */
     public long getDailyTimeSeconds(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            Long time = mapper.getDailyTimeSeconds(taskId);
-            return time != null ? time : 0;
-        }
+        return storage.read(repositories -> repositories.workSessions().getDailyTimeSeconds(taskId));
     }
 
     /**
-     * Get total time spent on task (in seconds)
+     * Get total time spent on task, including archived sessions (in seconds)
      */
     public long getTotalTimeSeconds(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
-            Long time = mapper.getTotalTimeSeconds(taskId);
-            return time != null ? time : 0;
-        }
+        return storage.read(repositories -> repositories.workSessions().getTotalTimeSeconds(taskId));
+    }
+
+    /**
+     * Get time spent on task in sessions started on UTC days within [from, to), including archived
+     * sessions (in seconds). Only whole days can be asked for, since compaction moves the time of a
+     * day's fragments onto the first fragment.
+     */
+    public long getTimeSecondsInRange(Long taskId, LocalDate from, LocalDate to) {
+        Instant fromTime = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant toTime = to.atStartOfDay(ZoneOffset.UTC).toInstant();
+        return storage.read(repositories -> repositories.workSessions().getTimeSecondsInRange(taskId, fromTime, toTime));
+    }
+
+    /**
+     * Get days within [from, to) task was worked on (UTC days), in day order
+     */
+    public List<WorkDay> getWorkDays(Long taskId, LocalDate from, LocalDate to) {
+        return storage.read(repositories -> repositories.workSessions().getWorkDays(taskId, from, to));
+    }
+
+    /**
+     * Get days within [from, to) any task was worked on (UTC days), with time summed over tasks, in day order
+     */
+    public List<WorkDay> getAllWorkDays(LocalDate from, LocalDate to) {
+        return storage.read(repositories -> repositories.workSessions().getAllWorkDays(from, to));
+    }
+
+    /**
+     * Get activity of task - last worked time, rotations and worked time
+     */
+    public TaskActivity getTaskActivity(Long taskId) {
+        return storage.read(repositories -> repositories.tasks().getTaskActivity(taskId));
+    }
+
+    /**
+     * Get tasks in queue not worked on for given time (never worked on tasks count from creation),
+     * most starved first, answered from the last worked index without reading work sessions
+     *
+     * @param limit maximum number of listed tasks; the count covers all starved tasks
+     */
+    public StarvationReport getStarvationReport(Duration untouchedFor, int limit) {
+        Instant since = Instant.now().minus(untouchedFor);
+        return storage.read(repositories -> StarvationReport.builder()
+                .untouchedSince(since)
+                .starvedTaskCount(repositories.tasks().countStarvedTasks(since))
+                .queueWorkedSeconds(repositories.tasks().getQueueWorkedSeconds())
+                .starvedTasks(repositories.tasks().getStarvedTasks(since, limit))
+                .build());
     }
 
     /**
      * Toggle work session - start if not active, pause if active (transactional)
      */
     public void toggleWorkSession(Long taskId) {
-        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
-            WorkSessionMapper mapper = session.getMapper(WorkSessionMapper.class);
+        storage.runWrite(repositories -> {
+            WorkSessionRepository repository = repositories.workSessions();
 
             // Check and toggle in same transaction
-            boolean hasActiveSession = mapper.hasActiveWorkSession(taskId);
+            boolean hasActiveSession = repository.hasActiveWorkSession(taskId);
 
             if (hasActiveSession) {
                 // Pause active session
-                mapper.pauseWorkSession(taskId);
+                repository.pauseWorkSession(taskId);
             } else {
                 // Start new session
                 WorkSession workSession = WorkSession.builder()
                         .taskId(taskId)
                         .startTime(Instant.now())
                         .build();
-                mapper.insertWorkSession(workSession);
+                repository.insertWorkSession(workSession);
             }
-
-            session.commit();
-        }
+        });
     }
 
     /**
      * Format seconds to human-readable time (Xh Ym)
      */
-    public String formatTime(long seconds) {
+    public static String formatTime(long seconds) {
         long hours = seconds / 3600;
         long minutes = (seconds % 3600) / 60;
         return String.format("%dh %dm", hours, minutes);
@@ -120,7 +170,7 @@ public class WorkSessionService {
     /**
      * Format seconds to human-readable time with seconds (Xh Ym Zs)
      */
-    public String formatTimeWithSeconds(long seconds) {
+    public static String formatTimeWithSeconds(long seconds) {
         long hours = seconds / 3600;
         long minutes = (seconds % 3600) / 60;
         long secs = seconds % 60;
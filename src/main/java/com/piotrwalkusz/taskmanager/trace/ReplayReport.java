@@ -0,0 +1,46 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of replaying a trace
+ *
+ * @param actionCount         number of replayed actions over all threads
+ * @param elapsed             wall-clock time of replay
+ * @param latencies           latency percentiles per action (only replayed actions)
+ * @param databaseGrowthBytes growth of database file including its write-ahead log
+ */
+public record ReplayReport(long actionCount, Duration elapsed, Map<UserAction, Latency> latencies,
+                           long databaseGrowthBytes) {
+
+    /**
+     * Latency percentiles of one action
+     */
+    public record Latency(int count, Duration p50, Duration p95, Duration p99, Duration max) {
+    }
+
+    /**
+     * Get replayed actions per second
+     */
+    public double getThroughput() {
+        return elapsed.isZero() ? 0 : actionCount * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    /**
+     * Format report as human-readable table
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Actions: %d in %d ms (%.1f actions/s), database growth: %d KiB%n",
+                actionCount, elapsed.toMillis(), getThroughput(), databaseGrowthBytes / 1024));
+        report.append(String.format("%-12s %8s %10s %10s %10s %10s%n", "action", "count", "p50 us", "p95 us", "p99 us", "max us"));
+        latencies.forEach((action, latency) -> report.append(String.format("%-12s %8d %10d %10d %10d %10d%n",
+                action, latency.count(), micros(latency.p50()), micros(latency.p95()), micros(latency.p99()), micros(latency.max()))));
+        return report.toString();
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1000;
+    }
+}
@@ -0,0 +1,85 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary format of user action traces.
+ * <p>
+ * After the magic header each record is a varint of milliseconds since the previous record,
+ * the action code byte and, for actions with text, a varint text length - usually 2-4 bytes per action.
+ */
+public final class TraceFile {
+
+    static final byte[] MAGIC = {'T', 'M', 'T', 'R', 'A', 'C', 'E', '1'};
+
+    private TraceFile() {
+    }
+
+    /**
+     * Read all records of trace file. A record cut off by a crash ends the trace.
+     */
+    public static List<TraceRecord> read(Path traceFile) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(traceFile)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IllegalArgumentException("Not a trace file: " + traceFile);
+            }
+            List<TraceRecord> records = new ArrayList<>();
+            long offsetMillis = 0;
+            while (true) {
+                try {
+                    offsetMillis += readVarint(input);
+                    UserAction action = UserAction.fromCode(input.readUnsignedByte());
+                    int textLength = action.hasText() ? (int) readVarint(input) : 0;
+                    records.add(new TraceRecord(offsetMillis, action, textLength));
+                } catch (EOFException e) {
+                    return records;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read trace: " + traceFile, e);
+        }
+    }
+
+    static void writeRecord(OutputStream output, long deltaMillis, UserAction action, int textLength) throws IOException {
+        writeVarint(output, deltaMillis);
+        output.write(action.getCode());
+        if (action.hasText()) {
+            writeVarint(output, textLength);
+        }
+    }
+
+    private static void writeVarint(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static long readVarint(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,10 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+/**
+ * Recorded user action
+ *
+ * @param offsetMillis time since start of trace
+ * @param textLength   length of task name for add and rename (names themselves are not recorded)
+ */
+public record TraceRecord(long offsetMillis, UserAction action, int textLength) {
+}
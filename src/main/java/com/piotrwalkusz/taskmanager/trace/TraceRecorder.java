@@ -0,0 +1,74 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records user actions with their timing to a trace file for replay by {@link TraceReplayer}.
+ * <p>
+ * Each action is flushed right away (they come at human speed), so a crash loses nothing.
+ * Task names are not recorded, only their length.
+ */
+public class TraceRecorder implements AutoCloseable {
+
+    /**
+     * System property with trace file path; recording is off when not set
+     */
+    public static final String TRACE_FILE_PROPERTY = "taskmanager.trace";
+
+    private final Path traceFile;
+    private final OutputStream output;
+    private long lastMillis;
+
+    public TraceRecorder(Path traceFile) {
+        this.traceFile = traceFile;
+        try {
+            this.output = new BufferedOutputStream(Files.newOutputStream(traceFile));
+            output.write(TraceFile.MAGIC);
+            output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create trace: " + traceFile, e);
+        }
+        this.lastMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Create recorder if enabled with -Dtaskmanager.trace=&lt;file&gt;
+     *
+     * @return recorder or null if recording is off
+     */
+    public static TraceRecorder fromSystemProperty() {
+        String traceFile = System.getProperty(TRACE_FILE_PROPERTY);
+        return traceFile == null || traceFile.isBlank() ? null : new TraceRecorder(Path.of(traceFile));
+    }
+
+    public synchronized void record(UserAction action) {
+        record(action, null);
+    }
+
+    /**
+     * Record action with text (task name); only its length is stored
+     */
+    public synchronized void record(UserAction action, String text) {
+        long now = System.currentTimeMillis();
+        try {
+            TraceFile.writeRecord(output, Math.max(0, now - lastMillis), action, text != null ? text.length() : 0);
+            output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to record action to trace: " + traceFile, e);
+        }
+        lastMillis = Math.max(lastMillis, now);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close trace: " + traceFile, e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import org.apache.ibatis.exceptions.PersistenceException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless replay of recorded user action traces against the services, without JavaFX.
+ * <p>
+ * Every thread acts as one user replaying the whole trace with its own in-memory active session,
+ * doing the same service calls as the main window. Run from the command line with:
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.piotrwalkusz.taskmanager.trace.TraceReplayer \
+ *     -Dexec.args="trace.bin replay.db [threads] [speed]"
+ * </pre>
+ * where speed 1 replays in real time and 0 (default) as fast as possible.
+ */
+public class TraceReplayer {
+
+    /**
+     * Replay as fast as possible, ignoring recorded timing
+     */
+    public static final double MAX_SPEED = 0;
+
+    private final DatabaseConfig databaseConfig;
+    private final TaskService taskService;
+    private final WorkSessionService workSessionService;
+
+    public TraceReplayer(DatabaseConfig databaseConfig, TaskService taskService, WorkSessionService workSessionService) {
+        this.databaseConfig = databaseConfig;
+        this.taskService = taskService;
+        this.workSessionService = workSessionService;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: TraceReplayer <trace file> <database file> [threads] [speed]");
+            System.exit(2);
+        }
+        List<TraceRecord> trace = TraceFile.read(Path.of(args[0]));
+        DatabaseConfig databaseConfig = new DatabaseConfig("jdbc:sqlite:" + args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        double speed = args.length > 3 ? Double.parseDouble(args[3]) : MAX_SPEED;
+        TraceReplayer replayer = new TraceReplayer(databaseConfig,
+                new TaskService(databaseConfig), new WorkSessionService(databaseConfig));
+        System.out.print(replayer.replay(trace, threads, speed).format());
+    }
+
+    /**
+     * Replay trace on given number of threads and wait for all of them
+     *
+     * @param speed time scale of recorded pauses (1 = real time, 2 = twice as fast), {@link #MAX_SPEED} for no pauses
+     */
+    public ReplayReport replay(List<TraceRecord> trace, int threads, double speed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed must not be negative: " + speed);
+        }
+        long sizeBefore = getDatabaseSize();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Map<UserAction, long[]>> results = new ArrayList<>();
+        try {
+            List<Future<Map<UserAction, long[]>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> replayAsUser(trace, speed)));
+            }
+            for (Future<Map<UserAction, long[]>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Replay was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Replay failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return buildReport(results, elapsed, getDatabaseSize() - sizeBefore);
+    }
+
+    /**
+     * Replay trace as a single user
+     *
+     * @return latencies in nanoseconds per action
+     */
+    private Map<UserAction, long[]> replayAsUser(List<TraceRecord> trace, double speed) throws InterruptedException {
+        Map<UserAction, long[]> latencies = new EnumMap<>(UserAction.class);
+        Map<UserAction, Integer> counts = new EnumMap<>(UserAction.class);
+        WorkSession[] activeWorkSession = new WorkSession[1];
+        long start = System.nanoTime();
+        for (TraceRecord record : trace) {
+            if (speed != MAX_SPEED) {
+                long dueNanos = start + (long) (TimeUnit.MILLISECONDS.toNanos(record.offsetMillis()) / speed);
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            }
+            long actionStart = System.nanoTime();
+            boolean replayed = apply(record, activeWorkSession);
+            long latency = System.nanoTime() - actionStart;
+            if (replayed) {
+                int count = counts.merge(record.action(), 1, Integer::sum);
+                long[] values = latencies.computeIfAbsent(record.action(), action -> new long[16]);
+                if (count > values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                    latencies.put(record.action(), values);
+                }
+                values[count - 1] = latency;
+            }
+        }
+        // Save session left running, like closing the window does
+        if (activeWorkSession[0] != null) {
+            saveActiveWorkSession(activeWorkSession);
+        }
+        // Trim to used length
+        latencies.replaceAll((action, values) -> Arrays.copyOf(values, counts.get(action)));
+        return latencies;
+    }
+
+    /**
+     * Do service calls of the action like the main window does
+     *
+     * @return false if action did not apply to current state (e.g. start with empty queue)
+     */
+    private boolean apply(TraceRecord record, WorkSession[] activeWorkSession) {
+        Task currentTask = taskService.getCurrentTask();
+        switch (record.action()) {
+            case ADD_TASK -> taskService.addTask("x".repeat(Math.max(1, record.textLength())));
+            case START -> {
+                // Another user may have rotated or deleted the task - the session stays on its task
+                if (currentTask == null || activeWorkSession[0] != null) {
+                    return false;
+                }
+                taskService.cleanupDeletedTasks();
+                activeWorkSession[0] = WorkSession.builder()
+                        .taskId(currentTask.getId())
+                        .startTime(Instant.now())
+                        .build();
+            }
+            case PAUSE -> {
+                if (activeWorkSession[0] == null) {
+                    return false;
+                }
+                taskService.cleanupDeletedTasks();
+                saveActiveWorkSession(activeWorkSession);
+            }
+            case NEXT_TASK -> {
+                if (currentTask == null) {
+                    return false;
+                }
+                if (activeWorkSession[0] != null) {
+                    saveActiveWorkSession(activeWorkSession);
+                }
+                taskService.cleanupDeletedTasks();
+                taskService.rotateTask(currentTask.getId());
+            }
+            case DELETE_TASK -> {
+                if (currentTask == null) {
+                    return false;
+                }
+                if (activeWorkSession[0] != null) {
+                    saveActiveWorkSession(activeWorkSession);
+                }
+                taskService.cleanupDeletedTasks();
+                taskService.softDeleteTask(currentTask.getId());
+            }
+            case UNDO -> taskService.undoDelete();
+            case RENAME_TASK -> {
+                if (currentTask == null) {
+                    return false;
+                }
+                taskService.updateTaskName(currentTask.getId(), "r".repeat(Math.max(1, record.textLength())));
+            }
+        }
+        return true;
+    }
+
+    private void saveActiveWorkSession(WorkSession[] activeWorkSession) {
+        WorkSession completedSession = activeWorkSession[0];
+        activeWorkSession[0] = null;
+        completedSession.setEndTime(Instant.now());
+        try {
+            workSessionService.saveWorkSession(completedSession);
+        } catch (PersistenceException e) {
+            // Task was deleted and purged by another user meanwhile - its session goes with it
+            if (!String.valueOf(e.getMessage()).contains("FOREIGN KEY constraint failed")) {
+                throw e;
+            }
+        }
+    }
+
+    private ReplayReport buildReport(List<Map<UserAction, long[]>> results, Duration elapsed, long databaseGrowthBytes) {
+        Map<UserAction, ReplayReport.Latency> latencies = new EnumMap<>(UserAction.class);
+        long actionCount = 0;
+        for (UserAction action : UserAction.values()) {
+            long[] all = results.stream()
+                    .map(result -> result.getOrDefault(action, new long[0]))
+                    .flatMapToLong(Arrays::stream)
+                    .sorted()
+                    .toArray();
+            if (all.length == 0) {
+                continue;
+            }
+            actionCount += all.length;
+            latencies.put(action, new ReplayReport.Latency(all.length, percentile(all, 50), percentile(all, 95),
+                    percentile(all, 99), Duration.ofNanos(all[all.length - 1])));
+        }
+        return new ReplayReport(actionCount, elapsed, latencies, databaseGrowthBytes);
+    }
+
+    private static Duration percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    private long getDatabaseSize() {
+        Path databasePath = databaseConfig.getDatabasePath();
+        Path walPath = databasePath.resolveSibling(databasePath.getFileName() + "-wal");
+        try {
+            return Files.size(databasePath) + (Files.exists(walPath) ? Files.size(walPath) : 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to get database size: " + databasePath, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+/**
+ * User action of the main window recorded in a trace
+ */
+public enum UserAction {
+
+    ADD_TASK(1, true),
+    START(2, false),
+    PAUSE(3, false),
+    NEXT_TASK(4, false),
+    DELETE_TASK(5, false),
+    UNDO(6, false),
+    RENAME_TASK(7, true);
+
+    private final int code;
+    private final boolean hasText;
+
+    UserAction(int code, boolean hasText) {
+        this.code = code;
+        this.hasText = hasText;
+    }
+
+    /**
+     * Get code stored in trace file (stable across reordering of constants)
+     */
+    int getCode() {
+        return code;
+    }
+
+    /**
+     * Check if action carries text (only its length is recorded)
+     */
+    boolean hasText() {
+        return hasText;
+    }
+
+    static UserAction fromCode(int code) {
+        for (UserAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user action code: " + code);
+    }
+}
@@ -0,0 +1,41 @@
+package com.piotrwalkusz.taskmanager.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * TypeHandler for converting between java.time.Instant and SQLite INTEGER (epoch milliseconds).
+ * Used for indexed columns compared in range queries, where text timestamps of varying
+ * precision would not sort correctly.
+ */
+public class EpochMillisInstantTypeHandler extends BaseTypeHandler<Instant> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Instant parameter, JdbcType jdbcType) throws SQLException {
+        ps.setLong(i, parameter.toEpochMilli());
+    }
+
+    @Override
+    public Instant getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        long value = rs.getLong(columnName);
+        return rs.wasNull() ? null : Instant.ofEpochMilli(value);
+    }
+
+    @Override
+    public Instant getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        long value = rs.getLong(columnIndex);
+        return rs.wasNull() ? null : Instant.ofEpochMilli(value);
+    }
+
+    @Override
+    public Instant getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        long value = cs.getLong(columnIndex);
+        return cs.wasNull() ? null : Instant.ofEpochMilli(value);
+    }
+}
@@ -0,0 +1,39 @@
+package com.piotrwalkusz.taskmanager.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * TypeHandler for converting between java.time.LocalDate and SQLite TEXT (ISO-8601, yyyy-MM-dd)
+ */
+public class LocalDateTypeHandler extends BaseTypeHandler<LocalDate> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, LocalDate parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, parameter.toString());
+    }
+
+    @Override
+    public LocalDate getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        String value = rs.getString(columnName);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    @Override
+    public LocalDate getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        String value = rs.getString(columnIndex);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    @Override
+    public LocalDate getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        String value = cs.getString(columnIndex);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+}
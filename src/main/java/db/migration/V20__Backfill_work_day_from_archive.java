@@ -0,0 +1,101 @@
+package db.migration;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.sqlite.SQLiteConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Add sessions of the archive database to work_day, which V16 could only backfill from the hot table.
+ * Both are applied by the same migrate, so the archive holds no session V16 already counted.
+ * <p>
+ * The archive is read through its own read-only connection, so the days are written in the
+ * migration transaction and recorded as applied together with it.
+ */
+public class V20__Backfill_work_day_from_archive extends BaseJavaMigration {
+
+    private record TaskDay(long taskId, LocalDate day) {
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Path archivePath = getArchivePath(connection);
+        if (archivePath == null || !Files.exists(archivePath)) {
+            return;
+        }
+        Set<Long> taskIds = getTaskIds(connection);
+        Map<TaskDay, Double> secondsByTaskDay = new HashMap<>();
+        SQLiteConfig readOnly = new SQLiteConfig();
+        readOnly.setReadOnly(true);
+        try (Connection archive = readOnly.createConnection("jdbc:sqlite:" + archivePath);
+             Statement statement = archive.createStatement()) {
+            try (ResultSet table = statement.executeQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'work_session'")) {
+                if (!table.next()) {
+                    return;
+                }
+            }
+            try (ResultSet sessions = statement.executeQuery("SELECT task_id, start_time, end_time FROM work_session")) {
+                while (sessions.next()) {
+                    long taskId = sessions.getLong(1);
+                    if (!taskIds.contains(taskId)) {
+                        continue;
+                    }
+                    for (WorkDay day : WorkDay.split(Instant.parse(sessions.getString(2)), Instant.parse(sessions.getString(3)))) {
+                        secondsByTaskDay.merge(new TaskDay(taskId, day.getDay()), day.getSeconds(), Double::sum);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO work_day (day, task_id, seconds)
+                VALUES (?, ?, ?)
+                ON CONFLICT (day, task_id) DO UPDATE SET seconds = seconds + excluded.seconds""")) {
+            for (Map.Entry<TaskDay, Double> entry : secondsByTaskDay.entrySet()) {
+                insert.setString(1, entry.getKey().day().toString());
+                insert.setLong(2, entry.getKey().taskId());
+                insert.setDouble(3, entry.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * @return path of the archive database or null if the database has no file (in memory)
+     */
+    private static Path getArchivePath(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT file FROM pragma_database_list WHERE name = 'main'")) {
+            String file = resultSet.next() ? resultSet.getString(1) : null;
+            return file == null || file.isEmpty() ? null : DatabaseConfig.getArchiveDatabasePath(Path.of(file));
+        }
+    }
+
+    private static Set<Long> getTaskIds(Connection connection) throws SQLException {
+        Set<Long> taskIds = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM task")) {
+            while (resultSet.next()) {
+                taskIds.add(resultSet.getLong(1));
+            }
+        }
+        return taskIds;
+    }
+}
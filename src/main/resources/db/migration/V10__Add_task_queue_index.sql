@@ -0,0 +1,3 @@
+-- Index for queue queries (is_deleted = 0 ORDER BY queue_order) and deleted task lookups,
+-- so counting the queue or finding deleted tasks no longer scans the whole task table
+CREATE INDEX idx_task_deleted_queue_order ON task(is_deleted, queue_order);
@@ -0,0 +1,25 @@
+-- Per-task activity kept up to date when a work session is saved, so starvation questions
+-- ("which tasks haven't been worked on for N days") are answered from an index instead of
+-- aggregating work_session for every task
+ALTER TABLE task ADD COLUMN last_worked_at TEXT;
+ALTER TABLE task ADD COLUMN rotation_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE task ADD COLUMN worked_seconds REAL NOT NULL DEFAULT 0;
+
+-- Backfill from history; tasks whose sessions were all archived fall back to the archive horizon.
+-- Rotations were never recorded, so rotation_count starts at zero
+UPDATE task
+SET last_worked_at = COALESCE(
+        (SELECT end_time FROM work_session
+         WHERE task_id = task.id
+         ORDER BY julianday(end_time) DESC
+         LIMIT 1),
+        (SELECT archived_until FROM work_session_rollup WHERE task_id = task.id)),
+    worked_seconds =
+        COALESCE((SELECT SUM((julianday(end_time) - julianday(start_time)) * 86400)
+                  FROM work_session
+                  WHERE task_id = task.id), 0)
+        + COALESCE((SELECT archived_seconds FROM work_session_rollup WHERE task_id = task.id), 0);
+
+-- Never-worked tasks (NULL) sort first; worked_seconds and created_at make counting starved tasks
+-- and the queue total covering index scans
+CREATE INDEX idx_task_last_worked ON task(is_deleted, last_worked_at, worked_seconds, created_at);
@@ -0,0 +1,29 @@
+-- Notes and attachments live in their own tables, so queue queries on task never read them
+CREATE TABLE task_note (
+    task_id INTEGER PRIMARY KEY,
+    body TEXT NOT NULL,
+    updated_at TEXT NOT NULL,
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE
+);
+
+CREATE TABLE task_attachment (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    task_id INTEGER NOT NULL,
+    name TEXT NOT NULL,
+    media_type TEXT,
+    size INTEGER NOT NULL DEFAULT 0,
+    created_at TEXT NOT NULL,
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_task_attachment_task ON task_attachment(task_id);
+
+-- Attachment content split into fixed-size chunks, so it is written and streamed one chunk at a time
+-- instead of loading the whole blob into memory
+CREATE TABLE task_attachment_chunk (
+    attachment_id INTEGER NOT NULL,
+    seq INTEGER NOT NULL,
+    data BLOB NOT NULL,
+    PRIMARY KEY (attachment_id, seq),
+    FOREIGN KEY (attachment_id) REFERENCES task_attachment(id) ON DELETE CASCADE
+);
@@ -0,0 +1,50 @@
+-- Identity of this database as a sync node, created on first sync use so copies made before
+-- sync was enabled get different identities. clock is the last hybrid logical clock value issued.
+CREATE TABLE sync_state (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    node_id TEXT NOT NULL,
+    clock INTEGER NOT NULL DEFAULT 0,
+    exported_seq INTEGER NOT NULL DEFAULT 0
+);
+
+-- Changes made on this node, in commit order; seq is the export watermark
+CREATE TABLE sync_change (
+    seq INTEGER PRIMARY KEY AUTOINCREMENT,
+    hlc INTEGER NOT NULL,
+    origin_node TEXT NOT NULL,
+    origin_id INTEGER NOT NULL,
+    type TEXT NOT NULL,
+    value TEXT,
+    start_time TEXT,
+    end_time TEXT
+);
+
+-- Global identity of tasks (node that created the task and its ID there). Tasks without a row
+-- come from the database copy all nodes started from and keep their ID. Rows outlive purged
+-- tasks, so changes of a purged task can still be matched.
+CREATE TABLE sync_task (
+    task_id INTEGER PRIMARY KEY,
+    origin_node TEXT NOT NULL,
+    origin_id INTEGER NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_sync_task_origin ON sync_task(origin_node, origin_id);
+
+-- Version of the last winning change of each field of a task (name, position, deleted, tag:<tag>)
+CREATE TABLE sync_register (
+    origin_node TEXT NOT NULL,
+    origin_id INTEGER NOT NULL,
+    field TEXT NOT NULL,
+    hlc INTEGER NOT NULL,
+    node_id TEXT NOT NULL,
+    value TEXT,
+    PRIMARY KEY (origin_node, origin_id, field)
+) WITHOUT ROWID;
+
+CREATE INDEX idx_sync_register_field_hlc ON sync_register(field, hlc, node_id);
+
+-- Highest change sequence imported from each other node
+CREATE TABLE sync_peer (
+    node_id TEXT PRIMARY KEY,
+    imported_seq INTEGER NOT NULL
+) WITHOUT ROWID;
@@ -0,0 +1,11 @@
+-- Recurring tasks: a rule is stored once and adds an instance to the queue when it is due
+CREATE TABLE recurrence_rule (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT NOT NULL,
+    interval_seconds INTEGER NOT NULL CHECK (interval_seconds > 0),
+    next_due_at INTEGER NOT NULL, -- Epoch milliseconds, so the due index compares numerically
+    created_at TEXT NOT NULL
+);
+
+-- Due index: the timer reads the earliest rule and materializes only rules due by now
+CREATE INDEX idx_recurrence_rule_next_due ON recurrence_rule(next_due_at);
@@ -0,0 +1,12 @@
+-- Prerequisites of tasks: a task is ready only when none of its prerequisites is in the queue
+CREATE TABLE task_dependency (
+    task_id INTEGER NOT NULL,
+    prerequisite_id INTEGER NOT NULL,
+    PRIMARY KEY (task_id, prerequisite_id),
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE,
+    FOREIGN KEY (prerequisite_id) REFERENCES task(id) ON DELETE CASCADE,
+    CHECK (task_id != prerequisite_id)
+) WITHOUT ROWID;
+
+-- Purging a prerequisite finds its dependents without scanning
+CREATE INDEX idx_task_dependency_prerequisite ON task_dependency(prerequisite_id);
@@ -0,0 +1,34 @@
+-- Time worked per task and UTC day, kept up to date when a work session is saved, so the calendar
+-- heatmap reads one row per day instead of summing work_session with julianday for every day
+CREATE TABLE work_day (
+    day TEXT NOT NULL,
+    task_id INTEGER NOT NULL,
+    seconds REAL NOT NULL,
+    PRIMARY KEY (day, task_id),
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+-- Heatmap of one task; seconds make it a covering index
+CREATE INDEX idx_work_day_task ON work_day(task_id, day, seconds);
+
+-- Backfill from history, splitting sessions at UTC midnight (times as unix seconds).
+-- Sessions already moved to the archive database are not attached here, so they stay out of the heatmap
+WITH RECURSIVE segment(task_id, start_s, end_s) AS (
+    SELECT task_id,
+           (julianday(start_time) - 2440587.5) * 86400,
+           (julianday(end_time) - 2440587.5) * 86400
+    FROM work_session
+    WHERE end_time IS NOT NULL
+    AND julianday(end_time) > julianday(start_time)
+    AND task_id IN (SELECT id FROM task)
+    UNION ALL
+    SELECT task_id, (CAST(start_s / 86400 AS INTEGER) + 1) * 86400.0, end_s
+    FROM segment
+    WHERE end_s > (CAST(start_s / 86400 AS INTEGER) + 1) * 86400.0
+)
+INSERT INTO work_day (day, task_id, seconds)
+SELECT date(CAST(start_s / 86400 AS INTEGER) * 86400, 'unixepoch'),
+       task_id,
+       SUM(MIN(end_s, (CAST(start_s / 86400 AS INTEGER) + 1) * 86400.0) - start_s)
+FROM segment
+GROUP BY 1, 2;
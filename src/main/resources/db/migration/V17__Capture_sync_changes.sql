@@ -0,0 +1,63 @@
+-- Mutations of synced data, captured by triggers so no write path can miss one. SyncService stamps
+-- them with its clock and moves them to sync_change before the transaction that made them commits.
+-- Nothing is captured until sync is first used with this database (sync_state has its row).
+CREATE TABLE sync_pending (
+    id INTEGER PRIMARY KEY,
+    task_id INTEGER NOT NULL,
+    type TEXT NOT NULL,
+    value TEXT,
+    start_time TEXT,
+    end_time TEXT
+);
+
+CREATE TRIGGER sync_task_insert AFTER INSERT ON task
+WHEN EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type, value) VALUES (NEW.id, 'ADD', NEW.name);
+END;
+
+CREATE TRIGGER sync_task_rename AFTER UPDATE OF name ON task
+WHEN OLD.name IS NOT NEW.name AND EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type, value) VALUES (NEW.id, 'RENAME', NEW.name);
+END;
+
+-- Tasks only move to the end (rotation) or to the front
+CREATE TRIGGER sync_task_move AFTER UPDATE OF queue_order ON task
+WHEN OLD.queue_order IS NOT NEW.queue_order AND EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type)
+    VALUES (NEW.id, CASE WHEN NEW.queue_order > OLD.queue_order THEN 'ROTATE' ELSE 'MOVE_TO_FRONT' END);
+END;
+
+CREATE TRIGGER sync_task_delete AFTER UPDATE OF is_deleted ON task
+WHEN OLD.is_deleted IS NOT NEW.is_deleted AND EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type) VALUES (NEW.id, CASE WHEN NEW.is_deleted THEN 'DELETE' ELSE 'RESTORE' END);
+END;
+
+CREATE TRIGGER sync_task_purge AFTER DELETE ON task
+WHEN EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type) VALUES (OLD.id, 'PURGE');
+END;
+
+CREATE TRIGGER sync_task_tag_insert AFTER INSERT ON task_tag
+WHEN EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type, value) VALUES (NEW.task_id, 'TAG', NEW.tag);
+END;
+
+-- Tags deleted together with a purged task are covered by the purge
+CREATE TRIGGER sync_task_tag_delete AFTER DELETE ON task_tag
+WHEN EXISTS (SELECT 1 FROM task WHERE id = OLD.task_id) AND EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type, value) VALUES (OLD.task_id, 'UNTAG', OLD.tag);
+END;
+
+CREATE TRIGGER sync_work_session_insert AFTER INSERT ON work_session
+WHEN EXISTS (SELECT 1 FROM sync_state)
+BEGIN
+    INSERT INTO sync_pending (task_id, type, start_time, end_time)
+    VALUES (NEW.task_id, 'WORK', NEW.start_time, NEW.end_time);
+END;
@@ -0,0 +1,77 @@
+-- Count changes of the tables added since V9 too, so commits of other processes touching only
+-- them (dependencies, recurrence rules, notes, attachments, day buckets) are detected as well
+
+CREATE TRIGGER count_task_dependency_insert AFTER INSERT ON task_dependency
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_dependency_update AFTER UPDATE ON task_dependency
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_dependency_delete AFTER DELETE ON task_dependency
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_recurrence_rule_insert AFTER INSERT ON recurrence_rule
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_recurrence_rule_update AFTER UPDATE ON recurrence_rule
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_recurrence_rule_delete AFTER DELETE ON recurrence_rule
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_note_insert AFTER INSERT ON task_note
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_note_update AFTER UPDATE ON task_note
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_note_delete AFTER DELETE ON task_note
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_attachment_insert AFTER INSERT ON task_attachment
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_attachment_update AFTER UPDATE ON task_attachment
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_attachment_delete AFTER DELETE ON task_attachment
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_day_insert AFTER INSERT ON work_day
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_day_update AFTER UPDATE ON work_day
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_day_delete AFTER DELETE ON work_day
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
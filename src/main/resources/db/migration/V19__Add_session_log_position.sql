@@ -0,0 +1,6 @@
+-- Number of work session log records committed together with task writes. When tasks are stored
+-- here and sessions in the log, records after it belong to a write that never committed.
+CREATE TABLE session_log_position (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    position INTEGER NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Summary of work sessions moved to the attached archive database
+-- Totals add archived_seconds so the hot work_session table only holds recent history
+CREATE TABLE work_session_rollup (
+    task_id INTEGER PRIMARY KEY,
+    archived_seconds REAL NOT NULL DEFAULT 0,
+    archived_sessions INTEGER NOT NULL DEFAULT 0,
+    archived_until TEXT NOT NULL,
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE
+);
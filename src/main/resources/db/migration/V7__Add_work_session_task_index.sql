@@ -0,0 +1,2 @@
+-- Index for per-task aggregates and keyset scans in (task_id, start_time) order
+CREATE INDEX idx_work_session_task_start ON work_session(task_id, start_time);
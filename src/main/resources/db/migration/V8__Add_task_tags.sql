@@ -0,0 +1,9 @@
+-- Tags (contexts such as "@office") assigned to tasks
+CREATE TABLE task_tag (
+    task_id INTEGER NOT NULL,
+    tag TEXT NOT NULL,
+    PRIMARY KEY (task_id, tag),
+    FOREIGN KEY (task_id) REFERENCES task(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_task_tag_tag ON task_tag(tag);
@@ -0,0 +1,68 @@
+-- Counter bumped by every committed change, so state cached outside the database
+-- (startup snapshot) can be checked for staleness across restarts - unlike PRAGMA data_version
+CREATE TABLE change_counter (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version INTEGER NOT NULL
+);
+
+INSERT INTO change_counter (id, version) VALUES (1, 0);
+
+CREATE TRIGGER count_task_insert AFTER INSERT ON task
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_update AFTER UPDATE ON task
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_delete AFTER DELETE ON task
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_insert AFTER INSERT ON work_session
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_update AFTER UPDATE ON work_session
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_delete AFTER DELETE ON work_session
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_tag_insert AFTER INSERT ON task_tag
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_tag_update AFTER UPDATE ON task_tag
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_task_tag_delete AFTER DELETE ON task_tag
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_rollup_insert AFTER INSERT ON work_session_rollup
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_rollup_update AFTER UPDATE ON work_session_rollup
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
+
+CREATE TRIGGER count_work_session_rollup_delete AFTER DELETE ON work_session_rollup
+BEGIN
+    UPDATE change_counter SET version = version + 1;
+END;
@@ -0,0 +1,117 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveSessionJournalTest {
+
+    private static final Duration SYNC_INTERVAL = Duration.ofSeconds(15);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should return orphaned session ending at last heartbeat after reopening")
+    void testOrphanedSession() {
+        // Given
+        Path journalFile = tempDir.resolve("test.session.journal");
+        Instant start = Instant.parse("2024-05-01T10:00:00.123456789Z");
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            journal.start(7L, start);
+            journal.heartbeat(start.plusSeconds(1));
+            journal.heartbeat(start.plusSeconds(2));
+        }
+
+        // When
+        WorkSession orphan;
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            orphan = journal.getOrphanedSession();
+        }
+
+        // Then
+        assertNotNull(orphan);
+        assertEquals(7L, orphan.getTaskId());
+        assertEquals(start, orphan.getStartTime());
+        assertEquals(start.plusSeconds(2), orphan.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Should return no orphaned session for new or cleared journal")
+    void testNoOrphanedSession() {
+        // Given
+        Path journalFile = tempDir.resolve("test.session.journal");
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            assertNull(journal.getOrphanedSession());
+
+            // When
+            journal.start(7L, Instant.now());
+            journal.heartbeat(Instant.now());
+            journal.clear();
+        }
+
+        // Then
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            assertNull(journal.getOrphanedSession());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to previous slot when latest write is torn")
+    void testTornWrite() throws IOException {
+        // Given - first heartbeat goes to slot 0, second one to slot 1
+        Path journalFile = tempDir.resolve("test.session.journal");
+        Instant start = Instant.parse("2024-05-01T10:00:00Z");
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            journal.start(7L, start);
+            journal.heartbeat(start.plusSeconds(1));
+            journal.heartbeat(start.plusSeconds(2));
+        }
+
+        // When - corrupt heartbeat of latest slot
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "rw")) {
+            file.seek(64 + 32);
+            file.writeLong(0);
+        }
+
+        // Then
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            WorkSession orphan = journal.getOrphanedSession();
+            assertNotNull(orphan);
+            assertEquals(start.plusSeconds(1), orphan.getEndTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue sequence written by another journal instance")
+    void testSharedJournal() {
+        // Given - two instances open on the same file
+        Path journalFile = tempDir.resolve("test.session.journal");
+        Instant start = Instant.parse("2024-05-01T10:00:00Z");
+        try (ActiveSessionJournal first = new ActiveSessionJournal(journalFile, SYNC_INTERVAL);
+             ActiveSessionJournal second = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            first.start(1L, start);
+            first.heartbeat(start.plusSeconds(5));
+            first.clear();
+
+            // When
+            second.start(2L, start.plusSeconds(10));
+            second.heartbeat(start.plusSeconds(11));
+        }
+
+        // Then
+        try (ActiveSessionJournal journal = new ActiveSessionJournal(journalFile, SYNC_INTERVAL)) {
+            WorkSession orphan = journal.getOrphanedSession();
+            assertEquals(2L, orphan.getTaskId());
+            assertEquals(start.plusSeconds(11), orphan.getEndTime());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseChangeMonitorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConfig databaseConfig;
+    private EventBus eventBus;
+    private DatabaseChangeMonitor monitor;
+
+    @BeforeEach
+    void setup() {
+        databaseConfig = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("monitor.db"));
+        eventBus = new EventBus();
+        monitor = new DatabaseChangeMonitor(databaseConfig, eventBus);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    @DisplayName("Should report nothing when database is unchanged")
+    void testNoChange() {
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    @DisplayName("Should detect commit made by another connection")
+    void testDetectsExternalCommit() throws Exception {
+        // Given
+        List<DatabaseChangedExternally> events = new ArrayList<>();
+        eventBus.subscribe(DatabaseChangedExternally.class, events::add);
+
+        // When
+        try (Connection connection = DriverManager.getConnection(databaseConfig.getJdbcUrl())) {
+            insertTask(connection, "External");
+        }
+
+        // Then
+        assertTrue(monitor.poll());
+        assertEquals(1, events.size());
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    @DisplayName("Should ignore changes made by this application")
+    void testIgnoresLocalChanges() {
+        // Given
+        TaskService taskService = new TaskService(databaseConfig, eventBus);
+
+        // When
+        taskService.addTask("Local task");
+
+        // Then
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    @DisplayName("Should ignore local writes that publish no domain event")
+    void testIgnoresLocalWritesWithoutEvents() {
+        // When
+        databaseConfig.runInWriteTransaction(session -> insertTask(session.getConnection(), "Local"));
+
+        // Then
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    @DisplayName("Should report external commit followed by local write before the poll")
+    void testDetectsExternalCommitBeforeLocalWrite() throws Exception {
+        // Given
+        TaskService taskService = new TaskService(databaseConfig, eventBus);
+        try (Connection connection = DriverManager.getConnection(databaseConfig.getJdbcUrl())) {
+            insertTask(connection, "External");
+        }
+
+        // When
+        taskService.addTask("Local task");
+
+        // Then
+        assertTrue(monitor.poll());
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    @DisplayName("Should allow only one holder of the active session lock")
+    void testActiveSessionLockIsExclusive() {
+        try (ActiveSessionLock first = databaseConfig.createActiveSessionLock();
+             ActiveSessionLock second = databaseConfig.createActiveSessionLock()) {
+            assertTrue(first.tryAcquire());
+            assertFalse(second.tryAcquire());
+
+            first.release();
+            assertTrue(second.tryAcquire());
+            assertFalse(first.tryAcquire());
+        }
+    }
+
+    private static void insertTask(Connection connection, String name) {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO task (name, queue_order, created_at) VALUES (?, 1, '2024-01-01T00:00:00Z')")) {
+            statement.setString(1, name);
+            statement.execute();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
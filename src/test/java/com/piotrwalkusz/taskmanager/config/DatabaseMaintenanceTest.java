@@ -0,0 +1,219 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseMaintenance.MaintenanceReport;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseMaintenanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String jdbcUrl;
+    private DatabaseConfig databaseConfig;
+    private DatabaseMaintenance maintenance;
+
+    @BeforeEach
+    void setup() {
+        jdbcUrl = "jdbc:sqlite:" + tempDir.resolve("maintenance.db");
+        databaseConfig = new DatabaseConfig(jdbcUrl);
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ZERO, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintenance.close();
+    }
+
+    @Test
+    @DisplayName("Should create database in incremental auto-vacuum mode")
+    void testNewDatabaseUsesIncrementalVacuum() throws Exception {
+        assertEquals(2, queryLong("PRAGMA auto_vacuum"));
+    }
+
+    @Test
+    @DisplayName("Should keep existing database in its vacuum mode and skip the vacuum step")
+    void testSkipsVacuumOfExistingDatabase() throws Exception {
+        // Given
+        maintenance.close();
+        execute("PRAGMA auto_vacuum = NONE", "VACUUM");
+        databaseConfig = new DatabaseConfig(jdbcUrl);
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ZERO, Duration.ofSeconds(30));
+        execute("INSERT INTO task (name, queue_order, created_at) VALUES (hex(randomblob(5000)), 1, '2024-01-01T00:00:00Z')",
+                "DELETE FROM task");
+        assertTrue(queryLong("PRAGMA freelist_count") > 0);
+
+        // When
+        MaintenanceReport report = maintenance.runPass();
+
+        // Then
+        assertEquals(0, queryLong("PRAGMA auto_vacuum"));
+        assertFalse(report.incrementalVacuum());
+        assertEquals(0, report.reclaimedPages());
+        assertTrue(report.finished());
+    }
+
+    @Test
+    @DisplayName("Should convert existing database to incremental vacuum in a long idle period")
+    void testConvertsExistingDatabase() throws Exception {
+        // Given
+        maintenance.close();
+        execute("PRAGMA auto_vacuum = NONE", "VACUUM");
+        databaseConfig = new DatabaseConfig(jdbcUrl);
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(30));
+        execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) "
+                        + "INSERT INTO task (name, queue_order, created_at) "
+                        + "SELECT hex(randomblob(500)), i, '2024-01-01T00:00:00Z' FROM n",
+                "DELETE FROM task");
+        assertEquals(0, queryLong("PRAGMA auto_vacuum"));
+
+        // When
+        MaintenanceReport report = maintenance.runIfIdle();
+
+        // Then
+        assertTrue(report.vacuumConverted());
+        assertTrue(report.incrementalVacuum());
+        assertEquals(2, queryLong("PRAGMA auto_vacuum"));
+        assertEquals(0, queryLong("PRAGMA freelist_count"));
+    }
+
+    @Test
+    @DisplayName("Should not rewrite existing database with few free pages")
+    void testSkipsConversionWithFewFreePages() throws Exception {
+        // Given
+        maintenance.close();
+        execute("PRAGMA auto_vacuum = NONE", "VACUUM");
+        databaseConfig = new DatabaseConfig(jdbcUrl);
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(30));
+        execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) "
+                        + "INSERT INTO task (name, queue_order, created_at) "
+                        + "SELECT hex(randomblob(500)), i, '2024-01-01T00:00:00Z' FROM n",
+                "DELETE FROM task WHERE id = (SELECT min(id) FROM task)");
+
+        // When
+        MaintenanceReport report = maintenance.runIfIdle();
+
+        // Then
+        assertFalse(report.vacuumConverted());
+        assertEquals(0, queryLong("PRAGMA auto_vacuum"));
+    }
+
+    @Test
+    @DisplayName("Should return free pages of deleted rows to the file system")
+    void testReclaimsFreePages() throws Exception {
+        // Given
+        execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) "
+                        + "INSERT INTO task (name, queue_order, created_at) "
+                        + "SELECT hex(randomblob(500)), i, '2024-01-01T00:00:00Z' FROM n",
+                "DELETE FROM task");
+        long freePages = queryLong("PRAGMA freelist_count");
+        assertTrue(freePages > 100);
+
+        // When
+        MaintenanceReport report = maintenance.runPass();
+
+        // Then
+        assertTrue(report.finished());
+        assertTrue(report.incrementalVacuum());
+        assertEquals(freePages, report.reclaimedPages());
+        assertEquals(freePages * queryLong("PRAGMA page_size"), report.reclaimedBytes());
+        assertEquals(0, queryLong("PRAGMA freelist_count"));
+        assertTrue(report.walTruncated());
+    }
+
+    @Test
+    @DisplayName("Should gather planner statistics")
+    void testOptimizes() throws Exception {
+        // Given
+        execute("INSERT INTO task (name, queue_order, created_at) VALUES ('Task', 1, '2024-01-01T00:00:00Z')");
+
+        // When
+        MaintenanceReport report = maintenance.runPass();
+
+        // Then
+        assertTrue(report.optimized());
+        assertEquals(1, queryLong("SELECT count(*) FROM sqlite_master WHERE name = 'sqlite_stat1'"));
+    }
+
+    @Test
+    @DisplayName("Should report orphaned and overlapping work sessions")
+    void testReportsSessionIssues() throws Exception {
+        // Given
+        execute("INSERT INTO task (id, name, queue_order, created_at) VALUES (1, 'Task', 1, '2024-01-01T00:00:00Z')",
+                "INSERT INTO work_session (task_id, start_time, end_time) "
+                        + "VALUES (1, '2024-01-01T10:00:00Z', '2024-01-01T11:00:00Z')",
+                "INSERT INTO work_session (task_id, start_time, end_time) "
+                        + "VALUES (1, '2024-01-01T10:30:00Z', '2024-01-01T10:45:00Z')",
+                "INSERT INTO work_session (task_id, start_time, end_time) "
+                        + "VALUES (1, '2024-01-01T10:50:00Z', '2024-01-01T12:00:00Z')",
+                "INSERT INTO work_session (task_id, start_time, end_time) "
+                        + "VALUES (1, '2024-01-01T12:00:00Z', '2024-01-01T13:00:00Z')",
+                "INSERT INTO work_session (task_id, start_time, end_time) "
+                        + "VALUES (99, '2024-01-01T10:00:00Z', '2024-01-01T11:00:00Z')");
+
+        // When
+        MaintenanceReport report = maintenance.runPass();
+
+        // Then
+        assertEquals(5, report.checkedSessions());
+        assertEquals(1, report.orphanedSessions());
+        assertEquals(2, report.overlappingSessions());
+    }
+
+    @Test
+    @DisplayName("Should stop at the time budget")
+    void testStopsAtBudget() {
+        // Given
+        maintenance.close();
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ZERO, Duration.ZERO);
+
+        // When
+        MaintenanceReport report = maintenance.runPass();
+
+        // Then
+        assertFalse(report.finished());
+        assertFalse(report.optimized());
+    }
+
+    @Test
+    @DisplayName("Should skip pass while the database is in use")
+    void testSkipsWhenNotIdle() {
+        // Given
+        maintenance.close();
+        maintenance = new DatabaseMaintenance(databaseConfig, Duration.ofHours(1), Duration.ofSeconds(30));
+
+        // When
+        MaintenanceReport report = maintenance.runIfIdle();
+
+        // Then
+        assertNull(report);
+        assertNull(maintenance.getLastReport());
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.getLong(1);
+        }
+    }
+}
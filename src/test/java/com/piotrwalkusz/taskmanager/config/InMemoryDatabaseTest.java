@@ -0,0 +1,70 @@
+package com.piotrwalkusz.taskmanager.config;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryDatabaseTest {
+
+    @Test
+    @DisplayName("Should create migrated databases isolated from each other")
+    void testIsolation() {
+        try (DatabaseConfig first = DatabaseConfig.inMemory(); DatabaseConfig second = DatabaseConfig.inMemory()) {
+            // When
+            new TaskService(first).addTask("Only in first");
+
+            // Then - sessions, writes and plain JDBC connections all see the same database
+            assertEquals(List.of("Only in first"), new TaskService(first).getAllTasks().stream().map(Task::getName).toList());
+            assertEquals(1, countTasks(first));
+            assertEquals(0, new TaskService(second).getQueueSize());
+            assertTrue(first.isInMemory());
+            assertThrows(IllegalStateException.class, first::getDatabasePath);
+        }
+    }
+
+    @Test
+    @DisplayName("Should enforce foreign keys")
+    void testForeignKeys() {
+        try (DatabaseConfig databaseConfig = DatabaseConfig.inMemory()) {
+            Instant now = Instant.now();
+            WorkSession orphan = WorkSession.builder().taskId(42L).startTime(now.minusSeconds(60)).endTime(now).build();
+
+            assertThrows(PersistenceException.class, () -> new WorkSessionService(databaseConfig).saveWorkSession(orphan));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop database on close")
+    void testClose() {
+        // Given
+        DatabaseConfig databaseConfig = DatabaseConfig.inMemory();
+        new TaskService(databaseConfig).addTask("Task");
+
+        // When
+        databaseConfig.close();
+
+        // Then - the name now opens a new empty database without schema
+        assertThrows(Exception.class, () -> countTasks(databaseConfig));
+    }
+
+    private static int countTasks(DatabaseConfig databaseConfig) {
+        try (Connection connection = DriverManager.getConnection(databaseConfig.getJdbcUrl());
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT COUNT(*) FROM task")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to count tasks", e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import javafx.collections.ListChangeListener;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTaskListTest {
+
+    private static final int TASK_COUNT = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    private TaskService taskService;
+    private int keysetLoads;
+    private int offsetLoads;
+
+    @BeforeEach
+    void setup() throws Exception {
+        DatabaseConfig databaseConfig = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("paged.db"));
+        taskService = new TaskService(databaseConfig, new EventBus()) {
+            @Override
+            public List<Task> getTasksAfter(int afterQueueOrder, int limit) {
+                keysetLoads++;
+                return super.getTasksAfter(afterQueueOrder, limit);
+            }
+
+            @Override
+            public List<Task> getTasksPage(int offset, int limit) {
+                offsetLoads++;
+                return super.getTasksPage(offset, limit);
+            }
+        };
+
+        // Insert a large queue in one statement
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
+            session.getConnection().createStatement().execute(
+                    "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < " + TASK_COUNT + ") "
+                            + "INSERT INTO task (name, queue_order, created_at, is_deleted) "
+                            + "SELECT 'Task ' || i, i, '2024-01-01T00:00:00Z', 0 FROM n");
+            session.commit();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load only pages that are read, following pages by keyset")
+    void testLoadsPagesOnDemand() {
+        // Given
+        PagedTaskList tasks = new PagedTaskList(taskService);
+
+        // When
+        Task first = tasks.get(0);
+        Task next = tasks.get(PagedTaskList.PAGE_SIZE);
+        Task far = tasks.get(TASK_COUNT - 1);
+
+        // Then
+        assertEquals(TASK_COUNT, tasks.size());
+        assertEquals("Task 1", first.getName());
+        assertEquals("Task " + (PagedTaskList.PAGE_SIZE + 1), next.getName());
+        assertEquals("Task " + TASK_COUNT, far.getName());
+        assertEquals(1, keysetLoads);
+        assertEquals(2, offsetLoads);
+        assertEquals(3, tasks.getCachedPageCount());
+    }
+
+    @Test
+    @DisplayName("Should keep number of cached pages bounded when scrolling through whole queue")
+    void testCacheIsBounded() {
+        // Given
+        PagedTaskList tasks = new PagedTaskList(taskService);
+
+        // When
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals("Task " + (i + 1), tasks.get(i).getName());
+        }
+
+        // Then - sequential scrolling uses keyset for all but first page
+        assertEquals(PagedTaskList.MAX_CACHED_PAGES, tasks.getCachedPageCount());
+        assertEquals(1, offsetLoads);
+        assertEquals(TASK_COUNT / PagedTaskList.PAGE_SIZE - 1, keysetLoads);
+    }
+
+    @Test
+    @DisplayName("Should fire single-row changes for rename, delete and reorder")
+    void testFineGrainedChanges() {
+        // Given
+        PagedTaskList tasks = new PagedTaskList(taskService);
+        Task renamed = tasks.get(5);
+        Task deleted = tasks.get(6);
+        Task movedToFront = tasks.get(150);
+        List<String> changes = new ArrayList<>();
+        tasks.addListener((ListChangeListener<Task>) change -> {
+            while (change.next()) {
+                changes.add(change.getFrom() + ":" + change.getRemovedSize() + "-" + change.getAddedSize());
+            }
+        });
+
+        // When / Then - rename replaces one row
+        taskService.updateTaskName(renamed.getId(), "Renamed");
+        tasks.taskRenamed(renamed.getId(), "Renamed");
+        assertEquals("Renamed", tasks.get(5).getName());
+        assertEquals(List.of("5:1-1"), changes);
+
+        // Delete removes one row
+        changes.clear();
+        taskService.softDeleteTask(deleted.getId());
+        tasks.taskRemoved(deleted.getId());
+        assertEquals(TASK_COUNT - 1, tasks.size());
+        assertEquals("Task 8", tasks.get(6).getName());
+        assertEquals(List.of("6:1-0"), changes);
+
+        // Move to front inserts one row at the top and removes it below (reported in final list order)
+        changes.clear();
+        assertEquals(movedToFront, tasks.get(149)); // Row is on screen, page reloaded after the delete
+        taskService.moveTaskToFront(movedToFront.getId());
+        tasks.taskMovedToFront(movedToFront.getId());
+        assertEquals(movedToFront.getId(), tasks.get(0).getId());
+        assertEquals("Task 1", tasks.get(1).getName());
+        assertEquals(List.of("0:0-1", "150:1-0"), changes);
+
+        // Move to end removes one row and appends it
+        changes.clear();
+        taskService.rotateTask(movedToFront.getId());
+        tasks.taskMovedToEnd(movedToFront.getId());
+        assertEquals("Task 1", tasks.get(0).getName());
+        assertEquals(movedToFront.getId(), tasks.get(tasks.size() - 1).getId());
+        assertEquals(List.of("0:1-0", (TASK_COUNT - 2) + ":0-1"), changes);
+    }
+}
@@ -0,0 +1,47 @@
+package com.piotrwalkusz.taskmanager.controller;
+
+import org.junit.jupiter.api.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkHeatmapTest {
+
+    @Test
+    @DisplayName("Should place days in week columns starting on Monday")
+    void testLayout() {
+        // 2026 starts on Thursday
+        assertEquals(0, WorkHeatmap.column(LocalDate.of(2026, 1, 1)));
+        assertEquals(0, WorkHeatmap.column(LocalDate.of(2026, 1, 4)));
+        assertEquals(1, WorkHeatmap.column(LocalDate.of(2026, 1, 5)));
+        assertEquals(52, WorkHeatmap.column(LocalDate.of(2026, 12, 31)));
+        // Leap year starting on Sunday and ending on Monday needs 54 columns
+        assertEquals(53, WorkHeatmap.column(LocalDate.of(2040, 12, 31)));
+        assertEquals(0, WorkHeatmap.row(DayOfWeek.MONDAY));
+        assertEquals(6, WorkHeatmap.row(DayOfWeek.SUNDAY));
+    }
+
+    @Test
+    @DisplayName("Should find day under position and ignore gaps and days of other years")
+    void testDayAt() {
+        assertEquals(LocalDate.of(2026, 1, 1), WorkHeatmap.dayAt(2026, 1, 3 * 13 + 1));
+        assertEquals(LocalDate.of(2026, 1, 5), WorkHeatmap.dayAt(2026, 13 + 5, 5));
+        assertNull(WorkHeatmap.dayAt(2026, 1, 1)); // Monday 2025-12-29
+        assertNull(WorkHeatmap.dayAt(2026, 12, 5)); // Gap between columns
+        assertNull(WorkHeatmap.dayAt(2026, -1, 5));
+    }
+
+    @Test
+    @DisplayName("Should map worked time to levels relative to the busiest day")
+    void testLevels() {
+        assertEquals(0, WorkHeatmap.level(0, 3600));
+        assertEquals(0, WorkHeatmap.level(0, 0));
+        assertEquals(1, WorkHeatmap.level(60, 3600));
+        assertEquals(2, WorkHeatmap.level(900, 3600));
+        assertEquals(3, WorkHeatmap.level(1800, 3600));
+        assertEquals(4, WorkHeatmap.level(2700, 3600));
+        assertEquals(4, WorkHeatmap.level(3600, 3600));
+    }
+}
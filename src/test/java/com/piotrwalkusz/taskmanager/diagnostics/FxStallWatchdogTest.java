@@ -0,0 +1,87 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxStallWatchdogTest {
+
+    private final List<Runnable> pendingPings = new ArrayList<>();
+    private final List<FxStallWatchdog.Stall> stalls = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final long[] now = {1_000_000};
+    private Thread blockedThread;
+    private FxStallWatchdog watchdog;
+
+    @BeforeEach
+    void setup() {
+        // Stands in for the FX thread, blocked until the test ends
+        blockedThread = new Thread(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "fake-fx-thread");
+        blockedThread.start();
+        while (blockedThread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        watchdog = new FxStallWatchdog(Duration.ofMillis(200), pendingPings::add, blockedThread,
+                () -> "nextTaskButton", stalls::add, () -> now[0]);
+    }
+
+    @AfterEach
+    void releaseThread() {
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should not report when FX thread answers ping within threshold")
+    void testResponsive() {
+        for (int i = 0; i < 10; i++) {
+            // When
+            watchdog.check();
+            now[0] += Duration.ofMillis(50).toNanos();
+            pendingPings.forEach(Runnable::run);
+            pendingPings.clear();
+        }
+
+        // Then
+        assertEquals(List.of(), stalls);
+    }
+
+    @Test
+    @DisplayName("Should sample blocked FX thread with running action at doubling intervals")
+    void testStall() {
+        // Given
+        watchdog.check();
+        assertEquals(1, pendingPings.size());
+
+        // When - ping not answered for two seconds, checked every 50 ms
+        for (int i = 0; i < 40; i++) {
+            now[0] += Duration.ofMillis(50).toNanos();
+            watchdog.check();
+        }
+
+        // Then - samples at 200, 400, 800 and 1600 ms
+        assertEquals(List.of(200L, 400L, 800L, 1600L), stalls.stream().map(stall -> stall.blockedFor().toMillis()).toList());
+        FxStallWatchdog.Stall stall = stalls.get(0);
+        assertEquals("nextTaskButton", stall.action());
+        assertTrue(stall.format().contains("CountDownLatch.await"), stall.format());
+        assertEquals(1, pendingPings.size());
+
+        // When - FX thread answers, new ping is posted on next check
+        pendingPings.remove(0).run();
+        watchdog.check();
+
+        // Then
+        assertEquals(1, pendingPings.size());
+        assertEquals(4, stalls.size());
+    }
+}
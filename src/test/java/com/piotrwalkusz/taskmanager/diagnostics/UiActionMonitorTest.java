@@ -0,0 +1,69 @@
+package com.piotrwalkusz.taskmanager.diagnostics;
+
+import com.piotrwalkusz.taskmanager.repository.memory.InMemoryStorage;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UiActionMonitorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should emit action events with nested storage calls and their callers")
+    void testActionEvents() throws IOException {
+        // Given
+        UiActionMonitor monitor = new UiActionMonitor();
+        TaskService taskService = new TaskService(new TimedStorage(new InMemoryStorage(), monitor));
+
+        // When
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(UiActionEvent.class);
+            recording.enable(StorageCallEvent.class);
+            recording.start();
+            monitor.run("addTaskButton", () -> {
+                taskService.addTask("Write report");
+                monitor.run("nested", () -> taskService.getCurrentTask());
+            });
+            taskService.getQueueSize(); // Outside of any action
+            recording.stop();
+            Path dump = tempDir.resolve("recording.jfr");
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        }
+
+        // Then
+        RecordedEvent action = findEvent(events, "UiAction", "addTaskButton");
+        assertEquals(1, action.getInt("storageCalls"));
+        RecordedEvent nested = findEvent(events, "UiAction", "nested");
+        assertEquals(1, nested.getInt("storageCalls"));
+        assertTrue(action.getDuration().compareTo(nested.getDuration()) >= 0);
+
+        RecordedEvent write = findEvent(events, "StorageCall", "addTaskButton");
+        assertTrue(write.getBoolean("write"));
+        assertEquals("TaskService.addTask", write.getString("caller"));
+        assertEquals("TaskService.getCurrentTask", findEvent(events, "StorageCall", "nested").getString("caller"));
+        assertEquals("TaskService.getQueueSize", findEvent(events, "StorageCall", null).getString("caller"));
+        assertNull(monitor.getCurrentAction());
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> events, String type, String action) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().endsWith("." + type))
+                .filter(event -> Objects.equals(event.getString("action"), action))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + type + " event for action " + action));
+    }
+}
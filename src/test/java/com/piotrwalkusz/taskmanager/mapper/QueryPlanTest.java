@@ -0,0 +1,136 @@
+package com.piotrwalkusz.taskmanager.mapper;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.testdata.SyntheticDataGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every mapped statement, so a query silently turning into a full
+ * table scan fails the build instead of slowing down large databases.
+ */
+class QueryPlanTest {
+
+    // Statements scanning a table by design, with the reason
+    private static final Map<String, String> EXPECTED_SCANS = Map.of(
+            "ArchiveMapper.getArchiveBatchUpperId", "walks oldest sessions in ID order and stops after one batch",
+            "ArchiveMapper.isArchiveAttached", "lists the few databases attached to the connection",
+            "DependencyMapper.getDependencies", "loads the whole dependency graph once into memory",
+            "SyncMapper.getPendingChanges", "reads mutations of the current transaction, emptied before each commit"
+    );
+
+    @TempDir
+    static Path tempDir;
+
+    private static DatabaseConfig databaseConfig;
+    private static SqlSession session;
+
+    @BeforeAll
+    static void setupDatabase() {
+        databaseConfig = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("plan.db"));
+        new SyntheticDataGenerator(42).generate(databaseConfig, 2000, 60, 20);
+
+        // Archive statements need the archive database attached
+        session = databaseConfig.getSqlSessionFactory().openSession();
+        ArchiveMapper archiveMapper = session.getMapper(ArchiveMapper.class);
+        archiveMapper.attachArchive(tempDir.resolve("plan-archive.db").toString());
+        archiveMapper.createArchiveTable();
+        archiveMapper.createArchiveIndex();
+    }
+
+    @AfterAll
+    static void closeSession() {
+        session.close();
+    }
+
+    @Test
+    @DisplayName("Should not scan whole table in any mapped statement")
+    void testNoFullScans() throws SQLException {
+        // Given
+        Configuration configuration = databaseConfig.getSqlSessionFactory().getConfiguration();
+        TreeSet<String> statementIds = new TreeSet<>();
+        for (MappedStatement statement : configuration.getMappedStatements()) {
+            statementIds.add(statement.getId());
+        }
+
+        // When
+        List<String> unexpectedScans = new ArrayList<>();
+        List<String> scanningStatements = new ArrayList<>();
+        for (String statementId : statementIds) {
+            String shortId = shortId(statementId);
+            String sql = configuration.getMappedStatement(statementId).getBoundSql(new HashMap<>()).getSql();
+            if (isSchemaStatement(sql)) {
+                continue;
+            }
+            List<String> scans = getFullScans(session.getConnection(), sql);
+            if (scans.isEmpty()) {
+                continue;
+            }
+            scanningStatements.add(shortId);
+            if (!EXPECTED_SCANS.containsKey(shortId)) {
+                unexpectedScans.add(shortId + " " + scans);
+            }
+        }
+
+        // Then
+        assertTrue(statementIds.size() > 40, "Mapped statements not found: " + statementIds);
+        assertEquals(List.of(), unexpectedScans);
+        assertTrue(scanningStatements.containsAll(EXPECTED_SCANS.keySet()), "Stale expected scans: " + scanningStatements);
+    }
+
+    @Test
+    @DisplayName("Should detect full scan and accept index search")
+    void testScanDetection() throws SQLException {
+        // Given
+        Connection connection = session.getConnection();
+
+        // Then
+        assertEquals(List.of("SCAN work_session"),
+                getFullScans(connection, "SELECT id FROM work_session WHERE julianday(end_time) > 0"));
+        assertEquals(List.of(),
+                getFullScans(connection, "SELECT id FROM work_session WHERE task_id = ?"));
+    }
+
+    private static List<String> getFullScans(Connection connection, String sql) throws SQLException {
+        // Unbound parameters are NULL, which does not change the plan
+        List<String> scans = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String detail = resultSet.getString("detail");
+                // Scan of a subquery result or a constant row reads no table
+                if (detail.startsWith("SCAN ") && !detail.startsWith("SCAN CONSTANT ROW")
+                        && !detail.contains("subquery")) {
+                    scans.add(detail);
+                }
+            }
+        }
+        return scans;
+    }
+
+    private static boolean isSchemaStatement(String sql) {
+        String keyword = sql.strip().split("\\s+", 2)[0].toUpperCase();
+        return keyword.equals("ATTACH") || keyword.equals("DETACH") || keyword.equals("CREATE");
+    }
+
+    private static String shortId(String statementId) {
+        String[] parts = statementId.split("\\.");
+        return parts[parts.length - 2] + "." + parts[parts.length - 1];
+    }
+}
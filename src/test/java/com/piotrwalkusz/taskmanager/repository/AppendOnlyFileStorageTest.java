@@ -0,0 +1,131 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.repository.file.AppendOnlyFileStorage;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyFileStorageTest extends StorageConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+
+    @Override
+    protected Storage createStorage() {
+        logFile = tempDir.resolve("storage.log");
+        return new AppendOnlyFileStorage(logFile);
+    }
+
+    @AfterEach
+    void closeStorage() {
+        ((AppendOnlyFileStorage) storage).close();
+    }
+
+    @Test
+    @DisplayName("Should restore committed data after reopening log")
+    void testReopen() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+        storage.runWrite(repositories -> {
+            repositories.tasks().rotateTask(first.getId());
+            repositories.tasks().addTag(first.getId(), "@home");
+            repositories.saveWorkSession(session(first.getId(), Instant.now(), Duration.ofSeconds(42)));
+        });
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(second.getId()));
+
+        // When
+        reopen();
+
+        // Then
+        assertEquals(4, ((AppendOnlyFileStorage) storage).getRecordCount());
+        assertEquals(List.of(first.getId()), queueTaskIds());
+        assertTrue(storage.<Boolean>read(repositories -> repositories.tasks().hasDeletedTask()));
+        assertEquals(List.of("@home"), storage.read(repositories -> repositories.tasks().getTags(first.getId())));
+        assertEquals(42, storage.<Long>read(repositories -> repositories.workSessions().getTotalTimeSeconds(first.getId())));
+        assertEquals(1, storage.read(repositories -> repositories.tasks().getTaskActivity(first.getId())).getRotationCount());
+        assertEquals(42, storage.<Long>read(repositories -> repositories.tasks().getQueueWorkedSeconds()));
+        assertEquals(second.getId() + 1, addTask("Third").getId());
+    }
+
+    @Test
+    @DisplayName("Should cut off torn last record and keep earlier writes")
+    void testTornTail() throws IOException {
+        // Given
+        Task first = addTask("First");
+        addTask("Second");
+        long sizeAfterFirstWrites = Files.size(logFile);
+        storage.runWrite(repositories -> repositories.tasks().rotateTask(first.getId()));
+        long fullSize = Files.size(logFile);
+
+        // When - crash in the middle of appending the last record
+        ((AppendOnlyFileStorage) storage).close();
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 3);
+        }
+        storage = new AppendOnlyFileStorage(logFile);
+
+        // Then
+        assertTrue(((AppendOnlyFileStorage) storage).isRecovered());
+        assertEquals(sizeAfterFirstWrites, Files.size(logFile));
+        assertEquals(first.getId(), storage.read(repositories -> repositories.tasks().getCurrentTask()).getId());
+        assertEquals(2, storage.<Integer>read(repositories -> repositories.tasks().getQueueSize()));
+    }
+
+    @Test
+    @DisplayName("Should cut off record failing checksum")
+    void testCorruptRecord() throws IOException {
+        // Given
+        addTask("First");
+        long sizeAfterFirstWrite = Files.size(logFile);
+        addTask("Second");
+        ((AppendOnlyFileStorage) storage).close();
+
+        // When - flip a byte inside the second record's payload
+        byte[] bytes = Files.readAllBytes(logFile);
+        bytes[(int) sizeAfterFirstWrite + 6] ^= 0x7F;
+        Files.write(logFile, bytes);
+        storage = new AppendOnlyFileStorage(logFile);
+
+        // Then
+        assertTrue(((AppendOnlyFileStorage) storage).isRecovered());
+        assertEquals(1, storage.<Integer>read(repositories -> repositories.tasks().getQueueSize()));
+        assertEquals(sizeAfterFirstWrite, Files.size(logFile));
+    }
+
+    @Test
+    @DisplayName("Should not log writes that were rolled back")
+    void testRollbackNotLogged() {
+        // Given
+        addTask("First");
+
+        // When
+        assertThrows(IllegalStateException.class, () -> storage.runWrite(repositories -> {
+            repositories.tasks().insertTask(Task.builder().name("Second").createdAt(Instant.now()).build());
+            throw new IllegalStateException("Failure");
+        }));
+        reopen();
+
+        // Then
+        assertEquals(1, ((AppendOnlyFileStorage) storage).getRecordCount());
+        assertEquals(1, storage.<Integer>read(repositories -> repositories.tasks().getQueueSize()));
+    }
+
+    private void reopen() {
+        ((AppendOnlyFileStorage) storage).close();
+        storage = new AppendOnlyFileStorage(logFile);
+    }
+}
@@ -0,0 +1,21 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.repository.memory.InMemoryStorage;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStorageTest extends StorageConformanceTest {
+
+    @Override
+    protected Storage createStorage() {
+        return new InMemoryStorage();
+    }
+
+    @Test
+    @DisplayName("Should reject changes made in read")
+    void testWriteInReadFails() {
+        assertThrows(IllegalStateException.class, () ->
+                storage.read(repositories -> repositories.tasks().addTag(1L, "@tag")));
+    }
+}
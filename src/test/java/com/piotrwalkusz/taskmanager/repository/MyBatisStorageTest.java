@@ -0,0 +1,19 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+class MyBatisStorageTest extends StorageConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected Storage createStorage() {
+        return new MyBatisStorage(new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("test-" + UUID.randomUUID() + ".db")));
+    }
+}
@@ -0,0 +1,142 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.log.SessionLogStorage;
+import com.piotrwalkusz.taskmanager.repository.log.WorkSessionLog;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionLogStorageTest extends StorageConformanceTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected Storage createStorage() {
+        return new SessionLogStorage(taskStorage(), openLog());
+    }
+
+    @AfterEach
+    void closeStorage() {
+        ((SessionLogStorage) storage).close();
+    }
+
+    @Test
+    @DisplayName("Should drop sessions of a write whose task commit failed")
+    void testDropSessionsOfFailedCommit() {
+        // Given - task storage failing after work, as if the commit failed
+        Task task = addTaskWithSession(60);
+        ((SessionLogStorage) storage).close();
+        Storage failingTaskStorage = new Storage() {
+            private final Storage delegate = taskStorage();
+
+            @Override
+            public <T> T read(Function<Repositories, T> work) {
+                return delegate.read(work);
+            }
+
+            @Override
+            public <T> T write(Function<Repositories, T> work) {
+                return delegate.write(repositories -> {
+                    work.apply(repositories);
+                    throw new IllegalStateException("Commit failed");
+                });
+            }
+        };
+        storage = new SessionLogStorage(failingTaskStorage, openLog());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> saveSession(storage, task.getId(), 30));
+
+        // Then
+        assertEquals(60, totalSeconds(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Should drop log records after the committed position when opened")
+    void testDropUncommittedRecordsOnOpen() {
+        // Given - a record appended before a crash that came ahead of the task commit
+        Task task = addTaskWithSession(60);
+        ((SessionLogStorage) storage).close();
+        try (WorkSessionLog log = openLog()) {
+            log.append(task.getId(), START, START.plusSeconds(30));
+            log.sync();
+        }
+
+        // When
+        storage = createStorage();
+
+        // Then
+        assertEquals(60, totalSeconds(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject task storage that does not keep the log position")
+    void testRejectTaskStorageWithoutLogPosition() {
+        // Given - task storage whose task repository implements only the task SPI
+        Storage taskStorage = taskStorage();
+        Storage plainTaskStorage = new Storage() {
+            @Override
+            public <T> T read(Function<Repositories, T> work) {
+                return taskStorage.read(repositories -> work.apply(
+                        new Repositories(plainTasks(repositories.tasks()), repositories.workSessions())));
+            }
+
+            @Override
+            public <T> T write(Function<Repositories, T> work) {
+                return taskStorage.write(repositories -> work.apply(
+                        new Repositories(plainTasks(repositories.tasks()), repositories.workSessions())));
+            }
+        };
+
+        // When/Then
+        try (WorkSessionLog log = openLog()) {
+            assertThrows(IllegalArgumentException.class, () -> new SessionLogStorage(plainTaskStorage, log));
+        }
+    }
+
+    private static TaskRepository plainTasks(TaskRepository tasks) {
+        return (TaskRepository) Proxy.newProxyInstance(TaskRepository.class.getClassLoader(),
+                new Class<?>[]{TaskRepository.class}, (proxy, method, args) -> method.invoke(tasks, args));
+    }
+
+    private Storage taskStorage() {
+        return new MyBatisStorage(new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("test.db")));
+    }
+
+    private WorkSessionLog openLog() {
+        return new WorkSessionLog(tempDir.resolve("sessions"), 16, false);
+    }
+
+    private Task addTaskWithSession(long seconds) {
+        Task task = addTask("Task");
+        saveSession(storage, task.getId(), seconds);
+        return task;
+    }
+
+    private static void saveSession(Storage target, Long taskId, long seconds) {
+        target.runWrite(repositories -> repositories.workSessions().insertWorkSession(WorkSession.builder()
+                .taskId(taskId)
+                .startTime(START)
+                .endTime(START.plusSeconds(seconds))
+                .build()));
+    }
+
+    private long totalSeconds(Long taskId) {
+        return storage.read(repositories -> repositories.workSessions().getTotalTimeSeconds(taskId));
+    }
+}
@@ -0,0 +1,314 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link Storage} backend must share. Each backend test extends this class.
+ */
+abstract class StorageConformanceTest {
+
+    protected Storage storage;
+
+    /**
+     * Create empty storage for one test
+     */
+    protected abstract Storage createStorage();
+
+    @BeforeEach
+    void setupStorage() {
+        storage = createStorage();
+    }
+
+    @Test
+    @DisplayName("Should keep tasks in queue order through rotation and move to front")
+    void testQueueOrder() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+        Task third = addTask("Third");
+
+        // When
+        storage.runWrite(repositories -> repositories.tasks().rotateTask(first.getId()));
+        storage.runWrite(repositories -> repositories.tasks().moveTaskToFront(third.getId()));
+
+        // Then
+        assertEquals(List.of(third.getId(), second.getId(), first.getId()), queueTaskIds());
+        assertEquals(third.getId(), storage.read(repositories -> repositories.tasks().getCurrentTask()).getId());
+        assertEquals(3, storage.<Integer>read(repositories -> repositories.tasks().getQueueSize()));
+        assertEquals("Second", storage.read(repositories -> repositories.tasks().getTaskById(second.getId())).getName());
+    }
+
+    @Test
+    @DisplayName("Should page through queue by offset and by keyset")
+    void testPaging() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            addTask("Task " + i);
+        }
+
+        // When
+        List<Task> firstPage = storage.read(repositories -> repositories.tasks().getTasksPage(0, 2));
+        List<Task> secondPage = storage.read(repositories ->
+                repositories.tasks().getTasksAfter(firstPage.get(1).getQueueOrder(), 2));
+        List<Task> lastPage = storage.read(repositories -> repositories.tasks().getTasksPage(4, 2));
+
+        // Then
+        assertEquals(List.of("Task 0", "Task 1"), firstPage.stream().map(Task::getName).toList());
+        assertEquals(List.of("Task 2", "Task 3"), secondPage.stream().map(Task::getName).toList());
+        assertEquals(List.of("Task 4"), lastPage.stream().map(Task::getName).toList());
+        assertEquals(5, storage.read(repositories -> repositories.tasks().getAllTasks()).size());
+    }
+
+    @Test
+    @DisplayName("Should soft delete, restore and purge tasks")
+    void testDeleteUndoAndCleanup() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+        storage.runWrite(repositories -> repositories.tasks().addTag(second.getId(), "@home"));
+        storage.runWrite(repositories -> repositories.workSessions().insertWorkSession(
+                session(second.getId(), Instant.now().minusSeconds(60), Duration.ofSeconds(30))));
+
+        // When / Then
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(first.getId()));
+        assertTrue(storage.<Boolean>read(repositories -> repositories.tasks().hasDeletedTask()));
+        assertEquals(List.of(second.getId()), queueTaskIds());
+        assertTrue(storage.read(repositories -> repositories.tasks().getTaskById(first.getId())).getIsDeleted());
+
+        assertEquals(1, storage.<Integer>write(repositories -> repositories.tasks().undoDelete()));
+        assertEquals(List.of(first.getId(), second.getId()), queueTaskIds());
+        assertEquals(0, storage.<Integer>write(repositories -> repositories.tasks().undoDelete()));
+
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(second.getId()));
+        assertEquals(1, storage.<Integer>write(repositories -> repositories.tasks().cleanupDeletedTasks()));
+        assertFalse(storage.<Boolean>read(repositories -> repositories.tasks().hasDeletedTask()));
+        assertNull(storage.read(repositories -> repositories.tasks().getTaskById(second.getId())));
+        assertEquals(0, storage.<Long>read(repositories -> repositories.workSessions().getTotalTimeSeconds(second.getId())));
+        assertEquals(List.of(), storage.read(repositories -> repositories.tasks().getTags(second.getId())));
+    }
+
+    @Test
+    @DisplayName("Should rename task")
+    void testRename() {
+        // Given
+        Task task = addTask("Old name");
+
+        // When
+        storage.runWrite(repositories -> repositories.tasks().updateTaskName(task.getId(), "New name"));
+
+        // Then
+        assertEquals("New name", storage.read(repositories -> repositories.tasks().getCurrentTask()).getName());
+    }
+
+    @Test
+    @DisplayName("Should add and remove tags once and list tags of queued tasks only")
+    void testTags() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+
+        // When / Then
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addTag(first.getId(), "@office")));
+        assertFalse(storage.<Boolean>write(repositories -> repositories.tasks().addTag(first.getId(), "@office")));
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addTag(first.getId(), "@call")));
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addTag(second.getId(), "@home")));
+        assertEquals(List.of("@call", "@office"), storage.read(repositories -> repositories.tasks().getTags(first.getId())));
+
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().removeTag(first.getId(), "@call")));
+        assertFalse(storage.<Boolean>write(repositories -> repositories.tasks().removeTag(first.getId(), "@call")));
+
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(second.getId()));
+        assertEquals(List.of(new TaskTag(first.getId(), "@office")),
+                storage.read(repositories -> repositories.tasks().getQueueTaskTags()));
+    }
+
+    @Test
+    @DisplayName("Should add and remove dependencies once and drop them with purged tasks")
+    void testDependencies() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+        Task third = addTask("Third");
+
+        // When / Then
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addDependency(second.getId(), first.getId())));
+        assertFalse(storage.<Boolean>write(repositories -> repositories.tasks().addDependency(second.getId(), first.getId())));
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addDependency(third.getId(), second.getId())));
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().addDependency(third.getId(), first.getId())));
+        assertTrue(storage.<Boolean>write(repositories -> repositories.tasks().removeDependency(third.getId(), first.getId())));
+        assertFalse(storage.<Boolean>write(repositories -> repositories.tasks().removeDependency(third.getId(), first.getId())));
+
+        // Dependencies of deleted tasks stay until purged
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(second.getId()));
+        assertEquals(2, storage.read(repositories -> repositories.tasks().getDependencies()).size());
+        storage.runWrite(repositories -> repositories.tasks().cleanupDeletedTasks());
+        assertEquals(List.of(), storage.read(repositories -> repositories.tasks().getDependencies()));
+
+        storage.runWrite(repositories -> repositories.tasks().addDependency(first.getId(), third.getId()));
+        assertEquals(List.of(new TaskDependency(first.getId(), third.getId())),
+                storage.read(repositories -> repositories.tasks().getDependencies()));
+    }
+
+    @Test
+    @DisplayName("Should sum work session time today, in total and in range")
+    void testWorkSessionTimes() {
+        // Given
+        Task task = addTask("Task");
+        Instant startOfToday = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        Instant twoDaysAgo = startOfToday.minus(Duration.ofDays(2));
+        WorkSession today = session(task.getId(), startOfToday, Duration.ofSeconds(90));
+        storage.runWrite(repositories -> repositories.workSessions().insertWorkSession(today));
+        storage.runWrite(repositories -> repositories.workSessions().insertWorkSession(
+                session(task.getId(), twoDaysAgo, Duration.ofMinutes(10))));
+
+        // Then
+        assertNotNull(today.getId());
+        assertEquals(90, storage.<Long>read(repositories -> repositories.workSessions().getDailyTimeSeconds(task.getId())));
+        assertEquals(690, storage.<Long>read(repositories -> repositories.workSessions().getTotalTimeSeconds(task.getId())));
+        assertEquals(600, storage.<Long>read(repositories -> repositories.workSessions()
+                .getTimeSecondsInRange(task.getId(), twoDaysAgo, startOfToday)));
+        assertFalse(storage.<Boolean>read(repositories -> repositories.workSessions().hasActiveWorkSession(task.getId())));
+    }
+
+    @Test
+    @DisplayName("Should maintain task activity and list starved tasks never worked on first")
+    void testTaskActivity() {
+        // Given - three tasks created a week ago
+        Instant now = Instant.now();
+        Task old = addTask("Old", now.minus(Duration.ofDays(7)));
+        Task recent = addTask("Recent", now.minus(Duration.ofDays(7)));
+        Task never = addTask("Never", now.minus(Duration.ofDays(7)));
+        Instant oldEnd = now.minus(Duration.ofDays(5));
+        storage.runWrite(repositories -> {
+            repositories.saveWorkSession(session(old.getId(), oldEnd.minusSeconds(600), Duration.ofSeconds(600)));
+            repositories.saveWorkSession(session(recent.getId(), now.minusSeconds(300), Duration.ofSeconds(120)));
+            repositories.tasks().rotateTask(old.getId());
+            repositories.tasks().rotateTask(old.getId());
+            repositories.tasks().moveTaskToFront(recent.getId());
+        });
+        // Earlier session saved late does not move last worked time back
+        storage.runWrite(repositories -> repositories.saveWorkSession(
+                session(old.getId(), oldEnd.minus(Duration.ofDays(1)), Duration.ofSeconds(60))));
+
+        // Then
+        Instant since = now.minus(Duration.ofDays(1));
+        assertEquals(new TaskActivity(old.getId(), "Old", old.getCreatedAt(), oldEnd, 2, 660),
+                storage.read(repositories -> repositories.tasks().getTaskActivity(old.getId())));
+        assertEquals(List.of(never.getId(), old.getId()), starvedTaskIds(since));
+        assertEquals(2, storage.<Integer>read(repositories -> repositories.tasks().countStarvedTasks(since)));
+        assertEquals(780, storage.<Long>read(repositories -> repositories.tasks().getQueueWorkedSeconds()));
+
+        // When - failed write, then deleted task
+        assertThrows(IllegalStateException.class, () -> storage.runWrite(repositories -> {
+            repositories.saveWorkSession(session(never.getId(), now.minusSeconds(60), Duration.ofSeconds(30)));
+            throw new IllegalStateException("Failure");
+        }));
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(old.getId()));
+
+        // Then
+        assertEquals(List.of(never.getId()), starvedTaskIds(since));
+        assertEquals(120, storage.<Long>read(repositories -> repositories.tasks().getQueueWorkedSeconds()));
+        storage.runWrite(repositories -> repositories.tasks().undoDelete());
+        assertEquals(780, storage.<Long>read(repositories -> repositories.tasks().getQueueWorkedSeconds()));
+        assertEquals(List.of(never.getId(), old.getId()), starvedTaskIds(since));
+    }
+
+    @Test
+    @DisplayName("Should sum worked time per UTC day, splitting sessions at midnight")
+    void testWorkDays() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+        LocalDate day = LocalDate.of(2026, 3, 9);
+        Instant midnight = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        storage.runWrite(repositories -> {
+            repositories.saveWorkSession(session(first.getId(), midnight.minusSeconds(3600), Duration.ofSeconds(600)));
+            repositories.saveWorkSession(session(first.getId(), midnight.minusSeconds(1800), Duration.ofSeconds(3600)));
+            repositories.saveWorkSession(session(second.getId(), midnight.plusSeconds(7200), Duration.ofSeconds(900)));
+        });
+
+        // Then
+        assertEquals(List.of(new WorkDay(day, 2400), new WorkDay(day.plusDays(1), 1800)),
+                storage.read(repositories -> repositories.workSessions().getWorkDays(first.getId(), day, day.plusDays(7))));
+        assertEquals(List.of(new WorkDay(day.plusDays(1), 1800)),
+                storage.read(repositories -> repositories.workSessions().getWorkDays(first.getId(), day.plusDays(1), day.plusDays(2))));
+        assertEquals(List.of(new WorkDay(day, 2400), new WorkDay(day.plusDays(1), 2700)),
+                storage.read(repositories -> repositories.workSessions().getAllWorkDays(day.minusDays(7), day.plusDays(7))));
+
+        // When - failed write, then purged task
+        assertThrows(IllegalStateException.class, () -> storage.runWrite(repositories -> {
+            repositories.saveWorkSession(session(second.getId(), midnight, Duration.ofSeconds(60)));
+            throw new IllegalStateException("Failure");
+        }));
+        storage.runWrite(repositories -> repositories.tasks().softDeleteTask(first.getId()));
+        assertEquals(2, storage.read(repositories -> repositories.workSessions().getAllWorkDays(day, day.plusDays(7))).size());
+        storage.runWrite(repositories -> repositories.tasks().cleanupDeletedTasks());
+
+        // Then
+        assertEquals(List.of(new WorkDay(day.plusDays(1), 900)),
+                storage.read(repositories -> repositories.workSessions().getAllWorkDays(day, day.plusDays(7))));
+        assertEquals(List.of(), storage.read(repositories -> repositories.workSessions().getWorkDays(first.getId(), day, day.plusDays(7))));
+    }
+
+    @Test
+    @DisplayName("Should discard all changes of a write that throws")
+    void testRollback() {
+        // Given
+        Task first = addTask("First");
+        Task second = addTask("Second");
+
+        // When
+        assertThrows(IllegalStateException.class, () -> storage.runWrite(repositories -> {
+            repositories.tasks().rotateTask(first.getId());
+            repositories.tasks().addTag(second.getId(), "@tag");
+            repositories.tasks().insertTask(Task.builder().name("Third").createdAt(Instant.now()).build());
+            throw new IllegalStateException("Failure");
+        }));
+
+        // Then
+        assertEquals(List.of(first.getId(), second.getId()), queueTaskIds());
+        assertEquals(List.of(), storage.read(repositories -> repositories.tasks().getTags(second.getId())));
+        Task third = addTask("Third");
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), queueTaskIds());
+    }
+
+    protected Task addTask(String name) {
+        return addTask(name, Instant.now());
+    }
+
+    protected Task addTask(String name, Instant createdAt) {
+        Task task = Task.builder().name(name).createdAt(createdAt).build();
+        storage.runWrite(repositories -> repositories.tasks().insertTask(task));
+        assertNotNull(task.getId());
+        return task;
+    }
+
+    protected List<Long> queueTaskIds() {
+        return storage.read(repositories -> repositories.tasks().getQueueTaskIds());
+    }
+
+    protected List<Long> starvedTaskIds(Instant since) {
+        return storage.read(repositories -> repositories.tasks().getStarvedTasks(since, 10)).stream()
+                .map(TaskActivity::getTaskId)
+                .toList();
+    }
+
+    protected static WorkSession session(Long taskId, Instant start, Duration duration) {
+        return WorkSession.builder().taskId(taskId).startTime(start).endTime(start.plus(duration)).build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.piotrwalkusz.taskmanager.repository;
+
+import com.piotrwalkusz.taskmanager.repository.log.WorkSessionLog;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkSessionLogTest {
+
+    private static final int SEGMENT_CAPACITY = 8;
+    private static final Instant START = Instant.parse("2025-06-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should sum sessions per task across segments")
+    void testTotalsAcrossSegments() {
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            // Given - 3 tasks interleaved over 30 records
+            for (int i = 0; i < 30; i++) {
+                Instant start = START.plus(Duration.ofHours(i));
+                log.append(i % 3, start, start.plusMillis(1500));
+            }
+
+            // Then
+            assertEquals(30, log.getRecordCount());
+            assertEquals(4, log.getSegmentCount());
+            assertEquals(15.0, log.getTotalSeconds(0), 1e-9);
+            assertEquals(15.0, log.getTotalSeconds(2), 1e-9);
+            assertEquals(0.0, log.getTotalSeconds(3));
+            // Hours 0..8 hold records 0, 3 and 6 of task 0
+            assertEquals(4.5, log.getSecondsInRange(0, START, START.plus(Duration.ofHours(9))), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild index from segments after reopening")
+    void testReopen() {
+        // Given
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(7, START, START.plusSeconds(10));
+            }
+            log.append(8, START, START.plusSeconds(5));
+            log.purgeTask(8);
+        }
+
+        // When
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            // Then
+            assertFalse(log.isRecovered());
+            assertEquals(22, log.getRecordCount());
+            assertEquals(200.0, log.getTotalSeconds(7), 1e-9);
+            assertEquals(0.0, log.getTotalSeconds(8));
+            assertEquals(23, log.append(7, START, START.plusSeconds(1)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop at torn record and drop everything after it")
+    void testTornRecord() throws IOException {
+        // Given - 10 records, the last two in the second segment
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(1, START, START.plusSeconds(1));
+            }
+        }
+
+        // When - the 9th record (first of second segment) is half written
+        Path secondSegment = tempDir.resolve("sessions-00000001.seg");
+        try (FileChannel channel = FileChannel.open(secondSegment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), 16 + 20);
+        }
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            // Then
+            assertTrue(log.isRecovered());
+            assertEquals(8, log.getRecordCount());
+            assertEquals(8.0, log.getTotalSeconds(1), 1e-9);
+
+            assertEquals(9, log.append(1, START, START.plusSeconds(1)));
+        }
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            assertFalse(log.isRecovered());
+            assertEquals(9, log.getRecordCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop records after truncation point, including later segments and purges")
+    void testTruncate() {
+        // Given - 8 sessions fill the first segment, then a purge and a session in the second
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            for (int i = 0; i < 8; i++) {
+                log.append(1, START, START.plusSeconds(1));
+            }
+            log.purgeTask(1);
+            log.append(2, START, START.plusSeconds(5));
+
+            // When
+            log.truncate(6);
+
+            // Then
+            assertEquals(6, log.getRecordCount());
+            assertEquals(1, log.getSegmentCount());
+            assertEquals(6.0, log.getTotalSeconds(1), 1e-9);
+            assertEquals(0.0, log.getTotalSeconds(2));
+            assertEquals(7, log.append(2, START, START.plusSeconds(1)));
+        }
+        try (WorkSessionLog log = new WorkSessionLog(tempDir, SEGMENT_CAPACITY, false)) {
+            assertFalse(log.isRecovered());
+            assertEquals(7, log.getRecordCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject sessions without end time")
+    void testRejectOpenSession() {
+        try (WorkSessionLog log = new WorkSessionLog(tempDir)) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(1, START, null));
+            assertEquals(0, log.getRecordCount());
+        }
+    }
+}
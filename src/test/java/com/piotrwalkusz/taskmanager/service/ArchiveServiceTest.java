@@ -0,0 +1,200 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.mapper.WorkDayMapper;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.apache.ibatis.session.SqlSession;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FileDatabase
+class ArchiveServiceTest extends BaseServiceTest {
+
+    private static final Instant OLD_DAY = Instant.parse("2020-01-01T10:00:00Z");
+
+    private final ArchiveService archiveService = new ArchiveService(databaseConfig, Duration.ofDays(30), 1);
+
+    @Test
+    @DisplayName("Should move old sessions to archive and preserve totals")
+    void testArchivePreservesTotals() throws Exception {
+        // Given
+        Task task = addTaskWithSessions();
+        assertEquals(7200, workSessionService.getTotalTimeSeconds(task.getId()));
+
+        // When
+        int archived = archiveService.archiveOldSessions();
+
+        // Then
+        assertEquals(2, archived);
+        assertEquals(1, countHotSessions());
+        assertEquals(7200, workSessionService.getTotalTimeSeconds(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Should union archived sessions only for ranges before the horizon")
+    void testRangeQueriesAfterArchive() {
+        // Given
+        Task task = addTaskWithSessions();
+        archiveService.archiveOldSessions();
+        LocalDate oldDay = LocalDate.ofInstant(OLD_DAY, ZoneOffset.UTC);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // When/Then
+        assertEquals(5400, workSessionService.getTimeSecondsInRange(task.getId(), oldDay, oldDay.plusDays(2)));
+        assertEquals(1800, workSessionService.getTimeSecondsInRange(task.getId(), today.minusDays(1), today.plusDays(1)));
+        assertEquals(7200, workSessionService.getTimeSecondsInRange(task.getId(), oldDay, today.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should not archive anything twice")
+    void testArchiveIsIdempotent() {
+        // Given
+        Task task = addTaskWithSessions();
+        archiveService.archiveOldSessions();
+
+        // When
+        int archived = archiveService.archiveOldSessions();
+
+        // Then
+        assertEquals(0, archived);
+        assertEquals(7200, workSessionService.getTotalTimeSeconds(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Should archive each batch in its own write transaction")
+    void testArchivesBatchesInWriteTransactions() {
+        // Given
+        addTaskWithSessions();
+        List<Integer> hotSessionsPerCommit = new ArrayList<>();
+        Runnable removeHook = databaseConfig.addCommitHook(session -> {
+            try (ResultSet resultSet = session.getConnection().createStatement()
+                    .executeQuery("SELECT COUNT(*) FROM work_session")) {
+                hotSessionsPerCommit.add(resultSet.getInt(1));
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // When
+        try {
+            archiveService.archiveOldSessions();
+        } finally {
+            removeHook.run();
+        }
+
+        // Then
+        assertEquals(List.of(2, 1, 1), hotSessionsPerCommit);
+    }
+
+    @Test
+    @DisplayName("Should delete archived sessions of purged tasks with them")
+    void testPurgeDeletesArchivedSessions() {
+        // Given
+        Task purgedTask = addTaskWithSessions();
+        taskService.addTask("Task 2");
+        Long keptTaskId = taskService.getTasksPage(0, 10).get(1).getId();
+        saveSession(keptTaskId, OLD_DAY, OLD_DAY.plus(Duration.ofHours(1)));
+        archiveService.archiveOldSessions();
+        taskService.softDeleteTask(purgedTask.getId());
+
+        // When
+        taskService.cleanupDeletedTasks();
+
+        // Then
+        assertEquals(0, countArchivedSessions(purgedTask.getId()));
+        assertEquals(1, countArchivedSessions(keptTaskId));
+        assertEquals(3600, workSessionService.getTotalTimeSeconds(keptTaskId));
+    }
+
+    @Test
+    @DisplayName("Should backfill work days of sessions archived before work days were tracked")
+    void testBackfillArchivedWorkDays(@TempDir Path tempDir) throws Exception {
+        // Given - database before work_day with one hot session and one archived session crossing midnight
+        Path databasePath = tempDir.resolve("old.db");
+        String url = "jdbc:sqlite:" + databasePath;
+        Flyway.configure().dataSource(url, null, null).locations("classpath:db/migration").target("15").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO task (id, name, queue_order, created_at) VALUES (1, 'Task', 1, '2020-01-01T00:00:00Z')");
+            statement.execute("INSERT INTO work_session (task_id, start_time, end_time) "
+                    + "VALUES (1, '2020-01-02T10:00:00Z', '2020-01-02T11:00:00Z')");
+            statement.execute("ATTACH DATABASE '" + DatabaseConfig.getArchiveDatabasePath(databasePath) + "' AS archive");
+            statement.execute("CREATE TABLE archive.work_session "
+                    + "(id INTEGER PRIMARY KEY, task_id INTEGER NOT NULL, start_time TEXT NOT NULL, end_time TEXT NOT NULL)");
+            statement.execute("INSERT INTO archive.work_session (task_id, start_time, end_time) "
+                    + "VALUES (1, '2020-01-01T23:30:00Z', '2020-01-02T00:30:00Z'), (2, '2020-01-01T10:00:00Z', '2020-01-01T11:00:00Z')");
+        }
+
+        // When
+        List<WorkDay> days;
+        try (DatabaseConfig migrated = new DatabaseConfig(url);
+             SqlSession session = migrated.getSqlSessionFactory().openSession()) {
+            days = session.getMapper(WorkDayMapper.class).getAllWorkDays(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 3));
+        }
+
+        // Then - the session of purged task 2 is skipped
+        assertEquals(List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2)), days.stream().map(WorkDay::getDay).toList());
+        assertEquals(1800, days.get(0).getSeconds(), 0.01);
+        assertEquals(5400, days.get(1).getSeconds(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Should reject horizon shorter than one day")
+    void testRejectShortHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> new ArchiveService(databaseConfig, Duration.ofHours(12)));
+    }
+
+    private Task addTaskWithSessions() {
+        taskService.addTask("Task 1");
+        Task task = taskService.getCurrentTask();
+        Instant now = Instant.now();
+        saveSession(task.getId(), OLD_DAY, OLD_DAY.plus(Duration.ofHours(1)));
+        saveSession(task.getId(), OLD_DAY.plus(Duration.ofDays(1)), OLD_DAY.plus(Duration.ofDays(1)).plus(Duration.ofMinutes(30)));
+        saveSession(task.getId(), now.minus(Duration.ofMinutes(30)), now);
+        return task;
+    }
+
+    private void saveSession(Long taskId, Instant start, Instant end) {
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(taskId)
+                .startTime(start)
+                .endTime(end)
+                .build());
+    }
+
+    private int countArchivedSessions(Long taskId) {
+        return databaseConfig.withArchiveAttached(session -> {
+            try (ResultSet resultSet = session.getConnection().createStatement()
+                    .executeQuery("SELECT COUNT(*) FROM archive.work_session WHERE task_id = " + taskId)) {
+                return resultSet.getInt(1);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private int countHotSessions() throws Exception {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession();
+             ResultSet resultSet = session.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM work_session")) {
+            return resultSet.getInt(1);
+        }
+    }
+}
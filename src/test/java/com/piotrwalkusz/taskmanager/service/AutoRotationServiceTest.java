@@ -0,0 +1,86 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoRotationServiceTest extends BaseServiceTest {
+
+    private TimingWheel timingWheel;
+    private AutoRotationService autoRotationService;
+
+    @BeforeEach
+    void setup() {
+        timingWheel = new TimingWheel(Duration.ofSeconds(1), 64, 4);
+        autoRotationService = new AutoRotationService(timingWheel, taskService);
+    }
+
+    @Test
+    @DisplayName("Should rotate task when its quantum expires")
+    void testRotatesOnExpiry() {
+        // Given
+        Task first = taskService.addTask("Task 1");
+        taskService.addTask("Task 2");
+        autoRotationService.startQuantum(first.getId(), Duration.ofMinutes(25));
+
+        // When / Then
+        timingWheel.advance(25 * 60 - 1);
+        assertEquals(first.getId(), taskService.getCurrentTask().getId());
+        timingWheel.advance(1);
+        assertEquals("Task 2", taskService.getCurrentTask().getName());
+        assertFalse(autoRotationService.hasQuantum(first.getId()));
+    }
+
+    @Test
+    @DisplayName("Should not rotate when quantum is cancelled or replaced")
+    void testCancelAndReplace() {
+        // Given
+        Task first = taskService.addTask("Task 1");
+        Task second = taskService.addTask("Task 2");
+        autoRotationService.startQuantum(first.getId(), Duration.ofSeconds(10));
+        autoRotationService.startQuantum(second.getId(), Duration.ofSeconds(10));
+
+        // When - first paused by user, second restarted later
+        autoRotationService.cancelQuantum(first.getId());
+        timingWheel.advance(5);
+        autoRotationService.startQuantum(second.getId(), Duration.ofSeconds(10));
+        timingWheel.advance(5);
+
+        // Then
+        assertEquals(List.of("Task 1", "Task 2"), taskService.getAllTasks().stream().map(Task::getName).toList());
+        assertEquals(1, autoRotationService.getQuantumCount());
+        assertEquals(1, timingWheel.getPendingCount());
+
+        // When - restarted quantum expires
+        timingWheel.advance(5);
+        assertEquals(List.of("Task 1", "Task 2"), taskService.getAllTasks().stream().map(Task::getName).toList());
+        assertEquals(0, autoRotationService.getQuantumCount());
+    }
+
+    @Test
+    @DisplayName("Should save in-memory work session and rotate in one step")
+    void testRotateWithInMemorySession() {
+        // Given
+        Task first = taskService.addTask("Task 1");
+        taskService.addTask("Task 2");
+        WorkSession activeSession = WorkSession.builder()
+                .taskId(first.getId())
+                .startTime(Instant.now().minusSeconds(90))
+                .build();
+
+        // When
+        taskService.rotateTaskWithPause(first.getId(), activeSession);
+
+        // Then
+        assertNotNull(activeSession.getId());
+        assertNotNull(activeSession.getEndTime());
+        assertEquals("Task 2", taskService.getCurrentTask().getName());
+        assertEquals(90, workSessionService.getTotalTimeSeconds(first.getId()), 1);
+    }
+}
@@ -0,0 +1,151 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.BackupPolicy;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FileDatabase
+class BackupServiceTest extends BaseServiceTest {
+
+    private static final Instant OLD_DAY = Instant.parse("2020-01-01T10:00:00Z");
+
+    private BackupService backupService;
+
+    @BeforeEach
+    void setupBackupService() throws Exception {
+        backupService = new BackupService(databaseConfig, eventBus, BackupPolicy.builder().maxSnapshots(2).build());
+        for (Path snapshot : backupService.listSnapshots()) {
+            Files.delete(snapshot);
+            Files.deleteIfExists(BackupService.getArchiveSnapshotPath(snapshot));
+        }
+    }
+
+    @AfterEach
+    void closeBackupService() {
+        backupService.close();
+    }
+
+    @Test
+    @DisplayName("Should create verified snapshot in background")
+    void testCreateSnapshotAsync() {
+        // Given
+        taskService.addTask("Task 1");
+
+        // When
+        Path snapshot = backupService.createSnapshotAsync().join();
+
+        // Then
+        assertTrue(Files.exists(snapshot));
+        assertTrue(backupService.verifySnapshot(snapshot));
+        assertEquals(List.of(snapshot), backupService.listSnapshots());
+    }
+
+    @Test
+    @DisplayName("Should keep only newest snapshots allowed by policy")
+    void testRetention() {
+        // When
+        Path first = backupService.createSnapshot();
+        Path second = backupService.createSnapshot();
+        Path third = backupService.createSnapshot();
+
+        // Then
+        assertEquals(List.of(third, second), backupService.listSnapshots());
+        assertTrue(Files.exists(BackupService.getArchiveSnapshotPath(second)));
+        assertFalse(Files.exists(BackupService.getArchiveSnapshotPath(first)));
+    }
+
+    @Test
+    @DisplayName("Should restore database content from snapshot")
+    void testRestoreSnapshot() {
+        // Given
+        taskService.addTask("Task 1");
+        Path snapshot = backupService.createSnapshot();
+        Task task = taskService.getCurrentTask();
+        taskService.softDeleteTask(task.getId());
+        taskService.cleanupDeletedTasks();
+        assertNull(taskService.getCurrentTask());
+
+        // When
+        backupService.restoreSnapshot(snapshot);
+
+        // Then
+        assertEquals("Task 1", taskService.getCurrentTask().getName());
+    }
+
+    @Test
+    @DisplayName("Should publish external change after restore")
+    void testRestorePublishesExternalChange() {
+        // Given
+        taskService.addTask("Task 1");
+        Path snapshot = backupService.createSnapshot();
+        taskService.addTask("Task 2");
+        List<DatabaseChangedExternally> events = new ArrayList<>();
+        eventBus.subscribe(DatabaseChangedExternally.class, events::add);
+
+        // When
+        backupService.restoreSnapshot(snapshot);
+
+        // Then
+        assertEquals(1, events.size());
+        assertEquals(1, taskService.getQueueSize());
+    }
+
+    @Test
+    @DisplayName("Should restore archived sessions together with database")
+    void testRestoreArchiveWithSnapshot() {
+        // Given
+        ArchiveService archiveService = new ArchiveService(databaseConfig, Duration.ofDays(30));
+        taskService.addTask("Task 1");
+        Long taskId = taskService.getCurrentTask().getId();
+        saveSession(taskId, OLD_DAY, OLD_DAY.plus(Duration.ofHours(1)));
+        archiveService.archiveOldSessions();
+        Path snapshot = backupService.createSnapshot();
+        saveSession(taskId, OLD_DAY.plus(Duration.ofDays(1)), OLD_DAY.plus(Duration.ofDays(1)).plus(Duration.ofMinutes(30)));
+        archiveService.archiveOldSessions();
+        LocalDate oldDay = LocalDate.ofInstant(OLD_DAY, ZoneOffset.UTC);
+        assertEquals(5400, workSessionService.getTimeSecondsInRange(taskId, oldDay, oldDay.plusDays(2)));
+
+        // When
+        backupService.restoreSnapshot(snapshot);
+
+        // Then
+        assertEquals(3600, workSessionService.getTotalTimeSeconds(taskId));
+        assertEquals(3600, workSessionService.getTimeSecondsInRange(taskId, oldDay, oldDay.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Should refuse to restore corrupted snapshot")
+    void testRejectCorruptedSnapshot() throws Exception {
+        // Given
+        taskService.addTask("Task 1");
+        Path corrupted = databaseConfig.getBackupDirectory().resolve("corrupted.db");
+        Files.createDirectories(corrupted.getParent());
+        Files.writeString(corrupted, "not a database");
+
+        // When/Then
+        assertFalse(backupService.verifySnapshot(corrupted));
+        assertThrows(IllegalArgumentException.class, () -> backupService.restoreSnapshot(corrupted));
+        assertEquals("Task 1", taskService.getCurrentTask().getName());
+    }
+
+    private void saveSession(Long taskId, Instant start, Instant end) {
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(taskId)
+                .startTime(start)
+                .endTime(end)
+                .build());
+    }
+}
@@ -1,40 +1,52 @@
 package com.piotrwalkusz.taskmanager.service;
 
 import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.event.EventBus;
 import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
 import java.util.UUID;
 
 /**
- * Base class for service tests with common database setup and cleanup
+ * Base class for service tests with common database setup and cleanup.
+ * Each test gets a fresh in-memory database; classes marked {@link FileDatabase} share one
+ * database file per class, cleared before each test.
  */
 abstract class BaseServiceTest {
 
     @TempDir
     static Path tempDir;
 
+    protected static EventBus eventBus;
     protected static TaskService taskService;
     protected static WorkSessionService workSessionService;
-    private static DatabaseConfig databaseConfig;
+    protected static DatabaseConfig databaseConfig;
 
     @BeforeAll
-    static void setupDatabase() {
+    static void setupDatabase(TestInfo testInfo) {
+        if (!usesFileDatabase(testInfo.getTestClass().orElseThrow())) {
+            return;
+        }
         // Create single database for all tests in this class
         String testDbFile = tempDir.resolve("test-" + UUID.randomUUID() + ".db").toString();
         String dbUrl = "jdbc:sqlite:" + testDbFile;
 
         // Initialize database and services once
-        databaseConfig = new DatabaseConfig(dbUrl);
-        taskService = new TaskService(databaseConfig);
-        workSessionService = new WorkSessionService(databaseConfig);
+        setupServices(new DatabaseConfig(dbUrl));
     }
 
     @BeforeEach
     void clearDatabase() {
+        if (!usesFileDatabase(getClass())) {
+            setupServices(DatabaseConfig.inMemory());
+            return;
+        }
         // Clear all data before each test
         try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession()) {
             session.getConnection().createStatement().execute("DELETE FROM work_session");
@@ -43,5 +55,25 @@ abstract class BaseServiceTest {
         } catch (Exception e) {
             throw new RuntimeException("Failed to clear database", e);
         }
+        // Drop in-memory state of services built from previous test data
+        eventBus.publish(new DatabaseChangedExternally(0));
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        if (databaseConfig.isInMemory()) {
+            databaseConfig.close();
+        }
+    }
+
+    private static void setupServices(DatabaseConfig config) {
+        databaseConfig = config;
+        eventBus = new EventBus();
+        taskService = new TaskService(databaseConfig, eventBus);
+        workSessionService = new WorkSessionService(databaseConfig, eventBus);
+    }
+
+    private static boolean usesFileDatabase(Class<?> testClass) {
+        return testClass.isAnnotationPresent(FileDatabase.class);
     }
 }
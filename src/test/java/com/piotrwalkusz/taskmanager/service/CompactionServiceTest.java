@@ -0,0 +1,109 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.*;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactionServiceTest extends BaseServiceTest {
+
+    private static final Instant DAY = Instant.parse("2024-03-01T00:00:00Z");
+    private static final Duration MAX_GAP = Duration.ofMinutes(1);
+
+    @Test
+    @DisplayName("Should merge fragments separated by less than the gap and keep totals")
+    void testMergeFragments() throws Exception {
+        // Given
+        Long taskId = addTask("Task 1");
+        saveSession(taskId, "10:00:00", "10:10:00");
+        saveSession(taskId, "10:10:30", "10:20:00");
+        saveSession(taskId, "10:20:10", "10:30:00");
+        saveSession(taskId, "11:00:00", "11:05:00");
+        CompactionService compactionService = new CompactionService(databaseConfig, eventBus, MAX_GAP, 100);
+
+        // When
+        int reclaimed = compactionService.compactAll();
+
+        // Then
+        assertEquals(2, reclaimed);
+        assertEquals(2, countSessions());
+        assertEquals(2, compactionService.getTotalReclaimedRows());
+        assertEquals(2060, workSessionService.getTotalTimeSeconds(taskId));
+        assertEquals(2060, workSessionService.getTimeSecondsInRange(taskId, LocalDate.ofInstant(DAY, ZoneOffset.UTC),
+                LocalDate.ofInstant(DAY, ZoneOffset.UTC).plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should not merge sessions of different tasks or days")
+    void testDoNotMergeAcrossTasksOrDays() throws Exception {
+        // Given
+        Long task1 = addTask("Task 1");
+        Long task2 = addTask("Task 2");
+        saveSession(task1, "10:00:00", "10:10:00");
+        saveSession(task2, "10:10:10", "10:20:00");
+        saveSession(task1, "23:50:00", "23:59:50");
+        saveSession(task1, DAY.plus(Duration.ofDays(1)), DAY.plus(Duration.ofDays(1)).plusSeconds(600));
+
+        // When
+        int reclaimed = new CompactionService(databaseConfig, eventBus, MAX_GAP, 100).compactAll();
+
+        // Then
+        assertEquals(0, reclaimed);
+        assertEquals(4, countSessions());
+    }
+
+    @Test
+    @DisplayName("Should compact in bounded batches without changing totals")
+    void testCompactInBatches() throws Exception {
+        // Given
+        Long taskId = addTask("Task 1");
+        Instant start = DAY.plus(Duration.ofHours(8));
+        for (int i = 0; i < 20; i++) {
+            saveSession(taskId, start, start.plusSeconds(50));
+            start = start.plusSeconds(60);
+        }
+        CompactionService compactionService = new CompactionService(databaseConfig, eventBus, MAX_GAP, 3);
+
+        // When
+        CompactionService.CompactionResult firstBatch = compactionService.compactBatch();
+        int reclaimed = firstBatch.reclaimedRows() + compactionService.compactAll();
+
+        // Then
+        assertEquals(3, firstBatch.scannedSessions());
+        assertFalse(firstBatch.passFinished());
+        assertTrue(reclaimed > 0);
+        assertEquals(20 - reclaimed, countSessions());
+        assertEquals(1000, workSessionService.getTotalTimeSeconds(taskId));
+    }
+
+    private Long addTask(String name) {
+        taskService.addTask(name);
+        return taskService.getAllTasks().get(taskService.getQueueSize() - 1).getId();
+    }
+
+    private void saveSession(Long taskId, String start, String end) {
+        saveSession(taskId, Instant.parse("2024-03-01T" + start + "Z"), Instant.parse("2024-03-01T" + end + "Z"));
+    }
+
+    private void saveSession(Long taskId, Instant start, Instant end) {
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(taskId)
+                .startTime(start)
+                .endTime(end)
+                .build());
+    }
+
+    private int countSessions() throws Exception {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession();
+             ResultSet resultSet = session.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM work_session")) {
+            return resultSet.getInt(1);
+        }
+    }
+}
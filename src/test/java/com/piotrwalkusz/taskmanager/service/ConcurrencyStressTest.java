@@ -0,0 +1,147 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.*;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers services from many threads (and two independent configs, like two app instances)
+ * and checks queue invariants afterwards
+ */
+@FileDatabase
+class ConcurrencyStressTest extends BaseServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 150;
+
+    @Test
+    @DisplayName("Should keep queue consistent under concurrent operations")
+    void testConcurrentOperations() throws Exception {
+        // Given - second config simulates another instance with its own writer lane
+        DatabaseConfig otherInstance = new DatabaseConfig("jdbc:sqlite:" + databaseConfig.getDatabasePath());
+        EventBus otherEventBus = new EventBus();
+        TaskService[] taskServices = {taskService, new TaskService(otherInstance, otherEventBus)};
+        WorkSessionService[] workSessionServices = {workSessionService, new WorkSessionService(otherInstance, otherEventBus)};
+
+        AtomicInteger addedTasks = new AtomicInteger();
+        AtomicInteger savedSessions = new AtomicInteger();
+        AtomicInteger publishedEvents = new AtomicInteger();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, event -> publishedEvents.incrementAndGet());
+        otherEventBus.subscribe(DomainEvent.class, event -> publishedEvents.incrementAndGet());
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(threadIndex);
+                    TaskService tasks = taskServices[threadIndex % 2];
+                    WorkSessionService sessions = workSessionServices[threadIndex % 2];
+                    try {
+                        start.await();
+                        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                            Task current = tasks.getCurrentTask();
+                            switch (random.nextInt(7)) {
+                                case 0, 1 -> {
+                                    tasks.addTask("Task " + threadIndex + "-" + i);
+                                    addedTasks.incrementAndGet();
+                                }
+                                case 2 -> {
+                                    if (current != null) {
+                                        tasks.rotateTask(current.getId());
+                                    }
+                                }
+                                case 3 -> {
+                                    if (current != null) {
+                                        tasks.updateTaskName(current.getId(), "Renamed " + threadIndex + "-" + i);
+                                    }
+                                }
+                                case 4 -> {
+                                    if (current != null) {
+                                        tasks.softDeleteTask(current.getId());
+                                    } else {
+                                        tasks.undoDelete();
+                                    }
+                                }
+                                case 5 -> {
+                                    if (current != null) {
+                                        Instant now = Instant.now();
+                                        sessions.saveWorkSession(WorkSession.builder()
+                                                .taskId(current.getId())
+                                                .startTime(now.minusSeconds(60))
+                                                .endTime(now)
+                                                .build());
+                                        savedSessions.incrementAndGet();
+                                    }
+                                }
+                                default -> {
+                                    tasks.getQueueSize();
+                                    if (current != null) {
+                                        sessions.getTotalTimeSeconds(current.getId());
+                                    }
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+            unsubscribe.run();
+        }
+
+        // Then
+        assertTrue(errors.isEmpty(), () -> "Concurrent operations failed: " + errors);
+
+        List<Task> queue = taskService.getAllTasks();
+        for (int i = 1; i < queue.size(); i++) {
+            assertTrue(queue.get(i - 1).getQueueOrder() < queue.get(i).getQueueOrder(), "Queue order must be strictly increasing");
+        }
+        assertEquals(queue.size(), taskService.getQueueSize());
+        assertEquals(addedTasks.get(), queryInt("SELECT COUNT(*) FROM task"));
+        assertEquals(addedTasks.get() - queue.size(), queryInt("SELECT COUNT(*) FROM task WHERE is_deleted = 1"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM (SELECT queue_order FROM task GROUP BY queue_order HAVING COUNT(*) > 1)"));
+        assertEquals(savedSessions.get(), queryInt("SELECT COUNT(*) FROM work_session"));
+        assertTrue(publishedEvents.get() >= addedTasks.get() + savedSessions.get());
+    }
+
+    private int queryInt(String sql) throws Exception {
+        try (SqlSession session = databaseConfig.getSqlSessionFactory().openSession();
+             Statement statement = session.getConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.getInt(1);
+        }
+    }
+}
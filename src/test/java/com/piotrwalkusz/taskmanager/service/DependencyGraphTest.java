@@ -0,0 +1,105 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.TaskDependency;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+
+    @Test
+    @DisplayName("Should block task until all prerequisites leave the queue")
+    void testUnmetPrerequisites() {
+        // Given - task 3 depends on 1 and 2, task 2 depends on 1
+        DependencyGraph graph = new DependencyGraph(List.of(1L, 2L, 3L), List.of(
+                new TaskDependency(3L, 1L), new TaskDependency(3L, 2L), new TaskDependency(2L, 1L)));
+
+        // Then
+        assertTrue(graph.isReady(1L));
+        assertFalse(graph.isReady(2L));
+        assertFalse(graph.isReady(3L));
+        assertTrue(graph.hasBlockedTasks());
+
+        // When / Then
+        graph.taskRemoved(1L);
+        assertTrue(graph.isReady(2L));
+        assertFalse(graph.isReady(3L));
+
+        graph.taskRemoved(2L);
+        assertTrue(graph.isReady(3L));
+        assertFalse(graph.hasBlockedTasks());
+    }
+
+    @Test
+    @DisplayName("Should block dependents again when prerequisite is restored")
+    void testRestore() {
+        // Given
+        DependencyGraph graph = new DependencyGraph(List.of(1L, 2L), List.of(new TaskDependency(2L, 1L)));
+        graph.taskRemoved(1L);
+        graph.taskRemoved(2L);
+
+        // When
+        graph.taskRestored(1L);
+        graph.taskRestored(2L);
+        graph.taskRestored(2L);
+
+        // Then
+        assertFalse(graph.isReady(2L));
+        assertTrue(graph.hasBlockedTasks());
+    }
+
+    @Test
+    @DisplayName("Should not count deleted prerequisite and forget purged task")
+    void testDeletedAndPurgedPrerequisites() {
+        // Given - task 1 is deleted (not in queue)
+        DependencyGraph graph = new DependencyGraph(List.of(2L, 3L), List.of());
+
+        // When
+        graph.dependencyAdded(2L, 1L);
+        graph.dependencyAdded(3L, 2L);
+        graph.taskRemoved(2L);
+        graph.taskPurged(2L);
+
+        // Then
+        assertTrue(graph.isReady(2L));
+        assertTrue(graph.isReady(3L));
+        assertEquals(Set.of(), graph.getPrerequisites(3L));
+        assertFalse(graph.wouldCreateCycle(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Should track removed dependency and ignore repeated updates")
+    void testAddAndRemoveDependency() {
+        // Given
+        DependencyGraph graph = new DependencyGraph(List.of(1L, 2L), List.of());
+
+        // When / Then
+        graph.dependencyAdded(2L, 1L);
+        graph.dependencyAdded(2L, 1L);
+        assertFalse(graph.isReady(2L));
+        assertEquals(Set.of(1L), graph.getPrerequisites(2L));
+
+        graph.dependencyRemoved(2L, 1L);
+        assertTrue(graph.isReady(2L));
+        graph.dependencyRemoved(2L, 1L);
+        assertTrue(graph.isReady(2L));
+    }
+
+    @Test
+    @DisplayName("Should detect cycles through any path, including deleted tasks")
+    void testCycleDetection() {
+        // Given - 4 -> 3 -> 2 -> 1, with 2 deleted
+        DependencyGraph graph = new DependencyGraph(List.of(1L, 3L, 4L), List.of(
+                new TaskDependency(2L, 1L), new TaskDependency(3L, 2L), new TaskDependency(4L, 3L)));
+
+        // Then
+        assertTrue(graph.wouldCreateCycle(1L, 4L));
+        assertTrue(graph.wouldCreateCycle(1L, 2L));
+        assertTrue(graph.wouldCreateCycle(3L, 4L));
+        assertFalse(graph.wouldCreateCycle(4L, 1L));
+        assertFalse(graph.wouldCreateCycle(1L, 5L));
+    }
+}
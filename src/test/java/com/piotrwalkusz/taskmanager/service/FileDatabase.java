@@ -0,0 +1,15 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks service test class needing a database file (archive, backups, snapshots, second instance)
+ * instead of a fresh in-memory database per test, see {@link BaseServiceTest}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@interface FileDatabase {
+}
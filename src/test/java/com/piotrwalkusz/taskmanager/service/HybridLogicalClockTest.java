@@ -0,0 +1,57 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridLogicalClockTest {
+
+    private final AtomicLong wallClock = new AtomicLong(1000);
+    private final HybridLogicalClock clock = new HybridLogicalClock(wallClock::get, 0);
+
+    @Test
+    @DisplayName("Should follow wall clock and count when it does not advance")
+    void testNow() {
+        // When
+        long first = clock.now();
+        long second = clock.now();
+        wallClock.set(2000);
+        long third = clock.now();
+
+        // Then
+        assertEquals(1000, HybridLogicalClock.toMillis(first));
+        assertEquals(first + 1, second);
+        assertEquals(2000L << HybridLogicalClock.LOGICAL_BITS, third);
+    }
+
+    @Test
+    @DisplayName("Should issue values after observed value even when wall clock is behind")
+    void testObserve() {
+        // Given - other node is 5 seconds ahead
+        long remote = (6000L << HybridLogicalClock.LOGICAL_BITS) + 3;
+
+        // When
+        clock.observe(remote);
+        long next = clock.now();
+        wallClock.set(7000);
+
+        // Then
+        assertEquals(remote + 1, next);
+        assertEquals(7000, HybridLogicalClock.toMillis(clock.now()));
+    }
+
+    @Test
+    @DisplayName("Should never go back after restart with wall clock behind")
+    void testRestart() {
+        // Given
+        long last = (5000L << HybridLogicalClock.LOGICAL_BITS) + 10;
+
+        // When
+        HybridLogicalClock restarted = new HybridLogicalClock(wallClock::get, last);
+
+        // Then
+        assertEquals(last + 1, restarted.now());
+    }
+}
@@ -0,0 +1,129 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.testdata.SyntheticDataGenerator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency budgets of user-facing operations on a seeded database with a 100k task queue and
+ * three years of sessions. Run with: mvn test -Pperformance
+ */
+@Tag("performance")
+class LatencyBudgetTest {
+
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 200;
+    private static final Duration READ_BUDGET = Duration.ofMillis(10);
+    private static final Duration WRITE_BUDGET = Duration.ofMillis(50);
+    // Counting walks the covering queue index, so it grows with the queue
+    private static final Duration COUNT_BUDGET = Duration.ofMillis(30);
+    // Creation takes 0.1-0.2 ms at the median; the tail is two native SQLite opens being preempted
+    private static final Duration CREATE_DATABASE_BUDGET = Duration.ofMillis(5);
+    // Starvation report counts starved tasks and sums queue time over the covering last-worked index
+    private static final Duration REPORT_BUDGET = Duration.ofMillis(100);
+
+    @TempDir
+    static Path tempDir;
+
+    private static SyntheticDataGenerator.Dataset dataset;
+    private static TaskService taskService;
+    private static WorkSessionService workSessionService;
+
+    @BeforeAll
+    static void seedDatabase() {
+        DatabaseConfig databaseConfig = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("seeded.db"));
+        dataset = new SyntheticDataGenerator(42).generate(databaseConfig, 100_000, 3 * 365, 30);
+        EventBus eventBus = new EventBus();
+        taskService = new TaskService(databaseConfig, eventBus);
+        workSessionService = new WorkSessionService(databaseConfig, eventBus);
+    }
+
+    @Test
+    @DisplayName("Should read queue within budget")
+    void testQueueReads() {
+        assertTrue(dataset.taskCount() >= 100_000 * 0.9, "Unexpected dataset: " + dataset);
+
+        assertWithinBudget("getCurrentTask", READ_BUDGET, () -> taskService.getCurrentTask());
+        assertWithinBudget("getQueueSize", COUNT_BUDGET, () -> taskService.getQueueSize());
+        assertWithinBudget("hasDeletedTask", READ_BUDGET, () -> taskService.hasDeletedTask());
+        assertWithinBudget("getTasksAfter", READ_BUDGET, () -> taskService.getTasksAfter(50_000, 50));
+        assertWithinBudget("getTasksPage", READ_BUDGET, () -> taskService.getTasksPage(0, 50));
+    }
+
+    @Test
+    @DisplayName("Should read work time of current task within budget")
+    void testTimeReads() {
+        Long taskId = taskService.getCurrentTask().getId();
+
+        assertWithinBudget("getTotalTimeSeconds", READ_BUDGET, () -> workSessionService.getTotalTimeSeconds(taskId));
+        assertWithinBudget("getDailyTimeSeconds", READ_BUDGET, () -> workSessionService.getDailyTimeSeconds(taskId));
+        assertWithinBudget("getTimeSecondsInRange", READ_BUDGET,
+                () -> workSessionService.getTimeSecondsInRange(taskId,
+                        LocalDate.ofInstant(dataset.from(), ZoneOffset.UTC), LocalDate.ofInstant(dataset.to(), ZoneOffset.UTC)));
+    }
+
+    @Test
+    @DisplayName("Should answer starvation questions within budget")
+    void testStarvationReads() {
+        Long taskId = taskService.getCurrentTask().getId();
+
+        assertWithinBudget("getTaskActivity", READ_BUDGET, () -> workSessionService.getTaskActivity(taskId));
+        assertWithinBudget("getStarvationReport", REPORT_BUDGET,
+                () -> workSessionService.getStarvationReport(Duration.ofDays(7), 20));
+        assertWithinBudget("boostStarvedTask", WRITE_BUDGET, () -> taskService.boostStarvedTask(Duration.ofDays(7)));
+    }
+
+    @Test
+    @DisplayName("Should create in-memory database within budget")
+    void testInMemoryDatabaseCreation() {
+        assertWithinBudget("DatabaseConfig.inMemory", CREATE_DATABASE_BUDGET, () -> DatabaseConfig.inMemory().close());
+    }
+
+    @Test
+    @DisplayName("Should write within budget")
+    void testWrites() {
+        assertWithinBudget("addTask", WRITE_BUDGET, () -> taskService.addTask("New task"));
+        assertWithinBudget("rotateTaskWithPause", WRITE_BUDGET, () -> {
+            Task task = taskService.getCurrentTask();
+            Instant now = Instant.now();
+            taskService.rotateTaskWithPause(task.getId(),
+                    WorkSession.builder().taskId(task.getId()).startTime(now.minusSeconds(60)).build());
+        });
+        assertWithinBudget("saveWorkSession", WRITE_BUDGET, () -> {
+            Instant now = Instant.now();
+            workSessionService.saveWorkSession(WorkSession.builder()
+                    .taskId(taskService.getCurrentTask().getId()).startTime(now.minusSeconds(60)).endTime(now).build());
+        });
+        assertWithinBudget("softDeleteTask", WRITE_BUDGET,
+                () -> taskService.softDeleteTask(taskService.getCurrentTask().getId()));
+    }
+
+    private static void assertWithinBudget(String operation, Duration budget, Runnable action) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            action.run();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        Duration p95 = Duration.ofNanos(nanos[MEASURED_RUNS * 95 / 100]);
+        assertTrue(p95.compareTo(budget) <= 0,
+                operation + " p95 " + p95.toNanos() / 1000 + " us exceeds budget of " + budget.toMillis() + " ms");
+    }
+}
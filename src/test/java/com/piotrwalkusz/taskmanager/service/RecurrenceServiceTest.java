@@ -0,0 +1,133 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.model.RecurrenceRule;
+import com.piotrwalkusz.taskmanager.model.Task;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceServiceTest extends BaseServiceTest {
+
+    private static final Instant MONDAY_9AM = Instant.parse("2026-01-05T09:00:00Z");
+
+    private RecurrenceService recurrenceService;
+    private final List<DomainEvent.RecurringTasksMaterialized> events = new ArrayList<>();
+
+    @BeforeEach
+    void setupRecurrence() {
+        recurrenceService = new RecurrenceService(databaseConfig, eventBus);
+        eventBus.subscribe(DomainEvent.RecurringTasksMaterialized.class, events::add);
+    }
+
+    @AfterEach
+    void closeRecurrence() {
+        recurrenceService.close();
+    }
+
+    @Test
+    @DisplayName("Should add task to queue only when rule is due")
+    void testMaterializesWhenDue() {
+        // Given
+        RecurrenceRule rule = recurrenceService.addRule("Water plants", Duration.ofDays(1), MONDAY_9AM);
+
+        // When
+        List<Task> early = recurrenceService.materializeDue(MONDAY_9AM.minusSeconds(1));
+        List<Task> due = recurrenceService.materializeDue(MONDAY_9AM);
+
+        // Then
+        assertEquals(List.of(), early);
+        assertEquals(1, due.size());
+        assertEquals("Water plants", taskService.getCurrentTask().getName());
+        assertEquals(1, taskService.getQueueSize());
+        assertEquals(MONDAY_9AM.plus(Duration.ofDays(1)), recurrenceService.getRule(rule.getId()).getNextDueAt());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    @DisplayName("Should add one instance per rule after weeks closed and keep the schedule")
+    void testCatchUpCoalescesMissedOccurrences() {
+        // Given
+        RecurrenceRule daily = recurrenceService.addRule("Water plants", Duration.ofDays(1), MONDAY_9AM);
+        RecurrenceRule weekly = recurrenceService.addRule("Take out trash", Duration.ofDays(7), MONDAY_9AM.plusSeconds(3600));
+        taskService.addTask("Existing");
+
+        // When
+        Instant threeWeeksLater = MONDAY_9AM.plus(Duration.ofDays(21)).plusSeconds(1800);
+        List<Task> added = recurrenceService.materializeDue(threeWeeksLater);
+
+        // Then
+        assertEquals(List.of("Water plants", "Take out trash"), added.stream().map(Task::getName).toList());
+        assertEquals(3, taskService.getQueueSize());
+        assertEquals("Existing", taskService.getCurrentTask().getName());
+        assertEquals(MONDAY_9AM.plus(Duration.ofDays(22)), recurrenceService.getRule(daily.getId()).getNextDueAt());
+        assertEquals(MONDAY_9AM.plus(Duration.ofDays(21)).plusSeconds(3600),
+                recurrenceService.getRule(weekly.getId()).getNextDueAt());
+        assertEquals(List.of(), recurrenceService.materializeDue(threeWeeksLater));
+    }
+
+    @Test
+    @DisplayName("Should materialize more rules than one batch in a single call and event")
+    void testMaterializesManyRules() {
+        // Given
+        for (int i = 0; i < 450; i++) {
+            recurrenceService.addRule("Chore " + i, Duration.ofHours(1), MONDAY_9AM.plusSeconds(i));
+        }
+
+        // When
+        List<Task> added = recurrenceService.materializeDue(MONDAY_9AM.plusSeconds(3599));
+
+        // Then
+        assertEquals(450, added.size());
+        assertEquals(450, taskService.getQueueSize());
+        assertEquals(1, events.size());
+        assertEquals(450, events.get(0).count());
+        assertEquals(MONDAY_9AM.plusSeconds(3600), recurrenceService.getRules().get(0).getNextDueAt());
+    }
+
+    @Test
+    @DisplayName("Should not materialize deleted rule")
+    void testDeletedRule() {
+        // Given
+        RecurrenceRule rule = recurrenceService.addRule("Water plants", Duration.ofDays(1), MONDAY_9AM);
+
+        // When
+        recurrenceService.deleteRule(rule.getId());
+
+        // Then
+        assertEquals(List.of(), recurrenceService.materializeDue(MONDAY_9AM.plus(Duration.ofDays(3))));
+        assertNull(recurrenceService.getRule(rule.getId()));
+        assertEquals(List.of(), recurrenceService.getRules());
+    }
+
+    @Test
+    @DisplayName("Should reject interval shorter than one second")
+    void testRejectsShortInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> recurrenceService.addRule("Too often", Duration.ofMillis(500), MONDAY_9AM));
+    }
+
+    @Test
+    @DisplayName("Should materialize overdue rules from timer after start")
+    void testTimerMaterializesOverdueRules() throws InterruptedException {
+        // Given
+        recurrenceService.addRule("Water plants", Duration.ofDays(1), Instant.now().minus(Duration.ofDays(10)));
+        CountDownLatch materialized = new CountDownLatch(1);
+        eventBus.subscribe(DomainEvent.RecurringTasksMaterialized.class, event -> materialized.countDown());
+
+        // When
+        recurrenceService.start();
+
+        // Then
+        assertTrue(materialized.await(10, TimeUnit.SECONDS));
+        assertEquals(1, taskService.getQueueSize());
+        assertTrue(recurrenceService.getRules().get(0).getNextDueAt().isAfter(Instant.now()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.ActiveSessionJournal;
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRecoveryServiceTest extends BaseServiceTest {
+
+    private SessionRecoveryService sessionRecoveryService;
+    private ActiveSessionJournal journal;
+
+    @BeforeEach
+    void setupJournal() {
+        sessionRecoveryService = new SessionRecoveryService(databaseConfig, eventBus);
+        journal = new ActiveSessionJournal(tempDir.resolve(UUID.randomUUID() + ".session.journal"), Duration.ofSeconds(15));
+    }
+
+    @AfterEach
+    void closeJournal() {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Should save orphaned session up to last heartbeat and clear journal")
+    void testRecoverSession() {
+        // Given
+        Task task = taskService.addTask("Write report");
+        Instant start = Instant.now().minusSeconds(600);
+        journal.start(task.getId(), start);
+        journal.heartbeat(start.plusSeconds(300));
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.WorkSessionSaved.class, events::add);
+
+        // When
+        WorkSession recovered = sessionRecoveryService.recoverOrphanedSession(journal);
+        unsubscribe.run();
+
+        // Then
+        assertNotNull(recovered);
+        assertEquals(300, workSessionService.getTotalTimeSeconds(task.getId()));
+        assertEquals(List.of(new DomainEvent.WorkSessionSaved(recovered)), events);
+        assertNull(journal.getOrphanedSession());
+        assertNull(sessionRecoveryService.recoverOrphanedSession(journal));
+    }
+
+    @Test
+    @DisplayName("Should not save session twice when it was saved before journal was cleared")
+    void testSkipSavedSession() {
+        // Given
+        Task task = taskService.addTask("Write report");
+        Instant start = Instant.now().minusSeconds(600);
+        journal.start(task.getId(), start);
+        journal.heartbeat(start.plusSeconds(290));
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(task.getId()).startTime(start).endTime(start.plusSeconds(300)).build());
+
+        // When
+        WorkSession recovered = sessionRecoveryService.recoverOrphanedSession(journal);
+
+        // Then
+        assertNull(recovered);
+        assertEquals(300, workSessionService.getTotalTimeSeconds(task.getId()));
+        assertNull(journal.getOrphanedSession());
+    }
+
+    @Test
+    @DisplayName("Should drop orphaned session of purged task or without heartbeat")
+    void testSkipInvalidSession() {
+        // Given
+        Task task = taskService.addTask("Write report");
+        journal.start(-1L, Instant.now().minusSeconds(60));
+        journal.heartbeat(Instant.now());
+
+        // When / Then
+        assertNull(sessionRecoveryService.recoverOrphanedSession(journal));
+        assertNull(journal.getOrphanedSession());
+
+        journal.start(task.getId(), Instant.now());
+        assertNull(sessionRecoveryService.recoverOrphanedSession(journal));
+        assertEquals(0, workSessionService.getTotalTimeSeconds(task.getId()));
+    }
+}
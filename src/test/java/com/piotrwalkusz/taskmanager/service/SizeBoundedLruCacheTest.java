@@ -0,0 +1,48 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeBoundedLruCacheTest {
+
+    @Test
+    @DisplayName("Should evict least recently used values when total size is exceeded")
+    void testEviction() {
+        // Given
+        SizeBoundedLruCache<Integer, String> cache = new SizeBoundedLruCache<>(10, String::length);
+        cache.put(1, "aaaa");
+        cache.put(2, "bbbb");
+        cache.get(1);
+
+        // When
+        cache.put(3, "cccc");
+
+        // Then
+        assertEquals("aaaa", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("cccc", cache.get(3));
+        assertEquals(8, cache.getWeight());
+    }
+
+    @Test
+    @DisplayName("Should replace value and skip values larger than cache")
+    void testReplaceAndOversized() {
+        // Given
+        SizeBoundedLruCache<Integer, String> cache = new SizeBoundedLruCache<>(10, String::length);
+        cache.put(1, "aaaa");
+
+        // When
+        cache.put(1, "aaaaaaaa");
+        cache.put(2, "bbbbbbbbbbbb");
+
+        // Then
+        assertEquals("aaaaaaaa", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(1, cache.size());
+        assertEquals(8, cache.getWeight());
+
+        cache.remove(1);
+        assertEquals(0, cache.getWeight());
+    }
+}
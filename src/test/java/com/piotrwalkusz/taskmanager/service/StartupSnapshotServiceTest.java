@@ -0,0 +1,117 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.StartupSnapshotFile;
+import com.piotrwalkusz.taskmanager.model.StartupSnapshot;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FileDatabase
+class StartupSnapshotServiceTest extends BaseServiceTest {
+
+    private static StartupSnapshotService startupSnapshotService;
+
+    @BeforeAll
+    static void setupService() {
+        startupSnapshotService = new StartupSnapshotService(databaseConfig, taskService, workSessionService);
+    }
+
+    @Test
+    @DisplayName("Should write snapshot and read it back")
+    void testRoundTrip() {
+        // Given
+        Task task = taskService.addTask("Write report");
+        taskService.addTask("Call John");
+        taskService.softDeleteTask(taskService.addTask("Old task").getId());
+        Instant now = Instant.now();
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(task.getId()).startTime(now.minusSeconds(120)).endTime(now).build());
+
+        // When
+        startupSnapshotService.save();
+        StartupSnapshot snapshot = StartupSnapshotFile.read(databaseConfig.getStartupSnapshotPath());
+
+        // Then
+        assertNotNull(snapshot);
+        assertEquals(task.getId(), snapshot.getCurrentTaskId());
+        assertEquals("Write report", snapshot.getCurrentTaskName());
+        assertEquals(2, snapshot.getQueueSize());
+        assertTrue(snapshot.isHasDeletedTask());
+        assertEquals(120, snapshot.getTotalSeconds());
+        assertEquals(startupSnapshotService.getChangeVersion(), snapshot.getChangeVersion());
+        assertTrue(startupSnapshotService.isCurrent(snapshot));
+    }
+
+    @Test
+    @DisplayName("Should detect stale snapshot after any committed change")
+    void testStaleAfterChange() {
+        // Given
+        Task task = taskService.addTask("Task");
+        StartupSnapshot snapshot = startupSnapshotService.capture();
+
+        // When
+        taskService.addTag(task.getId(), "@home");
+
+        // Then
+        assertFalse(startupSnapshotService.isCurrent(snapshot));
+        assertTrue(startupSnapshotService.isCurrent(startupSnapshotService.capture()));
+    }
+
+    @Test
+    @DisplayName("Should detect snapshot of another day as stale")
+    void testStaleOnAnotherDay() {
+        // Given
+        StartupSnapshot snapshot = startupSnapshotService.capture();
+
+        // When
+        snapshot.setDay(LocalDate.now(ZoneOffset.UTC).minusDays(1));
+
+        // Then
+        assertFalse(startupSnapshotService.isCurrent(snapshot));
+    }
+
+    @Test
+    @DisplayName("Should read empty queue snapshot")
+    void testEmptyQueue() {
+        // When
+        startupSnapshotService.save();
+        StartupSnapshot snapshot = StartupSnapshotFile.read(databaseConfig.getStartupSnapshotPath());
+
+        // Then
+        assertNotNull(snapshot);
+        assertNull(snapshot.getCurrentTaskId());
+        assertNull(snapshot.getCurrentTaskName());
+        assertEquals(0, snapshot.getQueueSize());
+    }
+
+    @Test
+    @DisplayName("Should ignore missing, truncated and corrupt snapshot files")
+    void testInvalidFiles() throws IOException {
+        // Given
+        taskService.addTask("Task");
+        startupSnapshotService.save();
+        Path file = databaseConfig.getStartupSnapshotPath();
+        byte[] bytes = Files.readAllBytes(file);
+
+        // When / Then
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(StartupSnapshotFile.read(file));
+
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(file, bytes);
+        assertNull(StartupSnapshotFile.read(file));
+
+        Files.delete(file);
+        assertNull(StartupSnapshotFile.read(file));
+    }
+}
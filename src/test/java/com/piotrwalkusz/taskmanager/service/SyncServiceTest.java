@@ -0,0 +1,255 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.event.EventBus;
+import com.piotrwalkusz.taskmanager.model.SyncChange;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncServiceTest extends BaseServiceTest {
+
+    @TempDir
+    Path sharedFolder;
+
+    // First machine uses the services of the base class, second machine its own in-memory database
+    private final AtomicLong firstClock = new AtomicLong(1000);
+    private final AtomicLong secondClock = new AtomicLong(1000);
+    private SyncService firstSync;
+    private DatabaseConfig secondDatabase;
+    private TaskService secondTaskService;
+    private WorkSessionService secondWorkSessionService;
+    private SyncService secondSync;
+
+    @BeforeEach
+    void setupMachines() {
+        firstSync = new SyncService(databaseConfig, eventBus, sharedFolder, firstClock::get);
+        secondDatabase = DatabaseConfig.inMemory();
+        EventBus secondEventBus = new EventBus();
+        secondTaskService = new TaskService(secondDatabase, secondEventBus);
+        secondWorkSessionService = new WorkSessionService(secondDatabase, secondEventBus);
+        secondSync = new SyncService(secondDatabase, secondEventBus, sharedFolder, secondClock::get);
+    }
+
+    @AfterEach
+    void closeSecondMachine() {
+        secondDatabase.close();
+    }
+
+    @Test
+    @DisplayName("Should copy tasks, tags and work sessions to other machine only once")
+    void testSyncsChanges() {
+        // Given
+        Task report = taskService.addTask("Write report");
+        taskService.addTag(report.getId(), "@office");
+        Task call = taskService.addTask("Call");
+        Instant start = Instant.parse("2026-01-05T10:00:00.123456Z");
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(report.getId())
+                .startTime(start)
+                .endTime(start.plusSeconds(1500))
+                .build());
+
+        // When
+        int exported = firstSync.exportChanges();
+        int imported = secondSync.importChanges();
+
+        // Then
+        assertEquals(4, exported);
+        assertEquals(4, imported);
+        assertEquals(List.of("Write report", "Call"), names(secondTaskService));
+        Long copiedReportId = secondTaskService.getCurrentTask().getId();
+        assertEquals(List.of("@office"), secondTaskService.getTags(copiedReportId));
+        assertEquals(1500, secondWorkSessionService.getTotalTimeSeconds(copiedReportId));
+
+        assertEquals(0, firstSync.exportChanges());
+        assertEquals(0, secondSync.importChanges());
+        assertEquals(0, firstSync.importChanges()); // Own changes are never imported
+
+        // Changes made on the second machine about copied tasks come back to the first one
+        secondTaskService.updateTaskName(copiedReportId, "Write final report");
+        secondTaskService.removeTag(copiedReportId, "@office");
+        secondSync.exportChanges();
+        assertEquals(2, firstSync.importChanges());
+        assertEquals(List.of("Write final report", "Call"), names(taskService));
+        assertEquals(List.of(), taskService.getTags(report.getId()));
+        assertEquals(call.getId(), taskService.getAllTasks().get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Should export only changes after watermark into a compact file")
+    void testExportsDeltas() throws Exception {
+        // Given
+        Task task = taskService.addTask("Task");
+        firstSync.exportChanges();
+        long watermark = firstSync.getChangesAfter(0).get(0).getSeq();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            taskService.rotateTask(task.getId());
+        }
+        firstSync.exportChanges();
+
+        // Then
+        List<SyncChange> changes = firstSync.getChangesAfter(watermark);
+        assertEquals(100, changes.size());
+        assertTrue(changes.stream().allMatch(change -> change.getType() == SyncChange.Type.ROTATE));
+        Path deltaFile = sharedFolder.resolve(firstSync.getNodeId() + "-" + changes.get(99).getSeq() + SyncChangeFile.EXTENSION);
+        assertTrue(Files.size(deltaFile) < 8 * 100, "Change file too large: " + Files.size(deltaFile));
+        assertEquals(2, SyncChangeFile.list(sharedFolder).size());
+
+        assertEquals(101, secondSync.importChanges());
+        Long copiedId = secondTaskService.getCurrentTask().getId();
+        assertEquals(100, secondWorkSessionService.getTaskActivity(copiedId).getRotationCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the later rename on both machines whatever order they import in")
+    void testRenameConflict() {
+        // Given
+        Task task = taskService.addTask("Task");
+        syncBothWays();
+        Long copiedId = secondTaskService.getCurrentTask().getId();
+
+        // When - renamed concurrently, the second machine later
+        firstClock.set(2000);
+        taskService.updateTaskName(task.getId(), "First name");
+        secondClock.set(3000);
+        secondTaskService.updateTaskName(copiedId, "Second name");
+        syncBothWays();
+
+        // Then
+        assertEquals("Second name", taskService.getCurrentTask().getName());
+        assertEquals("Second name", secondTaskService.getCurrentTask().getName());
+    }
+
+    @Test
+    @DisplayName("Should converge to the same queue order after concurrent rotations and moves")
+    void testQueueOrderConverges() {
+        // Given
+        taskService.addTask("Task 1");
+        taskService.addTask("Task 2");
+        taskService.addTask("Task 3");
+        syncBothWays();
+        List<Task> first = taskService.getAllTasks();
+        List<Task> second = secondTaskService.getAllTasks();
+
+        // When - each machine reorders on its own
+        firstClock.set(2000);
+        taskService.rotateTask(first.get(0).getId());
+        secondClock.set(1500);
+        secondTaskService.moveTaskToFront(second.get(2).getId());
+        secondClock.set(2500);
+        secondTaskService.rotateTask(second.get(1).getId());
+        syncBothWays();
+
+        // Then - ordered by last move: moved to front, then moved to end at 2000, then at 2500
+        assertEquals(List.of("Task 3", "Task 1", "Task 2"), names(taskService));
+        assertEquals(List.of("Task 3", "Task 1", "Task 2"), names(secondTaskService));
+    }
+
+    @Test
+    @DisplayName("Should resolve delete against restore by clock and let purge win over later changes")
+    void testDeleteConflicts() {
+        // Given
+        Task kept = taskService.addTask("Kept");
+        Task purged = taskService.addTask("Purged");
+        syncBothWays();
+        List<Task> second = secondTaskService.getAllTasks();
+
+        // When - first machine deletes both, purging one; second machine later renames both
+        firstClock.set(2000);
+        taskService.softDeleteTask(purged.getId());
+        taskService.cleanupDeletedTasks();
+        taskService.softDeleteTask(kept.getId());
+        secondClock.set(3000);
+        secondTaskService.updateTaskName(second.get(0).getId(), "Kept renamed");
+        secondTaskService.updateTaskName(second.get(1).getId(), "Purged renamed");
+        secondTaskService.softDeleteTask(second.get(0).getId());
+        secondTaskService.undoDelete();
+        syncBothWays();
+
+        // Then - restore at 3000 beats delete at 2000, purge beats everything
+        assertEquals(List.of("Kept renamed"), names(taskService));
+        assertEquals(List.of("Kept renamed"), names(secondTaskService));
+        assertFalse(taskService.hasDeletedTask());
+        assertFalse(secondTaskService.hasDeletedTask());
+    }
+
+    @Test
+    @DisplayName("Should match tasks of the starting database copy by ID")
+    void testBaselineTasks() {
+        // Given - both databases copied from one with a task, before sync was enabled
+        DatabaseConfig firstCopy = DatabaseConfig.inMemory();
+        DatabaseConfig secondCopy = DatabaseConfig.inMemory();
+        try {
+            EventBus firstEvents = new EventBus();
+            EventBus secondEvents = new EventBus();
+            TaskService firstTasks = new TaskService(firstCopy, firstEvents);
+            TaskService secondTasks = new TaskService(secondCopy, secondEvents);
+            Task task = firstTasks.addTask("Shared");
+            secondTasks.addTask("Shared");
+            SyncService first = new SyncService(firstCopy, firstEvents, sharedFolder, firstClock::get);
+            SyncService second = new SyncService(secondCopy, secondEvents, sharedFolder, secondClock::get);
+
+            // When
+            firstTasks.updateTaskName(task.getId(), "Renamed");
+            firstTasks.addTask("New");
+            first.exportChanges();
+            second.importChanges();
+
+            // Then
+            assertEquals(List.of("Renamed", "New"), names(secondTasks));
+        } finally {
+            firstCopy.close();
+            secondCopy.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should log changes in the transaction that makes them")
+    void testLogsChangesInSameTransaction() {
+        // Given
+        Task task = taskService.addTask("Task");
+        taskService.addTag(task.getId(), "@office");
+        taskService.softDeleteTask(task.getId());
+        taskService.cleanupDeletedTasks();
+        databaseConfig.runInWriteTransaction(session -> {
+            try (Statement statement = session.getConnection().createStatement()) {
+                statement.execute("DROP TABLE sync_register");
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // When
+        assertThrows(RuntimeException.class, () -> taskService.addTask("Not logged"));
+
+        // Then - tags purged with their task are not logged apart, the failed change is rolled back
+        assertEquals(List.of(SyncChange.Type.ADD, SyncChange.Type.TAG, SyncChange.Type.DELETE, SyncChange.Type.PURGE),
+                firstSync.getChangesAfter(0).stream().map(SyncChange::getType).toList());
+        assertEquals(List.of(), names(taskService));
+    }
+
+    private void syncBothWays() {
+        firstSync.exportChanges();
+        secondSync.exportChanges();
+        firstSync.importChanges();
+        secondSync.importChanges();
+    }
+
+    private static List<String> names(TaskService service) {
+        return service.getAllTasks().stream().map(Task::getName).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.model.TaskTag;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagIndexTest {
+
+    @Test
+    @DisplayName("Should parse operators with NOT before AND before OR")
+    void testParsePrecedence() {
+        // When
+        TagFilter filter = TagFilter.parse("@a OR NOT @b AND @C");
+        TagFilter symbols = TagFilter.parse("@a | !@b & @c");
+        TagFilter implicitAnd = TagFilter.parse("(@a @b) or not @c");
+
+        // Then
+        TagFilter expected = new TagFilter.Or(
+                new TagFilter.Tag("@a"),
+                new TagFilter.And(new TagFilter.Not(new TagFilter.Tag("@b")), new TagFilter.Tag("@c")));
+        assertEquals(expected, filter);
+        assertEquals(expected, symbols);
+        assertEquals(new TagFilter.Or(
+                new TagFilter.And(new TagFilter.Tag("@a"), new TagFilter.Tag("@b")),
+                new TagFilter.Not(new TagFilter.Tag("@c"))), implicitAnd);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid filter expressions")
+    void testParseErrors() {
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.parse("@a AND"));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.parse("(@a OR @b"));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.parse("@a ) @b"));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.parse("OR @a"));
+    }
+
+    @Test
+    @DisplayName("Should return filtered head and count in queue order")
+    void testHeadAndCount() {
+        // Given - tasks 1..5 in queue order
+        TagIndex index = new TagIndex(List.of(1L, 2L, 3L, 4L, 5L), List.of(
+                new TaskTag(2L, "@office"), new TaskTag(3L, "@office"), new TaskTag(3L, "@meeting"),
+                new TaskTag(4L, "@home"), new TaskTag(5L, "@office")));
+
+        // Then
+        assertEquals(2L, index.getHead(TagFilter.parse("@office")));
+        assertEquals(3, index.count(TagFilter.parse("@office")));
+        assertEquals(3L, index.getHead(TagFilter.parse("@office AND @meeting")));
+        assertEquals(2L, index.getHead(TagFilter.parse("@home OR @office AND NOT @meeting")));
+        assertEquals(1L, index.getHead(TagFilter.parse("NOT @office")));
+        assertEquals(2, index.count(TagFilter.parse("NOT @office")));
+        assertNull(index.getHead(TagFilter.parse("@unknown")));
+        assertEquals(0, index.count(TagFilter.parse("@unknown")));
+    }
+
+    @Test
+    @DisplayName("Should follow rotation, move to front, removal and tag changes")
+    void testQueueChanges() {
+        // Given
+        TagIndex index = new TagIndex(List.of(1L, 2L, 3L), List.of(new TaskTag(1L, "@a"), new TaskTag(3L, "@a")));
+        TagFilter filter = TagFilter.parse("@a");
+
+        // When / Then
+        index.taskMovedToEnd(1L);
+        assertEquals(3L, index.getHead(filter));
+
+        index.taskMovedToFront(1L);
+        assertEquals(1L, index.getHead(filter));
+
+        index.taskRemoved(1L);
+        assertEquals(3L, index.getHead(filter));
+        assertEquals(1, index.count(filter));
+
+        index.taskAdded(4L);
+        index.tagAdded(4L, "@a");
+        index.tagRemoved(3L, "@a");
+        assertEquals(4L, index.getHead(filter));
+        assertEquals(2L, index.getHead(TagFilter.parse("NOT @a")));
+        assertEquals(2, index.count(TagFilter.parse("NOT @a")));
+    }
+
+    @Test
+    @DisplayName("Should keep slots dense when tasks rotate many times")
+    void testSlotsStayDense() {
+        // Given
+        int taskCount = 1000;
+        List<Long> taskIds = LongStream.rangeClosed(1, taskCount).boxed().toList();
+        List<TaskTag> tags = new ArrayList<>();
+        for (long taskId = 1; taskId <= taskCount; taskId += 10) {
+            tags.add(new TaskTag(taskId, "@ten"));
+        }
+        TagIndex index = new TagIndex(taskIds, tags);
+
+        // When - rotate whole queue ten times
+        for (int round = 0; round < 10; round++) {
+            for (long taskId = 1; taskId <= taskCount; taskId++) {
+                index.taskMovedToEnd(taskId);
+            }
+        }
+
+        // Then
+        assertTrue(index.getSlotCount() <= 2 * taskCount + 1024);
+        assertEquals(1L, index.getHead(TagFilter.parse("@ten")));
+        assertEquals(100, index.count(TagFilter.parse("@ten")));
+        assertEquals(900, index.count(TagFilter.parse("NOT @ten")));
+    }
+}
@@ -0,0 +1,167 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import com.piotrwalkusz.taskmanager.event.DatabaseChangedExternally;
+import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskAttachment;
+import com.piotrwalkusz.taskmanager.model.TaskNote;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskContentServiceTest extends BaseServiceTest {
+
+    private TaskContentService taskContentService;
+
+    @BeforeEach
+    void setupService() {
+        taskContentService = new TaskContentService(databaseConfig, eventBus, 20);
+    }
+
+    @Test
+    @DisplayName("Should save, cache and delete notes")
+    void testNotes() {
+        // Given
+        Task task = taskService.addTask("Task");
+
+        // When
+        taskContentService.saveNote(task.getId(), "First version");
+        TaskNote saved = taskContentService.saveNote(task.getId(), "Second version");
+
+        // Then
+        assertEquals(saved, taskContentService.getNote(task.getId()));
+        assertEquals(1, taskContentService.getCachedNoteCount());
+
+        taskContentService.saveNote(task.getId(), "  ");
+        assertNull(taskContentService.getNote(task.getId()));
+        assertEquals(0, taskContentService.getCachedNoteCount());
+    }
+
+    @Test
+    @DisplayName("Should load notes lazily and keep only recently viewed ones within cache size")
+    void testNoteCache() {
+        // Given - cache holds 20 characters
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+        taskContentService.saveNote(first.getId(), "0123456789");
+        taskContentService.saveNote(second.getId(), "0123456789");
+        TaskContentService freshService = new TaskContentService(databaseConfig, eventBus, 20);
+
+        // When
+        freshService.getNote(first.getId());
+        freshService.getNote(second.getId());
+        taskContentService.saveNote(first.getId(), "Changed elsewhere");
+
+        // Then - first note is stale in the fresh service until the database is reported as changed
+        assertEquals("0123456789", freshService.getNote(first.getId()).getBody());
+        assertEquals(2, freshService.getCachedNoteCount());
+        eventBus.publish(new DatabaseChangedExternally(0));
+        assertEquals("Changed elsewhere", freshService.getNote(first.getId()).getBody());
+        assertEquals(1, freshService.getCachedNoteCount());
+    }
+
+    @Test
+    @DisplayName("Should stream attachment content across chunks")
+    void testAttachmentStreaming() throws IOException {
+        // Given - content spanning several chunks with a partial last chunk
+        Task task = taskService.addTask("Task");
+        byte[] content = new byte[TaskContentService.CHUNK_SIZE * 2 + 123];
+        new Random(42).nextBytes(content);
+
+        // When
+        TaskAttachment attachment = taskContentService.addAttachment(
+                task.getId(), "data.bin", "application/octet-stream", new ByteArrayInputStream(content));
+
+        // Then
+        assertEquals(content.length, attachment.getSize());
+        assertEquals(List.of(attachment), taskContentService.getAttachments(task.getId()));
+        try (InputStream stream = taskContentService.openAttachment(attachment.getId())) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+        try (InputStream stream = taskContentService.openAttachment(attachment.getId())) {
+            assertEquals(content[0] & 0xff, stream.read());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject oversized attachment and delete attachments with their content")
+    void testAttachmentLimitsAndDelete() throws IOException {
+        // Given
+        Task task = taskService.addTask("Task");
+        InputStream oversized = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+        };
+        TaskAttachment empty = taskContentService.addAttachment(task.getId(), "empty.txt", "text/plain",
+                new ByteArrayInputStream(new byte[0]));
+        TaskAttachment small = taskContentService.addAttachment(task.getId(), "small.txt", "text/plain",
+                new ByteArrayInputStream("hello".getBytes()));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> taskContentService.addAttachment(task.getId(), "huge.bin", null, oversized));
+        assertEquals(List.of(empty, small), taskContentService.getAttachments(task.getId()));
+        try (InputStream stream = taskContentService.openAttachment(empty.getId())) {
+            assertEquals(-1, stream.read());
+        }
+
+        InputStream opened = taskContentService.openAttachment(small.getId());
+        assertTrue(taskContentService.deleteAttachment(small.getId()));
+        assertFalse(taskContentService.deleteAttachment(small.getId()));
+        assertThrows(IOException.class, opened::read);
+        assertThrows(IllegalArgumentException.class, () -> taskContentService.openAttachment(small.getId()));
+    }
+
+    @Test
+    @DisplayName("Should read attachment content before taking the writer lane")
+    void testAttachmentReadOutsideWriteTransaction() throws Exception {
+        // Given - content whose reading waits for a write of another thread
+        Task task = taskService.addTask("Task");
+        InputStream content = new ByteArrayInputStream("hello".getBytes()) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                try {
+                    CompletableFuture.runAsync(() -> taskService.addTask("Other")).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Write blocked while reading attachment", e);
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        // When
+        TaskAttachment attachment = taskContentService.addAttachment(task.getId(), "a.txt", "text/plain", content);
+
+        // Then
+        assertEquals(5, attachment.getSize());
+        try (InputStream stream = taskContentService.openAttachment(attachment.getId())) {
+            assertArrayEquals("hello".getBytes(), stream.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove notes and attachments of purged tasks")
+    void testPurge() {
+        // Given
+        Task task = taskService.addTask("Task");
+        taskContentService.saveNote(task.getId(), "Note");
+        taskContentService.addAttachment(task.getId(), "a.txt", "text/plain", new ByteArrayInputStream(new byte[10]));
+
+        // When
+        taskService.softDeleteTask(task.getId());
+        taskService.cleanupDeletedTasks();
+
+        // Then
+        assertNull(taskContentService.getNote(task.getId()));
+        assertEquals(List.of(), taskContentService.getAttachments(task.getId()));
+    }
+}
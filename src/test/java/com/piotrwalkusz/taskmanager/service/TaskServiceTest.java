@@ -1,8 +1,22 @@
 package com.piotrwalkusz.taskmanager.service;
 
+import com.piotrwalkusz.taskmanager.event.DomainEvent;
 import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
+import com.piotrwalkusz.taskmanager.repository.Repositories;
+import com.piotrwalkusz.taskmanager.repository.Storage;
+import com.piotrwalkusz.taskmanager.repository.mybatis.MyBatisStorage;
 import org.junit.jupiter.api.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TaskServiceTest extends BaseServiceTest {
@@ -118,4 +132,344 @@ class TaskServiceTest extends BaseServiceTest {
         assertEquals("Task 2", allTasks.get(1).getName());
     }
 
+    @Test
+    @DisplayName("Should publish domain events after each change")
+    void testPublishesDomainEvents() {
+        // Given
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, events::add);
+
+        try {
+            // When
+            taskService.addTask("Task 1");
+            Task task = taskService.getCurrentTask();
+            taskService.updateTaskName(task.getId(), "Renamed");
+            taskService.rotateTask(task.getId());
+            taskService.softDeleteTask(task.getId());
+            taskService.undoDelete();
+            taskService.softDeleteTask(task.getId());
+            taskService.cleanupDeletedTasks();
+
+            // Then
+            DomainEvent.TaskAdded added = assertInstanceOf(DomainEvent.TaskAdded.class, events.get(0));
+            assertEquals(task.getId(), added.task().getId());
+            assertEquals(List.of(
+                    new DomainEvent.TaskRenamed(task.getId(), "Renamed"),
+                    new DomainEvent.TaskRotated(task.getId()),
+                    new DomainEvent.TaskDeleted(task.getId()),
+                    new DomainEvent.TasksRestored(List.of(task.getId())),
+                    new DomainEvent.TaskDeleted(task.getId()),
+                    new DomainEvent.DeletedTasksPurged(List.of(task.getId()))
+            ), events.subList(1, events.size()));
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not publish events when undo or cleanup changes nothing")
+    void testNoEventsForNoOpChanges() {
+        // Given
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, events::add);
+
+        try {
+            // When
+            taskService.undoDelete();
+            taskService.cleanupDeletedTasks();
+
+            // Then
+            assertTrue(events.isEmpty());
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through queue by keyset and by offset")
+    void testPaging() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            taskService.addTask("Task " + i);
+        }
+        Task deleted = taskService.getAllTasks().get(1);
+        taskService.softDeleteTask(deleted.getId());
+
+        // When
+        List<Task> firstPage = taskService.getTasksPage(0, 2);
+        List<Task> nextPage = taskService.getTasksAfter(firstPage.get(1).getQueueOrder(), 2);
+        List<Task> lastPage = taskService.getTasksPage(2, 2);
+
+        // Then - deleted task is skipped
+        assertEquals(List.of("Task 1", "Task 3"), firstPage.stream().map(Task::getName).toList());
+        assertEquals(List.of("Task 4", "Task 5"), nextPage.stream().map(Task::getName).toList());
+        assertEquals(nextPage, lastPage);
+    }
+
+    @Test
+    @DisplayName("Should move task to front of queue")
+    void testMoveTaskToFront() {
+        // Given
+        taskService.addTask("Task 1");
+        taskService.addTask("Task 2");
+        taskService.addTask("Task 3");
+        Task last = taskService.getAllTasks().get(2);
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, events::add);
+
+        try {
+            // When
+            taskService.moveTaskToFront(last.getId());
+
+            // Then
+            assertEquals(List.of("Task 3", "Task 1", "Task 2"), taskService.getAllTasks().stream().map(Task::getName).toList());
+            assertEquals("Task 3", taskService.getCurrentTask().getName());
+            assertEquals(List.of(new DomainEvent.TaskMovedToFront(last.getId())), events);
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    @DisplayName("Should boost most starved task to front of queue")
+    void testBoostStarvedTask() {
+        // Given - task worked on an hour ago, task worked on two days ago and a brand new task
+        Task recent = taskService.addTask("Recent");
+        Task stale = taskService.addTask("Stale");
+        taskService.addTask("New");
+        Instant now = Instant.now();
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(recent.getId()).startTime(now.minus(Duration.ofHours(2))).endTime(now.minus(Duration.ofHours(1))).build());
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(stale.getId()).startTime(now.minus(Duration.ofDays(2))).endTime(now.minus(Duration.ofDays(2)).plusSeconds(60)).build());
+
+        // When
+        Task boosted = taskService.boostStarvedTask(Duration.ofDays(1));
+
+        // Then
+        assertEquals(stale.getId(), boosted.getId());
+        assertEquals(List.of("Stale", "Recent", "New"), taskService.getAllTasks().stream().map(Task::getName).toList());
+        assertNull(taskService.boostStarvedTask(Duration.ofDays(1)), "Most starved task is already current");
+        assertNull(taskService.boostStarvedTask(Duration.ofDays(3)), "No task is starved for three days");
+    }
+
+    @Test
+    @DisplayName("Should boost most starved task that is not waiting for a prerequisite")
+    void testBoostSkipsBlockedTask() {
+        // Given - the most starved task waits for the recent one
+        Task recent = taskService.addTask("Recent");
+        Task blocked = taskService.addTask("Blocked");
+        Task stale = taskService.addTask("Stale");
+        Instant now = Instant.now();
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(recent.getId()).startTime(now.minus(Duration.ofHours(2))).endTime(now.minus(Duration.ofHours(1))).build());
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(blocked.getId()).startTime(now.minus(Duration.ofDays(3))).endTime(now.minus(Duration.ofDays(3)).plusSeconds(60)).build());
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(stale.getId()).startTime(now.minus(Duration.ofDays(2))).endTime(now.minus(Duration.ofDays(2)).plusSeconds(60)).build());
+        taskService.addDependency(blocked.getId(), recent.getId());
+
+        // When
+        Task boosted = taskService.boostStarvedTask(Duration.ofDays(1));
+
+        // Then
+        assertEquals(stale.getId(), boosted.getId());
+        assertEquals(stale.getId(), taskService.getCurrentTask().getId());
+        assertNull(taskService.boostStarvedTask(Duration.ofDays(1)), "Most starved ready task is already current");
+        assertNull(taskService.boostStarvedTask(Duration.ofHours(60)), "Only the blocked task is starved that long");
+    }
+
+    @Test
+    @DisplayName("Should select current task and count within tag filter")
+    void testFilteredCurrentTask() {
+        // Given
+        Task first = taskService.addTask("Write report");
+        Task second = taskService.addTask("Call client @phone");
+        Task third = taskService.addTask("Prepare slides");
+        taskService.addTag(second.getId(), "@Office");
+        taskService.addTag(third.getId(), "@office");
+        taskService.addTag(third.getId(), "@deep-work");
+        TagFilter office = TagFilter.parse("@office");
+
+        // Then
+        assertEquals(List.of("@deep-work", "@office"), taskService.getTags(third.getId()));
+        assertEquals(second.getId(), taskService.getCurrentTask(office).getId());
+        assertEquals(2, taskService.getQueueSize(office));
+        assertEquals(third.getId(), taskService.getCurrentTask(TagFilter.parse("@office AND @deep-work")).getId());
+        assertEquals(first.getId(), taskService.getCurrentTask(TagFilter.parse("NOT @office")).getId());
+
+        // When - index follows queue changes
+        taskService.rotateTask(second.getId());
+        assertEquals(third.getId(), taskService.getCurrentTask(office).getId());
+        taskService.softDeleteTask(third.getId());
+        assertEquals(second.getId(), taskService.getCurrentTask(office).getId());
+        assertEquals(1, taskService.getQueueSize(office));
+        taskService.undoDelete();
+        assertEquals(third.getId(), taskService.getCurrentTask(office).getId());
+        taskService.removeTag(third.getId(), "@office");
+        assertEquals(second.getId(), taskService.getCurrentTask(office).getId());
+
+        // Then - a fresh service builds the same index from the database
+        TaskService freshService = new TaskService(databaseConfig);
+        assertEquals(second.getId(), freshService.getCurrentTask(office).getId());
+        assertEquals(2, freshService.getQueueSize(TagFilter.parse("NOT @office")));
+    }
+
+    @Test
+    @DisplayName("Should apply concurrent writes to tag index in commit order")
+    void testTagIndexFollowsCommitOrder() throws InterruptedException {
+        // Given - service whose next write pauses after commit, before the index is updated
+        Storage delegate = new MyBatisStorage(databaseConfig);
+        AtomicBoolean pauseNextWrite = new AtomicBoolean();
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        TaskService service = new TaskService(new Storage() {
+            @Override
+            public <T> T read(Function<Repositories, T> work) {
+                return delegate.read(work);
+            }
+
+            @Override
+            public <T> T write(Function<Repositories, T> work) {
+                T result = delegate.write(work);
+                if (pauseNextWrite.compareAndSet(true, false)) {
+                    committed.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return result;
+            }
+        });
+        Task first = service.addTask("First");
+        Task second = service.addTask("Second");
+        Task third = service.addTask("Third");
+        TagFilter all = TagFilter.parse("NOT @none");
+        assertEquals(first.getId(), service.getCurrentTask(all).getId());
+
+        // When - first rotation commits, second starts before the first updates the index
+        pauseNextWrite.set(true);
+        Thread firstRotation = new Thread(() -> service.rotateTask(first.getId()));
+        firstRotation.start();
+        committed.await();
+        Thread secondRotation = new Thread(() -> service.rotateTask(second.getId()));
+        secondRotation.start();
+        while (secondRotation.isAlive() && secondRotation.getState() != Thread.State.BLOCKED) {
+            Thread.onSpinWait();
+        }
+        resume.countDown();
+        firstRotation.join();
+        secondRotation.join();
+
+        // Then - index order matches the queue: third, first, second
+        service.softDeleteTask(third.getId());
+        assertEquals(first.getId(), service.getCurrentTask(all).getId());
+        assertEquals(first.getId(), service.getCurrentTask().getId());
+    }
+
+    @Test
+    @DisplayName("Should publish tag events only when tags change")
+    void testTagEvents() {
+        // Given
+        Task task = taskService.addTask("Task");
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, events::add);
+
+        try {
+            // When
+            taskService.addTag(task.getId(), "@home");
+            taskService.addTag(task.getId(), "@HOME");
+            taskService.removeTag(task.getId(), "@home");
+            taskService.removeTag(task.getId(), "@home");
+
+            // Then
+            assertEquals(List.of(
+                    new DomainEvent.TaskTagged(task.getId(), "@home"),
+                    new DomainEvent.TaskUntagged(task.getId(), "@home")
+            ), events);
+            assertThrows(IllegalArgumentException.class, () -> taskService.addTag(task.getId(), "a b"));
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip tasks waiting for prerequisites as current task")
+    void testDependenciesBlockCurrentTask() {
+        // Given
+        Task deploy = taskService.addTask("Deploy");
+        Task review = taskService.addTask("Review");
+        Task build = taskService.addTask("Build");
+        taskService.addTag(deploy.getId(), "@office");
+        taskService.addTag(build.getId(), "@office");
+
+        // When
+        taskService.addDependency(deploy.getId(), review.getId());
+        taskService.addDependency(deploy.getId(), build.getId());
+        taskService.addDependency(review.getId(), build.getId());
+
+        // Then
+        assertEquals(build.getId(), taskService.getCurrentTask().getId());
+        assertEquals(build.getId(), taskService.getCurrentTask(TagFilter.parse("@office")).getId());
+        assertEquals(3, taskService.getQueueSize());
+        assertFalse(taskService.isReady(deploy.getId()));
+
+        // When / Then - completing prerequisites unblocks dependents
+        taskService.softDeleteTask(build.getId());
+        assertEquals(review.getId(), taskService.getCurrentTask().getId());
+        assertNull(taskService.getCurrentTask(TagFilter.parse("@office")));
+
+        taskService.softDeleteTask(review.getId());
+        assertEquals(deploy.getId(), taskService.getCurrentTask().getId());
+
+        taskService.undoDelete();
+        assertEquals(build.getId(), taskService.getCurrentTask().getId());
+    }
+
+    @Test
+    @DisplayName("Should reject dependency that would create a cycle")
+    void testDependencyCycle() {
+        // Given
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+        Task third = taskService.addTask("Third");
+        taskService.addDependency(second.getId(), first.getId());
+        taskService.addDependency(third.getId(), second.getId());
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> taskService.addDependency(first.getId(), third.getId()));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addDependency(first.getId(), first.getId()));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addDependency(first.getId(), 999L));
+        assertEquals(Set.of(), taskService.getPrerequisites(first.getId()));
+        assertEquals(first.getId(), taskService.getCurrentTask().getId());
+    }
+
+    @Test
+    @DisplayName("Should rebuild dependencies after purge and external change")
+    void testDependenciesAfterPurge() {
+        // Given
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+        taskService.addDependency(first.getId(), second.getId());
+        List<DomainEvent> events = new ArrayList<>();
+        Runnable unsubscribe = eventBus.subscribe(DomainEvent.class, events::add);
+
+        try {
+            // When
+            taskService.softDeleteTask(second.getId());
+            taskService.cleanupDeletedTasks();
+            TaskService freshService = new TaskService(databaseConfig);
+            taskService.removeDependency(first.getId(), second.getId());
+
+            // Then
+            assertEquals(first.getId(), taskService.getCurrentTask().getId());
+            assertEquals(first.getId(), freshService.getCurrentTask().getId());
+            assertEquals(Set.of(), freshService.getPrerequisites(first.getId()));
+            assertFalse(events.stream().anyMatch(event -> event instanceof DomainEvent.TaskDependencyRemoved));
+        } finally {
+            unsubscribe.run();
+        }
+    }
 }
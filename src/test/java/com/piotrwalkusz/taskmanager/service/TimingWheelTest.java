@@ -0,0 +1,104 @@
+package com.piotrwalkusz.taskmanager.service;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(Duration.ofMillis(10), 8, 3);
+    private final List<Long> fired = new ArrayList<>();
+    private long elapsedTicks;
+
+    @Test
+    @DisplayName("Should run timeouts exactly at their tick on every level")
+    void testFiresOnDeadlineAcrossLevels() {
+        // Given - level 0 covers 8 ticks, level 1 64 ticks, level 2 512 ticks
+        for (long ticks : new long[]{1, 7, 8, 9, 63, 64, 65, 300, 511}) {
+            wheel.schedule(Duration.ofMillis(ticks * 10), () -> fired.add(elapsedTicks));
+        }
+
+        // When
+        advanceOneByOne(600);
+
+        // Then
+        assertEquals(List.of(1L, 7L, 8L, 9L, 63L, 64L, 65L, 300L, 511L), fired);
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should run timeouts scheduled beyond span of the wheel")
+    void testDelayBeyondSpan() {
+        // Given - span is 512 ticks
+        wheel.schedule(Duration.ofMillis(1500 * 10), () -> fired.add(elapsedTicks));
+
+        // When
+        advanceOneByOne(2000);
+
+        // Then
+        assertEquals(List.of(1500L), fired);
+    }
+
+    @Test
+    @DisplayName("Should run timeouts scheduled while clock is not at zero")
+    void testScheduleFromLaterTick() {
+        // Given
+        advanceOneByOne(37);
+        wheel.schedule(Duration.ofMillis(100 * 10), () -> fired.add(elapsedTicks));
+        wheel.schedule(Duration.ofMillis(3), () -> fired.add(elapsedTicks)); // Rounded up to one tick
+
+        // When
+        advanceOneByOne(200);
+
+        // Then
+        assertEquals(List.of(38L, 137L), fired);
+    }
+
+    @Test
+    @DisplayName("Should not run cancelled timeouts")
+    void testCancel() {
+        // Given
+        TimingWheel.Timeout cancelled = wheel.schedule(Duration.ofMillis(200), () -> fired.add(-1L));
+        TimingWheel.Timeout kept = wheel.schedule(Duration.ofMillis(200), () -> fired.add(elapsedTicks));
+
+        // When
+        assertTrue(cancelled.cancel());
+        advanceOneByOne(30);
+
+        // Then
+        assertEquals(List.of(20L), fired);
+        assertFalse(cancelled.cancel());
+        assertFalse(kept.cancel());
+        assertTrue(kept.isExpired());
+        assertFalse(cancelled.isExpired());
+    }
+
+    @Test
+    @DisplayName("Should handle thousands of concurrent timeouts")
+    void testManyTimeouts() {
+        // Given
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(Duration.ofMillis((i % 500 + 1) * 10L), () -> fired.add(elapsedTicks));
+        }
+        assertEquals(count, wheel.getPendingCount());
+
+        // When
+        wheel.advance(500);
+
+        // Then
+        assertEquals(count, fired.size());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    private void advanceOneByOne(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            elapsedTicks++;
+            wheel.advance(1);
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package com.piotrwalkusz.taskmanager.service;
 
+import com.piotrwalkusz.taskmanager.model.StarvationReport;
 import com.piotrwalkusz.taskmanager.model.Task;
+import com.piotrwalkusz.taskmanager.model.TaskActivity;
+import com.piotrwalkusz.taskmanager.model.WorkDay;
+import com.piotrwalkusz.taskmanager.model.WorkSession;
 import org.junit.jupiter.api.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class WorkSessionServiceTest extends BaseServiceTest {
@@ -10,11 +20,11 @@ class WorkSessionServiceTest extends BaseServiceTest {
     @Test
     @DisplayName("Should format time correctly")
     void testFormatTime() {
-        assertEquals("0h 0m", workSessionService.formatTime(0));
-        assertEquals("0h 1m", workSessionService.formatTime(60));
-        assertEquals("1h 0m", workSessionService.formatTime(3600));
-        assertEquals("1h 30m", workSessionService.formatTime(5400));
-        assertEquals("2h 15m", workSessionService.formatTime(8100));
+        assertEquals("0h 0m", WorkSessionService.formatTime(0));
+        assertEquals("0h 1m", WorkSessionService.formatTime(60));
+        assertEquals("1h 0m", WorkSessionService.formatTime(3600));
+        assertEquals("1h 30m", WorkSessionService.formatTime(5400));
+        assertEquals("2h 15m", WorkSessionService.formatTime(8100));
     }
 
     @Test
@@ -28,4 +38,59 @@ class WorkSessionServiceTest extends BaseServiceTest {
         assertEquals(0, workSessionService.getDailyTimeSeconds(task.getId()));
         assertEquals(0, workSessionService.getTotalTimeSeconds(task.getId()));
     }
+
+    @Test
+    @DisplayName("Should return worked days of year per task and over all tasks")
+    void testWorkDays() {
+        // Given
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+        LocalDate day = LocalDate.of(2025, 12, 31);
+        Instant start = day.atTime(23, 0).toInstant(ZoneOffset.UTC);
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(first.getId()).startTime(start).endTime(start.plus(Duration.ofHours(2))).build());
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(second.getId()).startTime(start).endTime(start.plus(Duration.ofMinutes(30))).build());
+
+        // When
+        LocalDate year2025 = LocalDate.of(2025, 1, 1);
+        LocalDate year2026 = LocalDate.of(2026, 1, 1);
+        List<WorkDay> allIn2025 = workSessionService.getAllWorkDays(year2025, year2026);
+        List<WorkDay> firstIn2026 = workSessionService.getWorkDays(first.getId(), year2026, year2026.plusYears(1));
+
+        // Then
+        assertEquals(List.of(new WorkDay(day, 5400)), allIn2025);
+        assertEquals(List.of(new WorkDay(year2026, 3600)), firstIn2026);
+        assertEquals(List.of(), workSessionService.getWorkDays(second.getId(), year2026, year2026.plusYears(1)));
+    }
+
+    @Test
+    @DisplayName("Should report tasks not worked on for given time with rotations and time share")
+    void testStarvationReport() {
+        // Given - stale task worked an hour three days ago, recent task worked three hours today
+        Task stale = taskService.addTask("Stale");
+        Task recent = taskService.addTask("Recent");
+        taskService.addTask("New");
+        Instant now = Instant.now();
+        Instant staleEnd = now.minus(Duration.ofDays(3));
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(stale.getId()).startTime(staleEnd.minus(Duration.ofHours(1))).endTime(staleEnd).build());
+        workSessionService.saveWorkSession(WorkSession.builder()
+                .taskId(recent.getId()).startTime(now.minus(Duration.ofHours(4))).endTime(now.minus(Duration.ofHours(1))).build());
+        taskService.rotateTask(stale.getId());
+
+        // When
+        StarvationReport report = workSessionService.getStarvationReport(Duration.ofDays(1), 10);
+
+        // Then - the new task was never worked on but is not starved yet
+        assertEquals(1, report.getStarvedTaskCount());
+        assertEquals(4 * 3600, report.getQueueWorkedSeconds());
+        TaskActivity activity = report.getStarvedTasks().get(0);
+        assertEquals(stale.getId(), activity.getTaskId());
+        assertEquals(staleEnd, activity.getLastWorkedAt());
+        assertEquals(1, activity.getRotationCount());
+        assertEquals(3600, activity.getWorkedSeconds());
+        assertEquals(0.25, report.getTimeShare(activity), 1e-9);
+        assertEquals(0, workSessionService.getTaskActivity(recent.getId()).getRotationCount());
+    }
 }
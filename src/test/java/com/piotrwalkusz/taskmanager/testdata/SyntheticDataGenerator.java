@@ -0,0 +1,214 @@
+package com.piotrwalkusz.taskmanager.testdata;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Deterministic generator of a realistic database: a large backlog, years of working days
+ * rotating through the queue head, occasional prioritization and finished tasks.
+ * <p>
+ * The same seed and parameters always produce the same rows, so plans and latencies measured
+ * on the generated database are comparable between runs.
+ */
+public class SyntheticDataGenerator {
+
+    private static final String[] TAGS = {"@office", "@home", "@errand", "@meeting", "@phone"};
+    private static final double BACKLOG_SHARE = 0.8;
+    private static final double MOVE_TO_FRONT_PROBABILITY = 0.05;
+    private static final double FINISH_PROBABILITY = 0.02;
+    private static final double TAGGED_PROBABILITY = 0.3;
+    private static final int KEPT_DELETED_DAYS = 7;
+
+    private final long seed;
+
+    /**
+     * Summary of generated data
+     */
+    public record Dataset(int taskCount, int deletedTaskCount, int sessionCount, Instant from, Instant to) {
+    }
+
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Fill empty database with tasks and work sessions of given number of days ending yesterday.
+     * Tasks finished more than a week before the end are purged with their sessions, like the
+     * application does; recently finished ones stay soft-deleted.
+     *
+     * @param taskCount      number of created tasks (purged ones included)
+     * @param days           number of simulated days
+     * @param sessionsPerDay average number of work sessions per working day
+     */
+    public Dataset generate(DatabaseConfig databaseConfig, int taskCount, int days, int sessionsPerDay) {
+        Random random = new Random(seed);
+        LocalDate lastDay = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate firstDay = lastDay.minusDays(days - 1);
+        Instant from = firstDay.atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        long[] queueOrder = new long[taskCount + 1];
+        Instant[] createdAt = new Instant[taskCount + 1];
+        LocalDate[] finishedOn = new LocalDate[taskCount + 1];
+        TreeMap<Long, Integer> queue = new TreeMap<>(); // Queue order -> task ID
+        List<Integer> queuedTaskIds = new ArrayList<>(); // For random picks, order irrelevant
+        int[] positionInList = new int[taskCount + 1];
+        List<long[]> sessions = new ArrayList<>(); // {task ID, start epoch second, end epoch second}
+        long nextOrder = 1;
+        long minOrder = 1; // Orders of finished tasks stay taken, like MIN(queue_order) in the application
+
+        int backlog = (int) (taskCount * BACKLOG_SHARE);
+        int nextTaskId = 1;
+        for (; nextTaskId <= backlog; nextTaskId++) {
+            createdAt[nextTaskId] = from.minusSeconds(random.nextInt(365 * 86400));
+            queueOrder[nextTaskId] = nextOrder++;
+            enqueue(queue, queuedTaskIds, positionInList, nextTaskId, queueOrder[nextTaskId]);
+        }
+
+        for (int dayIndex = 0; dayIndex < days; dayIndex++) {
+            LocalDate day = firstDay.plusDays(dayIndex);
+            Instant dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+
+            // New tasks arrive evenly over the simulated period
+            int arrivedBy = backlog + (int) ((long) (taskCount - backlog) * (dayIndex + 1) / days);
+            for (; nextTaskId <= arrivedBy; nextTaskId++) {
+                createdAt[nextTaskId] = dayStart.plusSeconds(random.nextInt(86400));
+                queueOrder[nextTaskId] = nextOrder++;
+                enqueue(queue, queuedTaskIds, positionInList, nextTaskId, queueOrder[nextTaskId]);
+            }
+
+            if (day.getDayOfWeek().getValue() >= 6) {
+                continue;
+            }
+            Instant time = dayStart.plus(Duration.ofHours(8)).plusSeconds(random.nextInt(3600));
+            int sessionCount = sessionsPerDay / 2 + random.nextInt(sessionsPerDay + 1);
+            for (int i = 0; i < sessionCount && !queue.isEmpty(); i++) {
+                if (random.nextDouble() < MOVE_TO_FRONT_PROBABILITY) {
+                    int taskId = queuedTaskIds.get(random.nextInt(queuedTaskIds.size()));
+                    queue.remove(queueOrder[taskId]);
+                    queueOrder[taskId] = --minOrder;
+                    queue.put(queueOrder[taskId], taskId);
+                }
+                int taskId = queue.pollFirstEntry().getValue();
+
+                // Mostly short sessions, some long focused ones
+                long seconds = 300 + (long) (Math.abs(random.nextGaussian()) * 1200);
+                sessions.add(new long[]{taskId, time.getEpochSecond(), time.getEpochSecond() + seconds});
+                time = time.plusSeconds(seconds + random.nextInt(900));
+
+                if (random.nextDouble() < FINISH_PROBABILITY) {
+                    finishedOn[taskId] = day;
+                    dequeue(queuedTaskIds, positionInList, taskId);
+                } else {
+                    queueOrder[taskId] = nextOrder++;
+                    queue.put(queueOrder[taskId], taskId);
+                }
+            }
+        }
+
+        LocalDate purgedBefore = lastDay.minusDays(KEPT_DELETED_DAYS);
+        int[] counts = databaseConfig.inWriteTransaction(session -> {
+            try {
+                return insert(session.getConnection(), random, taskCount, queueOrder, createdAt, finishedOn,
+                        purgedBefore, sessions);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to insert synthetic data", e);
+            }
+        });
+        return new Dataset(counts[0], counts[1], counts[2], from, lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private static int[] insert(Connection connection, Random random, int taskCount, long[] queueOrder,
+                                Instant[] createdAt, LocalDate[] finishedOn, LocalDate purgedBefore,
+                                List<long[]> sessions) throws SQLException {
+        int tasks = 0;
+        int deletedTasks = 0;
+        int insertedSessions = 0;
+
+        // Task activity as maintained by saving sessions; every session not finishing its task ended in a rotation
+        long[] lastWorkedAt = new long[taskCount + 1];
+        long[] workedSeconds = new long[taskCount + 1];
+        int[] rotationCount = new int[taskCount + 1];
+        for (long[] session : sessions) {
+            int taskId = (int) session[0];
+            lastWorkedAt[taskId] = Math.max(lastWorkedAt[taskId], session[2]);
+            workedSeconds[taskId] += session[2] - session[1];
+            rotationCount[taskId]++;
+        }
+
+        try (PreparedStatement insertTask = connection.prepareStatement(
+                "INSERT INTO task (id, name, queue_order, created_at, is_deleted, last_worked_at, rotation_count, worked_seconds)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertTag = connection.prepareStatement(
+                     "INSERT INTO task_tag (task_id, tag) VALUES (?, ?)")) {
+            for (int taskId = 1; taskId <= taskCount; taskId++) {
+                boolean deleted = finishedOn[taskId] != null;
+                boolean tagged = random.nextDouble() < TAGGED_PROBABILITY;
+                if (deleted && finishedOn[taskId].isBefore(purgedBefore)) {
+                    continue;
+                }
+                insertTask.setLong(1, taskId);
+                insertTask.setString(2, "Task " + taskId);
+                insertTask.setLong(3, queueOrder[taskId]);
+                insertTask.setString(4, createdAt[taskId].toString());
+                insertTask.setInt(5, deleted ? 1 : 0);
+                insertTask.setString(6, lastWorkedAt[taskId] > 0 ? Instant.ofEpochSecond(lastWorkedAt[taskId]).toString() : null);
+                insertTask.setInt(7, Math.max(0, rotationCount[taskId] - (deleted ? 1 : 0)));
+                insertTask.setLong(8, workedSeconds[taskId]);
+                insertTask.addBatch();
+                if (tagged) {
+                    insertTag.setLong(1, taskId);
+                    insertTag.setString(2, TAGS[taskId % TAGS.length]);
+                    insertTag.addBatch();
+                }
+                tasks++;
+                deletedTasks += deleted ? 1 : 0;
+            }
+            insertTask.executeBatch();
+            insertTag.executeBatch();
+        }
+        try (PreparedStatement insertSession = connection.prepareStatement(
+                "INSERT INTO work_session (task_id, start_time, end_time) VALUES (?, ?, ?)")) {
+            for (long[] session : sessions) {
+                LocalDate finished = finishedOn[(int) session[0]];
+                if (finished != null && finished.isBefore(purgedBefore)) {
+                    continue;
+                }
+                insertSession.setLong(1, session[0]);
+                insertSession.setString(2, Instant.ofEpochSecond(session[1]).toString());
+                insertSession.setString(3, Instant.ofEpochSecond(session[2]).toString());
+                insertSession.addBatch();
+                insertedSessions++;
+            }
+            insertSession.executeBatch();
+        }
+        return new int[]{tasks, deletedTasks, insertedSessions};
+    }
+
+    private static void enqueue(TreeMap<Long, Integer> queue, List<Integer> queuedTaskIds, int[] positionInList,
+                                int taskId, long order) {
+        queue.put(order, taskId);
+        positionInList[taskId] = queuedTaskIds.size();
+        queuedTaskIds.add(taskId);
+    }
+
+    private static void dequeue(List<Integer> queuedTaskIds, int[] positionInList, int taskId) {
+        // Swap with last element so removal is O(1)
+        int position = positionInList[taskId];
+        int last = queuedTaskIds.remove(queuedTaskIds.size() - 1);
+        if (last != taskId) {
+            queuedTaskIds.set(position, last);
+            positionInList[last] = position;
+        }
+    }
+}
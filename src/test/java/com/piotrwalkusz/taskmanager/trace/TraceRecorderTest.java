@@ -0,0 +1,75 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should read recorded actions back with text length only")
+    void testRoundTrip() throws IOException {
+        // Given
+        Path traceFile = tempDir.resolve("trace.bin");
+
+        // When
+        try (TraceRecorder recorder = new TraceRecorder(traceFile)) {
+            recorder.record(UserAction.ADD_TASK, "Write report");
+            recorder.record(UserAction.START);
+            recorder.record(UserAction.PAUSE);
+            recorder.record(UserAction.RENAME_TASK, "Write short report");
+            recorder.record(UserAction.NEXT_TASK);
+        }
+        List<TraceRecord> trace = TraceFile.read(traceFile);
+
+        // Then
+        assertEquals(List.of(UserAction.ADD_TASK, UserAction.START, UserAction.PAUSE, UserAction.RENAME_TASK,
+                UserAction.NEXT_TASK), trace.stream().map(TraceRecord::action).toList());
+        assertEquals(12, trace.get(0).textLength());
+        assertEquals(18, trace.get(3).textLength());
+        for (int i = 1; i < trace.size(); i++) {
+            assertTrue(trace.get(i).offsetMillis() >= trace.get(i - 1).offsetMillis());
+        }
+        assertFalse(new String(Files.readAllBytes(traceFile)).contains("report"));
+        assertTrue(Files.size(traceFile) < TraceFile.MAGIC.length + 5 * 4);
+    }
+
+    @Test
+    @DisplayName("Should end trace at record cut off by crash")
+    void testTruncatedTrace() throws IOException {
+        // Given
+        Path traceFile = tempDir.resolve("trace.bin");
+        try (TraceRecorder recorder = new TraceRecorder(traceFile)) {
+            recorder.record(UserAction.START);
+            recorder.record(UserAction.ADD_TASK, "x".repeat(300)); // Two-byte text length
+        }
+
+        // When
+        byte[] bytes = Files.readAllBytes(traceFile);
+        Files.write(traceFile, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // Then
+        assertEquals(List.of(UserAction.START), TraceFile.read(traceFile).stream().map(TraceRecord::action).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject file that is not a trace")
+    void testInvalidFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("other.bin");
+        Files.writeString(file, "SQLite format 3");
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> TraceFile.read(file));
+    }
+}
@@ -0,0 +1,98 @@
+package com.piotrwalkusz.taskmanager.trace;
+
+import com.piotrwalkusz.taskmanager.config.DatabaseConfig;
+import com.piotrwalkusz.taskmanager.service.TaskService;
+import com.piotrwalkusz.taskmanager.service.WorkSessionService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceReplayerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskService taskService;
+    private TraceReplayer replayer;
+
+    @BeforeEach
+    void setupDatabase() {
+        DatabaseConfig databaseConfig = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("replay.db"));
+        taskService = new TaskService(databaseConfig);
+        replayer = new TraceReplayer(databaseConfig, taskService, new WorkSessionService(databaseConfig));
+    }
+
+    @Test
+    @DisplayName("Should replay trace as fast as possible and report every replayed action")
+    void testReplay() {
+        // Given - a day of work: add tasks, work on them in turn, finish one and take it back
+        List<TraceRecord> trace = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < 5; i++) {
+            trace.add(new TraceRecord(offset += 1000, UserAction.ADD_TASK, 10));
+        }
+        for (int i = 0; i < 10; i++) {
+            trace.add(new TraceRecord(offset += 1000, UserAction.START, 0));
+            trace.add(new TraceRecord(offset += 60_000, UserAction.NEXT_TASK, 0));
+        }
+        trace.add(new TraceRecord(offset += 1000, UserAction.RENAME_TASK, 12));
+        trace.add(new TraceRecord(offset += 1000, UserAction.DELETE_TASK, 0));
+        trace.add(new TraceRecord(offset + 1000, UserAction.UNDO, 0));
+
+        // When
+        ReplayReport report = replayer.replay(trace, 1, TraceReplayer.MAX_SPEED);
+
+        // Then
+        assertEquals(trace.size(), report.actionCount());
+        assertEquals(10, report.latencies().get(UserAction.START).count());
+        assertEquals(10, report.latencies().get(UserAction.NEXT_TASK).count());
+        assertEquals(5, taskService.getQueueSize());
+        assertEquals("r".repeat(12), taskService.getCurrentTask().getName());
+        assertTrue(report.getThroughput() > 0);
+        assertTrue(report.elapsed().toMillis() < offset, "Replay should not wait for recorded pauses");
+        assertTrue(report.format().contains("NEXT_TASK"));
+    }
+
+    @Test
+    @DisplayName("Should replay trace on many threads at once")
+    void testConcurrentReplay() {
+        // Given
+        List<TraceRecord> trace = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            trace.add(new TraceRecord(i, UserAction.ADD_TASK, 5));
+            trace.add(new TraceRecord(i, UserAction.START, 0));
+            trace.add(new TraceRecord(i, UserAction.PAUSE, 0));
+            trace.add(new TraceRecord(i, UserAction.NEXT_TASK, 0));
+        }
+
+        // When
+        ReplayReport report = replayer.replay(trace, 4, TraceReplayer.MAX_SPEED);
+
+        // Then
+        assertEquals(4 * 20, report.latencies().get(UserAction.ADD_TASK).count());
+        assertEquals(4 * 20, taskService.getQueueSize());
+        assertTrue(report.databaseGrowthBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should skip actions that do not apply to current state")
+    void testSkipInapplicableActions() {
+        // Given - empty queue
+        List<TraceRecord> trace = List.of(
+                new TraceRecord(0, UserAction.START, 0),
+                new TraceRecord(0, UserAction.PAUSE, 0),
+                new TraceRecord(0, UserAction.NEXT_TASK, 0));
+
+        // When
+        ReplayReport report = replayer.replay(trace, 1, TraceReplayer.MAX_SPEED);
+
+        // Then
+        assertEquals(0, report.actionCount());
+        assertTrue(report.latencies().isEmpty());
+    }
+}